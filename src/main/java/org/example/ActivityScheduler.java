@@ -0,0 +1,236 @@
+package org.example;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Harmonogram wieloczęstotliwościowy aktualizacji miast. Miasta w "gorących" obszarach (w zasięgu
+ * zanieczyszczeń, z awaryjnym lub nieaktywnym reaktorem, po przełączeniu do innego reaktora lub
+ * po zmianie skażenia) są aktualizowane w każdym kroku. Spokojne miasta są aktualizowane co k kroków,
+ * a k podwaja się przy każdej spokojnej aktualizacji aż do limitu wynikającego z dopuszczalnego błędu.
+ * Pominięte kroki są nadrabiane w postaci zamkniętej (oczekiwany przyrost populacji), a harmonogram
+ * zlicza pominięte aktualizacje i szacowany błąd nadrobienia (odchylenie standardowe σ·√k).
+ */
+class ActivityScheduler implements Serializable {
+    /** Wersja formatu serializacji (punkty kontrolne sesji). */
+    private static final long serialVersionUID = 1L;
+
+    /** Rozmiar boku komórki siatki aktywności (w jednostkach mapy). */
+    private final int cellSize;
+    /** Liczba kolumn siatki. */
+    private final int columns;
+    /** Liczba wierszy siatki. */
+    private final int rows;
+    /** Największy interwał aktualizacji spokojnego miasta (w krokach). */
+    private final int maxInterval;
+    /** Komórki w zasięgu aktywnych zanieczyszczeń w bieżącym kroku. */
+    private final boolean[] hotCells;
+    /** Liczba wykonanych aktualizacji miast. */
+    private long performedUpdates;
+    /** Liczba pominiętych aktualizacji miast. */
+    private long skippedUpdates;
+    /** Liczba nadrobień pominiętych kroków wpływających na populację. */
+    private long catchUps;
+    /** Suma szacowanych względnych błędów nadrobień. */
+    private double errorBoundSum;
+    /** Największy szacowany względny błąd nadrobienia. */
+    private double maxErrorBound;
+
+    /**
+     * Konstruktor klasy ActivityScheduler.
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param cellSize rozmiar komórki siatki aktywności
+     * @param tolerance dopuszczalne względne odchylenie populacji po nadrobieniu pominiętych kroków
+     * @param maxIntervalCap górny limit interwału aktualizacji (w krokach)
+     * @throws IllegalArgumentException jeśli rozmiar komórki, tolerancja lub limit interwału są nieprawidłowe
+     */
+    ActivityScheduler(int width, int height, int cellSize, double tolerance, int maxIntervalCap) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("Rozmiar komórki siatki aktywności musi być większy od 0");
+        }
+        if (tolerance < 0 || maxIntervalCap < 1) {
+            throw new IllegalArgumentException("Nieprawidłowe parametry harmonogramu aktualizacji");
+        }
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        this.maxInterval = maxIntervalFor(tolerance, maxIntervalCap);
+        this.hotCells = new boolean[columns * rows];
+    }
+
+    /**
+     * Tworzy niezależną kopię harmonogramu (przy rozgałęzianiu symulacji).
+     *
+     * @param source kopiowany harmonogram
+     */
+    private ActivityScheduler(ActivityScheduler source) {
+        this.cellSize = source.cellSize;
+        this.columns = source.columns;
+        this.rows = source.rows;
+        this.maxInterval = source.maxInterval;
+        this.hotCells = source.hotCells.clone();
+        this.performedUpdates = source.performedUpdates;
+        this.skippedUpdates = source.skippedUpdates;
+        this.catchUps = source.catchUps;
+        this.errorBoundSum = source.errorBoundSum;
+        this.maxErrorBound = source.maxErrorBound;
+    }
+
+    /**
+     * Tworzy niezależną kopię harmonogramu.
+     *
+     * @return kopia harmonogramu
+     */
+    ActivityScheduler copy() {
+        return new ActivityScheduler(this);
+    }
+
+    /**
+     * Wyznacza największy interwał, przy którym odchylenie standardowe nadrobionej populacji
+     * (σ·√k) nie przekracza tolerancji.
+     *
+     * @param tolerance dopuszczalne względne odchylenie populacji
+     * @param cap górny limit interwału
+     * @return interwał z przedziału 1..cap
+     */
+    static int maxIntervalFor(double tolerance, int cap) {
+        double ratio = tolerance / City.GROWTH_DEVIATION;
+        return (int) Math.max(1, Math.min(cap, Math.floor(ratio * ratio)));
+    }
+
+    /**
+     * Oznacza komórki w zasięgu aktywnych zanieczyszczeń (z marginesem jednej komórki na dryf w kroku).
+     *
+     * @param pollutions zanieczyszczenia na mapie
+     */
+    void markHotRegions(List<Pollution> pollutions) {
+        Arrays.fill(hotCells, false);
+        for (int i = 0; i < pollutions.size(); i++) {
+            Pollution pollution = pollutions.get(i);
+            if (!pollution.checkActivity()) {
+                continue;
+            }
+            int[] position = pollution.getPosition();
+            float reach = pollution.getRadius() + cellSize;
+            int minColumn = clamp((int) ((position[0] - reach) / cellSize), columns);
+            int maxColumn = clamp((int) ((position[0] + reach) / cellSize), columns);
+            int minRow = clamp((int) ((position[1] - reach) / cellSize), rows);
+            int maxRow = clamp((int) ((position[1] + reach) / cellSize), rows);
+            for (int row = minRow; row <= maxRow; row++) {
+                Arrays.fill(hotCells, row * columns + minColumn, row * columns + maxColumn + 1, true);
+            }
+        }
+    }
+
+    /**
+     * Sprawdza, czy miasto jest w gorącym obszarze i musi być aktualizowane w każdym kroku.
+     *
+     * @param city miasto
+     * @return true, jeśli miasto jest aktywne
+     */
+    boolean isHot(City city) {
+        if (city.isActiveSinceUpdate()) {
+            return true;
+        }
+        Reactor reactor = city.getReactor();
+        if (reactor == null || !reactor.checkActivity() || reactor.isMalfunctioning()) {
+            return true;
+        }
+        int[] position = city.getPosition();
+        int column = clamp(position[0] / cellSize, columns);
+        int row = clamp(position[1] / cellSize, rows);
+        return hotCells[row * columns + column];
+    }
+
+    /**
+     * Decyduje, czy miasto ma być aktualizowane w bieżącym kroku. Przy aktualizacji najpierw nadrabia
+     * pominięte kroki i dobiera nowy interwał: 1 dla miasta aktywnego, podwojony dla spokojnego.
+     *
+     * @param city miasto
+     * @return true, jeśli miasto należy zaktualizować w tym kroku
+     */
+    boolean scheduleUpdate(City city) {
+        if (isHot(city)) {
+            city.setUpdateInterval(1);
+        } else if (city.getSkippedSteps() + 1 < city.getUpdateInterval()) {
+            city.skipStep();
+            skippedUpdates++;
+            return false;
+        } else {
+            city.setUpdateInterval(Math.min(maxInterval, city.getUpdateInterval() * 2));
+        }
+        boolean growing = city.isGrowing();
+        int steps = city.catchUpSkippedSteps();
+        if (steps > 0 && growing) {
+            double bound = City.GROWTH_DEVIATION * Math.sqrt(steps);
+            catchUps++;
+            errorBoundSum += bound;
+            maxErrorBound = Math.max(maxErrorBound, bound);
+        }
+        performedUpdates++;
+        return true;
+    }
+
+    /**
+     * Ogranicza indeks komórki do zakresu siatki.
+     *
+     * @param index indeks komórki
+     * @param size liczba komórek w wymiarze
+     * @return indeks z przedziału 0..size-1
+     */
+    private static int clamp(int index, int size) {
+        return Math.max(0, Math.min(size - 1, index));
+    }
+
+    /**
+     * Zwraca największy interwał aktualizacji spokojnego miasta.
+     * @return interwał w krokach
+     */
+    int getMaxInterval() {
+        return maxInterval;
+    }
+
+    /**
+     * Zwraca liczbę wykonanych aktualizacji miast.
+     * @return liczba aktualizacji
+     */
+    long getPerformedUpdates() {
+        return performedUpdates;
+    }
+
+    /**
+     * Zwraca liczbę pominiętych aktualizacji miast.
+     * @return liczba pominiętych aktualizacji
+     */
+    long getSkippedUpdates() {
+        return skippedUpdates;
+    }
+
+    /**
+     * Zwraca udział pominiętych aktualizacji we wszystkich zaplanowanych.
+     * @return udział z przedziału 0-1
+     */
+    double getSkippedFraction() {
+        long total = performedUpdates + skippedUpdates;
+        return total == 0 ? 0 : (double) skippedUpdates / total;
+    }
+
+    /**
+     * Zwraca średni szacowany względny błąd populacji po nadrobieniu pominiętych kroków.
+     * @return średnie odchylenie standardowe (0, jeśli nic nie nadrabiano)
+     */
+    double getMeanErrorBound() {
+        return catchUps == 0 ? 0 : errorBoundSum / catchUps;
+    }
+
+    /**
+     * Zwraca największy szacowany względny błąd populacji po nadrobieniu pominiętych kroków.
+     * @return największe odchylenie standardowe
+     */
+    double getMaxErrorBound() {
+        return maxErrorBound;
+    }
+}
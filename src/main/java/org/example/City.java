@@ -1,6 +1,7 @@
 package org.example;
 
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Klasa reprezentująca miasto w symulacji.
@@ -8,6 +9,8 @@ import java.util.Random;
  * oraz połączeniem z reaktorem.
  */
 public class City extends MapObject {
+    /** Wersja formatu serializacji (punkty kontrolne sesji). */
+    private static final long serialVersionUID = 1L;
     /** Aktualna populacja miasta. */
     private int population;
     /** Początkowa populacja miasta, używana do obliczeń. */
@@ -16,10 +19,37 @@ public class City extends MapObject {
     private float energyUsage;
     /** Poziom skażenia w mieście (w procentach). */
     private float pollutionLevel;
+    /** Populacja zgłoszona ostatnio do agregatów świata. */
+    private transient int reportedPopulation;
+    /** Zapotrzebowanie na energię zgłoszone ostatnio do agregatów świata. */
+    private transient float reportedEnergy;
+    /** Poziom skażenia zgłoszony ostatnio do agregatów świata. */
+    private transient float reportedPollution;
     /** Reaktor, z którym miasto jest połączone. */
     private Reactor reactor;
+    /** Pozycja miasta na liście miast mapy (-1, jeśli miasto nie jest na mapie). */
+    private int mapIndex = -1;
     /** Stała określająca zużycie energii na jednego mieszkańca. */
     private static final float ENERGY_PER_PERSON = 0.0005f;
+    /** Próg skażenia, od którego populacja przestaje rosnąć (w procentach). */
+    private static final float POLLUTION_GROWTH_THRESHOLD = 20;
+    /**
+     * Oczekiwany względny przyrost populacji w jednym kroku bez skażenia, wynikający z rozkładów
+     * w {@link #updatePopulation()}: wzrost U(0.001, 0.031) z prawdopodobieństwem 0.65,
+     * spadek U(0.001, 0.006) z prawdopodobieństwem 0.1.
+     */
+    static final double EXPECTED_GROWTH = 0.65 * 0.016 - 0.10 * 0.0035;
+    /** Odchylenie standardowe względnego przyrostu populacji w jednym kroku bez skażenia. */
+    static final double GROWTH_DEVIATION = Math.sqrt(0.65 * (0.03 * 0.03 / 12 + 0.016 * 0.016)
+            + 0.10 * (0.005 * 0.005 / 12 + 0.0035 * 0.0035) - EXPECTED_GROWTH * EXPECTED_GROWTH);
+    /** Co ile kroków miasto jest aktualizowane przy harmonogramie wieloczęstotliwościowym (1 - co krok). */
+    private int updateInterval = 1;
+    /** Liczba kroków pominiętych od ostatniej aktualizacji (do nadrobienia). */
+    private int skippedSteps;
+    /** Poziom skażenia w chwili ostatniej aktualizacji (zmiana oznacza zasięg zanieczyszczenia). */
+    private float pollutionAtUpdate;
+    /** Czy miasto zostało przełączone do innego reaktora od ostatniej aktualizacji. */
+    private boolean reconnectedSinceUpdate;
 
     /**
      * Konstruktor obiektu City.
@@ -30,13 +60,45 @@ public class City extends MapObject {
      * @param population początkowa populacja
      */
     public City(int id, int[] coordinates, int population) {
-        super(id, coordinates);
+        this(id, coordinates, population, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Konstruktor obiektu City z ziarnem strumienia liczb losowych miasta.
+     *
+     * @param id identyfikator miasta
+     * @param coordinates współrzędne miasta [x, y, z]
+     * @param population początkowa populacja
+     * @param seed ziarno strumienia liczb losowych miasta
+     */
+    City(int id, int[] coordinates, int population, long seed) {
+        super(id, coordinates, seed);
         this.population = population;
         this.originalPopulation = population;
         this.pollutionLevel = 0;
         updateEnergyUsage();
     }
 
+    /**
+     * Konstruktor kopiujący, używany przy rozgałęzianiu symulacji.
+     * Kopia wskazuje ten sam reaktor co oryginał; mapa przepina go na kopię reaktora.
+     *
+     * @param other kopiowane miasto
+     */
+    City(City other) {
+        super(other);
+        this.population = other.population;
+        this.originalPopulation = other.originalPopulation;
+        this.energyUsage = other.energyUsage;
+        this.pollutionLevel = other.pollutionLevel;
+        this.reactor = other.reactor;
+        this.mapIndex = other.mapIndex;
+        this.updateInterval = other.updateInterval;
+        this.skippedSteps = other.skippedSteps;
+        this.pollutionAtUpdate = other.pollutionAtUpdate;
+        this.reconnectedSinceUpdate = other.reconnectedSinceUpdate;
+    }
+
     /**
      * Aktualizuje stan miasta w każdym kroku symulacji.
      * Wywołuje metody do aktualizacji populacji i zapotrzebowania na energię.
@@ -45,6 +107,116 @@ public class City extends MapObject {
     public void update() {
         updatePopulation();
         updateEnergyUsage();
+        pollutionAtUpdate = pollutionLevel;
+        reconnectedSinceUpdate = false;
+        rehash();
+    }
+
+    /**
+     * Nadrabia pominięte kroki w postaci zamkniętej: bez skażenia populacja rośnie o oczekiwany
+     * przyrost na krok (z dolnym ograniczeniem jak w zwykłej aktualizacji), a przy wysokim skażeniu
+     * pozostaje bez zmian.
+     *
+     * @return liczba nadrobionych kroków
+     */
+    int catchUpSkippedSteps() {
+        int steps = skippedSteps;
+        if (steps == 0) {
+            return 0;
+        }
+        skippedSteps = 0;
+        if (pollutionLevel < POLLUTION_GROWTH_THRESHOLD) {
+            double grown = population * Math.pow(1.0 + EXPECTED_GROWTH, steps);
+            population = (int) Math.max((int) (originalPopulation * 0.9), Math.min(Integer.MAX_VALUE, Math.round(grown)));
+            updateEnergyUsage();
+            rehash();
+        }
+        return steps;
+    }
+
+    /**
+     * Oznacza bieżący krok jako pominięty (do nadrobienia przy następnej aktualizacji).
+     */
+    void skipStep() {
+        skippedSteps++;
+    }
+
+    /**
+     * Sprawdza, czy od ostatniej aktualizacji wystąpiła aktywność: zmiana skażenia
+     * (zasięg zanieczyszczenia) lub przełączenie do innego reaktora.
+     *
+     * @return true, jeśli miasto jest aktywne od ostatniej aktualizacji
+     */
+    boolean isActiveSinceUpdate() {
+        return reconnectedSinceUpdate || pollutionLevel != pollutionAtUpdate;
+    }
+
+    /**
+     * Sprawdza, czy populacja miasta może rosnąć (skażenie poniżej progu wzrostu).
+     *
+     * @return true, jeśli populacja może rosnąć
+     */
+    boolean isGrowing() {
+        return pollutionLevel < POLLUTION_GROWTH_THRESHOLD;
+    }
+
+    /**
+     * Zwraca co ile kroków miasto jest aktualizowane.
+     * @return interwał aktualizacji (1 - co krok)
+     */
+    int getUpdateInterval() {
+        return updateInterval;
+    }
+
+    /**
+     * Ustawia co ile kroków miasto jest aktualizowane.
+     *
+     * @param updateInterval interwał aktualizacji (co najmniej 1)
+     */
+    void setUpdateInterval(int updateInterval) {
+        this.updateInterval = Math.max(1, updateInterval);
+    }
+
+    /**
+     * Zwraca liczbę kroków pominiętych od ostatniej aktualizacji.
+     * @return liczba pominiętych kroków
+     */
+    int getSkippedSteps() {
+        return skippedSteps;
+    }
+
+    /**
+     * Oblicza skrót stanu miasta.
+     *
+     * @return skrót stanu miasta
+     */
+    @Override
+    protected long hashState() {
+        long hash = baseHash(1);
+        hash = StateDigest.combine(hash, population);
+        hash = StateDigest.combine(hash, Float.floatToIntBits(energyUsage));
+        hash = StateDigest.combine(hash, Float.floatToIntBits(pollutionLevel));
+        return StateDigest.combine(hash, reactor == null ? 0 : reactor.getId());
+    }
+
+    /**
+     * Zgłasza zmianę populacji, zapotrzebowania i skażenia miasta od poprzedniego zgłoszenia.
+     *
+     * @param aggregates agregaty świata
+     * @param region region miasta
+     * @param attached true przy pierwszym zgłoszeniu
+     */
+    @Override
+    protected void reportAggregates(WorldAggregates aggregates, int region, boolean attached) {
+        if (attached) {
+            reportedPopulation = 0;
+            reportedEnergy = 0;
+        }
+        aggregates.updateCity(region, population - reportedPopulation, (double) energyUsage - reportedEnergy,
+                attached ? Float.NaN : reportedPollution, pollutionLevel);
+        reportedPopulation = population;
+        reportedEnergy = energyUsage;
+        reportedPollution = pollutionLevel;
     }
 
     /**
@@ -52,7 +224,7 @@ public class City extends MapObject {
      * W przypadku wysokiego skażenia populacja spada. W przeciwnym razie może losowo rosnąć lub maleć.
      */
     private void updatePopulation() {
-        Random random = new Random();
+        Random random = getRandom();
         float prob = random.nextFloat();
 
         int newPopulation = population;
@@ -84,7 +256,11 @@ public class City extends MapObject {
      * @param reactor reaktor, z którym miasto ma nawiązać połączenie
      */
     public void connectWithReactor(Reactor reactor){
+        // Porównanie identyfikatorów: przepięcie na kopię tego samego reaktora (rozgałęzienie) nie jest zmianą.
+        reconnectedSinceUpdate |= this.reactor == null ? reactor != null
+                : reactor == null || this.reactor.getId() != reactor.getId();
         this.reactor = reactor;
+        rehash();
     }
 
     /**
@@ -158,6 +334,24 @@ public class City extends MapObject {
         return reactor;
     }
 
+    /**
+     * Zwraca pozycję miasta na liście miast mapy.
+     *
+     * @return indeks miasta lub -1, jeśli miasto nie jest na mapie
+     */
+    int getMapIndex() {
+        return mapIndex;
+    }
+
+    /**
+     * Ustawia pozycję miasta na liście miast mapy (przy dodaniu do mapy).
+     *
+     * @param mapIndex indeks miasta
+     */
+    void setMapIndex(int mapIndex) {
+        this.mapIndex = mapIndex;
+    }
+
     /**
      * Ustawia nowy poziom skażenia dla miasta.
      *
@@ -165,5 +359,6 @@ public class City extends MapObject {
      */
     public void setPollutionLevel(float level) {
         pollutionLevel = level;
+        rehash();
     }
 }
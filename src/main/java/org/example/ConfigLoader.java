@@ -2,98 +2,368 @@ package org.example;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.TreeSet;
 
 /**
- * Klasa implementująca wzorzec Singleton do ładowania i zarządzania konfiguracją symulacji.
- * Wczytuje parametry z pliku `config.properties`. W przypadku braku pliku lub błędów
- * w jego zawartości, używa wartości domyślnych.
+ * Niezmienna konfiguracja symulacji. Instancja domyślna (singleton) jest wczytywana z pliku
+ * `config.properties` w zasobach; w przypadku braku pliku lub błędów w jego zawartości używane
+ * są wartości domyślne. Każda symulacja może też otrzymać własną instancję zbudowaną z właściwości,
+ * pliku, argumentów wiersza poleceń lub w kodzie ({@link #with(String, String)}) - mapa i obiekty
+ * symulacji odczytują parametry z instancji przekazanej przy tworzeniu, więc symulacje o różnych
+ * konfiguracjach mogą działać równocześnie w jednej maszynie wirtualnej.
  */
-public class ConfigLoader {
-    /** Statyczna instancja singletona. */
-    private static ConfigLoader instance;
-    /** Obiekt przechowujący wczytane właściwości konfiguracyjne. */
-    private Properties config;
+public class ConfigLoader implements Serializable {
+    /** Wersja formatu serializacji (punkty kontrolne sesji). */
+    private static final long serialVersionUID = 1L;
+    /** Obiekt przechowujący wczytane właściwości konfiguracyjne (nie jest zmieniany po utworzeniu). */
+    private final Properties config;
 
     // --- Parametry konfiguracyjne ---
     /** Czas trwania symulacji (w krokach). */
-    private int simulationDuration;
+    private final int simulationDuration;
     /** Częstotliwość generowania nowych miast (co ile kroków). */
-    private int cityGenerationFrequency;
+    private final int cityGenerationFrequency;
     /** Maksymalna dozwolona liczba miast. */
-    private int maxCities;
+    private final int maxCities;
     /** Maksymalna dozwolona liczba reaktorów. */
-    private int maxReactors;
+    private final int maxReactors;
     /** Bazowa szansa na wystąpienie awarii reaktora. */
-    private float reactorMalfunctionBaseChance;
+    private final float reactorMalfunctionBaseChance;
     /** Współczynnik spadku wytrzymałości reaktora w trybie normalnym. */
-    private float reactorDurabilityDecayNormal;
+    private final float reactorDurabilityDecayNormal;
     /** Współczynnik spadku wytrzymałości reaktora w trybie awarii. */
-    private float reactorDurabilityDecayMalfunction;
+    private final float reactorDurabilityDecayMalfunction;
     /** Próg wytrzymałości, poniżej którego może nastąpić eksplozja. */
-    private float reactorExplosionDurabilityThreshold;
+    private final float reactorExplosionDurabilityThreshold;
     /** Próg mocy, powyżej którego może nastąpić eksplozja. */
-    private float reactorExplosionPowerThreshold;
+    private final float reactorExplosionPowerThreshold;
     /** Bufor mocy wymagany do podłączenia miasta do reaktora. */
-    private float energyConnectionPowerBuffer;
+    private final float energyConnectionPowerBuffer;
+    /** Rozmiar bufora zdarzeń kroku dla pojedynczego subskrybenta. */
+    private final int eventsBufferSize;
+    /** Polityka przepełnienia bufora zdarzeń kroku (BLOCK, DROP_OLDEST, CONFLATE). */
+    private final String eventsBackpressurePolicy;
+    /** Czy zapisywać przebieg symulacji do pliku odtwarzania. */
+    private final boolean recordingEnabled;
+    /** Co ile kroków zapisywać pełną klatkę kluczową przebiegu. */
+    private final int recordingKeyframeInterval;
+
+    /** Port serwera symulacji (nasłuch wyłącznie na localhost). */
+    private final int serverPort;
+    /** Liczba wątków wspólnej puli wykonującej kroki sesji (0 - liczba procesorów). */
+    private final int serverWorkers;
+    /** Maksymalna liczba kroków jednej sesji wykonywana bez przerwy, zanim pula przejdzie do kolejnej sesji. */
+    private final int serverQuantumSteps;
+    /** Maksymalna liczba kroków zlecanych jednym żądaniem. */
+    private final int serverMaxStepsPerRequest;
+    /** Czas bezczynności (w sekundach), po którym sesja jest zapisywana do punktu kontrolnego i usuwana z pamięci. */
+    private final int serverIdleTimeoutSeconds;
+    /** Katalog punktów kontrolnych usuniętych z pamięci sesji. */
+    private final String serverCheckpointDirectory;
+    /** Czy wykrywać stan ustalony i kończyć przebieg przed upływem czasu symulacji. */
+    private final boolean steadyStateEnabled;
+    /** Liczba kroków okna, w którym badana jest zmienność agregatów. */
+    private final int steadyStateWindow;
+    /** Dopuszczalne względne odchylenie standardowe łącznej populacji w oknie. */
+    private final float steadyStatePopulationTolerance;
+    /** Dopuszczalne względne odchylenie standardowe łącznego zapotrzebowania na energię w oknie. */
+    private final float steadyStateEnergyTolerance;
+    /** Działanie po wykryciu stanu ustalonego (STOP lub FAST_FORWARD). */
+    private final String steadyStateAction;
+    /** Czy używać przestrzennie zmiennego pola wiatru (zamiast jednego kierunku dla całej mapy). */
+    private final boolean windFieldEnabled;
+    /** Rozmiar komórki pola wiatru (w jednostkach mapy). */
+    private final int windFieldCellSize;
+    /** Współczynnik przyciągania wiatru komórki do wiatru globalnego w jednym kroku (0-1). */
+    private final float windFieldRelaxation;
+    /** Amplituda losowego zaburzenia wiatru komórki w jednym kroku. */
+    private final float windFieldTurbulence;
+    /** Czy modelować sieć przesyłową z podstacjami i liniami o ograniczonej przepustowości. */
+    private final boolean gridEnabled;
+    /** Odległość między podstacjami sieci przesyłowej (w jednostkach mapy). */
+    private final int gridSubstationSpacing;
+    /** Przepustowość linii między sąsiednimi podstacjami (w MW). */
+    private final float gridLineCapacity;
+    /** Czy drukować ranking analizy N-1 na koniec przebiegu. */
+    private final boolean contingencyReportEnabled;
+    /** Liczba wierszy rankingu analizy N-1. */
+    private final int contingencyReportRows;
+    /** Ziarno liczb losowych symulacji (0 - losowe przy każdym uruchomieniu). */
+    private final int simulationSeed;
+    /** Odległość (w jednostkach mapy), w której zanieczyszczenia są scalane w jedno skupisko. */
+    private final int plumeClusterDistance;
+    /** Rozmiar boku regionu agregatów (w jednostkach mapy). */
+    private final int aggregatesRegionSize;
+    /** Względna dokładność szkiców kwantyli skażenia i obciążenia. */
+    private final float aggregatesSketchAccuracy;
+    /** Czy raport CSV zawiera kolumny z kwantylami i agregatami regionalnymi. */
+    private final boolean loggerAggregatesEnabled;
+    /** Czy podczas przebiegu z oknem eksportować klatki animacji. */
+    private final boolean exportFramesEnabled;
+    /** Czy zapisywać klatki do jednego archiwum ZIP zamiast katalogu plików PNG. */
+    private final boolean exportFramesArchive;
+    /** Szerokość eksportowanej klatki (w pikselach). */
+    private final int exportFramesWidth;
+    /** Wysokość eksportowanej klatki (w pikselach). */
+    private final int exportFramesHeight;
+    /** Liczba wątków kodujących klatki (0 - wszystkie rdzenie poza jednym). */
+    private final int exportFramesThreads;
+    /** Maksymalna liczba klatek w toku (rysowanych, kodowanych lub czekających na zapis). */
+    private final int exportFramesQueue;
+    /** Pojemność bufora cyklicznego magistrali zdarzeń (potęga dwójki). */
+    private final int eventsRingSize;
+    /** Czy spokojne miasta są aktualizowane rzadziej (harmonogram wieloczęstotliwościowy). */
+    private final boolean multirateEnabled;
+    /** Dopuszczalne względne odchylenie populacji po nadrobieniu pominiętych kroków. */
+    private final float multirateTolerance;
+    /** Największy interwał aktualizacji spokojnego miasta (w krokach). */
+    private final int multirateMaxInterval;
+    /** Rozmiar boku komórki siatki aktywności (w jednostkach mapy). */
+    private final int multirateRegionSize;
+    /** Docelowa liczba kroków symulacji na sekundę w trybie interaktywnym. */
+    private final float pacingTicksPerSecond;
+    /** Czy kroki są wykonywane bez oczekiwania (maksymalna prędkość). */
+    private final boolean pacingMaxSpeed;
+    /** Największe opóźnienie (w taktach) nadrabiane kolejnymi krokami bez oczekiwania; większe jest pomijane. */
+    private final int pacingMaxCatchUp;
+    /** Liczba procesów roboczych zespołu przebiegów (0 - liczba rdzeni minus jeden). */
+    private final int ensembleWorkers;
+    /** Maksymalna liczba prób wykonania jednego przebiegu zespołu. */
+    private final int ensembleMaxAttempts;
+    /** Maksymalna sterta procesu roboczego, np. 512m (puste - domyślna). */
+    private final String ensembleWorkerHeap;
+    /** Czy opisy wszystkich obiektów są wypisywane na konsoli w każdym kroku (zamiast inspektora w oknie). */
+    private final boolean objectInfoConsoleEnabled;
+    /** Promień wskazywania obiektu myszą w inspektorze (w pikselach ekranu). */
+    private final int inspectorPickRadius;
 
     /**
-     * Prywatny konstruktor, aby zapobiec tworzeniu instancji z zewnątrz.
-     * Inicjuje proces ładowania konfiguracji.
+     * Leniwie tworzona instancja domyślna (inicjalizacja klasy zagnieżdżonej jest bezpieczna wątkowo).
      */
-    private ConfigLoader() {
-        loadConfig();
+    private static final class Holder {
+        /** Konfiguracja domyślna wczytana z zasobów. */
+        private static final ConfigLoader INSTANCE = new ConfigLoader(loadDefaultProperties());
     }
 
     /**
-     * Zwraca jedyną instancję klasy ConfigLoader (Singleton).
+     * Tworzy konfigurację z podanych właściwości (brakujące lub nieprawidłowe wartości przyjmują
+     * wartości domyślne). Wszystkie parametry są ustalane tutaj, więc każda instancja jest
+     * w pełni wypełniona od chwili utworzenia i nie zmienia się później.
+     *
+     * @param properties właściwości konfiguracyjne (kopiowane)
+     */
+    private ConfigLoader(Properties properties) {
+        this.config = new Properties();
+        this.config.putAll(properties);
+        this.simulationDuration = getIntProperty("simulation.duration", 100);
+        this.cityGenerationFrequency = getIntProperty("simulation.city.generation.frequency", 3);
+        this.maxCities = getIntProperty("limits.cities.max", 10);
+        this.maxReactors = getIntProperty("limits.reactors.max", 5);
+        this.reactorMalfunctionBaseChance = getFloatProperty("reactor.malfunction.base.chance", 0.12f);
+        this.reactorDurabilityDecayNormal = getFloatProperty("reactor.durability.decay.normal", 0.985f);
+        this.reactorDurabilityDecayMalfunction = getFloatProperty("reactor.durability.decay.malfunction", 0.94f);
+        this.reactorExplosionDurabilityThreshold = getFloatProperty("reactor.explosion.durability.threshold", 0.3f);
+        this.reactorExplosionPowerThreshold = getFloatProperty("reactor.explosion.power.threshold", 0.85f);
+        this.energyConnectionPowerBuffer = getFloatProperty("energy.connection.power.buffer", 1.05f);
+        this.eventsBufferSize = getIntProperty("events.buffer.size", 256);
+        this.eventsBackpressurePolicy = getStringProperty("events.backpressure.policy", "DROP_OLDEST");
+        this.recordingEnabled = getBooleanProperty("recording.enabled", false);
+        this.recordingKeyframeInterval = getIntProperty("recording.keyframe.interval", 25);
+        this.serverPort = getIntProperty("server.port", 8080);
+        this.serverWorkers = getIntProperty("server.workers", 0);
+        this.serverQuantumSteps = getIntProperty("server.quantum.steps", 10);
+        this.serverMaxStepsPerRequest = getIntProperty("server.max.steps.per.request", 100000);
+        this.serverIdleTimeoutSeconds = getIntProperty("server.session.idle.timeout.seconds", 300);
+        this.serverCheckpointDirectory = getStringProperty("server.checkpoint.dir", "docs/checkpoints");
+        this.steadyStateEnabled = getBooleanProperty("steady.state.enabled", true);
+        this.steadyStateWindow = getIntProperty("steady.state.window", 20);
+        this.steadyStatePopulationTolerance = getFloatProperty("steady.state.population.tolerance", 0.0005f);
+        this.steadyStateEnergyTolerance = getFloatProperty("steady.state.energy.tolerance", 0.0005f);
+        this.steadyStateAction = getStringProperty("steady.state.action", "STOP");
+        this.windFieldEnabled = getBooleanProperty("wind.field.enabled", false);
+        this.windFieldCellSize = getIntProperty("wind.field.cell.size", 100);
+        this.windFieldRelaxation = getFloatProperty("wind.field.relaxation", 0.2f);
+        this.windFieldTurbulence = getFloatProperty("wind.field.turbulence", 0.15f);
+        this.gridEnabled = getBooleanProperty("grid.enabled", false);
+        this.gridSubstationSpacing = getIntProperty("grid.substation.spacing", 100);
+        this.gridLineCapacity = getFloatProperty("grid.line.capacity", 400.0f);
+        this.contingencyReportEnabled = getBooleanProperty("contingency.report.enabled", false);
+        this.contingencyReportRows = getIntProperty("contingency.report.rows", 10);
+        this.simulationSeed = getIntProperty("simulation.seed", 0);
+        this.plumeClusterDistance = getIntProperty("plume.cluster.distance", 4);
+        this.aggregatesRegionSize = getIntProperty("aggregates.region.size", 100);
+        this.aggregatesSketchAccuracy = getFloatProperty("aggregates.sketch.accuracy", 0.02f);
+        this.loggerAggregatesEnabled = getBooleanProperty("logger.aggregates.enabled", false);
+        this.exportFramesEnabled = getBooleanProperty("export.frames.enabled", false);
+        this.exportFramesArchive = getBooleanProperty("export.frames.archive", true);
+        this.exportFramesWidth = getIntProperty("export.frames.width", 800);
+        this.exportFramesHeight = getIntProperty("export.frames.height", 800);
+        this.exportFramesThreads = getIntProperty("export.frames.threads", 0);
+        this.exportFramesQueue = getIntProperty("export.frames.queue", 32);
+        this.eventsRingSize = getIntProperty("events.ring.size", 4096);
+        this.multirateEnabled = getBooleanProperty("multirate.enabled", false);
+        this.multirateTolerance = getFloatProperty("multirate.tolerance", 0.05f);
+        this.multirateMaxInterval = getIntProperty("multirate.max.interval", 16);
+        this.multirateRegionSize = getIntProperty("multirate.region.size", 50);
+        this.pacingTicksPerSecond = getFloatProperty("pacing.ticks.per.second", 1.0f);
+        this.pacingMaxSpeed = getBooleanProperty("pacing.max.speed", false);
+        this.pacingMaxCatchUp = getIntProperty("pacing.max.catchup", 5);
+        this.ensembleWorkers = getIntProperty("ensemble.workers", 0);
+        this.ensembleMaxAttempts = getIntProperty("ensemble.max.attempts", 3);
+        this.ensembleWorkerHeap = getStringProperty("ensemble.worker.heap", "");
+        this.objectInfoConsoleEnabled = getBooleanProperty("visualizer.console.info", false);
+        this.inspectorPickRadius = getIntProperty("visualizer.pick.radius", 12);
+    }
+
+    /**
+     * Zwraca domyślną konfigurację wczytaną z zasobów (Singleton).
      *
      * @return instancja ConfigLoader
      */
     public static ConfigLoader getInstance() {
-        if (instance == null) {
-            instance = new ConfigLoader();
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Tworzy konfigurację z podanych właściwości; brakujące klucze przyjmują wartości domyślne.
+     *
+     * @param properties właściwości konfiguracyjne
+     * @return nowa konfiguracja
+     */
+    public static ConfigLoader fromProperties(Properties properties) {
+        return new ConfigLoader(properties);
+    }
+
+    /**
+     * Wczytuje konfigurację z pliku właściwości.
+     *
+     * @param path ścieżka pliku {@code .properties}
+     * @return nowa konfiguracja
+     * @throws IOException jeśli plik nie mógł zostać odczytany
+     */
+    public static ConfigLoader load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
         }
-        return instance;
+        return new ConfigLoader(properties);
+    }
+
+    /**
+     * Tworzy kopię konfiguracji ze zmienioną wartością jednego klucza.
+     *
+     * @param key klucz właściwości
+     * @param value nowa wartość
+     * @return nowa konfiguracja
+     */
+    public ConfigLoader with(String key, String value) {
+        return with(Map.of(key, value));
     }
 
     /**
-     * Wczytuje konfigurację z pliku `config.properties` znajdującego się w zasobach.
-     * W przypadku niepowodzenia, wywołuje metodę ustawiającą wartości domyślne.
+     * Tworzy kopię konfiguracji ze zmienionymi wartościami podanych kluczy.
+     *
+     * @param overrides nowe wartości według kluczy
+     * @return nowa konfiguracja
      */
-    private void loadConfig() {
-        config = new Properties();
+    public ConfigLoader with(Map<String, String> overrides) {
+        Properties properties = new Properties();
+        properties.putAll(config);
+        properties.putAll(overrides);
+        return new ConfigLoader(properties);
+    }
 
-        try (InputStream input = getClass().getClassLoader().getResourceAsStream("config.properties")) {
-            if (input == null) {
-                System.out.println("Nie znaleziono pliku config.properties, używam wartości domyślnych");
-                setDefaultValues();
-                return;
+    /**
+     * Wydziela z argumentów wiersza poleceń opcje konfiguracji: {@code --config <plik>} (konfiguracja
+     * bazowa zamiast domyślnej) i dowolną liczbę {@code --set klucz=wartość}. Pozostałe argumenty
+     * są przepisywane do listy {@code remaining} w niezmienionej kolejności.
+     *
+     * @param args argumenty wiersza poleceń
+     * @param remaining lista, do której trafiają argumenty niebędące opcjami konfiguracji
+     * @return konfiguracja z uwzględnieniem opcji
+     * @throws IOException jeśli plik konfiguracji nie mógł zostać odczytany
+     * @throws IllegalArgumentException jeśli opcja nie ma wartości lub ma nieprawidłowy format
+     */
+    public static ConfigLoader fromArguments(String[] args, List<String> remaining) throws IOException {
+        ConfigLoader base = getInstance();
+        Properties overrides = new Properties();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--config") || args[i].equals("--set")) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Brak wartości opcji " + args[i]);
+                }
+                String value = args[++i];
+                if (args[i - 1].equals("--config")) {
+                    base = load(Path.of(value));
+                    continue;
+                }
+                int separator = value.indexOf('=');
+                if (separator <= 0) {
+                    throw new IllegalArgumentException("Oczekiwano klucz=wartość: " + value);
+                }
+                overrides.setProperty(value.substring(0, separator).trim(), value.substring(separator + 1).trim());
+            } else {
+                remaining.add(args[i]);
             }
+        }
+        Properties properties = new Properties();
+        properties.putAll(base.config);
+        properties.putAll(overrides);
+        return new ConfigLoader(properties);
+    }
 
-            config.load(input);
-            parseConfiguration();
-
-        } catch (IOException e) {
-            System.err.println("Błąd wczytywania konfiguracji: " + e.getMessage());
-            setDefaultValues();
+    /**
+     * Zapisuje wszystkie ustawione klucze jako opcje {@code --set klucz=wartość} (np. dla procesów potomnych),
+     * tak aby {@link #fromArguments(String[], List)} odtworzyło tę samą konfigurację.
+     *
+     * @return lista argumentów wiersza poleceń
+     */
+    public List<String> toArguments() {
+        List<String> arguments = new ArrayList<>();
+        for (String key : new TreeSet<>(config.stringPropertyNames())) {
+            arguments.add("--set");
+            arguments.add(key + "=" + config.getProperty(key));
         }
+        return arguments;
     }
 
     /**
-     * Parsuje wczytane właściwości i przypisuje je do pól klasy.
+     * Zwraca surową wartość klucza konfiguracji.
+     *
+     * @param key klucz właściwości
+     * @return wartość lub null, jeśli klucz nie został ustawiony
      */
-    private void parseConfiguration() {
-        simulationDuration = getIntProperty("simulation.duration", 100);
-        cityGenerationFrequency = getIntProperty("simulation.city.generation.frequency", 3);
-        maxCities = getIntProperty("limits.cities.max", 10);
-        maxReactors = getIntProperty("limits.reactors.max", 5);
-        reactorMalfunctionBaseChance = getFloatProperty("reactor.malfunction.base.chance", 0.12f);
-        reactorDurabilityDecayNormal = getFloatProperty("reactor.durability.decay.normal", 0.985f);
-        reactorDurabilityDecayMalfunction = getFloatProperty("reactor.durability.decay.malfunction", 0.94f);
-        reactorExplosionDurabilityThreshold = getFloatProperty("reactor.explosion.durability.threshold", 0.3f);
-        reactorExplosionPowerThreshold = getFloatProperty("reactor.explosion.power.threshold", 0.85f);
-        energyConnectionPowerBuffer = getFloatProperty("energy.connection.power.buffer", 1.05f);
+    public String getProperty(String key) {
+        return config.getProperty(key);
+    }
+
+    /**
+     * Wczytuje właściwości z pliku `config.properties` znajdującego się w zasobach.
+     * W przypadku niepowodzenia zwraca puste właściwości, czyli same wartości domyślne.
+     *
+     * @return właściwości konfiguracji domyślnej
+     */
+    private static Properties loadDefaultProperties() {
+        Properties properties = new Properties();
+        try (InputStream input = ConfigLoader.class.getClassLoader().getResourceAsStream("config.properties")) {
+            if (input == null) {
+                System.out.println("Nie znaleziono pliku config.properties, używam wartości domyślnych");
+                return properties;
+            }
+            properties.load(input);
+        } catch (IOException e) {
+            System.err.println("Błąd wczytywania konfiguracji: " + e.getMessage());
+            properties.clear();
+        }
+        return properties;
     }
 
     /**
@@ -137,20 +407,35 @@ public class ConfigLoader {
     }
 
     /**
-     * Ustawia domyślne wartości wszystkich parametrów konfiguracyjnych.
-     * Wywoływana w przypadku problemów z wczytaniem pliku konfiguracyjnego.
+     * Pobiera wartość logiczną z konfiguracji. Jeśli klucz nie istnieje,
+     * zwraca wartość domyślną.
+     *
+     * @param key klucz właściwości
+     * @param defaultValue wartość domyślna
+     * @return wartość logiczna
+     */
+    private boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = config.getProperty(key);
+        if (value != null) {
+            return Boolean.parseBoolean(value.trim());
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Pobiera wartość tekstową z konfiguracji. Jeśli klucz nie istnieje lub wartość
+     * jest pusta, zwraca wartość domyślną.
+     *
+     * @param key klucz właściwości
+     * @param defaultValue wartość domyślna
+     * @return wartość tekstowa
      */
-    private void setDefaultValues() {
-        simulationDuration = 100;
-        cityGenerationFrequency = 3;
-        maxCities = 10;
-        maxReactors = 5;
-        reactorMalfunctionBaseChance = 0.12f;
-        reactorDurabilityDecayNormal = 0.985f;
-        reactorDurabilityDecayMalfunction = 0.94f;
-        reactorExplosionDurabilityThreshold = 0.3f;
-        reactorExplosionPowerThreshold = 0.85f;
-        energyConnectionPowerBuffer = 1.05f;
+    private String getStringProperty(String key, String defaultValue) {
+        String value = config.getProperty(key);
+        if (value != null && !value.trim().isEmpty()) {
+            return value.trim();
+        }
+        return defaultValue;
     }
 
     public int getSimulationDuration() { return simulationDuration; }
@@ -163,4 +448,52 @@ public class ConfigLoader {
     public float getReactorExplosionDurabilityThreshold() { return reactorExplosionDurabilityThreshold; }
     public float getReactorExplosionPowerThreshold() { return reactorExplosionPowerThreshold; }
     public float getEnergyConnectionPowerBuffer() { return energyConnectionPowerBuffer; }
+    public int getEventsBufferSize() { return eventsBufferSize; }
+    public String getEventsBackpressurePolicy() { return eventsBackpressurePolicy; }
+    public boolean isRecordingEnabled() { return recordingEnabled; }
+    public int getRecordingKeyframeInterval() { return recordingKeyframeInterval; }
+    public int getServerPort() { return serverPort; }
+    public int getServerWorkers() { return serverWorkers; }
+    public int getServerQuantumSteps() { return serverQuantumSteps; }
+    public int getServerMaxStepsPerRequest() { return serverMaxStepsPerRequest; }
+    public int getServerIdleTimeoutSeconds() { return serverIdleTimeoutSeconds; }
+    public String getServerCheckpointDirectory() { return serverCheckpointDirectory; }
+    public boolean isSteadyStateEnabled() { return steadyStateEnabled; }
+    public int getSteadyStateWindow() { return steadyStateWindow; }
+    public float getSteadyStatePopulationTolerance() { return steadyStatePopulationTolerance; }
+    public float getSteadyStateEnergyTolerance() { return steadyStateEnergyTolerance; }
+    public String getSteadyStateAction() { return steadyStateAction; }
+    public boolean isWindFieldEnabled() { return windFieldEnabled; }
+    public int getWindFieldCellSize() { return windFieldCellSize; }
+    public float getWindFieldRelaxation() { return windFieldRelaxation; }
+    public float getWindFieldTurbulence() { return windFieldTurbulence; }
+    public boolean isGridEnabled() { return gridEnabled; }
+    public int getGridSubstationSpacing() { return gridSubstationSpacing; }
+    public float getGridLineCapacity() { return gridLineCapacity; }
+    public boolean isContingencyReportEnabled() { return contingencyReportEnabled; }
+    public int getContingencyReportRows() { return contingencyReportRows; }
+    public int getSimulationSeed() { return simulationSeed; }
+    public int getPlumeClusterDistance() { return plumeClusterDistance; }
+    public int getAggregatesRegionSize() { return aggregatesRegionSize; }
+    public float getAggregatesSketchAccuracy() { return aggregatesSketchAccuracy; }
+    public boolean isLoggerAggregatesEnabled() { return loggerAggregatesEnabled; }
+    public boolean isExportFramesEnabled() { return exportFramesEnabled; }
+    public boolean isExportFramesArchive() { return exportFramesArchive; }
+    public int getExportFramesWidth() { return exportFramesWidth; }
+    public int getExportFramesHeight() { return exportFramesHeight; }
+    public int getExportFramesThreads() { return exportFramesThreads; }
+    public int getExportFramesQueue() { return exportFramesQueue; }
+    public int getEventsRingSize() { return eventsRingSize; }
+    public boolean isMultirateEnabled() { return multirateEnabled; }
+    public float getMultirateTolerance() { return multirateTolerance; }
+    public int getMultirateMaxInterval() { return multirateMaxInterval; }
+    public int getMultirateRegionSize() { return multirateRegionSize; }
+    public float getPacingTicksPerSecond() { return pacingTicksPerSecond; }
+    public boolean isPacingMaxSpeed() { return pacingMaxSpeed; }
+    public int getPacingMaxCatchUp() { return pacingMaxCatchUp; }
+    public int getEnsembleWorkers() { return ensembleWorkers; }
+    public int getEnsembleMaxAttempts() { return ensembleMaxAttempts; }
+    public String getEnsembleWorkerHeap() { return ensembleWorkerHeap; }
+    public boolean isObjectInfoConsoleEnabled() { return objectInfoConsoleEnabled; }
+    public int getInspectorPickRadius() { return inspectorPickRadius; }
 }
@@ -0,0 +1,276 @@
+package org.example;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Analiza N-1: dla każdego aktywnego reaktora ocenia skutki jego utraty.
+ * Miasta zasilane z usuniętego reaktora są ponownie podłączane według reguł
+ * {@code TerrainMap.connectCityToBestReactor} (najbliższy aktywny reaktor w zasięgu
+ * 30% krótszego boku mapy, z wolną mocą co najmniej równą zapotrzebowaniu z buforem),
+ * a miasta, dla których nie ma takiego reaktora, pozostają bez zasilania.
+ *
+ * <p>Stan mapy jest kopiowany raz do współdzielonych tablic tylko do odczytu. Każdy scenariusz
+ * zapisuje wyłącznie własną nakładkę z dodatkowym obciążeniem reaktorów, które przejęły miasta,
+ * więc scenariusze są niezależne i wykonywane równolegle w puli fork-join. Kandydaci do podłączenia
+ * są wyszukiwani w indeksie przestrzennym, więc koszt scenariusza zależy od liczby jego miast,
+ * a nie od liczby wszystkich reaktorów.
+ */
+class ContingencyAnalysis {
+    /**
+     * Skutki utraty jednego reaktora.
+     *
+     * @param reactorId identyfikator usuniętego reaktora
+     * @param orphanedCities liczba miast zasilanych z tego reaktora
+     * @param reconnectedCities liczba miast, które udało się podłączyć do innego reaktora
+     * @param unpoweredPopulation łączna populacja miast pozostawionych bez zasilania
+     * @param unservedDemand łączne zapotrzebowanie miast pozostawionych bez zasilania (w MW)
+     */
+    record Impact(int reactorId, int orphanedCities, int reconnectedCities,
+                  long unpoweredPopulation, double unservedDemand) {}
+
+    /** Kolejność wyników: najpierw największa populacja bez zasilania, potem zapotrzebowanie. */
+    static final Comparator<Impact> BY_SEVERITY = Comparator
+            .comparingLong(Impact::unpoweredPopulation).reversed()
+            .thenComparing(Comparator.comparingDouble(Impact::unservedDemand).reversed())
+            .thenComparingInt(Impact::reactorId);
+
+    /** Liczba reaktorów. */
+    private final int reactorCount;
+    /** Identyfikatory reaktorów. */
+    private final int[] reactorIds;
+    /** Współrzędne X reaktorów. */
+    private final int[] reactorX;
+    /** Współrzędne Y reaktorów. */
+    private final int[] reactorY;
+    /** Wolna moc reaktorów w stanie bazowym (moc maksymalna minus obciążenie). */
+    private final float[] spare;
+    /** Aktywność reaktorów. */
+    private final boolean[] active;
+    /** Współrzędne X miast. */
+    private final int[] cityX;
+    /** Współrzędne Y miast. */
+    private final int[] cityY;
+    /** Populacje miast. */
+    private final int[] cityPopulation;
+    /** Zapotrzebowanie miast na energię. */
+    private final float[] cityDemand;
+    /** Początek listy miast zasilanych z każdego reaktora w tablicy {@link #suppliedCities}. */
+    private final int[] suppliedStart;
+    /** Indeksy miast pogrupowane według reaktora zasilającego (w kolejności listy miast). */
+    private final int[] suppliedCities;
+    /** Maksymalna odległość podłączenia miasta do reaktora. */
+    private final double maxDistance;
+    /** Bufor mocy wymagany do podłączenia miasta. */
+    private final float powerBuffer;
+    /** Indeks przestrzenny reaktorów. */
+    private final SpatialGrid reactorGrid;
+
+    /**
+     * Tworzy analizę dla bieżącego stanu mapy (stan jest kopiowany, mapa może dalej działać).
+     *
+     * @param map mapa terenu
+     */
+    ContingencyAnalysis(TerrainMap map) {
+        List<Reactor> reactors = map.getReactors();
+        List<City> cities = map.getCities();
+        this.reactorCount = reactors.size();
+        this.reactorIds = new int[reactorCount];
+        this.reactorX = new int[reactorCount];
+        this.reactorY = new int[reactorCount];
+        this.spare = new float[reactorCount];
+        this.active = new boolean[reactorCount];
+        Map<Reactor, Integer> reactorIndices = new IdentityHashMap<>(reactorCount * 2);
+        for (int i = 0; i < reactorCount; i++) {
+            Reactor reactor = reactors.get(i);
+            reactorIndices.put(reactor, i);
+            reactorIds[i] = reactor.getId();
+            reactorX[i] = reactor.getPosition()[0];
+            reactorY[i] = reactor.getPosition()[1];
+            spare[i] = reactor.getMaxPower() - reactor.getCurrentPower();
+            active[i] = reactor.checkActivity();
+        }
+
+        int cityCount = cities.size();
+        this.cityX = new int[cityCount];
+        this.cityY = new int[cityCount];
+        this.cityPopulation = new int[cityCount];
+        this.cityDemand = new float[cityCount];
+        int[] supplier = new int[cityCount];
+        this.suppliedStart = new int[reactorCount + 1];
+        for (int i = 0; i < cityCount; i++) {
+            City city = cities.get(i);
+            cityX[i] = city.getPosition()[0];
+            cityY[i] = city.getPosition()[1];
+            cityPopulation[i] = city.getPopulation();
+            cityDemand[i] = city.getEnergyUsage();
+            Integer reactor = city.getReactor() == null ? null : reactorIndices.get(city.getReactor());
+            supplier[i] = reactor != null && active[reactor] ? reactor : -1;
+            if (supplier[i] >= 0) {
+                suppliedStart[supplier[i] + 1]++;
+            }
+        }
+        for (int r = 0; r < reactorCount; r++) {
+            suppliedStart[r + 1] += suppliedStart[r];
+        }
+        this.suppliedCities = new int[suppliedStart[reactorCount]];
+        int[] fill = new int[reactorCount];
+        for (int i = 0; i < cityCount; i++) {
+            if (supplier[i] >= 0) {
+                suppliedCities[suppliedStart[supplier[i]] + fill[supplier[i]]++] = i;
+            }
+        }
+
+        this.maxDistance = Math.min(map.getWidth(), map.getHeight()) * 0.3;
+        this.powerBuffer = map.getConfig().getEnergyConnectionPowerBuffer();
+        this.reactorGrid = new SpatialGrid(map.getWidth(), map.getHeight(),
+                Math.max(16, (int) maxDistance / 2), reactorX, reactorY, reactorCount);
+    }
+
+    /**
+     * Ocenia utratę każdego aktywnego reaktora równolegle w podanej puli.
+     *
+     * @param pool pula fork-join
+     * @return skutki utraty reaktorów, od najpoważniejszych
+     */
+    List<Impact> run(ForkJoinPool pool) {
+        try {
+            return pool.submit(() -> IntStream.range(0, reactorCount)
+                    .parallel()
+                    .filter(k -> active[k])
+                    .mapToObj(this::evaluate)
+                    .sorted(BY_SEVERITY)
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Przerwano analizę N-1", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Błąd analizy N-1", e.getCause());
+        }
+    }
+
+    /**
+     * Ocenia utratę każdego aktywnego reaktora we wspólnej puli fork-join.
+     *
+     * @return skutki utraty reaktorów, od najpoważniejszych
+     */
+    List<Impact> run() {
+        return run(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Ocenia scenariusz utraty reaktora o podanym indeksie.
+     *
+     * @param removed indeks usuwanego reaktora
+     * @return skutki utraty reaktora
+     */
+    Impact evaluate(int removed) {
+        Scenario scenario = new Scenario(removed);
+        int reconnected = 0;
+        long unpoweredPopulation = 0;
+        double unservedDemand = 0;
+        for (int k = suppliedStart[removed]; k < suppliedStart[removed + 1]; k++) {
+            int city = suppliedCities[k];
+            if (scenario.reconnect(city)) {
+                reconnected++;
+            } else {
+                unpoweredPopulation += cityPopulation[city];
+                unservedDemand += cityDemand[city];
+            }
+        }
+        int orphaned = suppliedStart[removed + 1] - suppliedStart[removed];
+        return new Impact(reactorIds[removed], orphaned, reconnected, unpoweredPopulation, unservedDemand);
+    }
+
+    /**
+     * Formatuje ranking skutków jako tabelę tekstową.
+     *
+     * @param impacts skutki utraty reaktorów (od najpoważniejszych)
+     * @param limit maksymalna liczba wierszy
+     * @return tabela tekstowa
+     */
+    static String formatTable(List<Impact> impacts, int limit) {
+        StringBuilder table = new StringBuilder(String.format("%-4s %-8s %-8s %-12s %-16s %-14s%n",
+                "Lp.", "Reaktor", "Miasta", "Przełączone", "Bez zasilania", "Brak mocy"));
+        for (int i = 0; i < Math.min(limit, impacts.size()); i++) {
+            Impact impact = impacts.get(i);
+            table.append(String.format("%-4d #%-7d %-8d %-12d %,-16d %-14s%n",
+                    i + 1, impact.reactorId(), impact.orphanedCities(), impact.reconnectedCities(),
+                    impact.unpoweredPopulation(), String.format("%.1f MW", impact.unservedDemand())));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Stan pojedynczego scenariusza: nakładka z dodatkowym obciążeniem reaktorów
+     * (kopiowana przy zapisie; stan bazowy pozostaje niezmieniony) oraz bieżące wyszukiwanie kandydata.
+     */
+    private final class Scenario implements IntConsumer {
+        /** Indeks usuniętego reaktora. */
+        private final int removed;
+        /** Dodatkowe obciążenie reaktorów, które przejęły miasta w tym scenariuszu. */
+        private final Map<Integer, Float> extraLoad = new HashMap<>();
+        /** Indeks podłączanego miasta. */
+        private int city;
+        /** Najlepszy dotąd kandydat (-1, jeśli brak). */
+        private int best;
+        /** Odległość najlepszego kandydata. */
+        private double bestDistance;
+
+        /**
+         * Konstruktor scenariusza.
+         *
+         * @param removed indeks usuwanego reaktora
+         */
+        Scenario(int removed) {
+            this.removed = removed;
+        }
+
+        /**
+         * Podłącza miasto do najbliższego reaktora spełniającego reguły podłączenia.
+         *
+         * @param city indeks miasta
+         * @return true, jeśli znaleziono reaktor
+         */
+        boolean reconnect(int city) {
+            this.city = city;
+            this.best = -1;
+            this.bestDistance = Double.MAX_VALUE;
+            int range = (int) Math.ceil(maxDistance);
+            reactorGrid.forEachInRect(cityX[city] - range, cityY[city] - range,
+                    cityX[city] + range, cityY[city] + range, this);
+            if (best < 0) {
+                return false;
+            }
+            extraLoad.merge(best, cityDemand[city], Float::sum);
+            return true;
+        }
+
+        /**
+         * Sprawdza reaktor-kandydata z indeksu przestrzennego.
+         *
+         * @param reactor indeks reaktora
+         */
+        @Override
+        public void accept(int reactor) {
+            if (reactor == removed || !active[reactor]) {
+                return;
+            }
+            double distance = Math.hypot(cityX[city] - reactorX[reactor], cityY[city] - reactorY[reactor]);
+            float available = spare[reactor] - Objects.requireNonNullElse(extraLoad.get(reactor), 0f);
+            if (distance <= maxDistance && available >= cityDemand[city] * powerBuffer
+                    && (distance < bestDistance || (distance == bestDistance && reactor < best))) {
+                best = reactor;
+                bestDistance = distance;
+            }
+        }
+    }
+}
@@ -16,6 +16,11 @@ class DataLogger {
     private String fileName;
     /** Nagłówek pliku CSV, definiujący kolumny w raporcie. */
     private String header = "krok;ilosc_miast;ilosc_reaktorow;kierunek_wiatru;laczna_populacja;laczne_zapotrzebowanie;aktywne_reaktory";
+    /** Dodatkowe kolumny raportu z kwantylami i agregatami regionalnymi. */
+    private static final String AGGREGATE_COLUMNS = ";skazenie_p50;skazenie_p90;skazenie_p99"
+            + ";obciazenie_p50;obciazenie_p90;obciazenie_p99;region_max_zapotrzebowania;zapotrzebowanie_regionu_max";
+    /** Czy raport zawiera kolumny z agregatami świata. */
+    private final boolean aggregateColumns;
 
     /**
      * Konstruktor klasy DataLogger.
@@ -23,6 +28,20 @@ class DataLogger {
      * i wywołuje metodę tworzącą plik z nagłówkiem.
      */
     public DataLogger() {
+        this(false);
+    }
+
+    /**
+     * Konstruktor klasy DataLogger z opcjonalnymi kolumnami agregatów świata
+     * (kwantyle skażenia miast i obciążenia reaktorów, region o największym zapotrzebowaniu).
+     *
+     * @param aggregateColumns czy raport ma zawierać kolumny z agregatami świata
+     */
+    public DataLogger(boolean aggregateColumns) {
+        this.aggregateColumns = aggregateColumns;
+        if (aggregateColumns) {
+            header += AGGREGATE_COLUMNS;
+        }
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
         String timestamp = LocalDateTime.now().format(formatter);
         this.fileName = "docs/raport_" + timestamp + ".csv";
@@ -64,9 +83,32 @@ class DataLogger {
      */
     public void saveData(int step, int citiesCount, int reactorsCount, String windDirection,
                          int totalPopulation, float totalEnergyDemand, int activeReactors) {
+        saveData(step, citiesCount, reactorsCount, windDirection, totalPopulation, totalEnergyDemand,
+                activeReactors, null);
+    }
+
+    /**
+     * Zapisuje pojedynczy wiersz danych do pliku raportu, a przy włączonych kolumnach agregatów
+     * dopisuje kwantyle skażenia i obciążenia oraz region o największym zapotrzebowaniu.
+     *
+     * @param step numer kroku symulacji
+     * @param citiesCount aktualna liczba miast
+     * @param reactorsCount aktualna liczba reaktorów
+     * @param windDirection aktualny kierunek wiatru
+     * @param totalPopulation łączna populacja we wszystkich miastach
+     * @param totalEnergyDemand łączne zapotrzebowanie na energię
+     * @param activeReactors liczba aktywnych reaktorów
+     * @param aggregates agregaty świata (null - kolumny agregatów pozostają puste)
+     */
+    public void saveData(int step, int citiesCount, int reactorsCount, String windDirection,
+                         int totalPopulation, float totalEnergyDemand, int activeReactors,
+                         WorldAggregates aggregates) {
         String dataLine = String.format("%d;%d;%d;%s;%d;%.2f;%d",
                 step, citiesCount, reactorsCount, windDirection,
                 totalPopulation, totalEnergyDemand, activeReactors);
+        if (aggregateColumns) {
+            dataLine += aggregates == null ? ";;;;;;;;" : aggregateColumns(aggregates);
+        }
 
         try (FileWriter writer = new FileWriter(fileName, true)) {
             writer.write(dataLine + "\n");
@@ -74,4 +116,20 @@ class DataLogger {
             System.err.println("Błąd podczas zapisywania danych: " + e.getMessage());
         }
     }
+
+    /**
+     * Formatuje kolumny agregatów świata.
+     *
+     * @param aggregates agregaty świata
+     * @return kolumny agregatów (każda poprzedzona separatorem)
+     */
+    private String aggregateColumns(WorldAggregates aggregates) {
+        QuantileSketch pollution = aggregates.getCityPollution();
+        QuantileSketch load = aggregates.getReactorLoad();
+        int peak = aggregates.peakDemandRegion();
+        return String.format(";%.2f;%.2f;%.2f;%.2f;%.2f;%.2f;%d;%.2f",
+                pollution.quantile(0.5), pollution.quantile(0.9), pollution.quantile(0.99),
+                load.quantile(0.5), load.quantile(0.9), load.quantile(0.99),
+                peak, aggregates.getRegionEnergyDemand(peak));
+    }
 }
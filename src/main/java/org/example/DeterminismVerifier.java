@@ -0,0 +1,235 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Weryfikacja powtarzalności: uruchamia ten sam świat (to samo ziarno) w dwóch konfiguracjach
+ * silnika krok po kroku i porównuje skróty stanu świata po każdym kroku. Przy pierwszej
+ * rozbieżności wskazuje obiekt, którego stan się różni, porównując skróty poszczególnych obiektów.
+ */
+class DeterminismVerifier {
+    /**
+     * Konfiguracja silnika: sposób wykonania jednego kroku symulacji.
+     */
+    @FunctionalInterface
+    interface Engine {
+        /**
+         * Wykonuje jeden krok symulacji.
+         *
+         * @param simulation symulacja przed krokiem
+         * @return symulacja po kroku (ta sama lub nowa, np. odtworzona z punktu kontrolnego)
+         * @throws IOException jeśli krok wymaga zapisu lub odczytu, który się nie powiódł
+         */
+        Simulation step(Simulation simulation) throws IOException;
+    }
+
+    /**
+     * Konfiguracje silnika dostępne w tym drzewie.
+     */
+    enum StandardEngine implements Engine {
+        /** Kroki wykonywane bezpośrednio na jednej symulacji. */
+        DIRECT("bezpośrednio") {
+            @Override
+            public Simulation step(Simulation simulation) {
+                simulation.step();
+                return simulation;
+            }
+        },
+        /** Przed każdym krokiem symulacja jest rozgałęziana, a krok wykonuje rozgałęzienie. */
+        FORK("z rozgałęzieniem przed każdym krokiem") {
+            @Override
+            public Simulation step(Simulation simulation) {
+                Simulation branch = simulation.fork();
+                branch.step();
+                return branch;
+            }
+        },
+        /** Przed każdym krokiem symulacja jest zapisywana do punktu kontrolnego i z niego odtwarzana. */
+        CHECKPOINT("z punktem kontrolnym przed każdym krokiem") {
+            @Override
+            public Simulation step(Simulation simulation) throws IOException {
+                Path checkpoint = Files.createTempFile("weryfikacja", ".ckpt");
+                try {
+                    simulation.writeCheckpoint(checkpoint);
+                    Simulation restored = Simulation.readCheckpoint(checkpoint);
+                    restored.step();
+                    return restored;
+                } finally {
+                    Files.deleteIfExists(checkpoint);
+                }
+            }
+        };
+
+        /** Opis konfiguracji. */
+        private final String description;
+
+        /**
+         * Konstruktor konfiguracji silnika.
+         *
+         * @param description opis konfiguracji
+         */
+        StandardEngine(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Zwraca opis konfiguracji.
+         * @return opis konfiguracji
+         */
+        String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * Pierwsza rozbieżność między przebiegami.
+     *
+     * @param step numer kroku
+     * @param entity opis obiektu lub wielkości, która się różni
+     * @param first wartość w pierwszej konfiguracji
+     * @param second wartość w drugiej konfiguracji
+     */
+    record Divergence(int step, String entity, String first, String second) {
+        @Override
+        public String toString() {
+            return String.format("Rozbieżność w kroku %d: %s (%s / %s)", step, entity, first, second);
+        }
+    }
+
+    /** Szerokość mapy. */
+    private final int width;
+    /** Wysokość mapy. */
+    private final int height;
+    /** Początkowa liczba miast. */
+    private final int initialCities;
+    /** Początkowa liczba reaktorów. */
+    private final int initialReactors;
+    /** Ziarno liczb losowych obu przebiegów. */
+    private final long seed;
+    /** Konfiguracja symulacji obu przebiegów. */
+    private final ConfigLoader config;
+
+    /**
+     * Konstruktor klasy DeterminismVerifier.
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     * @param seed ziarno liczb losowych obu przebiegów
+     */
+    DeterminismVerifier(int width, int height, int initialCities, int initialReactors, long seed) {
+        this(width, height, initialCities, initialReactors, seed, ConfigLoader.getInstance());
+    }
+
+    /**
+     * Konstruktor klasy DeterminismVerifier z własną konfiguracją symulacji.
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     * @param seed ziarno liczb losowych obu przebiegów
+     * @param config konfiguracja symulacji obu przebiegów
+     */
+    DeterminismVerifier(int width, int height, int initialCities, int initialReactors, long seed,
+                        ConfigLoader config) {
+        this.config = config;
+        this.width = width;
+        this.height = height;
+        this.initialCities = initialCities;
+        this.initialReactors = initialReactors;
+        this.seed = seed;
+    }
+
+    /**
+     * Wykonuje oba przebiegi krok po kroku i szuka pierwszej rozbieżności.
+     *
+     * @param first pierwsza konfiguracja silnika
+     * @param second druga konfiguracja silnika
+     * @param steps liczba kroków
+     * @return pierwsza rozbieżność lub null, jeśli przebiegi są zgodne
+     * @throws IOException jeśli konfiguracja silnika nie mogła wykonać kroku
+     */
+    Divergence verify(Engine first, Engine second, int steps) throws IOException {
+        Simulation a = createSimulation();
+        Simulation b = createSimulation();
+        Divergence divergence = compare(a, b);
+        for (int i = 0; i < steps && divergence == null; i++) {
+            a = first.step(a);
+            b = second.step(b);
+            divergence = compare(a, b);
+        }
+        return divergence;
+    }
+
+    /**
+     * Tworzy symulację bez interfejsu z ziarnem weryfikacji.
+     *
+     * @return nowa symulacja
+     */
+    private Simulation createSimulation() {
+        return Simulation.headless(width, height, config.getMaxCities(), config.getMaxReactors(),
+                initialCities, initialReactors, seed, config);
+    }
+
+    /**
+     * Porównuje stan dwóch symulacji. Gdy skróty świata są równe, obiekty nie są porównywane.
+     *
+     * @param a symulacja pierwszej konfiguracji
+     * @param b symulacja drugiej konfiguracji
+     * @return rozbieżność lub null, jeśli stany są zgodne
+     */
+    private static Divergence compare(Simulation a, Simulation b) {
+        int step = a.getStepCounter();
+        if (step != b.getStepCounter()) {
+            return new Divergence(step, "numer kroku", String.valueOf(step), String.valueOf(b.getStepCounter()));
+        }
+        if (a.getStateDigest() == b.getStateDigest()) {
+            return null;
+        }
+        TerrainMap first = a.getTerrain();
+        TerrainMap second = b.getTerrain();
+        Divergence divergence = firstDifference(step, "miasto", first.getCities(), second.getCities());
+        if (divergence == null) {
+            divergence = firstDifference(step, "reaktor", first.getReactors(), second.getReactors());
+        }
+        if (divergence == null) {
+            divergence = firstDifference(step, "zanieczyszczenie", first.getPollutions(), second.getPollutions());
+        }
+        if (divergence == null) {
+            divergence = new Divergence(step, "kierunek wiatru", first.getWindDirection(), second.getWindDirection());
+        }
+        return divergence;
+    }
+
+    /**
+     * Szuka pierwszego obiektu, którego skrót stanu różni się między przebiegami.
+     *
+     * @param step numer kroku
+     * @param label nazwa rodzaju obiektów
+     * @param first obiekty pierwszego przebiegu
+     * @param second obiekty drugiego przebiegu
+     * @return rozbieżność lub null, jeśli wszystkie obiekty są zgodne
+     */
+    private static Divergence firstDifference(int step, String label, List<? extends MapObject> first,
+                                              List<? extends MapObject> second) {
+        for (int i = 0; i < Math.min(first.size(), second.size()); i++) {
+            long firstHash = first.get(i).getStateHash();
+            long secondHash = second.get(i).getStateHash();
+            if (firstHash != secondHash) {
+                return new Divergence(step, label + " #" + first.get(i).getId(),
+                        String.format("%016x", firstHash), String.format("%016x", secondHash));
+            }
+        }
+        if (first.size() != second.size()) {
+            return new Divergence(step, "liczba obiektów: " + label,
+                    String.valueOf(first.size()), String.valueOf(second.size()));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,412 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Koordynator zespołu przebiegów wykonywanych w osobnych procesach JVM na tym samym komputerze.
+ * Każdy proces roboczy ({@link EnsembleWorker}) ma własną stertę i własny odśmiecacz, więc duże zespoły
+ * nie wyczerpują pamięci jednej maszyny wirtualnej, a przepustowość rośnie z liczbą procesów.
+ * Jednostki pracy są rozdzielane z jednej kolejki przez gniazda lokalne (tylko adres pętli zwrotnej),
+ * a binarne rekordy kroków są scalane w {@link EnsembleStatistics} po zakończeniu każdego przebiegu.
+ * Przebieg przerwany awarią procesu jest powtarzany w nowym procesie do wyczerpania limitu prób.
+ */
+final class EnsembleCoordinator {
+    /** Czas oczekiwania na połączenie nowego procesu roboczego (w milisekundach). */
+    private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+    /** Czas oczekiwania wątku obsługi na kolejną jednostkę pracy (w milisekundach). */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Jednostka pracy: parametry świata, ziarno i liczba kroków jednego przebiegu.
+     *
+     * @param id identyfikator jednostki
+     * @param seed ziarno liczb losowych
+     * @param steps liczba kroków
+     * @param mapSize rozmiar boku mapy
+     * @param maxCities maksymalna liczba miast
+     * @param maxReactors maksymalna liczba reaktorów
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     */
+    record WorkUnit(int id, long seed, int steps, int mapSize, int maxCities, int maxReactors,
+                    int initialCities, int initialReactors) {
+
+        /**
+         * Tworzy symulację bez interfejsu dla tej jednostki pracy.
+         * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
+         *
+         * @return nowa symulacja
+         * @throws IllegalArgumentException jeśli parametry świata są nieprawidłowe
+         */
+        Simulation createSimulation() {
+            return createSimulation(ConfigLoader.getInstance());
+        }
+
+        /**
+         * Tworzy symulację bez interfejsu dla tej jednostki pracy z podaną konfiguracją symulacji.
+         *
+         * @param config konfiguracja symulacji
+         * @return nowa symulacja
+         * @throws IllegalArgumentException jeśli parametry świata są nieprawidłowe
+         */
+        Simulation createSimulation(ConfigLoader config) {
+            return Simulation.headless(mapSize, mapSize, maxCities, maxReactors, initialCities, initialReactors,
+                    seed, config);
+        }
+
+        /**
+         * Zapisuje jednostkę pracy do strumienia.
+         *
+         * @param out strumień wyjściowy
+         * @throws IOException jeśli zapis się nie powiedzie
+         */
+        void write(DataOutputStream out) throws IOException {
+            out.writeInt(id);
+            out.writeLong(seed);
+            out.writeInt(steps);
+            out.writeInt(mapSize);
+            out.writeInt(maxCities);
+            out.writeInt(maxReactors);
+            out.writeInt(initialCities);
+            out.writeInt(initialReactors);
+        }
+
+        /**
+         * Odczytuje jednostkę pracy ze strumienia.
+         *
+         * @param in strumień wejściowy
+         * @return odczytana jednostka pracy
+         * @throws IOException jeśli odczyt się nie powiedzie
+         */
+        static WorkUnit read(DataInputStream in) throws IOException {
+            return new WorkUnit(in.readInt(), in.readLong(), in.readInt(), in.readInt(),
+                    in.readInt(), in.readInt(), in.readInt(), in.readInt());
+        }
+    }
+
+    /**
+     * Wynik zespołu przebiegów.
+     *
+     * @param statistics scalone statystyki kroków
+     * @param digests skróty stanu świata po zakończonych przebiegach (według identyfikatora jednostki)
+     * @param failedUnits identyfikatory jednostek, które nie powiodły się mimo powtórzeń
+     * @param retries liczba powtórzonych prób
+     * @param seconds czas wykonania zespołu (w sekundach)
+     */
+    record Result(EnsembleStatistics statistics, Map<Integer, Long> digests, List<Integer> failedUnits,
+                  int retries, double seconds) {
+    }
+
+    /** Liczba procesów roboczych. */
+    private final int workers;
+    /** Maksymalna liczba prób wykonania jednostki pracy. */
+    private final int maxAttempts;
+    /** Dodatkowe opcje maszyny wirtualnej procesów roboczych. */
+    private final List<String> jvmOptions;
+    /** Konfiguracja symulacji przekazywana procesom roboczym. */
+    private final ConfigLoader config;
+
+    /**
+     * Konstruktor klasy EnsembleCoordinator.
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
+     *
+     * @param workers liczba procesów roboczych
+     * @param maxAttempts maksymalna liczba prób wykonania jednostki pracy
+     * @param jvmOptions dodatkowe opcje maszyny wirtualnej procesów roboczych (np. {@code -Xmx512m})
+     * @throws IllegalArgumentException jeśli liczba procesów lub prób jest mniejsza od 1
+     */
+    EnsembleCoordinator(int workers, int maxAttempts, List<String> jvmOptions) {
+        this(workers, maxAttempts, jvmOptions, ConfigLoader.getInstance());
+    }
+
+    /**
+     * Konstruktor klasy EnsembleCoordinator z konfiguracją symulacji przekazywaną procesom roboczym
+     * (jako opcje {@code --set} wiersza poleceń).
+     *
+     * @param workers liczba procesów roboczych
+     * @param maxAttempts maksymalna liczba prób wykonania jednostki pracy
+     * @param jvmOptions dodatkowe opcje maszyny wirtualnej procesów roboczych (np. {@code -Xmx512m})
+     * @param config konfiguracja symulacji przebiegów
+     * @throws IllegalArgumentException jeśli liczba procesów lub prób jest mniejsza od 1
+     */
+    EnsembleCoordinator(int workers, int maxAttempts, List<String> jvmOptions, ConfigLoader config) {
+        if (workers < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Liczba procesów roboczych i prób musi być większa od 0");
+        }
+        this.workers = workers;
+        this.maxAttempts = maxAttempts;
+        this.jvmOptions = List.copyOf(jvmOptions);
+        this.config = config;
+    }
+
+    /**
+     * Tworzy koordynatora na podstawie konfiguracji (liczba procesów, limit prób, sterta procesu).
+     *
+     * @param config konfiguracja symulacji
+     * @return nowy koordynator
+     */
+    static EnsembleCoordinator fromConfig(ConfigLoader config) {
+        int workers = config.getEnsembleWorkers() > 0 ? config.getEnsembleWorkers()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        String heap = config.getEnsembleWorkerHeap();
+        return new EnsembleCoordinator(workers, config.getEnsembleMaxAttempts(),
+                heap.isBlank() ? List.of() : List.of("-Xmx" + heap), config);
+    }
+
+    /**
+     * Tworzy jednostki pracy o tych samych parametrach świata i kolejnych ziarnach.
+     *
+     * @param runs liczba przebiegów
+     * @param firstSeed ziarno pierwszego przebiegu
+     * @param steps liczba kroków
+     * @param mapSize rozmiar boku mapy
+     * @param maxCities maksymalna liczba miast
+     * @param maxReactors maksymalna liczba reaktorów
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     * @return lista jednostek pracy
+     */
+    static List<WorkUnit> units(int runs, long firstSeed, int steps, int mapSize, int maxCities, int maxReactors,
+                                int initialCities, int initialReactors) {
+        List<WorkUnit> units = new ArrayList<>(runs);
+        for (int i = 0; i < runs; i++) {
+            units.add(new WorkUnit(i, firstSeed + i, steps, mapSize, maxCities, maxReactors,
+                    initialCities, initialReactors));
+        }
+        return units;
+    }
+
+    /**
+     * Wykonuje jednostki pracy w procesach roboczych i scala ich wyniki.
+     *
+     * @param units jednostki pracy (o tej samej liczbie kroków)
+     * @return wynik zespołu
+     * @throws IllegalArgumentException jeśli lista jest pusta lub jednostki mają różną liczbę kroków
+     */
+    Result run(List<WorkUnit> units) {
+        if (units.isEmpty() || units.stream().anyMatch(unit -> unit.steps() != units.get(0).steps())) {
+            throw new IllegalArgumentException("Jednostki pracy muszą mieć tę samą, dodatnią liczbę kroków");
+        }
+        long start = System.nanoTime();
+        Run run = new Run(units);
+        List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < Math.min(workers, units.size()); i++) {
+            threads.add(Thread.ofPlatform().name("zespol-" + i).start(run::serve));
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                run.remaining.set(0);
+            }
+        }
+        List<Integer> failed = new ArrayList<>(run.failedUnits);
+        for (WorkUnit unit : run.pending) {
+            failed.add(unit.id());
+        }
+        Collections.sort(failed);
+        return new Result(run.statistics, Map.copyOf(run.digests), failed, run.retries.get(),
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Uruchamia proces roboczy łączący się z podanym portem.
+     *
+     * @param port port gniazda nasłuchującego koordynatora
+     * @return uruchomiony proces
+     * @throws IOException jeśli proces nie mógł zostać uruchomiony
+     */
+    private Process startWorker(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (ManagementFactory.getRuntimeMXBean().getInputArguments().contains("--enable-preview")) {
+            command.add("--enable-preview");
+        }
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Main.class.getName());
+        command.addAll(config.toArguments());
+        command.add("--worker");
+        command.add(Integer.toString(port));
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * Stan jednego wykonania zespołu, współdzielony przez wątki obsługi procesów roboczych.
+     */
+    private final class Run {
+        /** Jednostki pracy oczekujące na wykonanie (także powtórzenia). */
+        private final LinkedBlockingQueue<WorkUnit> pending;
+        /** Liczba jednostek, które nie zostały jeszcze zakończone ani porzucone. */
+        private final AtomicInteger remaining;
+        /** Liczby prób jednostek pracy. */
+        private final Map<Integer, Integer> attempts = new ConcurrentHashMap<>();
+        /** Skróty stanu świata po zakończonych przebiegach. */
+        private final Map<Integer, Long> digests = new ConcurrentHashMap<>();
+        /** Jednostki porzucone po wyczerpaniu prób. */
+        private final List<Integer> failedUnits = Collections.synchronizedList(new ArrayList<>());
+        /** Liczba powtórzonych prób. */
+        private final AtomicInteger retries = new AtomicInteger();
+        /** Liczba zakończonych prób jednostek pracy (udanych i nieudanych). */
+        private final AtomicInteger attemptsFinished = new AtomicInteger();
+        /** Scalane statystyki zespołu. */
+        private final EnsembleStatistics statistics;
+
+        /**
+         * Tworzy stan wykonania zespołu.
+         *
+         * @param units jednostki pracy
+         */
+        Run(List<WorkUnit> units) {
+            this.pending = new LinkedBlockingQueue<>(units);
+            this.remaining = new AtomicInteger(units.size());
+            this.statistics = new EnsembleStatistics(units.get(0).steps());
+        }
+
+        /**
+         * Pętla wątku obsługi: uruchamia proces roboczy, przekazuje mu kolejne jednostki pracy
+         * i uruchamia nowy proces po awarii poprzedniego, dopóki zostały jednostki do wykonania.
+         * Wątek kończy pracę, jeśli kolejne procesy zawodzą, zanim zakończą choćby jedną próbę.
+         */
+        void serve() {
+            int idleFailures = 0;
+            while (remaining.get() > 0) {
+                int finishedBefore = attemptsFinished.get();
+                try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                    server.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+                    Process process = startWorker(server.getLocalPort());
+                    try {
+                        serveWorker(server);
+                    } finally {
+                        process.destroy();
+                        if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                            process.destroyForcibly();
+                        }
+                    }
+                } catch (IOException e) {
+                    System.err.println("Błąd procesu roboczego " + Thread.currentThread().getName() + ": " + e.getMessage());
+                    idleFailures = attemptsFinished.get() == finishedBefore ? idleFailures + 1 : 0;
+                    if (idleFailures >= maxAttempts) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Obsługuje połączenie z jednym procesem roboczym. Jednostka przerwana awarią procesu
+         * wraca do kolejki (lub jest porzucana po wyczerpaniu prób), a wyjątek kończy obsługę procesu.
+         *
+         * @param server gniazdo nasłuchujące, z którym łączy się proces
+         * @throws IOException jeśli połączenie z procesem zostało przerwane
+         * @throws InterruptedException jeśli wątek obsługi został przerwany
+         */
+        private void serveWorker(ServerSocket server) throws IOException, InterruptedException {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketTimeoutException e) {
+                throw new IOException("proces nie połączył się w wyznaczonym czasie", e);
+            }
+            try (socket;
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                socket.setTcpNoDelay(true);
+                while (remaining.get() > 0) {
+                    WorkUnit unit = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (unit == null) {
+                        continue;
+                    }
+                    try {
+                        execute(unit, in, out);
+                    } catch (EOFException e) {
+                        fail(unit);
+                        throw new IOException("proces zakończył się w trakcie przebiegu " + unit.id(), e);
+                    } catch (IOException e) {
+                        fail(unit);
+                        throw e;
+                    }
+                }
+                out.writeByte(EnsembleWorker.STOP);
+                out.flush();
+            }
+        }
+
+        /**
+         * Zleca jednostkę pracy procesowi i odbiera jej rekordy kroków.
+         *
+         * @param unit jednostka pracy
+         * @param in strumień od procesu roboczego
+         * @param out strumień do procesu roboczego
+         * @throws IOException jeśli połączenie z procesem zostało przerwane
+         */
+        private void execute(WorkUnit unit, DataInputStream in, DataOutputStream out) throws IOException {
+            out.writeByte(EnsembleWorker.UNIT);
+            unit.write(out);
+            out.flush();
+            EnsembleStatistics.Trace trace = new EnsembleStatistics.Trace(unit.steps());
+            while (true) {
+                byte type = in.readByte();
+                if (type == EnsembleWorker.STEP) {
+                    EnsembleWorker.readStep(in, trace);
+                } else if (type == EnsembleWorker.DONE) {
+                    digests.put(unit.id(), in.readLong());
+                    statistics.merge(trace);
+                    attemptsFinished.incrementAndGet();
+                    remaining.decrementAndGet();
+                    return;
+                } else if (type == EnsembleWorker.FAILED) {
+                    System.err.println("Błąd przebiegu " + unit.id() + ": " + in.readUTF());
+                    fail(unit);
+                    return;
+                } else {
+                    throw new IOException("nieznany rekord procesu roboczego: " + type);
+                }
+            }
+        }
+
+        /**
+         * Zwraca jednostkę pracy do kolejki albo porzuca ją po wyczerpaniu prób.
+         *
+         * @param unit jednostka pracy, której próba się nie powiodła
+         */
+        private void fail(WorkUnit unit) {
+            attemptsFinished.incrementAndGet();
+            int attempt = attempts.merge(unit.id(), 1, Integer::sum);
+            if (attempt < maxAttempts) {
+                retries.incrementAndGet();
+                pending.add(unit);
+            } else {
+                failedUnits.add(unit.id());
+                remaining.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Statystyki zespołu przebiegów scalane przyrostowo: po zakończeniu każdego przebiegu jego kolumny
+ * raportu ({@link DataLogger}) są dodawane do sum krok po kroku, więc pamięć zależy od liczby kroków,
+ * a nie od liczby przebiegów. Przebieg jest scalany dopiero w całości, dzięki czemu powtórzenie
+ * przebiegu po awarii procesu nie liczy jego kroków podwójnie.
+ */
+final class EnsembleStatistics {
+    /** Nagłówek pliku CSV ze statystykami zespołu. */
+    static final String HEADER = "krok;przebiegi;ilosc_miast_srednio;ilosc_reaktorow_srednio;dominujacy_kierunek_wiatru"
+            + ";laczna_populacja_srednio;laczna_populacja_odchylenie;laczne_zapotrzebowanie_srednio"
+            + ";laczne_zapotrzebowanie_min;laczne_zapotrzebowanie_max;aktywne_reaktory_srednio";
+    /** Liczba kierunków wiatru. */
+    private static final int WIND_DIRECTIONS = WindDirection.values().length;
+
+    /** Liczba kroków przebiegów. */
+    private final int steps;
+    /** Liczba scalonych przebiegów w każdym kroku. */
+    private final int[] runs;
+    /** Sumy liczby miast. */
+    private final long[] citySum;
+    /** Sumy liczby reaktorów. */
+    private final long[] reactorSum;
+    /** Sumy liczby aktywnych reaktorów. */
+    private final long[] activeReactorSum;
+    /** Sumy łącznej populacji. */
+    private final double[] populationSum;
+    /** Sumy kwadratów łącznej populacji. */
+    private final double[] populationSquareSum;
+    /** Sumy łącznego zapotrzebowania na energię. */
+    private final double[] energySum;
+    /** Najmniejsze łączne zapotrzebowanie na energię. */
+    private final float[] energyMin;
+    /** Największe łączne zapotrzebowanie na energię. */
+    private final float[] energyMax;
+    /** Liczniki kierunków wiatru (krok × kierunek). */
+    private final int[] windCounts;
+
+    /**
+     * Tworzy puste statystyki zespołu.
+     *
+     * @param steps liczba kroków przebiegów
+     * @throws IllegalArgumentException jeśli liczba kroków jest mniejsza od 1
+     */
+    EnsembleStatistics(int steps) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Liczba kroków zespołu musi być większa od 0");
+        }
+        this.steps = steps;
+        this.runs = new int[steps];
+        this.citySum = new long[steps];
+        this.reactorSum = new long[steps];
+        this.activeReactorSum = new long[steps];
+        this.populationSum = new double[steps];
+        this.populationSquareSum = new double[steps];
+        this.energySum = new double[steps];
+        this.energyMin = new float[steps];
+        this.energyMax = new float[steps];
+        this.windCounts = new int[steps * WIND_DIRECTIONS];
+    }
+
+    /**
+     * Scala zakończony przebieg ze statystykami zespołu.
+     *
+     * @param trace kolumny raportu przebiegu
+     */
+    synchronized void merge(Trace trace) {
+        for (int i = 0; i < Math.min(steps, trace.size); i++) {
+            boolean first = runs[i] == 0;
+            runs[i]++;
+            citySum[i] += trace.cities[i];
+            reactorSum[i] += trace.reactors[i];
+            activeReactorSum[i] += trace.activeReactors[i];
+            double population = trace.population[i];
+            populationSum[i] += population;
+            populationSquareSum[i] += population * population;
+            float energy = trace.energy[i];
+            energySum[i] += energy;
+            energyMin[i] = first ? energy : Math.min(energyMin[i], energy);
+            energyMax[i] = first ? energy : Math.max(energyMax[i], energy);
+            windCounts[i * WIND_DIRECTIONS + trace.wind[i]]++;
+        }
+    }
+
+    /**
+     * Zwraca liczbę scalonych przebiegów w kroku.
+     *
+     * @param step numer kroku (od 1)
+     * @return liczba przebiegów
+     */
+    synchronized int getRuns(int step) {
+        return runs[step - 1];
+    }
+
+    /**
+     * Zwraca średnią łączną populację w kroku.
+     *
+     * @param step numer kroku (od 1)
+     * @return średnia populacja (0, jeśli nie scalono przebiegów)
+     */
+    synchronized double getMeanPopulation(int step) {
+        int count = runs[step - 1];
+        return count == 0 ? 0 : populationSum[step - 1] / count;
+    }
+
+    /**
+     * Zwraca odchylenie standardowe łącznej populacji w kroku.
+     *
+     * @param step numer kroku (od 1)
+     * @return odchylenie standardowe populacji
+     */
+    synchronized double getPopulationDeviation(int step) {
+        int count = runs[step - 1];
+        if (count == 0) {
+            return 0;
+        }
+        double mean = populationSum[step - 1] / count;
+        return Math.sqrt(Math.max(0, populationSquareSum[step - 1] / count - mean * mean));
+    }
+
+    /**
+     * Zapisuje statystyki zespołu do pliku CSV (jeden wiersz na krok).
+     *
+     * @param path ścieżka pliku
+     * @throws IOException jeśli zapis się nie powiedzie
+     */
+    synchronized void writeCsv(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int i = 0; i < steps; i++) {
+                int count = Math.max(1, runs[i]);
+                writer.write(String.format(Locale.ROOT, "%d;%d;%.2f;%.2f;%s;%.1f;%.1f;%.2f;%.2f;%.2f;%.2f",
+                        i + 1, runs[i], (double) citySum[i] / count, (double) reactorSum[i] / count,
+                        dominantWind(i), getMeanPopulation(i + 1), getPopulationDeviation(i + 1),
+                        energySum[i] / count, energyMin[i], energyMax[i], (double) activeReactorSum[i] / count));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Wyznacza najczęstszy kierunek wiatru w kroku.
+     *
+     * @param index indeks kroku (od 0)
+     * @return nazwa kierunku
+     */
+    private String dominantWind(int index) {
+        int best = 0;
+        for (int d = 1; d < WIND_DIRECTIONS; d++) {
+            if (windCounts[index * WIND_DIRECTIONS + d] > windCounts[index * WIND_DIRECTIONS + best]) {
+                best = d;
+            }
+        }
+        return WindDirection.values()[best].name();
+    }
+
+    /**
+     * Kolumny raportu jednego przebiegu zebrane przed scaleniem (tablice prymitywów, po jednym polu na kolumnę).
+     */
+    static final class Trace {
+        /** Liczby miast w kolejnych krokach. */
+        private final int[] cities;
+        /** Liczby reaktorów w kolejnych krokach. */
+        private final int[] reactors;
+        /** Kierunki wiatru (numery porządkowe) w kolejnych krokach. */
+        private final byte[] wind;
+        /** Łączne populacje w kolejnych krokach. */
+        private final long[] population;
+        /** Łączne zapotrzebowania na energię w kolejnych krokach. */
+        private final float[] energy;
+        /** Liczby aktywnych reaktorów w kolejnych krokach. */
+        private final int[] activeReactors;
+        /** Liczba zapisanych kroków. */
+        private int size;
+
+        /**
+         * Tworzy pusty zapis przebiegu.
+         *
+         * @param steps liczba kroków przebiegu
+         */
+        Trace(int steps) {
+            this.cities = new int[steps];
+            this.reactors = new int[steps];
+            this.wind = new byte[steps];
+            this.population = new long[steps];
+            this.energy = new float[steps];
+            this.activeReactors = new int[steps];
+        }
+
+        /**
+         * Dopisuje kolumny raportu kolejnego kroku.
+         *
+         * @param cityCount liczba miast
+         * @param reactorCount liczba reaktorów
+         * @param windOrdinal numer porządkowy kierunku wiatru
+         * @param totalPopulation łączna populacja
+         * @param totalEnergyDemand łączne zapotrzebowanie na energię
+         * @param activeReactorCount liczba aktywnych reaktorów
+         * @throws IllegalStateException jeśli przebieg ma więcej kroków niż zadano
+         */
+        void add(int cityCount, int reactorCount, int windOrdinal, long totalPopulation,
+                 float totalEnergyDemand, int activeReactorCount) {
+            if (size == cities.length) {
+                throw new IllegalStateException("Przebieg przekroczył zadaną liczbę kroków");
+            }
+            cities[size] = cityCount;
+            reactors[size] = reactorCount;
+            wind[size] = (byte) windOrdinal;
+            population[size] = totalPopulation;
+            energy[size] = totalEnergyDemand;
+            activeReactors[size] = activeReactorCount;
+            size++;
+        }
+
+        /**
+         * Zwraca liczbę zapisanych kroków.
+         * @return liczba kroków
+         */
+        int size() {
+            return size;
+        }
+    }
+}
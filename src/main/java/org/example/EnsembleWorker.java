@@ -0,0 +1,124 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Proces roboczy zespołu przebiegów. Łączy się z koordynatorem przez gniazdo lokalne,
+ * odbiera kolejne jednostki pracy (parametry świata i ziarno), wykonuje przebiegi bez interfejsu
+ * i odsyła po każdym kroku zwarty binarny rekord kolumn raportu ({@link DataLogger}).
+ *
+ * <p>Protokół (strumienie {@link DataOutputStream}): koordynator wysyła {@link #UNIT} i jednostkę
+ * pracy albo {@link #STOP}; proces odpowiada rekordami {@link #STEP}, a na końcu przebiegu
+ * {@link #DONE} ze skrótem stanu świata lub {@link #FAILED} z opisem błędu.
+ */
+final class EnsembleWorker {
+    /** Polecenie zakończenia pracy procesu. */
+    static final byte STOP = 0;
+    /** Polecenie wykonania jednostki pracy. */
+    static final byte UNIT = 1;
+    /** Rekord kolumn raportu jednego kroku. */
+    static final byte STEP = 2;
+    /** Poprawne zakończenie przebiegu. */
+    static final byte DONE = 3;
+    /** Błąd przebiegu (proces pozostaje gotowy do pracy). */
+    static final byte FAILED = 4;
+
+    /**
+     * Konstruktor prywatny - klasa zawiera wyłącznie metody statyczne.
+     */
+    private EnsembleWorker() {
+    }
+
+    /**
+     * Łączy się z koordynatorem i wykonuje jednostki pracy do otrzymania polecenia zakończenia.
+     *
+     * @param port port koordynatora na adresie pętli zwrotnej
+     * @param config konfiguracja symulacji przebiegów
+     * @throws IOException jeśli połączenie z koordynatorem zostało przerwane
+     */
+    static void run(int port, ConfigLoader config) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            socket.setTcpNoDelay(true);
+            while (in.readByte() == UNIT) {
+                runUnit(EnsembleCoordinator.WorkUnit.read(in), out, config);
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Wykonuje przebieg jednostki pracy i odsyła rekordy kolejnych kroków.
+     *
+     * @param unit jednostka pracy
+     * @param out strumień do koordynatora
+     * @param config konfiguracja symulacji
+     * @throws IOException jeśli zapis do koordynatora się nie powiedzie
+     */
+    static void runUnit(EnsembleCoordinator.WorkUnit unit, DataOutputStream out, ConfigLoader config)
+            throws IOException {
+        Simulation simulation;
+        try {
+            simulation = unit.createSimulation(config);
+        } catch (RuntimeException e) {
+            out.writeByte(FAILED);
+            out.writeUTF(String.valueOf(e.getMessage()));
+            return;
+        }
+        for (int step = 0; step < unit.steps(); step++) {
+            try {
+                simulation.step();
+            } catch (RuntimeException e) {
+                out.writeByte(FAILED);
+                out.writeUTF("krok " + (step + 1) + ": " + e.getMessage());
+                return;
+            }
+            writeStep(out, simulation);
+        }
+        out.writeByte(DONE);
+        out.writeLong(simulation.getStateDigest());
+    }
+
+    /**
+     * Zapisuje rekord kolumn raportu bieżącego kroku.
+     *
+     * @param out strumień do koordynatora
+     * @param simulation symulacja po wykonaniu kroku
+     * @throws IOException jeśli zapis się nie powiedzie
+     */
+    private static void writeStep(DataOutputStream out, Simulation simulation) throws IOException {
+        TerrainMap terrain = simulation.getTerrain();
+        WorldAggregates aggregates = terrain.getAggregates();
+        out.writeByte(STEP);
+        out.writeInt(terrain.getCityCount());
+        out.writeInt(terrain.getReactorCount());
+        out.writeByte(WindDirection.parse(terrain.getWindDirection()).ordinal());
+        out.writeLong(aggregates.getTotalPopulation());
+        out.writeFloat((float) aggregates.getTotalEnergyDemand());
+        out.writeInt(aggregates.getActiveReactors());
+    }
+
+    /**
+     * Odczytuje rekord kroku (po bajcie {@link #STEP}) i dopisuje go do zapisu przebiegu.
+     *
+     * @param in strumień od procesu roboczego
+     * @param trace zapis przebiegu
+     * @throws IOException jeśli odczyt się nie powiedzie
+     */
+    static void readStep(DataInputStream in, EnsembleStatistics.Trace trace) throws IOException {
+        int cities = in.readInt();
+        int reactors = in.readInt();
+        int wind = in.readByte();
+        long population = in.readLong();
+        float energy = in.readFloat();
+        int active = in.readInt();
+        trace.add(cities, reactors, wind, population, energy, active);
+    }
+}
@@ -0,0 +1,105 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Inspektor obiektów mapy: wskazuje miasto lub reaktor najbliższy kursorowi (przez indeksy
+ * przestrzenne migawki) i opisuje jego pola. Opis jest wyznaczany na żądanie, tylko dla
+ * wskazanego obiektu i tylko z migawki, więc GUI nie odwołuje się do żywych obiektów mapy,
+ * a symulacja nie formatuje opisów wszystkich obiektów w każdym kroku.
+ */
+final class EntityInspector {
+    /** Rodzaj wskazanego obiektu. */
+    enum Kind { CITY, REACTOR }
+
+    /**
+     * Wskazany obiekt: rodzaj i indeks w tablicach migawki (stały między krokami,
+     * bo listy obiektów na mapie są tylko powiększane).
+     *
+     * @param kind rodzaj obiektu
+     * @param index indeks obiektu w tablicach migawki
+     */
+    record Selection(Kind kind, int index) {
+    }
+
+    /**
+     * Konstruktor prywatny - klasa zawiera wyłącznie metody statyczne.
+     */
+    private EntityInspector() {
+    }
+
+    /**
+     * Wskazuje miasto lub reaktor, którego środek leży najbliżej podanego punktu mapy.
+     *
+     * @param snapshot migawka stanu świata
+     * @param x współrzędna X punktu mapy
+     * @param y współrzędna Y punktu mapy
+     * @param radius promień wyszukiwania (w jednostkach mapy)
+     * @return wskazany obiekt lub null, jeśli żaden nie leży w promieniu
+     */
+    static Selection pick(WorldSnapshot snapshot, double x, double y, int radius) {
+        int cityHalf = MapRenderer.CITY_SIZE / 2;
+        int reactorHalf = MapRenderer.REACTOR_SIZE / 2;
+        int city = snapshot.cityGrid().nearest((int) Math.round(x) - cityHalf, (int) Math.round(y) - cityHalf, radius);
+        int reactor = snapshot.reactorGrid().nearest((int) Math.round(x) - reactorHalf,
+                (int) Math.round(y) - reactorHalf, radius);
+        if (city < 0 && reactor < 0) {
+            return null;
+        }
+        if (reactor < 0) {
+            return new Selection(Kind.CITY, city);
+        }
+        if (city < 0) {
+            return new Selection(Kind.REACTOR, reactor);
+        }
+        double cityDistance = Math.hypot(snapshot.cityX[city] + cityHalf - x, snapshot.cityY[city] + cityHalf - y);
+        double reactorDistance = Math.hypot(snapshot.reactorX[reactor] + reactorHalf - x,
+                snapshot.reactorY[reactor] + reactorHalf - y);
+        return reactorDistance <= cityDistance
+                ? new Selection(Kind.REACTOR, reactor) : new Selection(Kind.CITY, city);
+    }
+
+    /**
+     * Opisuje pola wskazanego obiektu w stanie z migawki.
+     *
+     * @param snapshot migawka stanu świata
+     * @param selection wskazany obiekt
+     * @return wiersze opisu lub pusta lista, jeśli obiektu nie ma w migawce
+     */
+    static List<String> describe(WorldSnapshot snapshot, Selection selection) {
+        int i = selection.index();
+        if (selection.kind() == Kind.CITY) {
+            if (i >= snapshot.cityCount) {
+                return List.of();
+            }
+            int reactor = snapshot.cityReactorIndex[i];
+            String supply = reactor >= 0 && snapshot.reactorActive[reactor]
+                    ? String.format("#%d (%.1f MW)", snapshot.reactorId[reactor], snapshot.reactorMaxPower[reactor])
+                    : "BRAK";
+            return List.of(
+                    "Miasto " + snapshot.cityId[i],
+                    String.format("Populacja: %,d (oryginalnie: %,d)",
+                            snapshot.cityPopulation[i], snapshot.cityOriginalPopulation[i]),
+                    String.format("Zapotrzebowanie: %.1f MW", snapshot.cityEnergyUsage[i]),
+                    String.format("Skażenie: %.2f%%", snapshot.cityPollution[i]),
+                    "Reaktor: " + supply,
+                    "Położenie: " + snapshot.cityX[i] + ", " + snapshot.cityY[i]);
+        }
+        if (i >= snapshot.reactorCount) {
+            return List.of();
+        }
+        int connected = 0;
+        for (int c = 0; c < snapshot.cityCount; c++) {
+            if (snapshot.cityReactorIndex[c] == i) {
+                connected++;
+            }
+        }
+        return List.of(
+                "Reaktor " + snapshot.reactorId[i] + " (Poziom " + snapshot.reactorLevel[i] + ")",
+                String.format("Moc: %.1f/%.1f MW", snapshot.reactorCurrentPower[i], snapshot.reactorMaxPower[i]),
+                String.format("Wytrzymałość: %.1f%%", snapshot.reactorDurability[i] * 100),
+                "Połączonych miast: " + connected,
+                "Stan: " + (snapshot.reactorActive[i] ? "aktywny" : "nieaktywny"),
+                "Położenie: " + snapshot.reactorX[i] + ", " + snapshot.reactorY[i]);
+    }
+}
@@ -0,0 +1,311 @@
+package org.example;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Magistrala zdarzeń symulacji oparta na jednym prealokowanym buforze cyklicznym z jednym producentem
+ * (pętlą symulacji). Producent wypełnia kolejny slot bufora na miejscu i ogłasza go zapisem numeru
+ * sekwencji - bez blokad, alokacji i budzenia konsumentów, więc publikacja kosztuje kilka zapisów
+ * do pamięci i może pozostać włączona w zwykłych przebiegach. Każdy konsument ma własny wątek
+ * i własny licznik sekwencji; odczytuje wszystkie zdarzenia opublikowane od ostatniego odczytu
+ * i przekazuje je obsłudze jako paczkę, bezpośrednio ze slotów bufora (bez kopiowania).
+ * Zdarzenia nie są gubione: gdy najwolniejszy konsument jest o cały bufor w tyle, producent czeka.
+ */
+final class EventRing {
+    /** Liczba obrotów pętli oczekiwania (producenta lub konsumenta) przed ustąpieniem procesora. */
+    private static final int SPIN_TRIES = 100;
+    /** Liczba ustąpień procesora przez konsumenta przed uśpieniem. */
+    private static final int YIELD_TRIES = 100;
+    /** Czas uśpienia bezczynnego konsumenta (w nanosekundach). */
+    private static final long PARK_NANOS = 50_000;
+    /** Pusta tablica konsumentów. */
+    private static final Consumer[] NO_CONSUMERS = new Consumer[0];
+
+    /**
+     * Obsługa zdarzeń konsumenta, wywoływana w jego wątku.
+     */
+    @FunctionalInterface
+    interface BatchHandler {
+        /**
+         * Obsługuje kolejne zdarzenie paczki. Zdarzenie jest slotem bufora: po powrocie z metody
+         * może zostać nadpisane, więc obsługa nie powinna zachowywać do niego referencji.
+         *
+         * @param event zdarzenie (slot bufora)
+         * @param sequence numer sekwencji zdarzenia
+         * @param endOfBatch czy to ostatnie zdarzenie bieżącej paczki
+         */
+        void onEvent(StepEvent event, long sequence, boolean endOfBatch);
+    }
+
+    /** Prealokowane sloty bufora. */
+    private final StepEvent[] slots;
+    /** Maska indeksu slotu (pojemność - 1). */
+    private final int mask;
+    /** Numer ostatniego opublikowanego zdarzenia (-1, jeśli żadnego). */
+    private final AtomicLong cursor = new AtomicLong(-1);
+    /** Numer następnego zdarzenia producenta (używany tylko przez producenta). */
+    private long nextSequence;
+    /** Zapamiętana najmniejsza sekwencja konsumentów (odświeżana, gdy bufor wydaje się pełny). */
+    private long cachedGatingSequence = -1;
+    /** Aktywni konsumenci (tablica podmieniana przy zmianie, iterowana bez alokacji). */
+    private volatile Consumer[] consumers = NO_CONSUMERS;
+    /** Flaga zamknięcia magistrali. */
+    private volatile boolean closed;
+
+    /**
+     * Tworzy magistralę z buforem o podanej pojemności.
+     *
+     * @param capacity pojemność bufora (potęga dwójki)
+     * @throws IllegalArgumentException jeśli pojemność nie jest dodatnią potęgą dwójki
+     */
+    EventRing(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Pojemność bufora zdarzeń musi być dodatnią potęgą dwójki");
+        }
+        this.slots = new StepEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new StepEvent();
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Rejestruje konsumenta z własnym wątkiem. Konsument otrzymuje zdarzenia opublikowane po rejestracji.
+     *
+     * @param name nazwa wątku konsumenta
+     * @param handler obsługa zdarzeń
+     * @throws IllegalStateException jeśli magistrala została zamknięta
+     */
+    void addHandler(String name, BatchHandler handler) {
+        Consumer consumer;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Magistrala zdarzeń została zamknięta");
+            }
+            consumer = new Consumer(handler, cursor.get());
+            Consumer[] current = consumers;
+            Consumer[] updated = new Consumer[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = consumer;
+            consumers = updated;
+        }
+        Thread thread = new Thread(consumer, name);
+        thread.setDaemon(true);
+        consumer.thread = thread;
+        thread.start();
+    }
+
+    /**
+     * Publikuje zdarzenie dotyczące pojedynczego obiektu na mapie.
+     *
+     * @param type rodzaj zdarzenia
+     * @param step numer kroku
+     * @param object obiekt, którego dotyczy zdarzenie
+     * @param relatedId identyfikator powiązanego obiektu (lub 0)
+     * @param value wartość liczbowa zdarzenia
+     */
+    void publish(StepEvent.Type type, int step, MapObject object, int relatedId, double value) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+        int[] position = object.getPosition();
+        slots[(int) sequence & mask].setObject(type, step, object.getId(), relatedId,
+                position[0], position[1], value, object.checkActivity());
+        cursor.lazySet(sequence);
+    }
+
+    /**
+     * Publikuje zdarzenie podsumowujące krok symulacji.
+     *
+     * @param step numer kroku
+     * @param cityCount liczba miast
+     * @param reactorCount liczba reaktorów
+     * @param activeReactorCount liczba aktywnych reaktorów
+     * @param totalPopulation łączna populacja
+     * @param totalEnergyDemand łączne zapotrzebowanie na energię
+     * @param windDirection kierunek wiatru
+     * @param stateDigest skrót stanu świata po kroku
+     */
+    void publishSummary(int step, int cityCount, int reactorCount, int activeReactorCount,
+                        int totalPopulation, float totalEnergyDemand, String windDirection, long stateDigest) {
+        long sequence = claim();
+        if (sequence < 0) {
+            return;
+        }
+        slots[(int) sequence & mask].setSummary(step, cityCount, reactorCount, activeReactorCount,
+                totalPopulation, totalEnergyDemand, windDirection, stateDigest);
+        cursor.lazySet(sequence);
+    }
+
+    /**
+     * Rezerwuje następny slot producenta, czekając, aż najwolniejszy konsument go zwolni.
+     *
+     * @return numer sekwencji slotu lub -1, jeśli magistrala została zamknięta
+     */
+    private long claim() {
+        if (closed) {
+            return -1;
+        }
+        long sequence = nextSequence;
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long gating;
+            int tries = 0;
+            while (wrapPoint > (gating = minimumSequence(sequence - 1))) {
+                // Konsument może nie mieć przydzielonego procesora - po krótkim oczekiwaniu czynnym ustępujemy.
+                if (++tries < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            cachedGatingSequence = gating;
+        }
+        nextSequence = sequence + 1;
+        return sequence;
+    }
+
+    /**
+     * Wyznacza najmniejszą sekwencję przetworzoną przez konsumentów.
+     *
+     * @param defaultSequence wartość zwracana, gdy nie ma konsumentów
+     * @return najmniejsza sekwencja konsumentów
+     */
+    private long minimumSequence(long defaultSequence) {
+        long minimum = defaultSequence;
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Zwraca numer ostatniego opublikowanego zdarzenia.
+     * @return numer sekwencji lub -1, jeśli nic nie opublikowano
+     */
+    long getCursor() {
+        return cursor.get();
+    }
+
+    /**
+     * Zwraca pojemność bufora.
+     * @return liczba slotów
+     */
+    int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Zamyka magistralę: konsumenci przetwarzają pozostałe zdarzenia, a metoda czeka na zakończenie ich wątków.
+     * Zdarzenia publikowane po zamknięciu są pomijane. Metoda musi być wywołana przez producenta.
+     */
+    void close() {
+        Consumer[] current;
+        synchronized (this) {
+            closed = true;
+            current = consumers;
+        }
+        for (Consumer consumer : current) {
+            LockSupport.unpark(consumer.thread);
+            try {
+                consumer.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Usuwa konsumenta z listy aktywnych (producent przestaje na niego czekać).
+     *
+     * @param consumer konsument do usunięcia
+     */
+    private synchronized void remove(Consumer consumer) {
+        Consumer[] current = consumers;
+        int index = -1;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == consumer) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return;
+        }
+        Consumer[] updated = new Consumer[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        consumers = updated;
+    }
+
+    /**
+     * Konsument z własnym licznikiem sekwencji, odczytujący zdarzenia paczkami.
+     */
+    private final class Consumer implements Runnable {
+        /** Obsługa zdarzeń. */
+        private final BatchHandler handler;
+        /** Numer ostatniego przetworzonego zdarzenia. */
+        private final AtomicLong sequence;
+        /** Wątek konsumenta. */
+        private Thread thread;
+
+        /**
+         * Tworzy konsumenta.
+         *
+         * @param handler obsługa zdarzeń
+         * @param start numer ostatniego zdarzenia opublikowanego przed rejestracją
+         */
+        Consumer(BatchHandler handler, long start) {
+            this.handler = handler;
+            this.sequence = new AtomicLong(start);
+        }
+
+        /**
+         * Pętla wątku konsumenta: przekazuje obsłudze paczki opublikowanych zdarzeń, a przy braku
+         * zdarzeń kolejno kręci się w miejscu, ustępuje procesora i usypia na krótko.
+         * Błąd obsługi (wyjątek lub {@link Error}) odłącza konsumenta, aby nie wstrzymywał producenta.
+         */
+        @Override
+        public void run() {
+            try {
+                long next = sequence.get() + 1;
+                int idle = 0;
+                while (true) {
+                    long available = cursor.get();
+                    if (available < next) {
+                        if (closed && cursor.get() < next) {
+                            break;
+                        }
+                        if (idle < SPIN_TRIES) {
+                            Thread.onSpinWait();
+                        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+                            Thread.yield();
+                        } else {
+                            LockSupport.parkNanos(PARK_NANOS);
+                        }
+                        idle++;
+                        continue;
+                    }
+                    idle = 0;
+                    try {
+                        for (long s = next; s <= available; s++) {
+                            handler.onEvent(slots[(int) s & mask], s, s == available);
+                        }
+                    } catch (Throwable e) {
+                        System.err.println("Błąd obsługi zdarzenia w " + Thread.currentThread().getName()
+                                + ": " + e.getMessage());
+                        break;
+                    }
+                    sequence.lazySet(available);
+                    next = available + 1;
+                }
+            } finally {
+                // Odłączenie w każdym przypadku - inaczej producent czekałby na konsumenta bez wątku.
+                remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package org.example;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Eksport klatek animacji przebiegu bez okna (działa przy {@code java.awt.headless=true}).
+ * Każda migawka stanu świata jest rysowana przez {@link MapRenderer} (te same warstwy co w podglądzie
+ * na żywo) do obrazu poza ekranem i kodowana do PNG w puli wątków, podczas gdy symulacja liczy
+ * kolejne kroki. Klatki trafiają do katalogu jako numerowane pliki PNG albo do jednego archiwum ZIP
+ * (w kolejności kroków). Liczba klatek w toku jest ograniczona: gdy koder nie nadąża, wątek
+ * symulacji czeka na wolne miejsce, więc pamięć nie rośnie z długością przebiegu.
+ */
+class FrameExporter implements AutoCloseable {
+    /** Tło klatki (jak domyślne tło panelu podglądu). */
+    private static final Color BACKGROUND = new Color(238, 238, 238);
+    /** Wzorzec nazwy pliku klatki. */
+    private static final String FRAME_NAME = "klatka_%06d.png";
+    /** Znacznik końca kolejki archiwum. */
+    private static final CompletableFuture<byte[]> END = CompletableFuture.completedFuture(null);
+
+    /** Katalog klatek lub plik archiwum. */
+    private final Path target;
+    /** Szerokość klatki (w pikselach). */
+    private final int frameWidth;
+    /** Wysokość klatki (w pikselach). */
+    private final int frameHeight;
+    /** Obiekt rysujący warstwy mapy (bezstanowy, współdzielony przez wątki kodujące). */
+    private final MapRenderer renderer;
+    /** Pula wątków rysujących i kodujących klatki. */
+    private final ExecutorService encoders;
+    /** Wolne miejsca na klatki w toku (rysowane, kodowane lub czekające na zapis). */
+    private final Semaphore inFlight;
+    /** Maksymalna liczba klatek w toku. */
+    private final int maxInFlight;
+    /** Zakodowane klatki czekające na zapis do archiwum, w kolejności kroków (null bez archiwum). */
+    private final BlockingQueue<CompletableFuture<byte[]>> archiveQueue;
+    /** Strumień archiwum klatek (null bez archiwum). */
+    private final ZipOutputStream archive;
+    /** Wątek zapisujący klatki do archiwum (null bez archiwum). */
+    private final Thread archiveWriter;
+    /** Pierwszy błąd zapisu lub kodowania (null, jeśli nie wystąpił). */
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    /** Liczba zapisanych klatek. */
+    private final AtomicInteger writtenFrames = new AtomicInteger();
+    /** Liczba przyjętych klatek (numer następnej klatki). */
+    private int submittedFrames;
+    /** Czy eksport został zamknięty. */
+    private boolean closed;
+
+    /**
+     * Konstruktor klasy FrameExporter.
+     * Ścieżka zakończona na {@code .zip} oznacza jedno archiwum, inna - katalog numerowanych plików PNG.
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
+     *
+     * @param target katalog klatek lub plik archiwum
+     * @param frameWidth szerokość klatki (w pikselach)
+     * @param frameHeight wysokość klatki (w pikselach)
+     * @param threads liczba wątków kodujących
+     * @param maxInFlight maksymalna liczba klatek w toku
+     * @throws IOException jeśli nie udało się utworzyć katalogu lub archiwum
+     * @throws IllegalArgumentException jeśli rozmiar klatki, liczba wątków lub limit klatek są mniejsze od 1
+     */
+    FrameExporter(Path target, int frameWidth, int frameHeight, int threads, int maxInFlight) throws IOException {
+        this(target, frameWidth, frameHeight, threads, maxInFlight, ConfigLoader.getInstance());
+    }
+
+    /**
+     * Konstruktor klasy FrameExporter z konfiguracją przebiegu (parametry rysowania klatek).
+     * Ścieżka zakończona na {@code .zip} oznacza jedno archiwum, inna - katalog numerowanych plików PNG.
+     *
+     * @param target katalog klatek lub plik archiwum
+     * @param frameWidth szerokość klatki (w pikselach)
+     * @param frameHeight wysokość klatki (w pikselach)
+     * @param threads liczba wątków kodujących
+     * @param maxInFlight maksymalna liczba klatek w toku
+     * @param config konfiguracja symulacji
+     * @throws IOException jeśli nie udało się utworzyć katalogu lub archiwum
+     * @throws IllegalArgumentException jeśli rozmiar klatki, liczba wątków lub limit klatek są mniejsze od 1
+     */
+    FrameExporter(Path target, int frameWidth, int frameHeight, int threads, int maxInFlight,
+                  ConfigLoader config) throws IOException {
+        if (frameWidth < 1 || frameHeight < 1) {
+            throw new IllegalArgumentException("Rozmiar klatki musi być większy od 0");
+        }
+        if (threads < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("Liczba wątków i limit klatek w toku muszą być większe od 0");
+        }
+        this.target = target;
+        this.renderer = new MapRenderer(config);
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        boolean toArchive = target.getFileName() != null
+                && target.getFileName().toString().toLowerCase().endsWith(".zip");
+        if (toArchive) {
+            if (target.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(target.toAbsolutePath().getParent());
+            }
+            this.archive = new ZipOutputStream(Files.newOutputStream(target));
+            // PNG jest już skompresowany - ponowna kompresja tylko obciążałaby wątek zapisu.
+            archive.setLevel(Deflater.NO_COMPRESSION);
+            this.archiveQueue = new LinkedBlockingQueue<>();
+            this.archiveWriter = new Thread(this::writeArchive, "frame-archive");
+            archiveWriter.setDaemon(true);
+        } else {
+            Files.createDirectories(target);
+            this.archive = null;
+            this.archiveQueue = null;
+            this.archiveWriter = null;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.encoders = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "frame-encoder-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (archiveWriter != null) {
+            archiveWriter.start();
+        }
+    }
+
+    /**
+     * Tworzy eksport klatek o rozmiarze, liczbie wątków i limicie klatek w toku z konfiguracji
+     * (liczba wątków 0 oznacza wszystkie rdzenie poza jednym, zostawionym dla symulacji).
+     *
+     * @param target katalog klatek lub plik archiwum ({@code .zip})
+     * @param config konfiguracja symulacji
+     * @return nowy eksport klatek
+     * @throws IOException jeśli nie udało się utworzyć katalogu lub archiwum
+     */
+    static FrameExporter fromConfig(Path target, ConfigLoader config) throws IOException {
+        int threads = config.getExportFramesThreads() > 0 ? config.getExportFramesThreads()
+                : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        return new FrameExporter(target, config.getExportFramesWidth(), config.getExportFramesHeight(),
+                threads, config.getExportFramesQueue(), config);
+    }
+
+    /**
+     * Przyjmuje migawkę do eksportu jako kolejną klatkę. Rysowanie, kodowanie i zapis odbywają się
+     * w tle; metoda czeka tylko wtedy, gdy osiągnięto limit klatek w toku.
+     *
+     * @param snapshot migawka stanu świata (nie może być później modyfikowana)
+     * @throws IOException jeśli wcześniejsza klatka nie została zapisana lub eksport przerwano
+     * @throws IllegalStateException jeśli eksport został zamknięty
+     */
+    void submit(WorldSnapshot snapshot) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Eksport klatek został zamknięty");
+        }
+        throwIfFailed();
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Przerwano eksport klatek");
+        }
+        int frame = submittedFrames++;
+        CompletableFuture<byte[]> encoded = CompletableFuture.supplyAsync(() -> encode(render(snapshot)), encoders);
+        if (archiveQueue != null) {
+            archiveQueue.add(encoded);
+            return;
+        }
+        encoded.thenAccept(png -> {
+            try {
+                Files.write(target.resolve(String.format(FRAME_NAME, frame)), png);
+                writtenFrames.incrementAndGet();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((ignored, error) -> {
+            if (error != null) {
+                recordFailure(error);
+            }
+            inFlight.release();
+        });
+    }
+
+    /**
+     * Rysuje klatkę: warstwy mapy dopasowanej do rozmiaru klatki oraz numer kroku i kierunek wiatru.
+     *
+     * @param snapshot migawka stanu świata
+     * @return obraz klatki
+     */
+    BufferedImage render(WorldSnapshot snapshot) {
+        BufferedImage image = new BufferedImage(frameWidth, frameHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setColor(BACKGROUND);
+            g2d.fillRect(0, 0, frameWidth, frameHeight);
+            Viewport viewport = new Viewport();
+            viewport.fit(snapshot.width, snapshot.height, frameWidth, frameHeight);
+            renderer.draw(g2d, snapshot, viewport, frameWidth, frameHeight);
+            g2d.setColor(Color.BLACK);
+            g2d.drawString("Krok: " + snapshot.step + "   Wiatr: " + snapshot.windDirection, 8, 16);
+        } finally {
+            g2d.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Koduje obraz do formatu PNG.
+     *
+     * @param image obraz klatki
+     * @return zawartość pliku PNG
+     * @throws UncheckedIOException jeśli kodowanie się nie powiodło
+     */
+    private static byte[] encode(BufferedImage image) {
+        ByteArrayOutputStream png = new ByteArrayOutputStream(64 * 1024);
+        try {
+            ImageIO.write(image, "png", png);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return png.toByteArray();
+    }
+
+    /**
+     * Pętla wątku archiwum: zapisuje zakodowane klatki w kolejności kroków aż do znacznika końca.
+     */
+    private void writeArchive() {
+        int frame = 0;
+        while (true) {
+            CompletableFuture<byte[]> encoded;
+            try {
+                encoded = archiveQueue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (encoded == END) {
+                return;
+            }
+            try {
+                byte[] png = encoded.join();
+                if (failure.get() == null) {
+                    archive.putNextEntry(new ZipEntry(String.format(FRAME_NAME, frame)));
+                    archive.write(png);
+                    archive.closeEntry();
+                    writtenFrames.incrementAndGet();
+                }
+            } catch (IOException | CompletionException e) {
+                recordFailure(e);
+            } finally {
+                frame++;
+                inFlight.release();
+            }
+        }
+    }
+
+    /**
+     * Zapamiętuje pierwszy błąd eksportu.
+     *
+     * @param error błąd kodowania lub zapisu
+     */
+    private void recordFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof UncheckedIOException unchecked) {
+            cause = unchecked.getCause();
+        }
+        IOException failureCause = cause instanceof IOException io ? io
+                : new IOException("Błąd rysowania klatki: " + cause.getMessage(), cause);
+        failure.compareAndSet(null, failureCause);
+    }
+
+    /**
+     * Zgłasza pierwszy błąd eksportu, jeśli wystąpił.
+     *
+     * @throws IOException pierwszy błąd kodowania lub zapisu
+     */
+    private void throwIfFailed() throws IOException {
+        IOException error = failure.get();
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Zwraca liczbę klatek przyjętych do eksportu.
+     * @return liczba przyjętych klatek
+     */
+    int getSubmittedFrames() {
+        return submittedFrames;
+    }
+
+    /**
+     * Zwraca liczbę klatek zapisanych do katalogu lub archiwum.
+     * @return liczba zapisanych klatek
+     */
+    int getWrittenFrames() {
+        return writtenFrames.get();
+    }
+
+    /**
+     * Czeka na zapis wszystkich przyjętych klatek i zamyka pulę wątków oraz archiwum.
+     *
+     * @throws IOException jeśli któraś klatka nie została zapisana lub oczekiwanie przerwano
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            inFlight.acquire(maxInFlight);
+            if (archiveWriter != null) {
+                archiveQueue.add(END);
+                archiveWriter.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recordFailure(new IOException("Przerwano eksport klatek"));
+        } finally {
+            encoders.shutdownNow();
+            if (archive != null) {
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    recordFailure(e);
+                }
+            }
+        }
+        throwIfFailed();
+    }
+}
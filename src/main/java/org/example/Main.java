@@ -1,5 +1,11 @@
 package org.example;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -8,30 +14,279 @@ import java.util.Scanner;
  * a następnie inicjuje i uruchamia obiekt symulacji.
  */
 public class Main {
-    /** Singleton konfiguracji symulacji, dostarczający globalne parametry. */
-    private final static ConfigLoader config = ConfigLoader.getInstance();
-
     /**
      * Metoda główna aplikacji (punkt wejścia).
      * Uruchamia proces zbierania konfiguracji i rozpoczyna symulację.
+     * Wywołanie z argumentami {@code --replay <plik>} otwiera odtwarzanie zapisanego przebiegu,
+     * {@code --server [port]} uruchamia lokalny serwer wielu sesji symulacji,
+     * {@code --scenario <plik>} uruchamia symulację na mapie wczytanej ze scenariusza,
+     * {@code --export <katalog|plik.zip> [kroki]} eksportuje klatki animacji przebiegu bez okna,
+     * {@code --dump <plik> [kroki]} zapisuje zrzut mapy po przebiegu bez okna (wczytywany przez {@code --scenario}),
+     * {@code --verify [kroki] [ziarno]} sprawdza powtarzalność przebiegu w różnych konfiguracjach silnika,
+     * a {@code --ensemble <przebiegi> [kroki] [ziarno]} wykonuje zespół przebiegów w osobnych procesach
+     * ({@code --worker <port>} uruchamia proces roboczy zespołu).
+     * Opcje {@code --config <plik>} i {@code --set klucz=wartość} (w dowolnym miejscu) zmieniają
+     * konfigurację uruchamianej symulacji zamiast domyślnego pliku {@code config.properties}.
      *
-     * @param args argumenty wiersza poleceń (nieużywane w tej aplikacji).
+     * @param args argumenty wiersza poleceń.
      */
     public static void main(String[] args) {
-        int[] simConfig = getSimulationConfig();
+        ConfigLoader config;
+        List<String> remaining = new ArrayList<>();
+        try {
+            config = ConfigLoader.fromArguments(args, remaining);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Nieprawidłowa opcja konfiguracji: " + e.getMessage());
+            return;
+        } catch (IOException e) {
+            System.err.println("Błąd wczytywania konfiguracji: " + e.getMessage());
+            return;
+        }
+        args = remaining.toArray(new String[0]);
+        if (args.length >= 2 && args[0].equals("--replay")) {
+            openReplay(args[1], config);
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--server")) {
+            startServer(args.length >= 2 ? args[1] : null, config);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--scenario")) {
+            runScenario(args[1], config);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--export")) {
+            exportFrames(args[1], args.length >= 3 ? args[2] : null, config);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--dump")) {
+            dumpMap(args[1], args.length >= 3 ? args[2] : null, config);
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("--verify")) {
+            verifyDeterminism(args.length >= 2 ? args[1] : "100", args.length >= 3 ? args[2] : null, config);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--ensemble")) {
+            runEnsemble(args[1], args.length >= 3 ? args[2] : null, args.length >= 4 ? args[3] : null, config);
+            return;
+        }
+        if (args.length >= 2 && args[0].equals("--worker")) {
+            runWorker(args[1], config);
+            return;
+        }
+        int[] simConfig = getSimulationConfig(config);
         Simulation simulation = new Simulation(
-                simConfig[0], simConfig[1], simConfig[2], simConfig[3], simConfig[4], simConfig[5]
+                simConfig[0], simConfig[1], simConfig[2], simConfig[3], simConfig[4], simConfig[5], config
         );
         simulation.run();
     }
 
+    /**
+     * Wczytuje zapis przebiegu i otwiera okno odtwarzania.
+     * Model symulacji nie jest ponownie wykonywany.
+     *
+     * @param fileName ścieżka pliku zapisu przebiegu.
+     * @param config konfiguracja przebiegu (parametry rysowania i inspektora).
+     */
+    private static void openReplay(String fileName, ConfigLoader config) {
+        try {
+            MapVisualizer.showReplay(RunReplay.load(Path.of(fileName)), config);
+        } catch (IOException e) {
+            System.err.println("Błąd wczytywania zapisu przebiegu: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Uruchamia lokalny serwer symulacji (nasłuch wyłącznie na localhost).
+     *
+     * @param port numer portu podany w wierszu poleceń lub null (port z konfiguracji).
+     * @param config konfiguracja symulacji.
+     */
+    private static void startServer(String port, ConfigLoader config) {
+        try {
+            SimulationServer server = SimulationServer.fromConfig(
+                    port != null ? Integer.parseInt(port) : config.getServerPort(), config);
+            server.start();
+            System.out.println("Serwer symulacji: http://localhost:" + server.getPort() + "/sessions");
+        } catch (NumberFormatException e) {
+            System.err.println("Nieprawidłowy numer portu: " + port);
+        } catch (IOException e) {
+            System.err.println("Błąd uruchamiania serwera symulacji: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wczytuje scenariusz (rozmieszczenie miast i reaktorów) i uruchamia na nim symulację.
+     *
+     * @param fileName ścieżka pliku scenariusza.
+     * @param config konfiguracja symulacji.
+     */
+    private static void runScenario(String fileName, ConfigLoader config) {
+        try {
+            long start = System.nanoTime();
+            Simulation simulation = Simulation.fromScenario(Path.of(fileName), true, config);
+            System.out.printf("Wczytano scenariusz %s w %.2f s%n", fileName, (System.nanoTime() - start) / 1e9);
+            simulation.run();
+        } catch (IllegalArgumentException e) {
+            System.err.println("Nieprawidłowy scenariusz: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Błąd wczytywania scenariusza: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wykonuje przebieg bez okna (tryb {@code java.awt.headless}) i eksportuje każdy krok jako klatkę
+     * animacji. Klatki są rysowane i kodowane w tle, podczas gdy symulacja liczy kolejne kroki.
+     *
+     * @param target katalog klatek lub plik archiwum ({@code .zip}).
+     * @param steps liczba kroków podana w wierszu poleceń lub null (czas symulacji z konfiguracji).
+     * @param config konfiguracja symulacji.
+     */
+    private static void exportFrames(String target, String steps, ConfigLoader config) {
+        System.setProperty("java.awt.headless", "true");
+        try {
+            int stepCount = steps != null ? Integer.parseInt(steps) : config.getSimulationDuration();
+            Simulation simulation = Simulation.headless(1000, 1000, config.getMaxCities(), config.getMaxReactors(),
+                    Math.min(10, config.getMaxCities()), Math.min(5, config.getMaxReactors()), config);
+            long start = System.nanoTime();
+            long simulationNanos = 0;
+            FrameExporter exporter = FrameExporter.fromConfig(Path.of(target), config);
+            try (exporter) {
+                exporter.submit(simulation.snapshot());
+                for (int i = 0; i < stepCount; i++) {
+                    long stepStart = System.nanoTime();
+                    simulation.step();
+                    WorldSnapshot snapshot = simulation.snapshot();
+                    simulationNanos += System.nanoTime() - stepStart;
+                    exporter.submit(snapshot);
+                }
+            }
+            System.out.printf("Wyeksportowano %d klatek do %s w %.2f s (symulacja: %.2f s)%n",
+                    exporter.getWrittenFrames(), target, (System.nanoTime() - start) / 1e9, simulationNanos / 1e9);
+        } catch (NumberFormatException e) {
+            System.err.println("Nieprawidłowa liczba kroków: " + steps);
+        } catch (IOException e) {
+            System.err.println("Błąd eksportu klatek: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wykonuje przebieg bez okna i zapisuje stan mapy po ostatnim kroku do pliku zrzutu
+     * ({@link OffHeapDump}), który można potem wczytać poleceniem {@code --scenario}.
+     *
+     * @param target ścieżka pliku zrzutu.
+     * @param steps liczba kroków podana w wierszu poleceń lub null (czas symulacji z konfiguracji).
+     * @param config konfiguracja symulacji.
+     */
+    private static void dumpMap(String target, String steps, ConfigLoader config) {
+        try {
+            int stepCount = steps != null ? Integer.parseInt(steps) : config.getSimulationDuration();
+            Simulation simulation = Simulation.headless(1000, 1000, config.getMaxCities(), config.getMaxReactors(),
+                    Math.min(10, config.getMaxCities()), Math.min(5, config.getMaxReactors()), config);
+            for (int i = 0; i < stepCount; i++) {
+                simulation.step();
+            }
+            OffHeapDump.export(simulation.getTerrain(), Path.of(target));
+            System.out.println("Zapisano zrzut mapy po " + stepCount + " krokach do " + target);
+        } catch (NumberFormatException e) {
+            System.err.println("Nieprawidłowa liczba kroków: " + steps);
+        } catch (IOException e) {
+            System.err.println("Błąd zapisu zrzutu mapy: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Porównuje przebieg wykonywany bezpośrednio z przebiegami rozgałęzianymi i odtwarzanymi
+     * z punktu kontrolnego przed każdym krokiem, wypisując pierwszą rozbieżność.
+     *
+     * @param steps liczba kroków podana w wierszu poleceń.
+     * @param seed ziarno podane w wierszu poleceń lub null (ziarno z konfiguracji albo losowe).
+     * @param config konfiguracja symulacji.
+     */
+    private static void verifyDeterminism(String steps, String seed, ConfigLoader config) {
+        try {
+            int stepCount = Integer.parseInt(steps);
+            long seedValue = seed != null ? Long.parseLong(seed)
+                    : config.getSimulationSeed() != 0 ? config.getSimulationSeed() : System.nanoTime();
+            System.out.println("Weryfikacja powtarzalności: " + stepCount + " kroków, ziarno " + seedValue);
+            DeterminismVerifier verifier = new DeterminismVerifier(600, 600,
+                    Math.min(10, config.getMaxCities()), Math.min(5, config.getMaxReactors()), seedValue, config);
+            for (DeterminismVerifier.StandardEngine engine : DeterminismVerifier.StandardEngine.values()) {
+                if (engine == DeterminismVerifier.StandardEngine.DIRECT) {
+                    continue;
+                }
+                DeterminismVerifier.Divergence divergence =
+                        verifier.verify(DeterminismVerifier.StandardEngine.DIRECT, engine, stepCount);
+                System.out.println("Bezpośrednio / " + engine.getDescription() + ": "
+                        + (divergence == null ? "zgodne" : divergence));
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Nieprawidłowa liczba kroków lub ziarno: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Błąd weryfikacji powtarzalności: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wykonuje zespół przebiegów o kolejnych ziarnach w procesach roboczych i zapisuje
+     * statystyki kroków do pliku CSV w katalogu {@code docs}.
+     *
+     * @param runs liczba przebiegów podana w wierszu poleceń.
+     * @param steps liczba kroków podana w wierszu poleceń lub null (czas symulacji z konfiguracji).
+     * @param seed ziarno pierwszego przebiegu lub null (ziarno z konfiguracji albo losowe).
+     * @param config konfiguracja symulacji.
+     */
+    private static void runEnsemble(String runs, String steps, String seed, ConfigLoader config) {
+        try {
+            int runCount = Integer.parseInt(runs);
+            int stepCount = steps != null ? Integer.parseInt(steps) : config.getSimulationDuration();
+            long seedValue = seed != null ? Long.parseLong(seed)
+                    : config.getSimulationSeed() != 0 ? config.getSimulationSeed() : System.nanoTime();
+            EnsembleCoordinator coordinator = EnsembleCoordinator.fromConfig(config);
+            EnsembleCoordinator.Result result = coordinator.run(EnsembleCoordinator.units(runCount, seedValue, stepCount,
+                    800, config.getMaxCities(), config.getMaxReactors(),
+                    Math.min(10, config.getMaxCities()), Math.min(5, config.getMaxReactors())));
+            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+            Path output = Path.of("docs", "zespol_" + LocalDateTime.now().format(formatter) + ".csv");
+            result.statistics().writeCsv(output);
+            int completed = result.digests().size();
+            System.out.printf("Zespół: %d z %d przebiegów w %.2f s (%.1f kroków/s), powtórzenia: %d, nieudane: %s%n",
+                    completed, runCount, result.seconds(), completed * (double) stepCount / result.seconds(),
+                    result.retries(), result.failedUnits());
+            System.out.println("Statystyki zespołu: " + output);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Nieprawidłowe parametry zespołu: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Błąd zapisu statystyk zespołu: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Uruchamia proces roboczy zespołu przebiegów (bez okna), połączony z koordynatorem.
+     *
+     * @param port port koordynatora podany w wierszu poleceń.
+     * @param config konfiguracja symulacji przebiegów.
+     */
+    private static void runWorker(String port, ConfigLoader config) {
+        System.setProperty("java.awt.headless", "true");
+        try {
+            EnsembleWorker.run(Integer.parseInt(port), config);
+        } catch (NumberFormatException e) {
+            System.err.println("Nieprawidłowy numer portu: " + port);
+        } catch (IOException e) {
+            System.err.println("Błąd połączenia z koordynatorem zespołu: " + e.getMessage());
+        }
+    }
+
     /**
      * Zbiera od użytkownika dane konfiguracyjne niezbędne do uruchomienia symulacji.
      *
+     * @param config konfiguracja symulacji (limity miast i reaktorów).
      * @return tablica int[] z wartościami konfiguracyjnymi w następującej kolejności:
      *         [szerokość mapy, wysokość mapy, maks. miast, maks. reaktorów, pocz. miast, pocz. reaktorów]
      */
-    private static int[] getSimulationConfig() {
+    private static int[] getSimulationConfig(ConfigLoader config) {
         Scanner scanner = new Scanner(System.in);
 
         System.out.println("=== KONFIGURACJA SYMULACJI ===");
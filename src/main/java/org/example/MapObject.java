@@ -1,16 +1,33 @@
 package org.example;
 
+import java.io.Serializable;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Abstrakcyjna klasa bazowa dla wszystkich obiektów na mapie.
- * Definiuje wspólne właściwości, takie jak ID, współrzędne i stan aktywności.
+ * Definiuje wspólne właściwości, takie jak ID, współrzędne i stan aktywności,
+ * a także własny strumień liczb losowych obiektu i skrót jego stanu, zgłaszany
+ * do skrótu świata przy każdej zmianie pól.
  */
-public abstract class MapObject {
+public abstract class MapObject implements Serializable {
+    /** Wersja formatu serializacji (punkty kontrolne sesji). */
+    private static final long serialVersionUID = 1L;
     /** Unikalny identyfikator obiektu. */
     private int id;
     /** Współrzędne obiektu w formacie [x, y, z]. */
     private int[] coordinates;
     /** Flaga określająca, czy obiekt jest aktywny. */
     private boolean is_active;
+    /** Strumień liczb losowych obiektu. */
+    private final SimulationRandom random;
+    /** Skrót bieżącego stanu obiektu. */
+    private transient long stateHash;
+    /** Skrót stanu świata, do którego obiekt zgłasza zmiany (null, jeśli obiekt nie jest na mapie). */
+    private transient StateDigest digest;
+    /** Agregaty świata, do których obiekt zgłasza zmiany wkładu (null, jeśli obiekt nie jest na mapie). */
+    private transient WorldAggregates aggregates;
+    /** Region agregatów, w którym leży obiekt. */
+    private transient int region;
 
     /**
      * Konstruktor klasy MapObject.
@@ -21,12 +38,37 @@ public abstract class MapObject {
      * @throws IllegalArgumentException jeśli tablica współrzędnych nie ma długości 3
      */
     public MapObject(int id, int[] coordinates) {
+        this(id, coordinates, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Konstruktor klasy MapObject z ziarnem strumienia liczb losowych obiektu.
+     *
+     * @param id unikalny identyfikator obiektu
+     * @param coordinates tablica współrzędnych [x, y, z]
+     * @param seed ziarno strumienia liczb losowych obiektu
+     * @throws IllegalArgumentException jeśli tablica współrzędnych nie ma długości 3
+     */
+    protected MapObject(int id, int[] coordinates, long seed) {
         this.id = id;
         if (coordinates.length != 3) {
             throw new IllegalArgumentException("Coordinates must be [x, y, z]");
         }
         this.coordinates = coordinates.clone();
         this.is_active = true;
+        this.random = new SimulationRandom(seed);
+    }
+
+    /**
+     * Konstruktor kopiujący, używany przy rozgałęzianiu symulacji.
+     *
+     * @param other kopiowany obiekt
+     */
+    protected MapObject(MapObject other) {
+        this.id = other.id;
+        this.coordinates = other.coordinates.clone();
+        this.is_active = other.is_active;
+        this.random = other.random.copy();
     }
 
     /**
@@ -35,6 +77,91 @@ public abstract class MapObject {
      */
     public abstract void update();
 
+    /**
+     * Oblicza skrót bieżącego stanu obiektu (wszystkich pól zmieniających się w trakcie symulacji).
+     *
+     * @return skrót stanu obiektu
+     */
+    protected abstract long hashState();
+
+    /**
+     * Przelicza skrót obiektu po zmianie jego pól i aktualizuje skrót oraz agregaty świata.
+     * Musi być wywoływana przez każdą metodę zmieniającą stan obiektu.
+     */
+    protected final void rehash() {
+        long hash = hashState();
+        if (digest != null) {
+            digest.replace(stateHash, hash);
+        }
+        stateHash = hash;
+        if (aggregates != null) {
+            reportAggregates(aggregates, region, false);
+        }
+    }
+
+    /**
+     * Zgłasza do agregatów świata zmianę wkładu obiektu od poprzedniego zgłoszenia.
+     * Domyślnie obiekt nie ma wkładu w agregaty.
+     *
+     * @param aggregates agregaty świata
+     * @param region region obiektu
+     * @param attached true przy pierwszym zgłoszeniu (obiekt nie ma jeszcze wkładu w agregaty)
+     */
+    protected void reportAggregates(WorldAggregates aggregates, int region, boolean attached) {
+    }
+
+    /**
+     * Dołącza obiekt do agregatów świata (przy dodaniu do mapy lub kopiowaniu tabel obiektów).
+     *
+     * @param aggregates agregaty świata
+     */
+    void attachAggregates(WorldAggregates aggregates) {
+        this.aggregates = aggregates;
+        this.region = aggregates.regionOf(coordinates[0], coordinates[1]);
+        reportAggregates(aggregates, region, true);
+    }
+
+    /**
+     * Dołącza obiekt do skrótu świata (przy dodaniu do mapy lub kopiowaniu tabel obiektów).
+     *
+     * @param digest skrót świata
+     */
+    void attachDigest(StateDigest digest) {
+        this.digest = digest;
+        this.stateHash = hashState();
+        digest.add(stateHash);
+    }
+
+    /**
+     * Zwraca skrót bieżącego stanu obiektu.
+     *
+     * @return skrót stanu
+     */
+    long getStateHash() {
+        return hashState();
+    }
+
+    /**
+     * Zwraca strumień liczb losowych obiektu.
+     *
+     * @return generator liczb losowych obiektu
+     */
+    protected SimulationRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Rozpoczyna skrót stanu obiektu od jego rodzaju, identyfikatora i aktywności.
+     *
+     * @param kind rodzaj obiektu
+     * @return początkowy skrót stanu
+     */
+    protected long baseHash(int kind) {
+        long hash = StateDigest.combine(kind, id);
+        hash = StateDigest.combine(hash, ((long) coordinates[0] << 32) | (coordinates[1] & 0xFFFFFFFFL));
+        return StateDigest.combine(hash, is_active ? 1 : 0);
+    }
+
     /**
      * Zwraca współrzędne obiektu.
      *
@@ -67,6 +194,7 @@ public abstract class MapObject {
      */
     public void deactivateObject(){
         this.is_active = false;
+        rehash();
     }
 
 }
@@ -0,0 +1,306 @@
+package org.example;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Klasa rysująca warstwy mapy (połączenia, reaktory, miasta, zanieczyszczenia)
+ * na podstawie migawki stanu świata. Wspólna dla podglądu na żywo i odtwarzania zapisu.
+ * Rysowane są wyłącznie obiekty z widocznego prostokąta (zapytania do indeksów przestrzennych
+ * migawki), a przy małym powiększeniu miasta i reaktory są agregowane w symbole skupisk.
+ * Nakładające się zanieczyszczenia są zawsze rysowane jako jedno skupisko ({@link PlumeClusters}),
+ * dzięki czemu czas rysowania zależy od widocznej części mapy, a nie od liczby obiektów.
+ */
+class MapRenderer {
+    /** Stały rozmiar wizualny reaktora (w pikselach). */
+    static final int REACTOR_SIZE = 14;
+    /** Stały rozmiar wizualny miasta (w pikselach). */
+    static final int CITY_SIZE = 19;
+    /** Powiększenie, poniżej którego miasta i reaktory są rysowane jako skupiska. */
+    static final double LOD_ZOOM = 0.35;
+    /** Minimalny rozmiar kafelka skupiska na ekranie (w pikselach). */
+    private static final int MIN_TILE_PIXELS = 14;
+    /** Kolor nieaktywnego reaktora. */
+    private static final Color INACTIVE_REACTOR_COLOR = new Color(0, 0, 100);
+    /** Kolor wyludnionego miasta. */
+    private static final Color DEPOPULATED_CITY_COLOR = new Color(0, 100, 0);
+    /** Krycie owalu pojedynczego zanieczyszczenia. */
+    private static final double POLLUTION_ALPHA = 0.4;
+    /** Kolory zanieczyszczeń (półprzezroczysty żółty) dla skupisk o liczności 1..8. */
+    private static final Color[] POLLUTION_COLORS = pollutionColors(8);
+    /** Odległość na ekranie (w pikselach), poniżej której zanieczyszczenia są rysowane jako jedno skupisko. */
+    private static final int MIN_PLUME_PIXELS = 3;
+    /** Kolor skupiska miast. */
+    private static final Color CITY_CLUSTER_COLOR = new Color(0, 160, 0, 200);
+    /** Kolor skupiska reaktorów. */
+    private static final Color REACTOR_CLUSTER_COLOR = new Color(0, 0, 200, 200);
+    /** Odległość (w jednostkach mapy), w której zanieczyszczenia są rysowane jako jedno skupisko. */
+    private final int plumeClusterDistance;
+    /**
+     * Bufory rysowania zanieczyszczeń, osobne dla każdego wątku rysującego (obiekt rysujący
+     * eksportera klatek jest współdzielony przez wątki kodujące), używane ponownie w kolejnych klatkach.
+     */
+    private final ThreadLocal<PollutionScratch> pollutionScratch = ThreadLocal.withInitial(PollutionScratch::new);
+
+    /**
+     * Tworzy obiekt rysujący z parametrami rysowania z konfiguracji przebiegu.
+     *
+     * @param config konfiguracja symulacji
+     */
+    MapRenderer(ConfigLoader config) {
+        this.plumeClusterDistance = config.getPlumeClusterDistance();
+    }
+
+    /**
+     * Rysuje całą mapę w skali 1:1 (bez przesunięcia widoku).
+     *
+     * @param g2d kontekst graficzny
+     * @param snapshot migawka stanu świata
+     */
+    void draw(Graphics2D g2d, WorldSnapshot snapshot) {
+        draw(g2d, snapshot, new Viewport(), snapshot.width, snapshot.height);
+    }
+
+    /**
+     * Rysuje widoczną część mapy w kolejności: połączenia, reaktory, miasta, zanieczyszczenia.
+     *
+     * @param g2d kontekst graficzny
+     * @param snapshot migawka stanu świata
+     * @param viewport powiększenie i przesunięcie widoku
+     * @param screenWidth szerokość obszaru rysowania (w pikselach)
+     * @param screenHeight wysokość obszaru rysowania (w pikselach)
+     */
+    void draw(Graphics2D g2d, WorldSnapshot snapshot, Viewport viewport, int screenWidth, int screenHeight) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        int minX = (int) Math.floor(viewport.toWorldX(0));
+        int minY = (int) Math.floor(viewport.toWorldY(0));
+        int maxX = (int) Math.ceil(viewport.toWorldX(screenWidth));
+        int maxY = (int) Math.ceil(viewport.toWorldY(screenHeight));
+
+        AffineTransform original = g2d.getTransform();
+        if (viewport.getZoom() < LOD_ZOOM) {
+            drawClusters(g2d, snapshot.reactorGrid(), viewport, minX, minY, maxX, maxY, REACTOR_CLUSTER_COLOR, false);
+            drawClusters(g2d, snapshot.cityGrid(), viewport, minX, minY, maxX, maxY, CITY_CLUSTER_COLOR, true);
+            g2d.scale(viewport.getZoom(), viewport.getZoom());
+            g2d.translate(-viewport.getOffsetX(), -viewport.getOffsetY());
+        } else {
+            g2d.scale(viewport.getZoom(), viewport.getZoom());
+            g2d.translate(-viewport.getOffsetX(), -viewport.getOffsetY());
+            drawConnections(g2d, snapshot, minX, minY, maxX, maxY);
+            drawReactors(g2d, snapshot, minX, minY, maxX, maxY);
+            drawCities(g2d, snapshot, minX, minY, maxX, maxY);
+        }
+        drawPollutions(g2d, snapshot, viewport.getZoom(), minX, minY, maxX, maxY);
+        g2d.setTransform(original);
+    }
+
+    /**
+     * Rysuje połączenia energetyczne widocznych miast z ich aktywnymi reaktorami.
+     *
+     * @param g2d kontekst graficzny (w układzie współrzędnych mapy)
+     * @param snapshot migawka stanu świata
+     * @param minX lewa krawędź widocznego obszaru mapy
+     * @param minY górna krawędź widocznego obszaru mapy
+     * @param maxX prawa krawędź widocznego obszaru mapy
+     * @param maxY dolna krawędź widocznego obszaru mapy
+     */
+    private void drawConnections(Graphics2D g2d, WorldSnapshot snapshot, int minX, int minY, int maxX, int maxY) {
+        g2d.setColor(Color.ORANGE);
+        snapshot.cityGrid().forEachInRect(minX - CITY_SIZE, minY - CITY_SIZE, maxX, maxY, i -> {
+            int reactor = snapshot.cityReactorIndex[i];
+            if (reactor >= 0 && snapshot.reactorActive[reactor]) {
+                int cityX = snapshot.cityX[i] + CITY_SIZE / 2;
+                int cityY = snapshot.cityY[i] + CITY_SIZE / 2;
+                int reactorX = snapshot.reactorX[reactor] + REACTOR_SIZE / 2;
+                int reactorY = snapshot.reactorY[reactor] + REACTOR_SIZE / 2;
+
+                g2d.drawLine(cityX, cityY, reactorX, reactorY);
+            }
+        });
+    }
+
+    /**
+     * Rysuje widoczne reaktory.
+     *
+     * @param g2d kontekst graficzny (w układzie współrzędnych mapy)
+     * @param snapshot migawka stanu świata
+     * @param minX lewa krawędź widocznego obszaru mapy
+     * @param minY górna krawędź widocznego obszaru mapy
+     * @param maxX prawa krawędź widocznego obszaru mapy
+     * @param maxY dolna krawędź widocznego obszaru mapy
+     */
+    private void drawReactors(Graphics2D g2d, WorldSnapshot snapshot, int minX, int minY, int maxX, int maxY) {
+        snapshot.reactorGrid().forEachInRect(minX - REACTOR_SIZE, minY - REACTOR_SIZE, maxX, maxY, i -> {
+            g2d.setColor(snapshot.reactorActive[i] ? Color.BLUE : INACTIVE_REACTOR_COLOR);
+            g2d.fillRect(snapshot.reactorX[i], snapshot.reactorY[i], REACTOR_SIZE, REACTOR_SIZE);
+        });
+    }
+
+    /**
+     * Rysuje widoczne miasta.
+     *
+     * @param g2d kontekst graficzny (w układzie współrzędnych mapy)
+     * @param snapshot migawka stanu świata
+     * @param minX lewa krawędź widocznego obszaru mapy
+     * @param minY górna krawędź widocznego obszaru mapy
+     * @param maxX prawa krawędź widocznego obszaru mapy
+     * @param maxY dolna krawędź widocznego obszaru mapy
+     */
+    private void drawCities(Graphics2D g2d, WorldSnapshot snapshot, int minX, int minY, int maxX, int maxY) {
+        snapshot.cityGrid().forEachInRect(minX - CITY_SIZE, minY - CITY_SIZE, maxX, maxY, i -> {
+            if (snapshot.cityPopulation[i] >= snapshot.cityOriginalPopulation[i] * 0.4) {
+                g2d.setColor(Color.GREEN);
+            } else {
+                g2d.setColor(DEPOPULATED_CITY_COLOR);
+            }
+            g2d.fillOval(snapshot.cityX[i], snapshot.cityY[i], CITY_SIZE, CITY_SIZE);
+        });
+    }
+
+    /**
+     * Rysuje aktywne zanieczyszczenia, których obszar przecina widoczny prostokąt.
+     * Zanieczyszczenia leżące w jednym miejscu (z dokładnością do odległości scalania, rosnącej
+     * przy małym powiększeniu) są rysowane jako jeden owal skupiska o promieniu największego członka
+     * i kryciu odpowiadającym nałożeniu owali członków.
+     *
+     * @param g2d kontekst graficzny (w układzie współrzędnych mapy)
+     * @param snapshot migawka stanu świata
+     * @param zoom powiększenie widoku
+     * @param minX lewa krawędź widocznego obszaru mapy
+     * @param minY górna krawędź widocznego obszaru mapy
+     * @param maxX prawa krawędź widocznego obszaru mapy
+     * @param maxY dolna krawędź widocznego obszaru mapy
+     */
+    private void drawPollutions(Graphics2D g2d, WorldSnapshot snapshot, double zoom,
+                                int minX, int minY, int maxX, int maxY) {
+        int margin = (int) Math.ceil(snapshot.getMaxPollutionRadius() * 2);
+        PollutionScratch scratch = pollutionScratch.get();
+        scratch.begin(snapshot);
+        snapshot.pollutionGrid().forEachInRect(minX - margin, minY - margin, maxX + margin, maxY + margin, scratch);
+        scratch.snapshot = null;
+
+        double mergeDistance = Math.max(plumeClusterDistance, MIN_PLUME_PIXELS / zoom);
+        PlumeClusters clusters = scratch.clusters;
+        clusters.group(snapshot.pollutionX, snapshot.pollutionY,
+                snapshot.pollutionRadius, null, scratch.visible, scratch.visibleCount, mergeDistance);
+        for (int c = 0; c < clusters.size(); c++) {
+            int visualRadius = Math.round(clusters.getRadius(c) * 4);
+            int x = clusters.getX(c) - visualRadius / 2;
+            int y = clusters.getY(c) - visualRadius / 2;
+            g2d.setColor(POLLUTION_COLORS[Math.min(clusters.getMemberCount(c), POLLUTION_COLORS.length) - 1]);
+            g2d.fillOval(x, y, visualRadius, visualRadius);
+        }
+    }
+
+    /**
+     * Bufory rysowania zanieczyszczeń jednego wątku: indeksy widocznych zanieczyszczeń
+     * (zbierane jako akcja zapytania do indeksu przestrzennego) i skupiska.
+     * Tablice rosną do największej liczby zanieczyszczeń i nie są zmniejszane.
+     */
+    private static final class PollutionScratch implements IntConsumer {
+        /** Skupiska widocznych zanieczyszczeń. */
+        private final PlumeClusters clusters = new PlumeClusters();
+        /** Indeksy widocznych, aktywnych zanieczyszczeń. */
+        private int[] visible = new int[0];
+        /** Liczba widocznych zanieczyszczeń. */
+        private int visibleCount;
+        /** Rysowana migawka (tylko na czas zapytania). */
+        private WorldSnapshot snapshot;
+
+        /**
+         * Przygotowuje bufory do zebrania widocznych zanieczyszczeń migawki.
+         *
+         * @param snapshot rysowana migawka
+         */
+        void begin(WorldSnapshot snapshot) {
+            if (visible.length < snapshot.pollutionCount) {
+                visible = Arrays.copyOf(visible, Math.max(snapshot.pollutionCount, 2 * visible.length));
+            }
+            this.snapshot = snapshot;
+            this.visibleCount = 0;
+        }
+
+        /**
+         * Dopisuje zanieczyszczenie z zapytania, jeśli jest aktywne.
+         *
+         * @param i indeks zanieczyszczenia w migawce
+         */
+        @Override
+        public void accept(int i) {
+            if (snapshot.pollutionActive[i]) {
+                visible[visibleCount++] = i;
+            }
+        }
+    }
+
+    /**
+     * Wyznacza kolory skupisk zanieczyszczeń: krycie skupiska n owali odpowiada nałożeniu
+     * n półprzezroczystych owali pojedynczych zanieczyszczeń.
+     *
+     * @param levels liczba rozróżnianych liczności skupisk
+     * @return kolory dla skupisk o liczności 1..levels
+     */
+    private static Color[] pollutionColors(int levels) {
+        Color[] colors = new Color[levels];
+        for (int n = 1; n <= levels; n++) {
+            double alpha = 1 - Math.pow(1 - POLLUTION_ALPHA, n);
+            colors[n - 1] = new Color(255, 255, 0, (int) Math.round(255 * alpha));
+        }
+        return colors;
+    }
+
+    /**
+     * Rysuje skupiska obiektów: jeden symbol na niepusty kafelek piramidy gęstości,
+     * w środku ciężkości obiektów kafelka, o rozmiarze rosnącym logarytmicznie z ich liczbą.
+     * Liczba odwiedzanych kafelków zależy wyłącznie od rozmiaru ekranu.
+     *
+     * @param g2d kontekst graficzny (bez transformacji widoku)
+     * @param grid indeks przestrzenny obiektów
+     * @param viewport widok mapy
+     * @param minX lewa krawędź widocznego obszaru mapy
+     * @param minY górna krawędź widocznego obszaru mapy
+     * @param maxX prawa krawędź widocznego obszaru mapy
+     * @param maxY dolna krawędź widocznego obszaru mapy
+     * @param color kolor symbolu
+     * @param round true dla symbolu okrągłego (miasta), false dla kwadratowego (reaktory)
+     */
+    private void drawClusters(Graphics2D g2d, SpatialGrid grid, Viewport viewport,
+                              int minX, int minY, int maxX, int maxY, Color color, boolean round) {
+        double zoom = viewport.getZoom();
+        SpatialGrid.DensityLevel level = grid.densityLevel(MIN_TILE_PIXELS / zoom);
+        int firstColumn = Math.max(0, Math.floorDiv(minX, level.tileSize));
+        int lastColumn = Math.min(level.columns - 1, Math.floorDiv(maxX, level.tileSize));
+        int firstRow = Math.max(0, Math.floorDiv(minY, level.tileSize));
+        int lastRow = Math.min(level.rows - 1, Math.floorDiv(maxY, level.tileSize));
+        double maxGlyph = level.tileSize * zoom;
+
+        g2d.setColor(color);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int tile = row * level.columns + column;
+                int count = level.count[tile];
+                if (count == 0) continue;
+
+                double centerX = (double) level.sumX[tile] / count;
+                double centerY = (double) level.sumY[tile] / count;
+                int screenX = (int) Math.round((centerX - viewport.getOffsetX()) * zoom);
+                int screenY = (int) Math.round((centerY - viewport.getOffsetY()) * zoom);
+                int size = (int) Math.min(maxGlyph, 4 + 3 * (Math.log(count) / Math.log(2)));
+
+                if (round) {
+                    g2d.fillOval(screenX - size / 2, screenY - size / 2, size, size);
+                } else {
+                    g2d.fillRect(screenX - size / 2, screenY - size / 2, size, size);
+                }
+                if (count > 1 && size >= 12) {
+                    g2d.setColor(Color.WHITE);
+                    g2d.drawString(Integer.toString(count), screenX - size / 2 + 2, screenY + 4);
+                    g2d.setColor(color);
+                }
+            }
+        }
+    }
+}
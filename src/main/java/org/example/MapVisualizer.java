@@ -2,51 +2,330 @@ package org.example;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.Objects;
 
 /**
  * Klasa odpowiedzialna za wizualizację graficzną mapy symulacji.
  * Rysuje miasta, reaktory, zanieczyszczenia oraz połączenia energetyczne na panelu Swing.
+ * Działa w trybie podglądu na żywo (migawki przekazywane przez mapę po każdym kroku)
+ * lub w trybie odtwarzania zapisanego przebiegu, z regulacją prędkości i przewijaniem.
+ * Widok można powiększać kółkiem myszy i przesuwać przeciąganiem; dwuklik dopasowuje całą mapę.
+ * Panel inspektora po prawej stronie pokazuje pola miasta lub reaktora wskazanego kursorem
+ * (kliknięcie przypina obiekt, kliknięcie w puste miejsce zwalnia przypięcie).
  */
 public class MapVisualizer extends JPanel {
-    /** Referencja do mapy terenu, z której pobierane są dane do wizualizacji. */
-    private final TerrainMap terrainMap;
-    /** Stały rozmiar wizualny reaktora (w pikselach). */
-    private final int REACTOR_SIZE = 14;
-    /** Stały rozmiar wizualny miasta (w pikselach). */
-    private final int CITY_SIZE = 19;
+    /** Okres odświeżania animacji w trybie odtwarzania (w milisekundach). */
+    private static final int REPLAY_TICK_MS = 40;
+    /** Maksymalny preferowany rozmiar panelu (większe mapy są pomniejszane). */
+    private static final Dimension MAX_PREFERRED_SIZE = new Dimension(1000, 800);
+    /** Mnożnik powiększenia dla jednego kroku kółka myszy. */
+    private static final double ZOOM_STEP = 1.2;
+    /** Kolor obramowania obiektu wybranego w inspektorze. */
+    private static final Color SELECTION_COLOR = Color.MAGENTA;
+    /** Obiekt rysujący warstwy mapy. */
+    private final MapRenderer renderer;
     /** Etykieta wyświetlająca aktualny kierunek wiatru. */
     private JLabel windLabel;
     /** Etykieta wyświetlająca aktualny krok symulacji. */
     private JLabel stepLabel;
+    /** Etykieta wyświetlająca aktualne powiększenie. */
+    private JLabel zoomLabel;
+    /** Powiększenie i przesunięcie widoku mapy. */
+    private final Viewport viewport = new Viewport();
+    /** Czy widok został już dopasowany do rozmiaru panelu. */
+    private boolean viewportFitted;
     /** Zmienna przechowująca aktualny numer kroku symulacji. */
     private int currentStep = 0;
+    /** Aktualnie wyświetlana migawka stanu świata. */
+    private WorldSnapshot snapshot;
+    /** Promień wskazywania obiektu myszą (w pikselach ekranu). */
+    private final int pickRadius;
+    /** Obiekt przypięty kliknięciem (null, jeśli brak). */
+    private EntityInspector.Selection pinned;
+    /** Obiekt wskazywany kursorem (null, jeśli brak). */
+    private EntityInspector.Selection hovered;
+    /** Pole tekstowe inspektora z opisem wybranego obiektu. */
+    private JTextArea inspectorText;
+
+    /** Odtwarzany zapis przebiegu (null w trybie na żywo). */
+    private RunReplay replay;
+    /** Suwak przewijania zapisu. */
+    private JSlider timeline;
+    /** Przycisk odtwarzania i pauzy. */
+    private JButton playButton;
+    /** Prędkość odtwarzania (kroki na sekundę). */
+    private JSpinner speedSpinner;
+    /** Czy zapis jest aktualnie odtwarzany. */
+    private boolean playing;
+    /** Ułamkowa pozycja odtwarzania (indeks ramki). */
+    private double playbackPosition;
 
     /**
-     * Konstruktor klasy MapVisualizer.
-     * Inicjalizuje panel, ustawia jego wymiary, tworzy etykiety informacyjne
-     * oraz uruchamia timer do odświeżania GUI.
+     * Konstruktor klasy MapVisualizer w trybie podglądu na żywo.
+     * Inicjalizuje panel, ustawia jego wymiary i tworzy etykiety informacyjne.
+     * Kolejne stany mapy są dostarczane przez {@link #updateStep(int, WorldSnapshot)}.
      *
      * @param terrainMap referencja do obiektu mapy terenu
      */
     public MapVisualizer(TerrainMap terrainMap) {
-        this.terrainMap = terrainMap;
-        setPreferredSize(new Dimension(terrainMap.getWidth(), terrainMap.getHeight()));
+        this(WorldSnapshot.capture(terrainMap, 0), terrainMap.getConfig());
+    }
+
+    /**
+     * Konstruktor klasy MapVisualizer w trybie odtwarzania zapisu przebiegu.
+     * Dodaje panel sterowania z przyciskiem odtwarzania, suwakiem i prędkością.
+     *
+     * @param replay zapis przebiegu do odtworzenia
+     * @param config konfiguracja przebiegu (parametry rysowania i inspektora)
+     */
+    MapVisualizer(RunReplay replay, ConfigLoader config) {
+        this(replay.seekFrame(0), config);
+        this.replay = replay;
+        add(createReplayControls(), BorderLayout.SOUTH);
+
+        Timer timer = new Timer(REPLAY_TICK_MS, e -> advancePlayback());
+        timer.start();
+    }
+
+    /**
+     * Wspólna część konstruktorów: panel informacyjny, inspektor i stan początkowy.
+     *
+     * @param initial początkowa migawka stanu świata
+     * @param config konfiguracja przebiegu (parametry rysowania i inspektora)
+     */
+    private MapVisualizer(WorldSnapshot initial, ConfigLoader config) {
+        this.snapshot = initial;
+        this.renderer = new MapRenderer(config);
+        this.pickRadius = Math.max(1, config.getInspectorPickRadius());
+        setPreferredSize(new Dimension(Math.min(initial.width, MAX_PREFERRED_SIZE.width),
+                Math.min(initial.height, MAX_PREFERRED_SIZE.height)));
         setLayout(new BorderLayout());
 
         // Panel informacyjny na górze
-        JPanel infoPanel = new JPanel(new GridLayout(2, 1));
-        stepLabel = new JLabel("Krok: 0");
-        windLabel = new JLabel("Wiatr: " + terrainMap.getWindDirection());
+        JPanel infoPanel = new JPanel(new GridLayout(3, 1));
+        stepLabel = new JLabel("Krok: " + initial.step);
+        windLabel = new JLabel("Wiatr: " + initial.windDirection);
+        zoomLabel = new JLabel();
         infoPanel.add(stepLabel);
         infoPanel.add(windLabel);
+        infoPanel.add(zoomLabel);
         add(infoPanel, BorderLayout.NORTH);
+        add(createInspectorPanel(), BorderLayout.EAST);
+
+        installViewportControls();
+    }
+
+    /**
+     * Tworzy panel inspektora obiektów.
+     *
+     * @return panel z opisem wybranego obiektu
+     */
+    private JPanel createInspectorPanel() {
+        inspectorText = new JTextArea(8, 22);
+        inspectorText.setEditable(false);
+        inspectorText.setFocusable(false);
+        inspectorText.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.setBorder(BorderFactory.createTitledBorder("Inspektor"));
+        panel.add(inspectorText, BorderLayout.NORTH);
+        updateInspector();
+        return panel;
+    }
+
+    /**
+     * Wskazuje obiekt leżący pod kursorem w promieniu wskazywania.
+     *
+     * @param point położenie kursora na panelu
+     * @return wskazany obiekt lub null, jeśli żaden nie leży w promieniu
+     */
+    private EntityInspector.Selection pickAt(Point point) {
+        int radius = (int) Math.ceil(pickRadius / viewport.getZoom());
+        return EntityInspector.pick(snapshot, viewport.toWorldX(point.x), viewport.toWorldY(point.y), radius);
+    }
+
+    /**
+     * Zwraca obiekt wyświetlany w inspektorze: przypięty, a jeśli go nie ma - wskazywany kursorem.
+     *
+     * @return wybrany obiekt lub null
+     */
+    private EntityInspector.Selection currentSelection() {
+        return pinned != null ? pinned : hovered;
+    }
+
+    /**
+     * Odświeża opis w inspektorze. Opis jest wyznaczany tylko dla wybranego obiektu.
+     */
+    private void updateInspector() {
+        EntityInspector.Selection selection = currentSelection();
+        if (selection == null) {
+            inspectorText.setText("Wskaż lub kliknij\nmiasto albo reaktor.");
+            return;
+        }
+        String description = String.join("\n", EntityInspector.describe(snapshot, selection));
+        inspectorText.setText((pinned != null ? "[przypięty]\n" : "") + description);
+    }
+
+    /**
+     * Rejestruje obsługę myszy: kółko powiększa względem kursora, przeciąganie przesuwa widok,
+     * dwuklik dopasowuje widok do całej mapy, a ruch i kliknięcie wybierają obiekt w inspektorze.
+     */
+    private void installViewportControls() {
+        MouseAdapter mouse = new MouseAdapter() {
+            private Point dragStart;
 
-        // Timer do odświeżania GUI
-        Timer timer = new Timer(1000, e -> {
-            windLabel.setText("Wiatr: " + terrainMap.getWindDirection());
-            repaint();
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart != null) {
+                    viewport.pan(e.getX() - dragStart.x, e.getY() - dragStart.y);
+                    dragStart = e.getPoint();
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    fitViewport();
+                } else {
+                    pinned = pickAt(e.getPoint());
+                    updateInspector();
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                EntityInspector.Selection selection = pickAt(e.getPoint());
+                if (!Objects.equals(selection, hovered)) {
+                    hovered = selection;
+                    updateInspector();
+                    repaint();
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                viewport.zoomAt(e.getX(), e.getY(), Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()));
+                updateZoomLabel();
+                repaint();
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    /**
+     * Dopasowuje widok tak, aby cała mapa mieściła się w panelu.
+     */
+    private void fitViewport() {
+        viewport.fit(snapshot.width, snapshot.height, getWidth(), getHeight());
+        viewportFitted = true;
+        updateZoomLabel();
+        repaint();
+    }
+
+    /**
+     * Aktualizuje etykietę z bieżącym powiększeniem.
+     */
+    private void updateZoomLabel() {
+        zoomLabel.setText(String.format("Powiększenie: %.0f%%", viewport.getZoom() * 100));
+    }
+
+    /**
+     * Otwiera okno odtwarzania zapisanego przebiegu symulacji.
+     *
+     * @param replay zapis przebiegu do odtworzenia
+     * @param config konfiguracja przebiegu (parametry rysowania i inspektora)
+     */
+    static void showReplay(RunReplay replay, ConfigLoader config) {
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("Odtwarzanie przebiegu symulacji");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.add(new MapVisualizer(replay, config));
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
         });
-        timer.start();
+    }
+
+    /**
+     * Tworzy panel sterowania odtwarzaniem.
+     *
+     * @return panel z przyciskiem, suwakiem i prędkością odtwarzania
+     */
+    private JPanel createReplayControls() {
+        JPanel controls = new JPanel(new BorderLayout());
+
+        playButton = new JButton("Odtwórz");
+        playButton.addActionListener(e -> setPlaying(!playing));
+
+        timeline = new JSlider(0, Math.max(0, replay.getFrameCount() - 1), 0);
+        timeline.addChangeListener(e -> showFrame(timeline.getValue()));
+
+        speedSpinner = new JSpinner(new SpinnerNumberModel(1.0, 0.1, 1000.0, 0.5));
+        JPanel speedPanel = new JPanel();
+        speedPanel.add(new JLabel("Kroki/s:"));
+        speedPanel.add(speedSpinner);
+
+        controls.add(playButton, BorderLayout.WEST);
+        controls.add(timeline, BorderLayout.CENTER);
+        controls.add(speedPanel, BorderLayout.EAST);
+        return controls;
+    }
+
+    /**
+     * Włącza lub wstrzymuje odtwarzanie.
+     *
+     * @param playing true, aby odtwarzać
+     */
+    private void setPlaying(boolean playing) {
+        if (playing && timeline.getValue() >= timeline.getMaximum()) {
+            timeline.setValue(0);
+        }
+        this.playing = playing;
+        this.playbackPosition = timeline.getValue();
+        playButton.setText(playing ? "Pauza" : "Odtwórz");
+    }
+
+    /**
+     * Przesuwa pozycję odtwarzania zgodnie z ustawioną prędkością.
+     * Wywoływana cyklicznie przez timer.
+     */
+    private void advancePlayback() {
+        if (!playing) {
+            return;
+        }
+        double speed = ((Number) speedSpinner.getValue()).doubleValue();
+        playbackPosition += speed * REPLAY_TICK_MS / 1000.0;
+        int frame = (int) playbackPosition;
+        if (frame >= timeline.getMaximum()) {
+            timeline.setValue(timeline.getMaximum());
+            setPlaying(false);
+        } else if (frame != timeline.getValue()) {
+            timeline.setValue(frame);
+        }
+    }
+
+    /**
+     * Wyświetla ramkę zapisu o podanym indeksie.
+     *
+     * @param frame indeks ramki
+     */
+    private void showFrame(int frame) {
+        if (!playing) {
+            playbackPosition = frame;
+        }
+        WorldSnapshot frameSnapshot = replay.seekFrame(frame);
+        updateStep(frameSnapshot.step, frameSnapshot);
     }
 
     /**
@@ -59,6 +338,20 @@ public class MapVisualizer extends JPanel {
         stepLabel.setText("Krok: " + step);
     }
 
+    /**
+     * Aktualizuje numer kroku oraz wyświetlany stan świata.
+     *
+     * @param step aktualny numer kroku symulacji
+     * @param snapshot migawka stanu świata
+     */
+    void updateStep(int step, WorldSnapshot snapshot) {
+        this.snapshot = snapshot;
+        updateStep(step);
+        windLabel.setText("Wiatr: " + snapshot.windDirection);
+        updateInspector();
+        repaint();
+    }
+
     /**
      * Nadpisana metoda odpowiedzialna za rysowanie wszystkich komponentów na panelu.
      * Wywoływana automatycznie przez Swing, gdy panel wymaga odświeżenia.
@@ -68,62 +361,36 @@ public class MapVisualizer extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-        // Rysowanie połączeń energetycznych
-        g2d.setColor(Color.ORANGE);
-        for (City city : terrainMap.getCities()) {
-            Reactor reactor = city.getReactor();
-            if (reactor != null && reactor.checkActivity()) {
-                int[] cityPos = city.getPosition();
-                int[] reactorPos = reactor.getPosition();
-
-                int cityX = cityPos[0] + CITY_SIZE / 2;
-                int cityY = cityPos[1] + CITY_SIZE / 2;
-                int reactorX = reactorPos[0] + REACTOR_SIZE / 2;
-                int reactorY = reactorPos[1] + REACTOR_SIZE / 2;
-
-                g2d.drawLine(cityX, cityY, reactorX, reactorY);
-            }
-        }
-
-        // Rysowanie reaktorów
-        for (Reactor reactor : terrainMap.getReactors()) {
-            int[] pos = reactor.getPosition();
-            if(reactor.checkActivity()){
-                g2d.setColor(Color.BLUE);
-            }else{
-                g2d.setColor(new Color(0, 0, 100));
-            }
-            g2d.fillRect(pos[0], pos[1], REACTOR_SIZE, REACTOR_SIZE);
+        if (!viewportFitted && getWidth() > 0 && getHeight() > 0) {
+            viewport.fit(snapshot.width, snapshot.height, getWidth(), getHeight());
+            viewportFitted = true;
+            updateZoomLabel();
         }
+        renderer.draw((Graphics2D) g, snapshot, viewport, getWidth(), getHeight());
+        drawSelection(g);
+    }
 
-        // Rysowanie miast
-        for (City city : terrainMap.getCities()) {
-            int[] pos = city.getPosition();
-            if(city.getPopulation() >= city.getOriginalPopulation() * 0.4){
-                g2d.setColor(Color.GREEN);
-            }else{
-                g2d.setColor(new Color(0, 100, 0));
-            }
-            g2d.fillOval(pos[0], pos[1], CITY_SIZE, CITY_SIZE);
+    /**
+     * Obrysowuje obiekt wybrany w inspektorze.
+     *
+     * @param g kontekst graficzny panelu
+     */
+    private void drawSelection(Graphics g) {
+        EntityInspector.Selection selection = currentSelection();
+        if (selection == null) {
+            return;
         }
-
-        // Rysowanie zanieczyszczeń
-        for (Pollution pollution : terrainMap.getPollutions()) {
-            if (!pollution.checkActivity()) continue;
-
-            int[] pos = pollution.getPosition();
-            int visualRadius = Math.round(pollution.getRadius() * 4);
-            int alpha = Math.round(255 * 0.4f);
-
-            Color pollutionColor = new Color(255, 255, 0, alpha);
-            g2d.setColor(pollutionColor);
-
-            int x = pos[0] - visualRadius / 2;
-            int y = pos[1] - visualRadius / 2;
-            g2d.fillOval(x, y, visualRadius, visualRadius);
+        boolean city = selection.kind() == EntityInspector.Kind.CITY;
+        if (selection.index() >= (city ? snapshot.cityCount : snapshot.reactorCount)) {
+            return;
         }
+        int x = city ? snapshot.cityX[selection.index()] : snapshot.reactorX[selection.index()];
+        int y = city ? snapshot.cityY[selection.index()] : snapshot.reactorY[selection.index()];
+        int size = city ? MapRenderer.CITY_SIZE : MapRenderer.REACTOR_SIZE;
+        double zoom = viewport.getZoom();
+        g.setColor(SELECTION_COLOR);
+        g.drawRect((int) Math.round((x - viewport.getOffsetX()) * zoom) - 2,
+                (int) Math.round((y - viewport.getOffsetY()) * zoom) - 2,
+                (int) Math.round(size * zoom) + 4, (int) Math.round(size * zoom) + 4);
     }
 }
@@ -0,0 +1,127 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Zajętość pozycji mapy [x, y, z] przechowywana jako mapa bitowa podzielona na kwadratowe fragmenty.
+ * Fragmenty są tworzone dopiero przy pierwszym zajęciu pozycji, a po rozgałęzieniu ({@link #fork()})
+ * są współdzielone przez obie siatki i kopiowane dopiero przy zapisie, więc rozgałęzienie
+ * kopiuje wyłącznie tablicę odwołań do fragmentów.
+ */
+class OccupancyGrid {
+    /** Rozmiar boku fragmentu (w jednostkach mapy). */
+    private static final int CHUNK_SIZE = 64;
+
+    /** Szerokość mapy. */
+    private final int width;
+    /** Wysokość mapy. */
+    private final int height;
+    /** Liczba poziomów wysokości. */
+    private final int levels;
+    /** Liczba kolumn fragmentów. */
+    private final int chunkColumns;
+    /** Bity zajętości fragmentów (null dla fragmentu bez zajętych pozycji). */
+    private final long[][] chunks;
+    /** Czy fragment należy wyłącznie do tej siatki (może być zmieniany bez kopiowania). */
+    private final boolean[] owned;
+
+    /**
+     * Tworzy pustą siatkę zajętości.
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param levels liczba poziomów wysokości
+     */
+    OccupancyGrid(int width, int height, int levels) {
+        this.width = width;
+        this.height = height;
+        this.levels = levels;
+        this.chunkColumns = (width + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int chunkCount = chunkColumns * ((height + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        this.chunks = new long[chunkCount][];
+        this.owned = new boolean[chunkCount];
+    }
+
+    /**
+     * Tworzy siatkę współdzielącą fragmenty z podaną siatką.
+     *
+     * @param source siatka źródłowa
+     */
+    private OccupancyGrid(OccupancyGrid source) {
+        this.width = source.width;
+        this.height = source.height;
+        this.levels = source.levels;
+        this.chunkColumns = source.chunkColumns;
+        this.chunks = source.chunks.clone();
+        this.owned = new boolean[chunks.length];
+    }
+
+    /**
+     * Tworzy rozgałęzienie siatki. Obie siatki współdzielą istniejące fragmenty
+     * i każda kopiuje fragment przy pierwszym zapisie do niego.
+     *
+     * @return nowa siatka o tej samej zajętości
+     */
+    OccupancyGrid fork() {
+        Arrays.fill(owned, false);
+        return new OccupancyGrid(this);
+    }
+
+    /**
+     * Sprawdza, czy pozycja jest zajęta.
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param z poziom wysokości
+     * @return true, jeśli pozycja jest zajęta
+     */
+    boolean isOccupied(int x, int y, int z) {
+        long[] chunk = chunks[chunkIndex(x, y)];
+        if (chunk == null) {
+            return false;
+        }
+        int bit = bitIndex(x, y, z);
+        return (chunk[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Oznacza pozycję jako zajętą (kopiując współdzielony fragment przed zapisem).
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param z poziom wysokości
+     */
+    void occupy(int x, int y, int z) {
+        int index = chunkIndex(x, y);
+        if (!owned[index]) {
+            long[] chunk = chunks[index];
+            chunks[index] = chunk == null ? new long[CHUNK_SIZE * CHUNK_SIZE * levels / 64] : chunk.clone();
+            owned[index] = true;
+        }
+        int bit = bitIndex(x, y, z);
+        chunks[index][bit >>> 6] |= 1L << bit;
+    }
+
+    /**
+     * Wyznacza indeks fragmentu zawierającego punkt.
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @return indeks fragmentu
+     */
+    private int chunkIndex(int x, int y) {
+        return (y / CHUNK_SIZE) * chunkColumns + x / CHUNK_SIZE;
+    }
+
+    /**
+     * Wyznacza numer bitu pozycji wewnątrz fragmentu.
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param z poziom wysokości
+     * @return numer bitu
+     */
+    private int bitIndex(int x, int y, int z) {
+        return ((z * CHUNK_SIZE + y % CHUNK_SIZE) * CHUNK_SIZE) + x % CHUNK_SIZE;
+    }
+}
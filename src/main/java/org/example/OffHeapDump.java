@@ -0,0 +1,639 @@
+package org.example;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Zrzut stanu mapy poza stertą, do eksportu i utrwalania dużych światów: pola miast, reaktorów
+ * i zanieczyszczeń są zapisywane kolumnami (struktura tablic) w jednym segmencie pamięci
+ * przydzielonym z areny (Foreign Function &amp; Memory API) albo odwzorowanym bezpośrednio z pliku.
+ * Obiekty są identyfikowane indeksem, a na stercie nie powstaje nic na obiekt, więc zrzut
+ * dowolnie dużego świata nie zwiększa zajętości sterty ani kosztu odśmiecania.
+ * <p>
+ * Zrzut jest kopią stanu z chwili {@link #capture(TerrainMap)} - nie jest magazynem obiektów
+ * symulacji: krok symulacji nadal działa na obiektach mapy, a zmiany w zrzucie nie wpływają na mapę.
+ * Zrzut zapisuje polecenie {@code --dump} ({@link #export(TerrainMap, Path)}), a wczytuje
+ * {@link ScenarioLoader#read(Path)}, odtwarzając z niego scenariusz ({@link #toScenario()}):
+ * aktywne miasta i reaktory; stan dynamiczny (wytrzymałość, awarie, zanieczyszczenia) nie jest odtwarzany.
+ * <p>
+ * Układ segmentu: nagłówek (znacznik, wersja, pojemności i liczności tabel, wymiary mapy), a po nim
+ * tabele miast, reaktorów i zanieczyszczeń; kolumna tabeli to {@code pojemność} kolejnych
+ * 4-bajtowych wartości int lub float. Układ jest taki sam w pamięci i w pliku.
+ * Pojemność tabel jest stała (jak limity miast i reaktorów mapy).
+ */
+class OffHeapDump implements AutoCloseable {
+    /** Znacznik początku pliku zrzutu ("RNES"). */
+    static final int MAGIC = 0x524E4553;
+    /** Wersja układu zrzutu. */
+    private static final int VERSION = 2;
+    /** Rozmiar nagłówka (w bajtach). */
+    private static final long HEADER_SIZE = 64;
+    /** Przesunięcie pierwszej pojemności tabeli w nagłówku. */
+    private static final long CAPACITY_OFFSET = 8;
+    /** Przesunięcie pierwszej liczności tabeli w nagłówku. */
+    private static final long COUNT_OFFSET = 20;
+    /** Przesunięcie szerokości i wysokości mapy w nagłówku. */
+    private static final long MAP_SIZE_OFFSET = 32;
+
+    /** Kolumna współrzędnej X (wspólna dla wszystkich tabel). */
+    static final int X = 0;
+    /** Kolumna współrzędnej Y (wspólna dla wszystkich tabel). */
+    static final int Y = 1;
+    /** Kolumna populacji miasta (int). */
+    static final int CITY_POPULATION = 2;
+    /** Kolumna początkowej populacji miasta (int). */
+    static final int CITY_ORIGINAL_POPULATION = 3;
+    /** Kolumna zapotrzebowania miasta na energię (float, MW). */
+    static final int CITY_ENERGY_USAGE = 4;
+    /** Kolumna poziomu skażenia miasta (float). */
+    static final int CITY_POLLUTION = 5;
+    /** Kolumna indeksu reaktora zasilającego miasto (int, -1 - brak). */
+    static final int CITY_REACTOR = 6;
+    /** Kolumna poziomu reaktora (int, 1-4). */
+    static final int REACTOR_LEVEL = 2;
+    /** Kolumna mocy maksymalnej reaktora (float, MW). */
+    static final int REACTOR_MAX_POWER = 3;
+    /** Kolumna obciążenia reaktora (float, MW). */
+    static final int REACTOR_CURRENT_POWER = 4;
+    /** Kolumna wytrzymałości reaktora (float, 0-1). */
+    static final int REACTOR_DURABILITY = 5;
+    /** Kolumna stanu awarii reaktora (int, 0/1). */
+    static final int REACTOR_MALFUNCTION = 6;
+    /** Kolumna promienia zanieczyszczenia (float). */
+    static final int PLUME_RADIUS = 2;
+    /** Kolumna natężenia zanieczyszczenia (float). */
+    static final int PLUME_INTENSITY = 3;
+    /** Kolumna wieku zanieczyszczenia (int). */
+    static final int PLUME_AGE = 4;
+    /** Kolumna maksymalnego wieku zanieczyszczenia (int). */
+    static final int PLUME_MAX_AGE = 5;
+
+    /**
+     * Rodzaj obiektów (tabela zrzutu).
+     */
+    enum Kind {
+        /** Miasta. */
+        CITY(8, "miasto"),
+        /** Reaktory. */
+        REACTOR(8, "reaktor"),
+        /** Zanieczyszczenia. */
+        PLUME(7, "zanieczyszczenie");
+
+        /** Liczba kolumn tabeli (ostatnia kolumna to aktywność obiektu). */
+        private final int columns;
+        /** Nazwa rodzaju obiektów (do komunikatów). */
+        private final String label;
+
+        /**
+         * Konstruktor rodzaju obiektów.
+         *
+         * @param columns liczba kolumn tabeli
+         * @param label nazwa rodzaju obiektów
+         */
+        Kind(int columns, String label) {
+            this.columns = columns;
+            this.label = label;
+        }
+
+        /**
+         * Zwraca numer kolumny aktywności obiektu (ostatniej kolumny tabeli).
+         * @return numer kolumny aktywności
+         */
+        int activeColumn() {
+            return columns - 1;
+        }
+    }
+
+    /** Arena, z której pochodzi segment (zamknięcie zwalnia pamięć lub odwzorowanie pliku). */
+    private final Arena arena;
+    /** Segment z nagłówkiem i wszystkimi tabelami. */
+    private final MemorySegment segment;
+    /** Pojemności tabel (indeks: {@link Kind#ordinal()}). */
+    private final int[] capacity = new int[Kind.values().length];
+    /** Przesunięcia początków tabel w segmencie. */
+    private final long[] tableOffset = new long[Kind.values().length];
+
+    /**
+     * Tworzy zrzut na podanym segmencie.
+     *
+     * @param arena arena segmentu
+     * @param segment segment zrzutu z wypełnionym nagłówkiem
+     */
+    private OffHeapDump(Arena arena, MemorySegment segment) {
+        this.arena = arena;
+        this.segment = segment;
+        long offset = HEADER_SIZE;
+        for (Kind kind : Kind.values()) {
+            capacity[kind.ordinal()] = segment.get(ValueLayout.JAVA_INT, CAPACITY_OFFSET + 4L * kind.ordinal());
+            tableOffset[kind.ordinal()] = offset;
+            offset += 4L * kind.columns * capacity[kind.ordinal()];
+        }
+    }
+
+    /**
+     * Przydziela zrzut w pamięci poza stertą.
+     *
+     * @param cities pojemność tabeli miast
+     * @param reactors pojemność tabeli reaktorów
+     * @param plumes pojemność tabeli zanieczyszczeń
+     * @return nowy, pusty zrzut
+     * @throws IllegalArgumentException jeśli któraś pojemność jest ujemna
+     */
+    static OffHeapDump allocate(int cities, int reactors, int plumes) {
+        long size = byteSize(cities, reactors, plumes);
+        Arena arena = Arena.ofShared();
+        MemorySegment segment = arena.allocate(size, 64);
+        writeHeader(segment, cities, reactors, plumes);
+        return new OffHeapDump(arena, segment);
+    }
+
+    /**
+     * Tworzy zrzut odwzorowany z pliku (plik jest tworzony lub zastępowany). Zmiany w zrzucie
+     * trafiają do pliku przez odwzorowanie, bez osobnego zapisu; {@link #force()} wymusza ich utrwalenie.
+     *
+     * @param path ścieżka pliku zrzutu
+     * @param cities pojemność tabeli miast
+     * @param reactors pojemność tabeli reaktorów
+     * @param plumes pojemność tabeli zanieczyszczeń
+     * @return nowy, pusty zrzut odwzorowany z pliku
+     * @throws IOException jeśli nie udało się utworzyć lub odwzorować pliku
+     * @throws IllegalArgumentException jeśli któraś pojemność jest ujemna
+     */
+    static OffHeapDump create(Path path, int cities, int reactors, int plumes) throws IOException {
+        long size = byteSize(cities, reactors, plumes);
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            writeHeader(segment, cities, reactors, plumes);
+            return new OffHeapDump(arena, segment);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Otwiera zrzut zapisany wcześniej w pliku przez {@link #create(Path, int, int, int)}.
+     *
+     * @param path ścieżka pliku zrzutu
+     * @return zrzut odwzorowany z pliku
+     * @throws IOException jeśli plik nie istnieje, nie jest zrzutem lub ma nieprawidłowy rozmiar
+     */
+    static OffHeapDump open(Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Plik nie jest zrzutem obiektów: " + path);
+            }
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            if (segment.get(ValueLayout.JAVA_INT, 0) != MAGIC || segment.get(ValueLayout.JAVA_INT, 4) != VERSION) {
+                throw new IOException("Plik nie jest zrzutem obiektów: " + path);
+            }
+            int[] capacities = new int[3];
+            for (int k = 0; k < capacities.length; k++) {
+                capacities[k] = segment.get(ValueLayout.JAVA_INT, CAPACITY_OFFSET + 4L * k);
+                int count = segment.get(ValueLayout.JAVA_INT, COUNT_OFFSET + 4L * k);
+                if (capacities[k] < 0 || count < 0 || count > capacities[k]) {
+                    throw new IOException("Uszkodzony nagłówek zrzutu obiektów: " + path);
+                }
+            }
+            if (size != byteSize(capacities[0], capacities[1], capacities[2])) {
+                throw new IOException("Rozmiar pliku zrzutu nie zgadza się z nagłówkiem: " + path);
+            }
+            return new OffHeapDump(arena, segment);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Wyznacza rozmiar segmentu zrzutu.
+     *
+     * @param cities pojemność tabeli miast
+     * @param reactors pojemność tabeli reaktorów
+     * @param plumes pojemność tabeli zanieczyszczeń
+     * @return rozmiar segmentu (w bajtach)
+     * @throws IllegalArgumentException jeśli któraś pojemność jest ujemna
+     */
+    private static long byteSize(int cities, int reactors, int plumes) {
+        if (cities < 0 || reactors < 0 || plumes < 0) {
+            throw new IllegalArgumentException("Pojemność zrzutu nie może być ujemna");
+        }
+        return HEADER_SIZE + 4L * (Kind.CITY.columns * (long) cities
+                + Kind.REACTOR.columns * (long) reactors + Kind.PLUME.columns * (long) plumes);
+    }
+
+    /**
+     * Zapisuje nagłówek pustego zrzutu.
+     *
+     * @param segment segment zrzutu
+     * @param cities pojemność tabeli miast
+     * @param reactors pojemność tabeli reaktorów
+     * @param plumes pojemność tabeli zanieczyszczeń
+     */
+    private static void writeHeader(MemorySegment segment, int cities, int reactors, int plumes) {
+        segment.set(ValueLayout.JAVA_INT, 0, MAGIC);
+        segment.set(ValueLayout.JAVA_INT, 4, VERSION);
+        segment.set(ValueLayout.JAVA_INT, CAPACITY_OFFSET, cities);
+        segment.set(ValueLayout.JAVA_INT, CAPACITY_OFFSET + 4, reactors);
+        segment.set(ValueLayout.JAVA_INT, CAPACITY_OFFSET + 8, plumes);
+        for (int k = 0; k < 3; k++) {
+            segment.set(ValueLayout.JAVA_INT, COUNT_OFFSET + 4L * k, 0);
+        }
+        segment.set(ValueLayout.JAVA_INT, MAP_SIZE_OFFSET, 0);
+        segment.set(ValueLayout.JAVA_INT, MAP_SIZE_OFFSET + 4, 0);
+    }
+
+    /**
+     * Zwraca szerokość mapy, z której pochodzi zrzut (0, jeśli zrzut nie zawiera mapy).
+     *
+     * @return szerokość mapy
+     */
+    int mapWidth() {
+        return segment.get(ValueLayout.JAVA_INT, MAP_SIZE_OFFSET);
+    }
+
+    /**
+     * Zwraca wysokość mapy, z której pochodzi zrzut (0, jeśli zrzut nie zawiera mapy).
+     *
+     * @return wysokość mapy
+     */
+    int mapHeight() {
+        return segment.get(ValueLayout.JAVA_INT, MAP_SIZE_OFFSET + 4);
+    }
+
+    /**
+     * Zwraca liczbę obiektów danego rodzaju.
+     *
+     * @param kind rodzaj obiektów
+     * @return liczba obiektów
+     */
+    int size(Kind kind) {
+        return segment.get(ValueLayout.JAVA_INT, COUNT_OFFSET + 4L * kind.ordinal());
+    }
+
+    /**
+     * Zwraca pojemność tabeli danego rodzaju.
+     *
+     * @param kind rodzaj obiektów
+     * @return pojemność tabeli
+     */
+    int capacity(Kind kind) {
+        return capacity[kind.ordinal()];
+    }
+
+    /**
+     * Wyznacza przesunięcie wartości w segmencie.
+     *
+     * @param kind rodzaj obiektów
+     * @param column numer kolumny
+     * @param index indeks obiektu
+     * @return przesunięcie wartości (w bajtach)
+     * @throws IndexOutOfBoundsException jeśli indeks lub kolumna jest spoza tabeli
+     */
+    private long offset(Kind kind, int column, int index) {
+        Objects.checkIndex(index, size(kind));
+        Objects.checkIndex(column, kind.columns);
+        return tableOffset[kind.ordinal()] + 4L * ((long) column * capacity[kind.ordinal()] + index);
+    }
+
+    /**
+     * Odczytuje wartość całkowitą obiektu.
+     *
+     * @param kind rodzaj obiektów
+     * @param column numer kolumny
+     * @param index indeks obiektu
+     * @return wartość pola
+     */
+    int getInt(Kind kind, int column, int index) {
+        return segment.get(ValueLayout.JAVA_INT, offset(kind, column, index));
+    }
+
+    /**
+     * Zapisuje wartość całkowitą obiektu.
+     *
+     * @param kind rodzaj obiektów
+     * @param column numer kolumny
+     * @param index indeks obiektu
+     * @param value nowa wartość pola
+     */
+    void setInt(Kind kind, int column, int index, int value) {
+        segment.set(ValueLayout.JAVA_INT, offset(kind, column, index), value);
+    }
+
+    /**
+     * Odczytuje wartość zmiennoprzecinkową obiektu.
+     *
+     * @param kind rodzaj obiektów
+     * @param column numer kolumny
+     * @param index indeks obiektu
+     * @return wartość pola
+     */
+    float getFloat(Kind kind, int column, int index) {
+        return segment.get(ValueLayout.JAVA_FLOAT, offset(kind, column, index));
+    }
+
+    /**
+     * Zapisuje wartość zmiennoprzecinkową obiektu.
+     *
+     * @param kind rodzaj obiektów
+     * @param column numer kolumny
+     * @param index indeks obiektu
+     * @param value nowa wartość pola
+     */
+    void setFloat(Kind kind, int column, int index, float value) {
+        segment.set(ValueLayout.JAVA_FLOAT, offset(kind, column, index), value);
+    }
+
+    /**
+     * Sprawdza, czy obiekt jest aktywny.
+     *
+     * @param kind rodzaj obiektów
+     * @param index indeks obiektu
+     * @return true, jeśli obiekt jest aktywny
+     */
+    boolean isActive(Kind kind, int index) {
+        return getInt(kind, kind.activeColumn(), index) != 0;
+    }
+
+    /**
+     * Ustawia aktywność obiektu.
+     *
+     * @param kind rodzaj obiektów
+     * @param index indeks obiektu
+     * @param active nowa aktywność
+     */
+    void setActive(Kind kind, int index, boolean active) {
+        setInt(kind, kind.activeColumn(), index, active ? 1 : 0);
+    }
+
+    /**
+     * Rezerwuje miejsce na nowy, aktywny obiekt (pozostałe pola są zerowane).
+     *
+     * @param kind rodzaj obiektu
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @return indeks nowego obiektu
+     * @throws IllegalStateException jeśli tabela jest pełna
+     */
+    private int append(Kind kind, int x, int y) {
+        int index = size(kind);
+        if (index >= capacity(kind)) {
+            throw new IllegalStateException("Brak miejsca w zrzucie obiektów: " + kind.label);
+        }
+        segment.set(ValueLayout.JAVA_INT, COUNT_OFFSET + 4L * kind.ordinal(), index + 1);
+        for (int column = 0; column < kind.columns; column++) {
+            setInt(kind, column, index, 0);
+        }
+        setInt(kind, X, index, x);
+        setInt(kind, Y, index, y);
+        setActive(kind, index, true);
+        return index;
+    }
+
+    /**
+     * Dodaje miasto bez podłączonego reaktora.
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param population populacja
+     * @return indeks miasta
+     * @throws IllegalStateException jeśli tabela miast jest pełna
+     */
+    int addCity(int x, int y, int population) {
+        int index = append(Kind.CITY, x, y);
+        setInt(Kind.CITY, CITY_POPULATION, index, population);
+        setInt(Kind.CITY, CITY_ORIGINAL_POPULATION, index, population);
+        setInt(Kind.CITY, CITY_REACTOR, index, -1);
+        return index;
+    }
+
+    /**
+     * Dodaje naraz wiele miast bez podłączonych reaktorów, kopiując kolumny blokowo z tablic.
+     *
+     * @param xs współrzędne X
+     * @param ys współrzędne Y
+     * @param populations populacje
+     * @param count liczba miast
+     * @return indeks pierwszego dodanego miasta
+     * @throws IllegalStateException jeśli miasta nie mieszczą się w tabeli
+     */
+    int addCities(int[] xs, int[] ys, int[] populations, int count) {
+        int first = size(Kind.CITY);
+        if (count > capacity(Kind.CITY) - first) {
+            throw new IllegalStateException("Brak miejsca w zrzucie obiektów: " + Kind.CITY.label);
+        }
+        segment.set(ValueLayout.JAVA_INT, COUNT_OFFSET, first + count);
+        if (count == 0) {
+            return first;
+        }
+        copyColumn(xs, X, first, count);
+        copyColumn(ys, Y, first, count);
+        copyColumn(populations, CITY_POPULATION, first, count);
+        copyColumn(populations, CITY_ORIGINAL_POPULATION, first, count);
+        for (int column : new int[]{CITY_ENERGY_USAGE, CITY_POLLUTION}) {
+            columnSlice(column, first, count).fill((byte) 0);
+        }
+        for (int i = first; i < first + count; i++) {
+            setInt(Kind.CITY, CITY_REACTOR, i, -1);
+            setActive(Kind.CITY, i, true);
+        }
+        return first;
+    }
+
+    /**
+     * Kopiuje wartości z tablicy do kolumny tabeli miast.
+     *
+     * @param values kopiowane wartości
+     * @param column numer kolumny
+     * @param first indeks pierwszego miasta
+     * @param count liczba wartości
+     */
+    private void copyColumn(int[] values, int column, int first, int count) {
+        MemorySegment.copy(values, 0, columnSlice(column, first, count), ValueLayout.JAVA_INT, 0, count);
+    }
+
+    /**
+     * Zwraca fragment kolumny tabeli miast.
+     *
+     * @param column numer kolumny
+     * @param first indeks pierwszego miasta
+     * @param count liczba miast
+     * @return fragment segmentu
+     */
+    private MemorySegment columnSlice(int column, int first, int count) {
+        return segment.asSlice(offset(Kind.CITY, column, first), 4L * count);
+    }
+
+    /**
+     * Dodaje reaktor (aktywny, sprawny, bez obciążenia).
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param level poziom reaktora
+     * @param maxPower moc maksymalna (w MW)
+     * @return indeks reaktora
+     * @throws IllegalStateException jeśli tabela reaktorów jest pełna
+     */
+    int addReactor(int x, int y, int level, float maxPower) {
+        int index = append(Kind.REACTOR, x, y);
+        setInt(Kind.REACTOR, REACTOR_LEVEL, index, level);
+        setFloat(Kind.REACTOR, REACTOR_MAX_POWER, index, maxPower);
+        setFloat(Kind.REACTOR, REACTOR_DURABILITY, index, 1.0f);
+        return index;
+    }
+
+    /**
+     * Dodaje zanieczyszczenie.
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param radius promień
+     * @param intensity natężenie
+     * @param maxAge maksymalny wiek
+     * @return indeks zanieczyszczenia
+     * @throws IllegalStateException jeśli tabela zanieczyszczeń jest pełna
+     */
+    int addPlume(int x, int y, float radius, float intensity, int maxAge) {
+        int index = append(Kind.PLUME, x, y);
+        setFloat(Kind.PLUME, PLUME_RADIUS, index, radius);
+        setFloat(Kind.PLUME, PLUME_INTENSITY, index, intensity);
+        setInt(Kind.PLUME, PLUME_MAX_AGE, index, maxAge);
+        return index;
+    }
+
+    /**
+     * Dopisuje do zrzutu stan wszystkich obiektów mapy (w kolejności list mapy),
+     * zamieniając powiązania miast z reaktorami na indeksy reaktorów, i zapisuje wymiary mapy.
+     *
+     * @param map mapa terenu
+     * @throws IllegalStateException jeśli obiekty nie mieszczą się w zrzucie
+     */
+    void capture(TerrainMap map) {
+        segment.set(ValueLayout.JAVA_INT, MAP_SIZE_OFFSET, map.getWidth());
+        segment.set(ValueLayout.JAVA_INT, MAP_SIZE_OFFSET + 4, map.getHeight());
+        List<Reactor> reactors = map.getReactors();
+        Map<Reactor, Integer> reactorIndex = new IdentityHashMap<>(2 * reactors.size());
+        for (Reactor reactor : reactors) {
+            int[] position = reactor.getPosition();
+            int index = addReactor(position[0], position[1], reactor.getReactorLevel(), reactor.getMaxPower());
+            setFloat(Kind.REACTOR, REACTOR_CURRENT_POWER, index, reactor.getCurrentPower());
+            setFloat(Kind.REACTOR, REACTOR_DURABILITY, index, reactor.getDurability());
+            setInt(Kind.REACTOR, REACTOR_MALFUNCTION, index, reactor.isMalfunctioning() ? 1 : 0);
+            setActive(Kind.REACTOR, index, reactor.checkActivity());
+            reactorIndex.put(reactor, index);
+        }
+        for (City city : map.getCities()) {
+            int[] position = city.getPosition();
+            int index = addCity(position[0], position[1], city.getPopulation());
+            setInt(Kind.CITY, CITY_ORIGINAL_POPULATION, index, city.getOriginalPopulation());
+            setFloat(Kind.CITY, CITY_ENERGY_USAGE, index, city.getEnergyUsage());
+            setFloat(Kind.CITY, CITY_POLLUTION, index, city.getPollutionLevel());
+            setInt(Kind.CITY, CITY_REACTOR, index, reactorIndex.getOrDefault(city.getReactor(), -1));
+            setActive(Kind.CITY, index, city.checkActivity());
+        }
+        for (Pollution pollution : map.getPollutions()) {
+            int[] position = pollution.getPosition();
+            int index = addPlume(position[0], position[1], pollution.getRadius(), pollution.getIntensity(),
+                    pollution.getMaxAge());
+            setInt(Kind.PLUME, PLUME_AGE, index, pollution.getAge());
+            setActive(Kind.PLUME, index, pollution.checkActivity());
+        }
+    }
+
+    /**
+     * Eksportuje stan mapy do pliku zrzutu o pojemnościach równych liczbie obiektów mapy.
+     *
+     * @param map mapa terenu
+     * @param path ścieżka pliku zrzutu (plik jest tworzony lub zastępowany)
+     * @throws IOException jeśli nie udało się zapisać pliku
+     */
+    static void export(TerrainMap map, Path path) throws IOException {
+        try (OffHeapDump dump = create(path, map.getCityCount(), map.getReactorCount(), map.getPollutionCount())) {
+            dump.capture(map);
+            dump.force();
+        }
+    }
+
+    /**
+     * Odtwarza ze zrzutu scenariusz: wymiary mapy oraz aktywne miasta (z bieżącą populacją)
+     * i aktywne reaktory w kolejności tabel. Powiązania, stan reaktorów i zanieczyszczenia są pomijane,
+     * więc symulacja na mapie scenariusza zaczyna od nowa na rozmieszczeniu ze zrzutu.
+     *
+     * @return scenariusz z obiektami zrzutu
+     * @throws IOException jeśli zrzut nie zawiera wymiarów mapy lub poziomu reaktora spoza zakresu 1-4
+     */
+    ScenarioLoader.Scenario toScenario() throws IOException {
+        if (mapWidth() <= 0 || mapHeight() <= 0) {
+            throw new IOException("Zrzut nie zawiera wymiarów mapy");
+        }
+        int[][] cities = activeColumns(Kind.CITY, CITY_POPULATION);
+        int[][] reactors = activeColumns(Kind.REACTOR, REACTOR_LEVEL);
+        for (int level : reactors[2]) {
+            if (level < 1 || level > 4) {
+                throw new IOException("Nieprawidłowy poziom reaktora w zrzucie: " + level);
+            }
+        }
+        return new ScenarioLoader.Scenario(mapWidth(), mapHeight(), cities[0], cities[1], cities[2],
+                reactors[0], reactors[1], reactors[2]);
+    }
+
+    /**
+     * Kopiuje współrzędne i jedną kolumnę int aktywnych obiektów danego rodzaju do tablic na stercie.
+     *
+     * @param kind rodzaj obiektów
+     * @param column kopiowana kolumna (oprócz współrzędnych)
+     * @return tablice współrzędnych X, Y i wartości kolumny
+     */
+    private int[][] activeColumns(Kind kind, int column) {
+        int count = size(kind);
+        int active = 0;
+        for (int i = 0; i < count; i++) {
+            if (isActive(kind, i)) {
+                active++;
+            }
+        }
+        int[][] result = {new int[active], new int[active], new int[active]};
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            if (isActive(kind, i)) {
+                result[0][next] = getInt(kind, X, i);
+                result[1][next] = getInt(kind, Y, i);
+                result[2][next] = getInt(kind, column, i);
+                next++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Wymusza utrwalenie zmian zrzutu odwzorowanego z pliku (dla zrzutu w pamięci nie robi nic).
+     */
+    void force() {
+        if (segment.isMapped()) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Zamyka zrzut, zwalniając pamięć lub odwzorowanie pliku.
+     * Po zamknięciu zrzut nie może być używany.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+}
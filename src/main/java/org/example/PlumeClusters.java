@@ -0,0 +1,315 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Skupiska nakładających się zanieczyszczeń. Zanieczyszczenia, których środki leżą nie dalej niż
+ * odległość scalania od punktu zaczepienia skupiska (pierwszego zanieczyszczenia, które je utworzyło),
+ * są traktowane jako jedno źródło o łącznym natężeniu i promieniu równym największemu promieniowi członków.
+ * Skupiska są budowane od nowa przy każdym grupowaniu (jeden obiekt może być grupowany wielokrotnie,
+ * bez przydzielania pamięci w stanie ustalonym), więc zanieczyszczenia, które się rozejdą,
+ * trafiają do osobnych skupisk. Członkowie skupiska są posortowani malejąco według promienia
+ * z sumami natężeń, dzięki czemu łączne natężenie działające w danej odległości od środka
+ * wyznacza się wyszukiwaniem binarnym. Dla dokładnego oddziaływania skupisko udostępnia też swoich
+ * członków i zasięg (największą odległość od punktu zaczepienia objętą przez któregoś z członków).
+ */
+class PlumeClusters {
+    /** Znacznik pustej pozycji tablicy komórek pomocniczej siatki. */
+    private static final int EMPTY = -1;
+
+    /** Współrzędna X punktu zaczepienia skupiska. */
+    private int[] centerX = new int[0];
+    /** Współrzędna Y punktu zaczepienia skupiska. */
+    private int[] centerY = new int[0];
+    /** Początek listy członków skupiska w tablicach {@link #radius} i {@link #weightSum} (skupiska + 1 pozycji). */
+    private int[] start = new int[1];
+    /** Promienie członków skupisk (w obrębie skupiska malejąco). */
+    private float[] radius = new float[0];
+    /** Suma natężeń członków skupiska od pierwszego do bieżącego włącznie. */
+    private float[] weightSum = new float[0];
+    /** Indeksy członków skupisk w tablicach wejściowych (w kolejności {@link #radius}). */
+    private int[] member = new int[0];
+    /** Zasięg skupiska: największa odległość od punktu zaczepienia objęta przez promień członka. */
+    private float[] reach = new float[0];
+    /** Liczba skupisk. */
+    private int size;
+
+    /** Następne skupisko w tej samej komórce pomocniczej siatki (lista jednokierunkowa, -1 - koniec). */
+    private int[] nextInCell = new int[0];
+    /** Numer skupiska każdego grupowanego zanieczyszczenia. */
+    private int[] clusterOf = new int[0];
+    /** Liczba członków każdego skupiska, a potem pozycja zapisu kolejnego członka. */
+    private int[] fill = new int[0];
+    /** Klucze sortowania członków (bity promienia i pozycja na liście członków). */
+    private long[] keys = new long[0];
+    /** Klucze komórek pomocniczej siatki (tablica mieszająca z adresowaniem otwartym). */
+    private long[] cellKeys = new long[0];
+    /** Pierwsze skupisko każdej komórki pomocniczej siatki ({@link #EMPTY} - pozycja wolna). */
+    private int[] cellHeads = new int[0];
+
+    /**
+     * Tworzy pusty zbiór skupisk do wielokrotnego grupowania metodą {@link #group}.
+     */
+    PlumeClusters() {
+    }
+
+    /**
+     * Grupuje wskazane zanieczyszczenia w skupiska (koszt liniowy względem liczby zanieczyszczeń,
+     * pomijając sortowanie członków wewnątrz skupisk).
+     *
+     * @param xs współrzędne X zanieczyszczeń
+     * @param ys współrzędne Y zanieczyszczeń
+     * @param radii promienie zanieczyszczeń
+     * @param weights natężenia zanieczyszczeń (null - natężenie 1 dla każdego)
+     * @param members indeksy grupowanych zanieczyszczeń w powyższych tablicach
+     * @param memberCount liczba grupowanych zanieczyszczeń
+     * @param mergeDistance odległość scalania (0 - scalane są tylko zanieczyszczenia w tym samym punkcie)
+     * @throws IllegalArgumentException jeśli odległość scalania jest ujemna
+     */
+    PlumeClusters(int[] xs, int[] ys, float[] radii, float[] weights, int[] members, int memberCount,
+                  double mergeDistance) {
+        group(xs, ys, radii, weights, members, memberCount, mergeDistance);
+    }
+
+    /**
+     * Grupuje wskazane zanieczyszczenia od nowa, zastępując poprzednie skupiska. Tablice robocze
+     * są wielokrotnego użytku i rosną tylko wtedy, gdy grupowanych zanieczyszczeń przybywa.
+     *
+     * @param xs współrzędne X zanieczyszczeń
+     * @param ys współrzędne Y zanieczyszczeń
+     * @param radii promienie zanieczyszczeń
+     * @param weights natężenia zanieczyszczeń (null - natężenie 1 dla każdego)
+     * @param members indeksy grupowanych zanieczyszczeń w powyższych tablicach
+     * @param memberCount liczba grupowanych zanieczyszczeń
+     * @param mergeDistance odległość scalania (0 - scalane są tylko zanieczyszczenia w tym samym punkcie)
+     * @throws IllegalArgumentException jeśli odległość scalania jest ujemna
+     */
+    void group(int[] xs, int[] ys, float[] radii, float[] weights, int[] members, int memberCount,
+               double mergeDistance) {
+        if (mergeDistance < 0) {
+            throw new IllegalArgumentException("Odległość scalania nie może być ujemna");
+        }
+        ensureCapacity(memberCount);
+        int cellSize = (int) Math.max(1, Math.ceil(mergeDistance));
+        double mergeSquared = mergeDistance * mergeDistance;
+        int cellMask = cellHeads.length - 1;
+        Arrays.fill(cellHeads, EMPTY);
+        int clusters = 0;
+
+        for (int k = 0; k < memberCount; k++) {
+            int x = xs[members[k]];
+            int y = ys[members[k]];
+            int cellX = Math.floorDiv(x, cellSize);
+            int cellY = Math.floorDiv(y, cellSize);
+            int found = -1;
+            for (int dy = -1; dy <= 1 && found < 0; dy++) {
+                for (int dx = -1; dx <= 1 && found < 0; dx++) {
+                    int slot = findCell(cellKey(cellX + dx, cellY + dy), cellMask);
+                    for (int c = cellHeads[slot]; c >= 0; c = nextInCell[c]) {
+                        long ox = x - centerX[c];
+                        long oy = y - centerY[c];
+                        if (ox * ox + oy * oy <= mergeSquared) {
+                            found = c;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (found < 0) {
+                found = clusters++;
+                centerX[found] = x;
+                centerY[found] = y;
+                fill[found] = 0;
+                reach[found] = 0.0f;
+                long key = cellKey(cellX, cellY);
+                int slot = findCell(key, cellMask);
+                cellKeys[slot] = key;
+                nextInCell[found] = cellHeads[slot];
+                cellHeads[slot] = found;
+            }
+            clusterOf[k] = found;
+            fill[found]++;
+            float memberReach = (float) (Math.hypot(x - centerX[found], y - centerY[found])
+                    + Math.max(0.0f, radii[members[k]]));
+            reach[found] = Math.max(reach[found], memberReach);
+        }
+
+        this.size = clusters;
+        start[0] = 0;
+        for (int c = 0; c < clusters; c++) {
+            start[c + 1] = start[c] + fill[c];
+            fill[c] = start[c];
+        }
+
+        // Klucz sortowania: bity promienia (nieujemny float zachowuje porządek) i pozycja na liście członków.
+        for (int k = 0; k < memberCount; k++) {
+            int bits = Float.floatToIntBits(Math.max(0.0f, radii[members[k]]));
+            keys[fill[clusterOf[k]]++] = ((long) bits << 32) | k;
+        }
+        for (int c = 0; c < clusters; c++) {
+            Arrays.sort(keys, start[c], start[c + 1]);
+            float sum = 0;
+            for (int slot = start[c], j = start[c + 1] - 1; j >= start[c]; j--, slot++) {
+                int k = (int) keys[j];
+                radius[slot] = Float.intBitsToFloat((int) (keys[j] >>> 32));
+                member[slot] = members[k];
+                sum += weights == null ? 1.0f : weights[members[k]];
+                weightSum[slot] = sum;
+            }
+        }
+    }
+
+    /**
+     * Powiększa tablice robocze tak, aby pomieściły podaną liczbę zanieczyszczeń
+     * (z zapasem, aby kolejne grupowania rzadko wymagały powiększania).
+     *
+     * @param memberCount liczba grupowanych zanieczyszczeń
+     */
+    private void ensureCapacity(int memberCount) {
+        if (centerX.length >= memberCount && centerX.length > 0) {
+            return;
+        }
+        int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, memberCount)) << 1);
+        centerX = new int[capacity];
+        centerY = new int[capacity];
+        start = new int[capacity + 1];
+        radius = new float[capacity];
+        weightSum = new float[capacity];
+        member = new int[capacity];
+        reach = new float[capacity];
+        nextInCell = new int[capacity];
+        clusterOf = new int[capacity];
+        fill = new int[capacity];
+        keys = new long[capacity];
+        cellKeys = new long[2 * capacity];
+        cellHeads = new int[2 * capacity];
+    }
+
+    /**
+     * Wyszukuje pozycję komórki w tablicy mieszającej: pozycję z podanym kluczem albo pierwszą
+     * wolną pozycję, na której klucz należy zapisać.
+     *
+     * @param key klucz komórki
+     * @param mask maska rozmiaru tablicy mieszającej (rozmiar - 1)
+     * @return pozycja w tablicy mieszającej
+     */
+    private int findCell(long key, int mask) {
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        while (cellHeads[slot] != EMPTY && cellKeys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Wyznacza klucz komórki pomocniczej siatki.
+     *
+     * @param cellX kolumna komórki
+     * @param cellY wiersz komórki
+     * @return klucz komórki
+     */
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Zwraca liczbę skupisk.
+     * @return liczba skupisk
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Zwraca współrzędną X środka skupiska.
+     *
+     * @param cluster numer skupiska
+     * @return współrzędna X
+     */
+    int getX(int cluster) {
+        return centerX[cluster];
+    }
+
+    /**
+     * Zwraca współrzędną Y środka skupiska.
+     *
+     * @param cluster numer skupiska
+     * @return współrzędna Y
+     */
+    int getY(int cluster) {
+        return centerY[cluster];
+    }
+
+    /**
+     * Zwraca promień skupiska (największy promień członka).
+     *
+     * @param cluster numer skupiska
+     * @return promień skupiska
+     */
+    float getRadius(int cluster) {
+        return radius[start[cluster]];
+    }
+
+    /**
+     * Zwraca zasięg skupiska: największą odległość od punktu zaczepienia, do której sięga promień
+     * któregoś z członków (mierzony od jego własnego środka).
+     *
+     * @param cluster numer skupiska
+     * @return zasięg skupiska
+     */
+    float getReach(int cluster) {
+        return reach[cluster];
+    }
+
+    /**
+     * Zwraca indeks członka skupiska w tablicach przekazanych przy grupowaniu.
+     *
+     * @param cluster numer skupiska
+     * @param j numer członka w skupisku (0 - członek o największym promieniu)
+     * @return indeks zanieczyszczenia w tablicach wejściowych
+     */
+    int getMember(int cluster, int j) {
+        return member[start[cluster] + j];
+    }
+
+    /**
+     * Zwraca liczbę zanieczyszczeń w skupisku.
+     *
+     * @param cluster numer skupiska
+     * @return liczba członków
+     */
+    int getMemberCount(int cluster) {
+        return start[cluster + 1] - start[cluster];
+    }
+
+    /**
+     * Zwraca łączne natężenie skupiska.
+     *
+     * @param cluster numer skupiska
+     * @return suma natężeń członków
+     */
+    float getTotalWeight(int cluster) {
+        return weightSum[start[cluster + 1] - 1];
+    }
+
+    /**
+     * Zwraca łączne natężenie członków skupiska, których promień sięga podanej odległości od środka.
+     *
+     * @param cluster numer skupiska
+     * @param distance odległość od środka skupiska
+     * @return suma natężeń członków o promieniu nie mniejszym niż odległość (0, jeśli żaden nie sięga)
+     */
+    float weightWithin(int cluster, double distance) {
+        int low = start[cluster];
+        int high = start[cluster + 1];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (radius[middle] >= distance) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low == start[cluster] ? 0.0f : weightSum[low - 1];
+    }
+}
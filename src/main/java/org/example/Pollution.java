@@ -1,17 +1,16 @@
 package org.example;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  * Klasa reprezentująca zanieczyszczenie promieniotwórcze powstałe w wyniku awarii reaktora.
- * Zarządza swoim cyklem życia, rozprzestrzenianiem się, przemieszczaniem z wiatrem
- * oraz oddziaływaniem na inne obiekty na mapie.
+ * Zarządza swoim cyklem życia, rozprzestrzenianiem się, wektorem przemieszczenia z wiatrem
+ * (lokalnym, jeśli mapa ma pole wiatru) oraz oddziaływaniem na inne obiekty na mapie.
  */
 class Pollution extends MapObject {
+    /** Wersja formatu serializacji (punkty kontrolne sesji). */
+    private static final long serialVersionUID = 1L;
     /** Aktualny kierunek wiatru wpływający na zanieczyszczenie. */
-    private String windDirection;
+    private WindDirection windDirection;
     /** Aktualny promień rażenia zanieczyszczenia. */
     private float radius;
     /** Maksymalny możliwy promień rażenia zanieczyszczenia. */
@@ -24,6 +23,8 @@ class Pollution extends MapObject {
     private int[] windDrift = {0, 0};
     /** Referencja do mapy terenu, na której znajduje się obiekt. */
     private final TerrainMap mapReference;
+    /** Czy zanieczyszczenie było aktywne przy ostatnim zgłoszeniu do agregatów świata. */
+    private transient boolean reportedActive;
 
     /**
      * Konstruktor obiektu Pollution.
@@ -37,6 +38,20 @@ class Pollution extends MapObject {
      */
     public Pollution(int id, int[] reactorCoordinates, Reactor sourceReactor,
                      String windDirection, TerrainMap mapRef) {
+        this(id, reactorCoordinates, sourceReactor, WindDirection.parse(windDirection), mapRef);
+    }
+
+    /**
+     * Konstruktor obiektu Pollution z typowanym kierunkiem wiatru.
+     *
+     * @param id unikalny identyfikator zanieczyszczenia
+     * @param reactorCoordinates współrzędne reaktora-źródła
+     * @param sourceReactor obiekt reaktora, który był źródłem
+     * @param windDirection aktualny kierunek wiatru w momencie powstania
+     * @param mapRef referencja do obiektu mapy terenu
+     */
+    public Pollution(int id, int[] reactorCoordinates, Reactor sourceReactor,
+                     WindDirection windDirection, TerrainMap mapRef) {
         super(id, new int[]{reactorCoordinates[0], reactorCoordinates[1], 1});
         this.age = 0;
         this.maxAge = 40 + (int)(sourceReactor.getMaxPower() / 100);
@@ -50,13 +65,45 @@ class Pollution extends MapObject {
         this.radius = initialRadius;
     }
 
+    /**
+     * Konstruktor kopiujący, używany przy rozgałęzianiu symulacji.
+     *
+     * @param other kopiowane zanieczyszczenie
+     * @param mapRef mapa, do której należy kopia
+     */
+    Pollution(Pollution other, TerrainMap mapRef) {
+        super(other);
+        this.windDirection = other.windDirection;
+        this.radius = other.radius;
+        this.maxRadius = other.maxRadius;
+        this.age = other.age;
+        this.maxAge = other.maxAge;
+        this.windDrift = other.windDrift.clone();
+        this.mapReference = mapRef;
+    }
+
     /**
      * Aktualizuje stan zanieczyszczenia w każdym kroku symulacji.
-     * Zwiększa wiek i promień, przemieszcza obiekt z wiatrem i oddziałuje na otoczenie.
-     * Dezaktywuje obiekt po osiągnięciu maksymalnego wieku.
+     * Postarza zanieczyszczenie ({@link #advance()}) i oddziałuje na otoczenie.
+     * Mapa terenu wywołuje zamiast tego {@link #advance()} i oddziałuje na otoczenie
+     * całymi skupiskami zanieczyszczeń ({@link PlumeClusters}).
      */
     @Override
     public void update() {
+        if (!checkActivity()) {
+            return;
+        }
+        advance();
+        affectNearby();
+    }
+
+    /**
+     * Zwiększa wiek i promień, wyznacza wektor przemieszczenia z wiatrem w swoim położeniu
+     * (odczyt z tablicy kierunków, bez alokacji), bez oddziaływania na otoczenie.
+     * Pozycja obiektu pozostaje bez zmian, tak jak dotychczas.
+     * Dezaktywuje obiekt po osiągnięciu maksymalnego wieku.
+     */
+    void advance() {
         if (!checkActivity()) {
             return;
         }
@@ -70,20 +117,43 @@ class Pollution extends MapObject {
             }
         }
 
-        int[] drift = calculateWindDrift(windDirection);
-        int[] currentPos = this.getPosition();
-        int[] newPos = new int[]{
-                currentPos[0] + drift[0],
-                currentPos[1] + drift[1],
-                currentPos[2]
-        };
-
-        currentPos = newPos;
-        affectNearby();
+        if (mapReference != null) {
+            int[] position = this.getPosition();
+            windDirection = mapReference.windAt(position[0], position[1]);
+        }
+        windDrift[0] = windDirection.getDriftX();
+        windDrift[1] = windDirection.getDriftY();
 
         if (age >= maxAge) {
             this.deactivateObject();
         }
+        rehash();
+    }
+
+    /**
+     * Oblicza skrót stanu zanieczyszczenia.
+     *
+     * @return skrót stanu zanieczyszczenia
+     */
+    @Override
+    protected long hashState() {
+        long hash = baseHash(3);
+        hash = StateDigest.combine(hash, Float.floatToIntBits(radius));
+        hash = StateDigest.combine(hash, age);
+        return StateDigest.combine(hash, windDirection.ordinal());
+    }
+
+    /**
+     * Zgłasza zmianę aktywności zanieczyszczenia od poprzedniego zgłoszenia.
+     *
+     * @param aggregates agregaty świata
+     * @param region region zanieczyszczenia
+     * @param attached true przy pierwszym zgłoszeniu
+     */
+    @Override
+    protected void reportAggregates(WorldAggregates aggregates, int region, boolean attached) {
+        aggregates.updatePollution(!attached && reportedActive, checkActivity());
+        reportedActive = checkActivity();
     }
 
     /**
@@ -92,7 +162,8 @@ class Pollution extends MapObject {
      * @param direction nowy kierunek wiatru
      */
     public void updateWind(String direction){
-        this.windDirection = direction;
+        this.windDirection = WindDirection.parse(direction);
+        rehash();
     }
 
     /**
@@ -102,35 +173,29 @@ class Pollution extends MapObject {
     private void affectNearby() {
         if (mapReference == null) return;
 
-        List<City> cities = mapReference.getCities();
-        List<Reactor> reactors = mapReference.getReactors();
         int[] pollutionPos = this.getPosition();
+        double radiusSquared = (double) radius * radius;
 
-        for (City city : cities) {
+        for (int i = 0; i < mapReference.getCityCount(); i++) {
+            City city = mapReference.getCity(i);
             if (!city.checkActivity()){
                 continue;
             }
 
-            int[] cityPos = city.getPosition();
-            double distance = mapReference.calculateDistance(pollutionPos, cityPos);
-
-
-            if (distance <= radius) {
+            if (TerrainMap.distanceSquared(pollutionPos, city.getPosition()) <= radiusSquared) {
                 float currentPollution = city.getPollutionLevel();
-                float newPollution = Math.min(100.0f, currentPollution + maxRadius * 2.0f);
+                float newPollution = Math.min(100.0f, currentPollution + getIntensity());
                 city.setPollutionLevel(newPollution);
             }
         }
 
-        for(Reactor reactor: reactors){
+        for (int i = 0; i < mapReference.getReactorCount(); i++) {
+            Reactor reactor = mapReference.getReactor(i);
             if(!reactor.checkActivity()){
                 continue;
             }
 
-            int[] reactorPos = reactor.getPosition();
-            double distance = mapReference.calculateDistance(pollutionPos, reactorPos);
-
-            if (distance <= radius) {
+            if (TerrainMap.distanceSquared(pollutionPos, reactor.getPosition()) <= radiusSquared) {
                 reactor.deactivateObject();
             }
         }
@@ -138,41 +203,47 @@ class Pollution extends MapObject {
     }
 
     /**
-     * Oblicza wektor przemieszczenia zanieczyszczenia na podstawie kierunku wiatru.
+     * Zwraca aktualny promień rażenia zanieczyszczenia.
      *
-     * @param windDirection aktualny kierunek wiatru
-     * @return tablica [dx, dy] określająca wektor przemieszczenia
+     * @return promień zanieczyszczenia
      */
-    private int[] calculateWindDrift(String windDirection) {
-        // Mapowanie kierunków wiatru na wektory jednostkowe
-        Map<String, int[]> windVectors = new HashMap<>();
-        windVectors.put("N", new int[]{0, 30});
-        windVectors.put("NE", new int[]{30, 30});
-        windVectors.put("E", new int[]{30, 0});
-        windVectors.put("SE", new int[]{30, -30});
-        windVectors.put("S", new int[]{0, -30});
-        windVectors.put("SW", new int[]{-30, -30});
-        windVectors.put("W", new int[]{-30, 0});
-        windVectors.put("NW", new int[]{-30, 30});
-        windVectors.put("C", new int[]{0, 0});
-
-        int[] baseVector = windVectors.getOrDefault(windDirection, new int[]{0, 0});
-
-        // Siła wiatru rośnie z wiekiem zanieczyszczenia
-        double driftStrength = 2.0f;
-
-        int deltaX = (int)(baseVector[0] * driftStrength);
-        int deltaY = (int)(baseVector[1] * driftStrength);
-
-        return new int[]{deltaX, deltaY};
+    public float getRadius() {
+        return radius;
     }
 
     /**
-     * Zwraca aktualny promień rażenia zanieczyszczenia.
+     * Zwraca natężenie zanieczyszczenia: przyrost skażenia miasta w jego zasięgu w jednym kroku.
      *
-     * @return promień zanieczyszczenia
+     * @return natężenie zanieczyszczenia
      */
-    public float getRadius() {
-        return radius;
+    public float getIntensity() {
+        return maxRadius * 2.0f;
+    }
+
+    /**
+     * Zwraca wiek zanieczyszczenia.
+     *
+     * @return liczba kroków od powstania
+     */
+    int getAge() {
+        return age;
+    }
+
+    /**
+     * Zwraca maksymalny wiek zanieczyszczenia.
+     *
+     * @return wiek, po którym zanieczyszczenie znika
+     */
+    int getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Zwraca wektor przemieszczenia zanieczyszczenia z wiatrem wyznaczony w ostatnim kroku.
+     *
+     * @return tablica [dx, dy] (w jednostkach mapy na krok)
+     */
+    public int[] getWindDrift() {
+        return windDrift;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,188 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Szkic kwantyli o względnej dokładności: nieujemne wartości są zliczane w kubełkach o granicach
+ * rosnących geometrycznie (współczynnik {@code gamma = (1 + a) / (1 - a)}), więc każdy kwantyl jest
+ * wyznaczany z błędem względnym nie większym niż {@code a}. Wartości bliskie zera trafiają do
+ * osobnego kubełka zerowego. Szkic obsługuje dodawanie i usuwanie wartości (zmiana wartości obiektu
+ * to usunięcie starej i dodanie nowej), a szkice o tej samej dokładności można scalać, dodając liczniki kubełków.
+ * Koszt zapytania zależy od liczby kubełków, a nie od liczby wartości.
+ */
+class QuantileSketch {
+    /** Najmniejsza wartość rozróżniana od zera. */
+    private static final double MIN_VALUE = 1e-3;
+
+    /** Względna dokładność szkicu. */
+    private final double accuracy;
+    /** Współczynnik wzrostu granic kubełków. */
+    private final double gamma;
+    /** Logarytm naturalny współczynnika wzrostu (do wyznaczania numeru kubełka). */
+    private final double logGamma;
+    /** Liczniki kubełków; kubełek {@code offset + i} obejmuje wartości z przedziału (gamma^(i-1), gamma^i]. */
+    private int[] counts = new int[0];
+    /** Numer kubełka odpowiadającego pierwszemu elementowi tablicy liczników. */
+    private int offset;
+    /** Liczba wartości w kubełku zerowym. */
+    private int zeroCount;
+    /** Łączna liczba wartości. */
+    private int count;
+
+    /**
+     * Tworzy pusty szkic.
+     *
+     * @param accuracy względna dokładność kwantyli (przedział otwarty 0-1)
+     * @throws IllegalArgumentException jeśli dokładność jest spoza przedziału
+     */
+    QuantileSketch(double accuracy) {
+        if (!(accuracy > 0 && accuracy < 1)) {
+            throw new IllegalArgumentException("Dokładność szkicu musi należeć do przedziału (0, 1)");
+        }
+        this.accuracy = accuracy;
+        this.gamma = (1 + accuracy) / (1 - accuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Tworzy kopię szkicu.
+     *
+     * @return niezależna kopia szkicu
+     */
+    QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch(accuracy);
+        copy.counts = counts.clone();
+        copy.offset = offset;
+        copy.zeroCount = zeroCount;
+        copy.count = count;
+        return copy;
+    }
+
+    /**
+     * Dodaje wartość do szkicu (wartości ujemne są traktowane jak zero).
+     *
+     * @param value dodawana wartość
+     */
+    void add(double value) {
+        adjust(value, 1);
+    }
+
+    /**
+     * Usuwa wartość wcześniej dodaną do szkicu.
+     *
+     * @param value usuwana wartość
+     */
+    void remove(double value) {
+        adjust(value, -1);
+    }
+
+    /**
+     * Zastępuje wartość inną wartością (bez zmiany, jeśli obie trafiają do tego samego kubełka).
+     *
+     * @param previous poprzednia wartość
+     * @param value nowa wartość
+     */
+    void replace(double previous, double value) {
+        if (previous == value) {
+            return;
+        }
+        adjust(previous, -1);
+        adjust(value, 1);
+    }
+
+    /**
+     * Dodaje do szkicu wszystkie wartości innego szkicu o tej samej dokładności.
+     *
+     * @param other scalany szkic
+     * @throws IllegalArgumentException jeśli szkice mają różną dokładność
+     */
+    void merge(QuantileSketch other) {
+        if (other.accuracy != accuracy) {
+            throw new IllegalArgumentException("Nie można scalić szkiców o różnej dokładności");
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                int bucket = other.offset + i;
+                ensureBucket(bucket);
+                counts[bucket - offset] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    /**
+     * Zwraca liczbę wartości w szkicu.
+     * @return liczba wartości
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Wyznacza przybliżony kwantyl wartości.
+     *
+     * @param q rząd kwantyla (0-1), np. 0.5 dla mediany
+     * @return przybliżony kwantyl lub 0 dla pustego szkicu
+     * @throws IllegalArgumentException jeśli rząd kwantyla jest spoza przedziału 0-1
+     */
+    double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Rząd kwantyla musi należeć do przedziału 0-1");
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        if (rank < zeroCount) {
+            return 0;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return 2 * Math.pow(gamma, offset + i) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, offset + counts.length - 1) / (gamma + 1);
+    }
+
+    /**
+     * Zmienia licznik kubełka wartości.
+     *
+     * @param value wartość
+     * @param delta zmiana licznika (+1 lub -1)
+     */
+    private void adjust(double value, int delta) {
+        count += delta;
+        if (!(value > MIN_VALUE)) {
+            zeroCount += delta;
+            return;
+        }
+        int bucket = (int) Math.ceil(Math.log(value) / logGamma);
+        ensureBucket(bucket);
+        counts[bucket - offset] += delta;
+    }
+
+    /**
+     * Powiększa tablicę liczników tak, aby obejmowała podany kubełek.
+     *
+     * @param bucket numer kubełka
+     */
+    private void ensureBucket(int bucket) {
+        if (counts.length == 0) {
+            counts = new int[16];
+            offset = bucket - 8;
+            return;
+        }
+        if (bucket < offset) {
+            int grow = Math.max(offset - bucket, counts.length / 2);
+            int[] resized = new int[counts.length + grow];
+            System.arraycopy(counts, 0, resized, grow, counts.length);
+            counts = resized;
+            offset -= grow;
+        } else if (bucket >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(bucket - offset + 1, counts.length + counts.length / 2));
+        }
+    }
+}
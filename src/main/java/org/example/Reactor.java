@@ -1,8 +1,11 @@
 package org.example;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Klasa reprezentująca reaktor jądrowy na mapie symulacji.
@@ -10,8 +13,8 @@ import java.util.Random;
  * symulowanie usterek, zużycia oraz potencjalnych eksplozji.
  */
 class Reactor extends MapObject {
-    /** Singleton konfiguracji symulacji. */
-    private static final ConfigLoader config = ConfigLoader.getInstance();
+    /** Wersja formatu serializacji (punkty kontrolne sesji). */
+    private static final long serialVersionUID = 1L;
     /** Lista miast podłączonych do reaktora. */
     private List<City> connectedCities;
     /** Maksymalna moc produkcyjna reaktora (w MW). */
@@ -24,6 +27,10 @@ class Reactor extends MapObject {
     private final int reactorLevel;
     /** Wytrzymałość reaktora (wartość od 0.0 do 1.0). */
     private float durability;
+    /** Czy reaktor był aktywny przy ostatnim zgłoszeniu do agregatów świata. */
+    private transient boolean reportedActive;
+    /** Obciążenie (w procentach mocy maksymalnej) zgłoszone ostatnio do agregatów świata. */
+    private transient float reportedLoad;
     /** Referencja do mapy terenu, na której znajduje się reaktor. */
     private final TerrainMap mapRefference;
 
@@ -37,7 +44,8 @@ class Reactor extends MapObject {
      * @param mapRefference odniesienie do obiektu mapy terenu
      */
     public Reactor(int id, int[] coordinates, int level, TerrainMap mapRefference) {
-        super(id, coordinates);
+        super(id, coordinates, mapRefference != null
+                ? mapRefference.nextEntitySeed() : ThreadLocalRandom.current().nextLong());
         this.connectedCities = new ArrayList<>();
         this.reactorLevel = level;
         this.mapRefference = mapRefference;
@@ -47,6 +55,37 @@ class Reactor extends MapObject {
         this.durability = 1.0f;
     }
 
+    /**
+     * Konstruktor kopiujący, używany przy rozgałęzianiu symulacji.
+     * Lista podłączonych miast wskazuje kopie miast z podanego odwzorowania.
+     *
+     * @param other kopiowany reaktor
+     * @param mapRefference mapa, do której należy kopia
+     * @param copies odwzorowanie obiektów oryginalnych na ich kopie
+     */
+    Reactor(Reactor other, TerrainMap mapRefference, Map<MapObject, MapObject> copies) {
+        super(other);
+        this.connectedCities = new ArrayList<>(other.connectedCities.size());
+        for (City city : other.connectedCities) {
+            this.connectedCities.add((City) copies.get(city));
+        }
+        this.reactorLevel = other.reactorLevel;
+        this.mapRefference = mapRefference;
+        this.maxPower = other.maxPower;
+        this.currentPower = other.currentPower;
+        this.isMalfunction = other.isMalfunction;
+        this.durability = other.durability;
+    }
+
+    /**
+     * Zwraca konfigurację symulacji, do której należy reaktor (domyślną dla reaktora bez mapy).
+     *
+     * @return konfiguracja symulacji
+     */
+    private ConfigLoader config() {
+        return mapRefference != null ? mapRefference.getConfig() : ConfigLoader.getInstance();
+    }
+
     /**
      * Oblicza maksymalną moc reaktora na podstawie jego poziomu.
      * Moc jest losowana w predefiniowanych zakresach dla każdego poziomu.
@@ -55,7 +94,7 @@ class Reactor extends MapObject {
      * @return maksymalna moc produkcyjna reaktora (w MW)
      */
     private float calculateMaxPower(int level) {
-        Random random = new Random();
+        Random random = getRandom();
         switch(level) {
             case 1: return 50 + random.nextFloat() * 150;
             case 2: return 200 + random.nextFloat() * 400;
@@ -76,6 +115,22 @@ class Reactor extends MapObject {
         updateDurability();
         checkExplosion();
         checkDeactivation();
+        rehash();
+    }
+
+    /**
+     * Oblicza skrót stanu reaktora.
+     *
+     * @return skrót stanu reaktora
+     */
+    @Override
+    protected long hashState() {
+        long hash = baseHash(2);
+        hash = StateDigest.combine(hash, reactorLevel);
+        hash = StateDigest.combine(hash, Float.floatToIntBits(maxPower));
+        hash = StateDigest.combine(hash, Float.floatToIntBits(currentPower));
+        hash = StateDigest.combine(hash, Float.floatToIntBits(durability));
+        return StateDigest.combine(hash, isMalfunction ? 1 : 0);
     }
 
     /**
@@ -83,35 +138,57 @@ class Reactor extends MapObject {
      * Szansa na awarię zależy od poziomu reaktora i jego wytrzymałości.
      */
     private void triggerMalfunction() {
-        float baseChance = config.getReactorMalfunctionBaseChance();
+        float baseChance = config().getReactorMalfunctionBaseChance();
         float levelModifier = 1.0f / reactorLevel;
         float durabilityModifier = 1.0f - durability;
         float totalChance = baseChance * levelModifier * (1.0f + durabilityModifier);
 
-        Random random = new Random();
+        Random random = getRandom();
         isMalfunction = random.nextFloat() < totalChance;
     }
 
+    /**
+     * Zgłasza zmianę aktywności i obciążenia reaktora od poprzedniego zgłoszenia.
+     *
+     * @param aggregates agregaty świata
+     * @param region region reaktora
+     * @param attached true przy pierwszym zgłoszeniu
+     */
+    @Override
+    protected void reportAggregates(WorldAggregates aggregates, int region, boolean attached) {
+        boolean active = checkActivity();
+        float load = maxPower > 0 ? currentPower / maxPower * 100 : 0;
+        aggregates.updateReactor(region, !attached && reportedActive, reportedLoad, active, load);
+        reportedActive = active;
+        reportedLoad = load;
+    }
+
     /**
      * Aktualizuje wytrzymałość reaktora.
      * Zużycie jest większe, jeśli reaktor jest w stanie awarii.
      */
     private void updateDurability(){
         if(isMalfunction){
-            durability *= config.getReactorDurabilityDecayMalfunction();
+            durability *= config().getReactorDurabilityDecayMalfunction();
         } else {
-            durability *= config.getReactorDurabilityDecayNormal();
+            durability *= config().getReactorDurabilityDecayNormal();
         }
         durability = Math.max(0.0f, durability);
     }
 
     /**
-     * Aktualizuje całkowite obciążenie reaktora na podstawie zapotrzebowania podłączonych miast.
+     * Aktualizuje całkowite obciążenie reaktora na podstawie zapotrzebowania podłączonych miast,
+     * a przy włączonej sieci przesyłowej - na podstawie mocy faktycznie oddawanej do sieci.
      */
     private void updatePowerUsage(){
+        TransmissionNetwork network = mapRefference == null ? null : mapRefference.getTransmissionNetwork();
+        if (network != null) {
+            currentPower = (float) network.getReactorOutput(this);
+            return;
+        }
         float newUsage = 0;
-        for(City city: connectedCities){
-            newUsage += city.getEnergyUsage();
+        for (int i = 0; i < connectedCities.size(); i++) {
+            newUsage += connectedCities.get(i).getEnergyUsage();
         }
         currentPower = newUsage;
     }
@@ -131,19 +208,44 @@ class Reactor extends MapObject {
      * Jeśli warunki są spełnione, tworzy obiekt zanieczyszczenia.
      */
     private void checkExplosion() {
-        if (isMalfunction && durability < config.getReactorExplosionDurabilityThreshold() &&
-                currentPower > maxPower * config.getReactorExplosionPowerThreshold()) {
+        if (isMalfunction && durability < config().getReactorExplosionDurabilityThreshold() &&
+                currentPower > maxPower * config().getReactorExplosionPowerThreshold()) {
             durability = 0;
             this.deactivateObject();
 
             Pollution pollution = new Pollution(
-                    mapRefference.getPollutions().size() + 1,
+                    mapRefference.getPollutionCount() + 1,
                     this.getPosition(),
                     this,
-                    mapRefference.getWindDirection(),
+                    mapRefference.getWind(),
                     mapRefference
             );
             mapRefference.addPollution(pollution);
+            mapRefference.publishEvent(StepEvent.Type.EXPLOSION, this, pollution.getId(), currentPower);
+        }
+    }
+
+    /**
+     * Nalicza zużycie reaktora za podaną liczbę kroków bez awarii (przewijanie stanu ustalonego).
+     * Wytrzymałość maleje geometrycznie, a po spadku poniżej progu reaktor jest dezaktywowany.
+     *
+     * @param steps liczba przewijanych kroków
+     */
+    void fastForward(int steps) {
+        durability *= (float) Math.pow(config().getReactorDurabilityDecayNormal(), steps);
+        checkDeactivation();
+        rehash();
+    }
+
+    /**
+     * Dezaktywuje reaktor i powiadamia mapę, aby mogła przeliczyć zasilanie sieci.
+     */
+    @Override
+    public void deactivateObject() {
+        boolean wasActive = checkActivity();
+        super.deactivateObject();
+        if (wasActive && mapRefference != null) {
+            mapRefference.onReactorDeactivated(this);
         }
     }
 
@@ -165,6 +267,15 @@ class Reactor extends MapObject {
         connectedCities.remove(city);
     }
 
+    /**
+     * Zwraca miasta podłączone do reaktora (lista tylko do odczytu).
+     *
+     * @return podłączone miasta
+     */
+    List<City> getConnectedCities() {
+        return Collections.unmodifiableList(connectedCities);
+    }
+
     /**
      * Wyświetla informacje o stanie reaktora na konsoli.
      */
@@ -199,4 +310,31 @@ class Reactor extends MapObject {
     public float getMaxPower() {
         return maxPower;
     }
+
+    /**
+     * Zwraca wytrzymałość reaktora.
+     *
+     * @return wytrzymałość (wartość od 0.0 do 1.0)
+     */
+    public float getDurability() {
+        return durability;
+    }
+
+    /**
+     * Zwraca poziom technologiczny reaktora.
+     *
+     * @return poziom reaktora (1-4)
+     */
+    public int getReactorLevel() {
+        return reactorLevel;
+    }
+
+    /**
+     * Sprawdza, czy reaktor jest w stanie awarii.
+     *
+     * @return true, jeśli w ostatnim kroku wystąpiła awaria
+     */
+    boolean isMalfunctioning() {
+        return isMalfunction;
+    }
 }
@@ -0,0 +1,187 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Klasa zapisująca przebieg symulacji do pliku binarnego w celu późniejszego odtworzenia.
+ * Co {@code keyframeInterval} kroków zapisywana jest pełna klatka kluczowa ze stanem
+ * wszystkich obiektów, a w pozostałych krokach jedynie zmiany (delty) względem poprzedniego kroku.
+ *
+ * <p>Format pliku: nagłówek ({@link #MAGIC}, wersja, szerokość, wysokość, interwał klatek kluczowych),
+ * a następnie ramki poprzedzone długością w bajtach. Ramka zawiera typ ({@link #KEYFRAME} lub
+ * {@link #DELTA}), numer kroku, kierunek wiatru oraz dla każdego rodzaju obiektów:
+ * łączną liczbę obiektów, liczbę zapisanych rekordów i rekordy postaci [indeks, pola obiektu].</p>
+ */
+class RunRecorder implements AutoCloseable {
+    /** Sygnatura pliku zapisu przebiegu. */
+    static final int MAGIC = 0x524E5352;
+    /** Wersja formatu pliku. */
+    static final int VERSION = 1;
+    /** Typ ramki: pełna klatka kluczowa. */
+    static final byte KEYFRAME = 'K';
+    /** Typ ramki: zmiany względem poprzedniego kroku. */
+    static final byte DELTA = 'D';
+
+    /** Strumień wyjściowy pliku zapisu. */
+    private final DataOutputStream output;
+    /** Bufor, w którym budowana jest bieżąca ramka. */
+    private final ByteArrayOutputStream frameBuffer = new ByteArrayOutputStream();
+    /** Strumień zapisu do bufora ramki. */
+    private final DataOutputStream frame = new DataOutputStream(frameBuffer);
+    /** Co ile zapisanych kroków tworzona jest klatka kluczowa. */
+    private final int keyframeInterval;
+    /** Migawka poprzednio zapisanego kroku (podstawa delty). */
+    private WorldSnapshot previous;
+    /** Liczba zapisanych ramek. */
+    private int frameCount;
+
+    /**
+     * Konstruktor klasy RunRecorder.
+     * Tworzy plik zapisu i zapisuje jego nagłówek.
+     *
+     * @param fileName ścieżka pliku zapisu
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param keyframeInterval co ile kroków zapisywać klatkę kluczową
+     * @throws IOException jeśli nie udało się utworzyć pliku
+     * @throws IllegalArgumentException jeśli interwał klatek kluczowych jest mniejszy od 1
+     */
+    RunRecorder(String fileName, int width, int height, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Interwał klatek kluczowych musi być większy od 0");
+        }
+        File parentDir = new File(fileName).getAbsoluteFile().getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+        this.keyframeInterval = keyframeInterval;
+        this.output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(width);
+        output.writeInt(height);
+        output.writeInt(keyframeInterval);
+    }
+
+    /**
+     * Zapisuje stan świata w kolejnym kroku jako klatkę kluczową lub deltę.
+     *
+     * @param snapshot migawka stanu świata
+     * @throws IOException jeśli zapis się nie powiódł
+     */
+    void record(WorldSnapshot snapshot) throws IOException {
+        boolean keyframe = previous == null || frameCount % keyframeInterval == 0;
+        frameBuffer.reset();
+        frame.writeByte(keyframe ? KEYFRAME : DELTA);
+        frame.writeInt(snapshot.step);
+        frame.writeUTF(snapshot.windDirection == null ? "" : snapshot.windDirection);
+        writeCities(snapshot, keyframe);
+        writeReactors(snapshot, keyframe);
+        writePollutions(snapshot, keyframe);
+        frame.flush();
+
+        output.writeInt(frameBuffer.size());
+        frameBuffer.writeTo(output);
+        previous = snapshot;
+        frameCount++;
+    }
+
+    /**
+     * Zapisuje rekordy miast (wszystkie lub tylko zmienione).
+     *
+     * @param snapshot migawka bieżącego kroku
+     * @param keyframe czy zapisywana jest klatka kluczowa
+     * @throws IOException jeśli zapis się nie powiódł
+     */
+    private void writeCities(WorldSnapshot snapshot, boolean keyframe) throws IOException {
+        int changed = 0;
+        for (int i = 0; i < snapshot.cityCount; i++) {
+            if (keyframe || !snapshot.sameCity(previous, i)) changed++;
+        }
+        frame.writeInt(snapshot.cityCount);
+        frame.writeInt(changed);
+        for (int i = 0; i < snapshot.cityCount; i++) {
+            if (keyframe || !snapshot.sameCity(previous, i)) {
+                frame.writeInt(i);
+                frame.writeInt(snapshot.cityId[i]);
+                frame.writeInt(snapshot.cityX[i]);
+                frame.writeInt(snapshot.cityY[i]);
+                frame.writeInt(snapshot.cityPopulation[i]);
+                frame.writeInt(snapshot.cityOriginalPopulation[i]);
+                frame.writeFloat(snapshot.cityEnergyUsage[i]);
+                frame.writeFloat(snapshot.cityPollution[i]);
+                frame.writeInt(snapshot.cityReactorIndex[i]);
+            }
+        }
+    }
+
+    /**
+     * Zapisuje rekordy reaktorów (wszystkie lub tylko zmienione).
+     *
+     * @param snapshot migawka bieżącego kroku
+     * @param keyframe czy zapisywana jest klatka kluczowa
+     * @throws IOException jeśli zapis się nie powiódł
+     */
+    private void writeReactors(WorldSnapshot snapshot, boolean keyframe) throws IOException {
+        int changed = 0;
+        for (int i = 0; i < snapshot.reactorCount; i++) {
+            if (keyframe || !snapshot.sameReactor(previous, i)) changed++;
+        }
+        frame.writeInt(snapshot.reactorCount);
+        frame.writeInt(changed);
+        for (int i = 0; i < snapshot.reactorCount; i++) {
+            if (keyframe || !snapshot.sameReactor(previous, i)) {
+                frame.writeInt(i);
+                frame.writeInt(snapshot.reactorId[i]);
+                frame.writeInt(snapshot.reactorX[i]);
+                frame.writeInt(snapshot.reactorY[i]);
+                frame.writeByte(snapshot.reactorLevel[i]);
+                frame.writeFloat(snapshot.reactorMaxPower[i]);
+                frame.writeFloat(snapshot.reactorCurrentPower[i]);
+                frame.writeFloat(snapshot.reactorDurability[i]);
+                frame.writeBoolean(snapshot.reactorActive[i]);
+            }
+        }
+    }
+
+    /**
+     * Zapisuje rekordy zanieczyszczeń (wszystkie lub tylko zmienione).
+     *
+     * @param snapshot migawka bieżącego kroku
+     * @param keyframe czy zapisywana jest klatka kluczowa
+     * @throws IOException jeśli zapis się nie powiódł
+     */
+    private void writePollutions(WorldSnapshot snapshot, boolean keyframe) throws IOException {
+        int changed = 0;
+        for (int i = 0; i < snapshot.pollutionCount; i++) {
+            if (keyframe || !snapshot.samePollution(previous, i)) changed++;
+        }
+        frame.writeInt(snapshot.pollutionCount);
+        frame.writeInt(changed);
+        for (int i = 0; i < snapshot.pollutionCount; i++) {
+            if (keyframe || !snapshot.samePollution(previous, i)) {
+                frame.writeInt(i);
+                frame.writeInt(snapshot.pollutionId[i]);
+                frame.writeInt(snapshot.pollutionX[i]);
+                frame.writeInt(snapshot.pollutionY[i]);
+                frame.writeFloat(snapshot.pollutionRadius[i]);
+                frame.writeBoolean(snapshot.pollutionActive[i]);
+            }
+        }
+    }
+
+    /**
+     * Zamyka plik zapisu, opróżniając bufory.
+     *
+     * @throws IOException jeśli zamknięcie się nie powiodło
+     */
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,239 @@
+package org.example;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Klasa odtwarzająca przebieg symulacji zapisany przez {@link RunRecorder}.
+ * Nie wykonuje ponownie modelu: stan kroku N jest odtwarzany z najbliższej wcześniejszej
+ * klatki kluczowej i co najwyżej {@code keyframeInterval - 1} delt, więc czas skoku
+ * zależy od interwału klatek kluczowych, a nie od numeru kroku.
+ */
+class RunReplay {
+    /** Zawartość pliku zapisu. */
+    private final byte[] data;
+    /** Szerokość mapy. */
+    private final int width;
+    /** Wysokość mapy. */
+    private final int height;
+    /** Interwał klatek kluczowych zapisany w nagłówku. */
+    private final int keyframeInterval;
+    /** Przesunięcia kolejnych ramek w pliku. */
+    private final int[] frameOffsets;
+    /** Numery kroków kolejnych ramek. */
+    private final int[] frameSteps;
+    /** Indeks najbliższej wcześniejszej (lub tej samej) klatki kluczowej dla każdej ramki. */
+    private final int[] keyframeOf;
+    /** Liczba ramek w zapisie. */
+    private final int frameCount;
+    /** Stan roboczy odtwarzania (modyfikowany przez kolejne delty). */
+    private final WorldSnapshot working = new WorldSnapshot(16, 16, 16);
+    /** Indeks ramki, której stan jest aktualnie w {@link #working} (-1, jeśli brak). */
+    private int currentFrame = -1;
+
+    /**
+     * Wczytuje plik zapisu przebiegu i buduje indeks ramek.
+     *
+     * @param path ścieżka pliku zapisu
+     * @return obiekt odtwarzania
+     * @throws IOException jeśli plik nie istnieje lub ma nieprawidłowy format
+     */
+    static RunReplay load(Path path) throws IOException {
+        return new RunReplay(Files.readAllBytes(path));
+    }
+
+    /**
+     * Konstruktor klasy RunReplay.
+     *
+     * @param data zawartość pliku zapisu
+     * @throws IOException jeśli dane mają nieprawidłowy format
+     */
+    RunReplay(byte[] data) throws IOException {
+        this.data = data;
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < 20 || buffer.getInt() != RunRecorder.MAGIC) {
+            throw new IOException("Nieprawidłowy plik zapisu przebiegu");
+        }
+        int version = buffer.getInt();
+        if (version != RunRecorder.VERSION) {
+            throw new IOException("Nieobsługiwana wersja zapisu przebiegu: " + version);
+        }
+        this.width = buffer.getInt();
+        this.height = buffer.getInt();
+        this.keyframeInterval = buffer.getInt();
+
+        int[] offsets = new int[64];
+        int[] steps = new int[64];
+        int[] keyframes = new int[64];
+        int count = 0;
+        int lastKeyframe = -1;
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt();
+            int offset = buffer.position();
+            if (length < 5 || length > buffer.remaining()) {
+                break; // niedokończona ramka na końcu pliku (np. przerwany zapis)
+            }
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                steps = Arrays.copyOf(steps, count * 2);
+                keyframes = Arrays.copyOf(keyframes, count * 2);
+            }
+            if (data[offset] == RunRecorder.KEYFRAME) {
+                lastKeyframe = count;
+            }
+            if (lastKeyframe < 0) {
+                throw new IOException("Zapis przebiegu nie zaczyna się od klatki kluczowej");
+            }
+            offsets[count] = offset;
+            steps[count] = buffer.getInt(offset + 1);
+            keyframes[count] = lastKeyframe;
+            count++;
+            buffer.position(offset + length);
+        }
+        this.frameOffsets = offsets;
+        this.frameSteps = steps;
+        this.keyframeOf = keyframes;
+        this.frameCount = count;
+    }
+
+    /**
+     * Zwraca stan świata w ramce o podanym indeksie.
+     * Przy odtwarzaniu do przodu stosowane są wyłącznie kolejne delty; przy skoku
+     * stan jest odbudowywany od najbliższej wcześniejszej klatki kluczowej.
+     *
+     * @param frame indeks ramki (0 - liczba ramek - 1)
+     * @return niezależna kopia stanu świata w danej ramce
+     * @throws IndexOutOfBoundsException jeśli indeks ramki jest nieprawidłowy
+     */
+    synchronized WorldSnapshot seekFrame(int frame) {
+        if (frame < 0 || frame >= frameCount) {
+            throw new IndexOutOfBoundsException("Brak ramki " + frame);
+        }
+        int start;
+        if (currentFrame >= 0 && frame >= currentFrame && keyframeOf[frame] <= currentFrame) {
+            start = currentFrame + 1;
+        } else {
+            start = keyframeOf[frame];
+        }
+        try {
+            for (int i = start; i <= frame; i++) {
+                applyFrame(i);
+            }
+        } catch (IOException e) {
+            currentFrame = -1;
+            throw new IllegalStateException("Uszkodzona ramka zapisu przebiegu", e);
+        }
+        currentFrame = frame;
+        return working.copy();
+    }
+
+    /**
+     * Zwraca stan świata w podanym kroku symulacji (lub w ostatnim zapisanym kroku przed nim).
+     *
+     * @param step numer kroku symulacji
+     * @return niezależna kopia stanu świata
+     */
+    WorldSnapshot seekStep(int step) {
+        return seekFrame(frameForStep(step));
+    }
+
+    /**
+     * Wyszukuje indeks ramki odpowiadającej podanemu krokowi.
+     *
+     * @param step numer kroku symulacji
+     * @return indeks ostatniej ramki o kroku nie większym niż podany (co najmniej 0)
+     */
+    int frameForStep(int step) {
+        int index = Arrays.binarySearch(frameSteps, 0, frameCount, step);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return Math.max(0, Math.min(index, frameCount - 1));
+    }
+
+    /**
+     * Nakłada ramkę (klatkę kluczową lub deltę) na stan roboczy.
+     *
+     * @param frame indeks ramki
+     * @throws IOException jeśli ramka jest uszkodzona
+     */
+    private void applyFrame(int frame) throws IOException {
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(data, frameOffsets[frame], data.length - frameOffsets[frame]));
+        in.readByte();
+        working.step = in.readInt();
+        working.width = width;
+        working.height = height;
+        working.windDirection = in.readUTF();
+
+        working.cityCount = in.readInt();
+        working.ensureCityCapacity(working.cityCount);
+        int records = in.readInt();
+        for (int r = 0; r < records; r++) {
+            working.setCity(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                    in.readInt(), in.readFloat(), in.readFloat(), in.readInt());
+        }
+
+        working.reactorCount = in.readInt();
+        working.ensureReactorCapacity(working.reactorCount);
+        records = in.readInt();
+        for (int r = 0; r < records; r++) {
+            working.setReactor(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readByte(),
+                    in.readFloat(), in.readFloat(), in.readFloat(), in.readBoolean());
+        }
+
+        working.pollutionCount = in.readInt();
+        working.ensurePollutionCapacity(working.pollutionCount);
+        records = in.readInt();
+        for (int r = 0; r < records; r++) {
+            working.setPollution(in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+                    in.readFloat(), in.readBoolean());
+        }
+    }
+
+    /**
+     * Zwraca liczbę ramek w zapisie.
+     * @return liczba ramek
+     */
+    int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Zwraca numer kroku zapisanego w danej ramce.
+     * @param frame indeks ramki
+     * @return numer kroku symulacji
+     */
+    int getStepOfFrame(int frame) {
+        return frameSteps[frame];
+    }
+
+    /**
+     * Zwraca interwał klatek kluczowych zapisu.
+     * @return liczba ramek pomiędzy klatkami kluczowymi
+     */
+    int getKeyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * Zwraca szerokość mapy z zapisu.
+     * @return szerokość mapy
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * Zwraca wysokość mapy z zapisu.
+     * @return wysokość mapy
+     */
+    int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,404 @@
+package org.example;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Test wydajności całego silnika w funkcji rozmiaru świata. Dla każdej skali generuje świat
+ * z ustalonym ziarnem (80% miast, 10% reaktorów, 10% zanieczyszczeń, mapa o stałej gęstości obiektów),
+ * wykonuje stałą liczbę kroków bez interfejsu i mierzy liczbę kroków na sekundę, medianę i 99. percentyl
+ * czasu kroku, szczytową zajętość sterty oraz czas odśmiecania. Wyniki są dopisywane do pliku CSV
+ * z etykietą przebiegu (np. skrótem commita), dzięki czemu krzywe skalowania różnych wersji można
+ * porównywać; na konsoli drukowany jest wykładnik skalowania między kolejnymi skalami oraz porównanie
+ * z ostatnią inną etykietą w pliku.
+ */
+class ScalingBenchmark {
+    /** Nagłówek pliku wyników. */
+    static final String HEADER = "etykieta,obiekty,miasta,reaktory,zanieczyszczenia,rozmiar_mapy,kroki,"
+            + "kroki_na_s,p50_ms,p99_ms,szczyt_sterty_mb,gc_ms,przygotowanie_s";
+    /** Udział miast w liczbie obiektów. */
+    private static final double CITY_SHARE = 0.8;
+    /** Udział reaktorów w liczbie obiektów. */
+    private static final double REACTOR_SHARE = 0.1;
+    /** Powierzchnia mapy przypadająca na jeden obiekt (stała gęstość świata). */
+    private static final int AREA_PER_ENTITY = 40;
+    /** Minimalny bok mapy (ograniczenie mapy terenu). */
+    private static final int MIN_MAP_SIZE = 400;
+    /** Liczba kroków rozgrzewających (bez pomiaru), obejmujących pierwsze podłączenie wszystkich miast. */
+    private static final int WARMUP_STEPS = 2;
+
+    /**
+     * Wynik pomiaru jednej skali.
+     *
+     * @param label etykieta przebiegu
+     * @param entities docelowa liczba obiektów
+     * @param cities liczba miast na mapie
+     * @param reactors liczba reaktorów na mapie
+     * @param plumes liczba zanieczyszczeń na mapie
+     * @param mapSize bok mapy
+     * @param steps liczba zmierzonych kroków
+     * @param stepsPerSecond liczba kroków na sekundę
+     * @param p50Millis mediana czasu kroku (ms)
+     * @param p99Millis 99. percentyl czasu kroku (ms)
+     * @param peakHeapMb szczytowa zajętość sterty (MB)
+     * @param gcMillis łączny czas odśmiecania w czasie przygotowania i kroków (ms)
+     * @param setupSeconds czas generowania świata (s)
+     */
+    record Result(String label, int entities, int cities, int reactors, int plumes, int mapSize, int steps,
+                  double stepsPerSecond, double p50Millis, double p99Millis, double peakHeapMb,
+                  long gcMillis, double setupSeconds) {
+
+        /**
+         * Zwraca wynik jako wiersz pliku CSV.
+         * @return wiersz CSV (bez znaku końca wiersza)
+         */
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%d,%.3f,%.3f,%.3f,%.1f,%d,%.2f", label, entities,
+                    cities, reactors, plumes, mapSize, steps, stepsPerSecond, p50Millis, p99Millis,
+                    peakHeapMb, gcMillis, setupSeconds);
+        }
+
+        /**
+         * Odczytuje wynik z wiersza pliku CSV.
+         *
+         * @param line wiersz CSV
+         * @return wynik
+         * @throws IllegalArgumentException jeśli wiersz ma nieprawidłowy format
+         */
+        static Result fromCsv(String line) {
+            String[] f = line.split(",");
+            if (f.length != 13) {
+                throw new IllegalArgumentException("Nieprawidłowy wiersz wyników: " + line);
+            }
+            return new Result(f[0], Integer.parseInt(f[1]), Integer.parseInt(f[2]), Integer.parseInt(f[3]),
+                    Integer.parseInt(f[4]), Integer.parseInt(f[5]), Integer.parseInt(f[6]),
+                    Double.parseDouble(f[7]), Double.parseDouble(f[8]), Double.parseDouble(f[9]),
+                    Double.parseDouble(f[10]), Long.parseLong(f[11]), Double.parseDouble(f[12]));
+        }
+    }
+
+    /** Etykieta przebiegu zapisywana w wynikach. */
+    private final String label;
+    /** Liczba mierzonych kroków dla każdej skali. */
+    private final int steps;
+    /** Ziarno generowania świata. */
+    private final long seed;
+    /** Konfiguracja symulacji generowanych światów. */
+    private final ConfigLoader config;
+
+    /**
+     * Konstruktor testu wydajności.
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
+     *
+     * @param label etykieta przebiegu (bez przecinków)
+     * @param steps liczba mierzonych kroków dla każdej skali
+     * @param seed ziarno generowania świata
+     * @throws IllegalArgumentException jeśli liczba kroków jest mniejsza od 1 lub etykieta zawiera przecinek
+     */
+    ScalingBenchmark(String label, int steps, long seed) {
+        this(label, steps, seed, ConfigLoader.getInstance());
+    }
+
+    /**
+     * Konstruktor testu wydajności z konfiguracją generowanych światów.
+     *
+     * @param label etykieta przebiegu (bez przecinków)
+     * @param steps liczba mierzonych kroków dla każdej skali
+     * @param seed ziarno generowania świata
+     * @param config konfiguracja symulacji
+     * @throws IllegalArgumentException jeśli liczba kroków jest mniejsza od 1 lub etykieta zawiera przecinek
+     */
+    ScalingBenchmark(String label, int steps, long seed, ConfigLoader config) {
+        if (steps < 1) {
+            throw new IllegalArgumentException("Liczba kroków musi być większa od 0");
+        }
+        if (label.isEmpty() || label.contains(",")) {
+            throw new IllegalArgumentException("Etykieta nie może być pusta ani zawierać przecinka");
+        }
+        this.label = label;
+        this.steps = steps;
+        this.seed = seed;
+        this.config = config;
+    }
+
+    /**
+     * Generuje świat o podanej liczbie obiektów i wykonuje na nim pomiar.
+     *
+     * @param entities docelowa liczba obiektów (miast, reaktorów i zanieczyszczeń)
+     * @return wynik pomiaru
+     * @throws IllegalArgumentException jeśli liczba obiektów jest mniejsza od 10
+     */
+    Result measure(int entities) {
+        if (entities < 10) {
+            throw new IllegalArgumentException("Liczba obiektów musi wynosić co najmniej 10");
+        }
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long gcBefore = gcMillis();
+
+        long setupStart = System.nanoTime();
+        Simulation simulation = Simulation.headless(generateWorld(entities), 0, 0);
+        double setupSeconds = (System.nanoTime() - setupStart) / 1e9;
+        TerrainMap terrain = simulation.getTerrain();
+        int cities = terrain.getCityCount();
+        int reactors = terrain.getReactorCount();
+        int plumes = terrain.getPollutions().size();
+
+        for (int i = 0; i < WARMUP_STEPS; i++) {
+            simulation.step();
+        }
+        long[] stepNanos = new long[steps];
+        long start = System.nanoTime();
+        for (int i = 0; i < steps; i++) {
+            long stepStart = System.nanoTime();
+            simulation.step();
+            stepNanos[i] = System.nanoTime() - stepStart;
+        }
+        long total = System.nanoTime() - start;
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        Arrays.sort(stepNanos);
+        return new Result(label, entities, cities, reactors, plumes, terrain.getWidth(), steps,
+                steps / (total / 1e9), percentile(stepNanos, 0.50) / 1e6, percentile(stepNanos, 0.99) / 1e6,
+                peakHeap / (1024.0 * 1024.0), gcMillis() - gcBefore, setupSeconds);
+    }
+
+    /**
+     * Generuje świat o podanej liczbie obiektów na mapie o stałej gęstości.
+     * Obiekty na zajętych pozycjach są pomijane, więc rzeczywiste liczności mogą być nieco mniejsze.
+     *
+     * @param entities docelowa liczba obiektów
+     * @return mapa terenu z obiektami
+     */
+    TerrainMap generateWorld(int entities) {
+        int cityCount = (int) (entities * CITY_SHARE);
+        int reactorCount = Math.max(1, (int) (entities * REACTOR_SHARE));
+        int plumeCount = entities - cityCount - reactorCount;
+        int size = Math.max(MIN_MAP_SIZE, (int) Math.ceil(Math.sqrt((double) entities * AREA_PER_ENTITY)));
+        SplittableRandom random = new SplittableRandom(seed);
+
+        int[] cityX = new int[cityCount];
+        int[] cityY = new int[cityCount];
+        int[] population = new int[cityCount];
+        for (int i = 0; i < cityCount; i++) {
+            cityX[i] = random.nextInt(size);
+            cityY[i] = random.nextInt(size);
+            population[i] = 10_000 + random.nextInt(90_000);
+        }
+        int[] reactorX = new int[reactorCount];
+        int[] reactorY = new int[reactorCount];
+        int[] level = new int[reactorCount];
+        for (int i = 0; i < reactorCount; i++) {
+            reactorX[i] = random.nextInt(size);
+            reactorY[i] = random.nextInt(size);
+            level[i] = 1 + random.nextInt(4);
+        }
+        TerrainMap map = new TerrainMap(new int[]{size, size}, cityCount, reactorCount, seed, config);
+        map.setObjectInfoEnabled(false);
+        map.addBulk(cityX, cityY, population, cityCount, reactorX, reactorY, level, reactorCount);
+
+        List<Reactor> sources = map.getReactors();
+        for (int i = 0; i < plumeCount; i++) {
+            Reactor source = sources.get(random.nextInt(sources.size()));
+            int[] position = {random.nextInt(size), random.nextInt(size), 1};
+            map.addPollution(new Pollution(map.getPollutions().size() + 1, position, source,
+                    WindDirection.values()[random.nextInt(WindDirection.values().length)], map));
+        }
+        return map;
+    }
+
+    /**
+     * Wyznacza percentyl z posortowanych czasów.
+     *
+     * @param sorted posortowane czasy
+     * @param q rząd percentyla (0-1)
+     * @return wartość percentyla
+     */
+    private static long percentile(long[] sorted, double q) {
+        int index = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Zwraca łączny czas odśmiecania od uruchomienia maszyny wirtualnej.
+     * @return czas odśmiecania (ms)
+     */
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Dopisuje wyniki do pliku CSV (z nagłówkiem, jeśli plik jest nowy).
+     *
+     * @param output ścieżka pliku wyników
+     * @param results wyniki do dopisania
+     * @throws IOException jeśli zapis się nie powiódł
+     */
+    static void append(Path output, List<Result> results) throws IOException {
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        List<String> lines = new ArrayList<>();
+        if (!Files.exists(output) || Files.size(output) == 0) {
+            lines.add(HEADER);
+        }
+        for (Result result : results) {
+            lines.add(result.toCsv());
+        }
+        Files.write(output, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Wczytuje wyniki z pliku CSV.
+     *
+     * @param output ścieżka pliku wyników
+     * @return wyniki w kolejności pliku (pusta lista, jeśli plik nie istnieje)
+     * @throws IOException jeśli odczyt się nie powiódł lub plik ma nieprawidłowy format
+     */
+    static List<Result> load(Path output) throws IOException {
+        List<Result> results = new ArrayList<>();
+        if (!Files.exists(output)) {
+            return results;
+        }
+        for (String line : Files.readAllLines(output, StandardCharsets.UTF_8)) {
+            if (line.isBlank() || line.equals(HEADER)) {
+                continue;
+            }
+            try {
+                results.add(Result.fromCsv(line));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Wyznacza wykładnik skalowania czasu kroku między dwiema skalami
+     * (1 - liniowo, powyżej 1 - gorzej niż liniowo).
+     *
+     * @param smaller wynik mniejszej skali
+     * @param larger wynik większej skali
+     * @return wykładnik skalowania
+     */
+    static double scalingExponent(Result smaller, Result larger) {
+        return Math.log(smaller.stepsPerSecond() / larger.stepsPerSecond())
+                / Math.log((double) larger.entities() / smaller.entities());
+    }
+
+    /**
+     * Drukuje krzywą skalowania bieżącego przebiegu i porównanie z ostatnią inną etykietą z pliku.
+     *
+     * @param results wyniki bieżącego przebiegu (rosnąco według skali)
+     * @param previous wcześniejsze wyniki z pliku
+     */
+    private static void printCurve(List<Result> results, List<Result> previous) {
+        String baseline = null;
+        for (Result result : previous) {
+            if (!result.label().equals(results.get(0).label())) {
+                baseline = result.label();
+            }
+        }
+        System.out.println("\n=== KRZYWA SKALOWANIA: " + results.get(0).label() + " ===");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            String exponent = i == 0 ? "-" : String.format(Locale.ROOT, "%.2f", scalingExponent(results.get(i - 1), result));
+            String comparison = "";
+            if (baseline != null) {
+                for (Result old : previous) {
+                    if (old.label().equals(baseline) && old.entities() == result.entities()) {
+                        comparison = String.format(Locale.ROOT, "  vs %s: %.2fx", baseline,
+                                result.stepsPerSecond() / old.stepsPerSecond());
+                    }
+                }
+            }
+            System.out.printf(Locale.ROOT, "%9d obiektów: %10.2f kroków/s, p99 %9.2f ms, sterta %8.1f MB, GC %6d ms, wykładnik %s%s%n",
+                    result.entities(), result.stepsPerSecond(), result.p99Millis(), result.peakHeapMb(),
+                    result.gcMillis(), exponent, comparison);
+        }
+    }
+
+    /**
+     * Uruchamia test wydajności. Argumenty: {@code --scales 1000,10000,100000,1000000},
+     * {@code --steps 10}, {@code --output target/benchmark/skalowanie.csv}, {@code --label lokalny},
+     * {@code --seed 42}. Opcje {@code --config <plik>} i {@code --set klucz=wartość} zmieniają
+     * konfigurację generowanych światów.
+     *
+     * @param args argumenty wiersza poleceń
+     */
+    public static void main(String[] args) {
+        ConfigLoader config;
+        List<String> remaining = new ArrayList<>();
+        try {
+            config = ConfigLoader.fromArguments(args, remaining);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Nieprawidłowa opcja konfiguracji: " + e.getMessage());
+            return;
+        } catch (IOException e) {
+            System.err.println("Błąd wczytywania konfiguracji: " + e.getMessage());
+            return;
+        }
+        args = remaining.toArray(new String[0]);
+        String scales = "1000,10000,100000,1000000";
+        String steps = "10";
+        String output = "target/benchmark/skalowanie.csv";
+        String label = "lokalny";
+        String seed = "42";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--scales" -> scales = args[i + 1];
+                case "--steps" -> steps = args[i + 1];
+                case "--output" -> output = args[i + 1];
+                case "--label" -> label = args[i + 1];
+                case "--seed" -> seed = args[i + 1];
+                default -> System.err.println("Nieznany argument: " + args[i]);
+            }
+        }
+        try {
+            ScalingBenchmark benchmark = new ScalingBenchmark(label, Integer.parseInt(steps), Long.parseLong(seed), config);
+            Path outputPath = Path.of(output);
+            List<Result> previous = load(outputPath);
+            List<Result> results = new ArrayList<>();
+            for (String scale : scales.split(",")) {
+                int entities = Integer.parseInt(scale.trim());
+                System.out.printf("Skala %d obiektów...%n", entities);
+                Result result = benchmark.measure(entities);
+                results.add(result);
+                append(outputPath, List.of(result));
+            }
+            printCurve(results, previous);
+            System.out.println("Wyniki: " + outputPath.toAbsolutePath());
+        } catch (NumberFormatException e) {
+            System.err.println("Nieprawidłowa liczba w argumentach: " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Nieprawidłowe parametry testu wydajności: " + e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Błąd zapisu wyników testu wydajności: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,604 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Wczytywanie scenariuszy: rzeczywistego rozmieszczenia miast i reaktorów z dużych plików.
+ * Plik jest odwzorowywany w pamięci i dzielony na fragmenty parsowane równolegle w puli fork-join,
+ * a wynik trafia do mapy jednym wstawieniem zbiorczym ({@link TerrainMap#addBulk}).
+ * <p>
+ * Obsługiwane formaty:
+ * <ul>
+ *     <li>tekstowy CSV: wiersze {@code map,szerokość,wysokość}, {@code city,x,y,populacja}
+ *     i {@code reactor,x,y,poziom}; puste wiersze i wiersze zaczynające się od {@code #} są pomijane,</li>
+ *     <li>binarny: nagłówek (znacznik {@code RNSC}, wersja, szerokość, wysokość, liczba miast,
+ *     liczba reaktorów), a po nim rekordy miast (x, y, populacja) i reaktorów (x, y, poziom);
+ *     wszystkie pola to liczby int w kolejności big-endian.</li>
+ * </ul>
+ * Kolejność obiektów na mapie (a więc i ich identyfikatory) odpowiada kolejności w pliku.
+ */
+class ScenarioLoader {
+    /** Znacznik początku pliku binarnego ("RNSC"). */
+    static final int BINARY_MAGIC = 0x524E5343;
+    /** Wersja formatu binarnego. */
+    static final int BINARY_VERSION = 1;
+    /** Rozmiar nagłówka pliku binarnego (w bajtach). */
+    private static final int BINARY_HEADER_SIZE = 24;
+    /** Rozmiar rekordu obiektu w pliku binarnym (w bajtach). */
+    private static final int BINARY_RECORD_SIZE = 12;
+    /** Najmniejszy fragment pliku parsowany jako osobne zadanie (w bajtach). */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    /** Największa dopuszczalna długość wiersza CSV (w bajtach). */
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    /**
+     * Wczytany scenariusz: wymiary mapy oraz położenia i parametry obiektów w kolejności z pliku.
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param cityX współrzędne X miast
+     * @param cityY współrzędne Y miast
+     * @param cityPopulation populacje miast
+     * @param reactorX współrzędne X reaktorów
+     * @param reactorY współrzędne Y reaktorów
+     * @param reactorLevel poziomy reaktorów
+     */
+    record Scenario(int width, int height, int[] cityX, int[] cityY, int[] cityPopulation,
+                    int[] reactorX, int[] reactorY, int[] reactorLevel) {
+
+        /**
+         * Zwraca liczbę miast scenariusza.
+         * @return liczba miast
+         */
+        int cityCount() {
+            return cityX.length;
+        }
+
+        /**
+         * Zwraca liczbę reaktorów scenariusza.
+         * @return liczba reaktorów
+         */
+        int reactorCount() {
+            return reactorX.length;
+        }
+
+        /**
+         * Tworzy mapę terenu o wymiarach scenariusza i wstawia do niej wszystkie obiekty.
+         * Limity miast i reaktorów mapy są podnoszone do liczności scenariusza, jeśli ją przekraczają.
+         * Wpisy z pozycją poza mapą lub zajętą są pomijane z ostrzeżeniem na konsoli.
+         * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
+         *
+         * @return mapa terenu z obiektami scenariusza
+         * @throws IllegalArgumentException jeśli wymiary mapy są nieprawidłowe
+         */
+        TerrainMap createMap() {
+            return createMap(ConfigLoader.getInstance());
+        }
+
+        /**
+         * Tworzy mapę terenu scenariusza z podaną konfiguracją symulacji (limity i parametry obiektów).
+         *
+         * @param config konfiguracja symulacji
+         * @return mapa terenu z obiektami scenariusza
+         * @throws IllegalArgumentException jeśli wymiary mapy są nieprawidłowe
+         */
+        TerrainMap createMap(ConfigLoader config) {
+            TerrainMap map = new TerrainMap(new int[]{width, height},
+                    Math.max(config.getMaxCities(), cityCount()), Math.max(config.getMaxReactors(), reactorCount()), config);
+            int skipped = map.addBulk(cityX, cityY, cityPopulation, cityCount(),
+                    reactorX, reactorY, reactorLevel, reactorCount());
+            if (skipped > 0) {
+                System.out.println("Pominięto wpisy scenariusza z pozycją poza mapą lub zajętą: " + skipped);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * Obiekty odczytane z jednego fragmentu pliku CSV.
+     */
+    private static final class Chunk {
+        /** Współrzędne X, Y i populacje miast (kolejne trójki). */
+        private int[] cities = new int[3 * 64];
+        /** Liczba miast. */
+        private int cityCount;
+        /** Współrzędne X, Y i poziomy reaktorów (kolejne trójki). */
+        private int[] reactors = new int[3 * 16];
+        /** Liczba reaktorów. */
+        private int reactorCount;
+        /** Szerokość mapy z wiersza "map" (0, jeśli fragment go nie zawiera). */
+        private int width;
+        /** Wysokość mapy z wiersza "map". */
+        private int height;
+
+        /**
+         * Dopisuje miasto.
+         *
+         * @param x współrzędna X
+         * @param y współrzędna Y
+         * @param population populacja
+         */
+        private void addCity(int x, int y, int population) {
+            if (3 * cityCount + 3 > cities.length) {
+                cities = Arrays.copyOf(cities, cities.length * 2);
+            }
+            cities[3 * cityCount] = x;
+            cities[3 * cityCount + 1] = y;
+            cities[3 * cityCount + 2] = population;
+            cityCount++;
+        }
+
+        /**
+         * Dopisuje reaktor.
+         *
+         * @param x współrzędna X
+         * @param y współrzędna Y
+         * @param level poziom reaktora
+         */
+        private void addReactor(int x, int y, int level) {
+            if (3 * reactorCount + 3 > reactors.length) {
+                reactors = Arrays.copyOf(reactors, reactors.length * 2);
+            }
+            reactors[3 * reactorCount] = x;
+            reactors[3 * reactorCount + 1] = y;
+            reactors[3 * reactorCount + 2] = level;
+            reactorCount++;
+        }
+    }
+
+    /**
+     * Klasa narzędziowa - bez instancji.
+     */
+    private ScenarioLoader() {
+    }
+
+    /**
+     * Wczytuje scenariusz, parsując fragmenty pliku we wspólnej puli fork-join.
+     *
+     * @param path ścieżka pliku scenariusza (CSV lub binarnego)
+     * @return wczytany scenariusz
+     * @throws IOException jeśli odczyt się nie powiedzie lub plik ma nieprawidłowy format
+     */
+    static Scenario read(Path path) throws IOException {
+        return read(path, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Wczytuje scenariusz, parsując fragmenty pliku równolegle w podanej puli.
+     * Format jest rozpoznawany po znaczniku na początku pliku; zrzut mapy ({@link OffHeapDump})
+     * jest wczytywany jako scenariusz z jego aktywnymi miastami i reaktorami.
+     *
+     * @param path ścieżka pliku scenariusza (CSV, binarnego lub zrzutu mapy)
+     * @param pool pula fork-join
+     * @return wczytany scenariusz
+     * @throws IOException jeśli odczyt się nie powiedzie lub plik ma nieprawidłowy format
+     */
+    static Scenario read(Path path, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer head = size >= 4 ? channel.map(FileChannel.MapMode.READ_ONLY, 0, 4) : null;
+            if (head != null && head.getInt(0) == BINARY_MAGIC) {
+                return readBinary(channel, size, pool);
+            }
+            // Zrzut mapy jest zapisywany w natywnej kolejności bajtów (układ segmentu pamięci).
+            if (head == null || head.order(ByteOrder.nativeOrder()).getInt(0) != OffHeapDump.MAGIC) {
+                return readCsv(channel, size, pool);
+            }
+        }
+        try (OffHeapDump dump = OffHeapDump.open(path)) {
+            return dump.toScenario();
+        }
+    }
+
+    /**
+     * Zapisuje scenariusz w formacie binarnym.
+     *
+     * @param path ścieżka pliku docelowego
+     * @param scenario zapisywany scenariusz
+     * @throws IOException jeśli zapis się nie powiedzie
+     */
+    static void writeBinary(Path path, Scenario scenario) throws IOException {
+        long size = BINARY_HEADER_SIZE
+                + (long) BINARY_RECORD_SIZE * (scenario.cityCount() + scenario.reactorCount());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(BINARY_HEADER_SIZE);
+            header.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(scenario.width()).putInt(scenario.height())
+                    .putInt(scenario.cityCount()).putInt(scenario.reactorCount()).flip();
+            channel.write(header, 0);
+            long position = BINARY_HEADER_SIZE;
+            position = writeRecords(channel, position, scenario.cityX(), scenario.cityY(), scenario.cityPopulation());
+            writeRecords(channel, position, scenario.reactorX(), scenario.reactorY(), scenario.reactorLevel());
+            channel.truncate(size);
+        }
+    }
+
+    /**
+     * Zapisuje rekordy obiektów przez odwzorowanie w pamięci, w porcjach mieszczących się w jednym buforze.
+     *
+     * @param channel kanał pliku docelowego
+     * @param position pozycja pierwszego rekordu w pliku
+     * @param xs współrzędne X
+     * @param ys współrzędne Y
+     * @param values trzecie pola rekordów (populacje lub poziomy)
+     * @return pozycja za ostatnim rekordem
+     * @throws IOException jeśli zapis się nie powiedzie
+     */
+    private static long writeRecords(FileChannel channel, long position, int[] xs, int[] ys, int[] values)
+            throws IOException {
+        int perBuffer = Integer.MAX_VALUE / BINARY_RECORD_SIZE;
+        for (int first = 0; first < xs.length; first += perBuffer) {
+            int count = Math.min(perBuffer, xs.length - first);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position,
+                    (long) count * BINARY_RECORD_SIZE);
+            for (int i = first; i < first + count; i++) {
+                buffer.putInt(xs[i]).putInt(ys[i]).putInt(values[i]);
+            }
+            position += (long) count * BINARY_RECORD_SIZE;
+        }
+        return position;
+    }
+
+    /**
+     * Wczytuje scenariusz binarny: rekordy o stałej długości są dzielone na zakresy,
+     * a każde zadanie odwzorowuje swój zakres i zapisuje wynik bezpośrednio do tablic wynikowych.
+     *
+     * @param channel kanał pliku
+     * @param size rozmiar pliku
+     * @param pool pula fork-join
+     * @return wczytany scenariusz
+     * @throws IOException jeśli plik ma nieprawidłowy format, poziom reaktora spoza przedziału 1-4
+     *                     lub odczyt się nie powiedzie
+     */
+    private static Scenario readBinary(FileChannel channel, long size, ForkJoinPool pool) throws IOException {
+        if (size < BINARY_HEADER_SIZE) {
+            throw new IOException("Niepełny nagłówek scenariusza binarnego");
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, BINARY_HEADER_SIZE);
+        int version = header.getInt(4);
+        if (version != BINARY_VERSION) {
+            throw new IOException("Nieobsługiwana wersja scenariusza binarnego: " + version);
+        }
+        int width = header.getInt(8);
+        int height = header.getInt(12);
+        int cityCount = header.getInt(16);
+        int reactorCount = header.getInt(20);
+        if (cityCount < 0 || reactorCount < 0 || size != BINARY_HEADER_SIZE
+                + (long) BINARY_RECORD_SIZE * ((long) cityCount + reactorCount)) {
+            throw new IOException("Rozmiar scenariusza binarnego nie zgadza się z nagłówkiem");
+        }
+
+        int[][] cities = {new int[cityCount], new int[cityCount], new int[cityCount]};
+        int[][] reactors = {new int[reactorCount], new int[reactorCount], new int[reactorCount]};
+        int total = cityCount + reactorCount;
+        int perChunk = Math.max(MIN_CHUNK_SIZE / BINARY_RECORD_SIZE, (total + chunkCount(pool) - 1) / chunkCount(pool));
+        int chunks = (total + perChunk - 1) / perChunk;
+        runChunks(pool, chunks, chunk -> {
+            int first = chunk * perChunk;
+            int count = Math.min(perChunk, total - first);
+            try {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        BINARY_HEADER_SIZE + (long) first * BINARY_RECORD_SIZE, (long) count * BINARY_RECORD_SIZE);
+                for (int k = 0; k < count; k++) {
+                    int record = first + k;
+                    int[][] target = record < cityCount ? cities : reactors;
+                    int index = record < cityCount ? record : record - cityCount;
+                    target[0][index] = buffer.getInt();
+                    target[1][index] = buffer.getInt();
+                    target[2][index] = buffer.getInt();
+                    if (record >= cityCount && (target[2][index] < 1 || target[2][index] > 4)) {
+                        throw invalidRecord(BINARY_HEADER_SIZE + (long) record * BINARY_RECORD_SIZE,
+                                "poziom reaktora musi należeć do przedziału 1-4");
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return new Scenario(width, height, cities[0], cities[1], cities[2], reactors[0], reactors[1], reactors[2]);
+    }
+
+    /**
+     * Wczytuje scenariusz CSV: plik jest dzielony na fragmenty o równej długości, a każde zadanie
+     * parsuje wiersze zaczynające się w jego fragmencie (ostatni wiersz może wykraczać poza fragment).
+     * Wyniki fragmentów są łączone w kolejności pliku.
+     *
+     * @param channel kanał pliku
+     * @param size rozmiar pliku
+     * @param pool pula fork-join
+     * @return wczytany scenariusz
+     * @throws IOException jeśli plik ma nieprawidłowy format lub odczyt się nie powiedzie
+     */
+    private static Scenario readCsv(FileChannel channel, long size, ForkJoinPool pool) throws IOException {
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, (size + chunkCount(pool) - 1) / chunkCount(pool));
+        int chunkTotal = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+        Chunk[] chunks = new Chunk[chunkTotal];
+        runChunks(pool, chunkTotal, k -> {
+            try {
+                chunks[k] = parseCsvChunk(channel, size, k * chunkSize, Math.min(size, (k + 1) * chunkSize));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        int width = 0;
+        int height = 0;
+        int cityCount = 0;
+        int reactorCount = 0;
+        for (Chunk chunk : chunks) {
+            if (chunk.width != 0) {
+                if (width != 0 && (width != chunk.width || height != chunk.height)) {
+                    throw new IOException("Scenariusz zawiera sprzeczne wymiary mapy");
+                }
+                width = chunk.width;
+                height = chunk.height;
+            }
+            cityCount += chunk.cityCount;
+            reactorCount += chunk.reactorCount;
+        }
+        if (width == 0) {
+            throw new IOException("Brak wiersza z wymiarami mapy (map,szerokość,wysokość)");
+        }
+
+        int[][] cities = {new int[cityCount], new int[cityCount], new int[cityCount]};
+        int[][] reactors = {new int[reactorCount], new int[reactorCount], new int[reactorCount]};
+        int cityOffset = 0;
+        int reactorOffset = 0;
+        for (Chunk chunk : chunks) {
+            cityOffset = unpack(chunk.cities, chunk.cityCount, cities, cityOffset);
+            reactorOffset = unpack(chunk.reactors, chunk.reactorCount, reactors, reactorOffset);
+        }
+        return new Scenario(width, height, cities[0], cities[1], cities[2], reactors[0], reactors[1], reactors[2]);
+    }
+
+    /**
+     * Rozpakowuje trójki wartości fragmentu do trzech tablic wynikowych.
+     *
+     * @param triples kolejne trójki wartości
+     * @param count liczba trójek
+     * @param target tablice wynikowe (trzy kolumny)
+     * @param offset pierwszy wolny indeks w tablicach wynikowych
+     * @return pierwszy wolny indeks po rozpakowaniu
+     */
+    private static int unpack(int[] triples, int count, int[][] target, int offset) {
+        for (int i = 0; i < count; i++) {
+            target[0][offset + i] = triples[3 * i];
+            target[1][offset + i] = triples[3 * i + 1];
+            target[2][offset + i] = triples[3 * i + 2];
+        }
+        return offset + count;
+    }
+
+    /**
+     * Parsuje wiersze CSV zaczynające się w zakresie [start, end) pliku.
+     * Odwzorowywany jest zakres powiększony o bajt przed początkiem (do wykrycia początku wiersza)
+     * i o maksymalną długość wiersza za końcem.
+     *
+     * @param channel kanał pliku
+     * @param size rozmiar pliku
+     * @param start początek fragmentu
+     * @param end koniec fragmentu
+     * @return obiekty odczytane z fragmentu
+     * @throws IOException jeśli wiersz ma nieprawidłowy format lub odczyt się nie powiedzie
+     */
+    private static Chunk parseCsvChunk(FileChannel channel, long size, long start, long end) throws IOException {
+        Chunk chunk = new Chunk();
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(size, end + MAX_LINE_LENGTH);
+        if (mapEnd <= mapStart) {
+            return chunk;
+        }
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int limit = buffer.limit();
+        int lineEnd = (int) (end - mapStart);
+        int position = (int) (start - mapStart);
+        if (start > 0 && buffer.get(0) != '\n') {
+            while (position < limit && buffer.get(position) != '\n') {
+                position++;
+            }
+            position++;
+        }
+
+        int[] values = new int[3];
+        while (position < lineEnd && position < limit) {
+            int eol = position;
+            while (eol < limit && buffer.get(eol) != '\n') {
+                eol++;
+            }
+            if (eol == limit && mapEnd < size) {
+                throw new IOException("Zbyt długi wiersz scenariusza (bajt " + (mapStart + position) + ")");
+            }
+            parseLine(buffer, position, eol, mapStart, values, chunk);
+            position = eol + 1;
+        }
+        return chunk;
+    }
+
+    /**
+     * Parsuje jeden wiersz CSV i dopisuje odczytany obiekt do fragmentu.
+     *
+     * @param buffer bufor z zawartością pliku
+     * @param from początek wiersza w buforze
+     * @param to koniec wiersza w buforze (bez znaku nowego wiersza)
+     * @param base pozycja początku bufora w pliku (do komunikatów o błędach)
+     * @param values tablica robocza na wartości liczbowe wiersza
+     * @param chunk fragment, do którego trafia obiekt
+     * @throws IOException jeśli wiersz ma nieprawidłowy format
+     */
+    private static void parseLine(ByteBuffer buffer, int from, int to, long base, int[] values, Chunk chunk)
+            throws IOException {
+        if (to > from && buffer.get(to - 1) == '\r') {
+            to--;
+        }
+        while (from < to && buffer.get(from) == ' ') {
+            from++;
+        }
+        if (from == to || buffer.get(from) == '#') {
+            return;
+        }
+        int tagEnd = from;
+        while (tagEnd < to && buffer.get(tagEnd) != ',') {
+            tagEnd++;
+        }
+        int fields = 0;
+        int position = tagEnd;
+        while (position < to) {
+            if (fields == values.length) {
+                throw invalidLine(base + from, "za dużo pól");
+            }
+            position++;
+            int field = position;
+            while (position < to && buffer.get(position) != ',') {
+                position++;
+            }
+            values[fields++] = parseInt(buffer, field, position, base + from);
+        }
+
+        if (tagEquals(buffer, from, tagEnd, "city") && fields == 3) {
+            chunk.addCity(values[0], values[1], values[2]);
+        } else if (tagEquals(buffer, from, tagEnd, "reactor") && fields == 3) {
+            if (values[2] < 1 || values[2] > 4) {
+                throw invalidLine(base + from, "poziom reaktora musi należeć do przedziału 1-4");
+            }
+            chunk.addReactor(values[0], values[1], values[2]);
+        } else if (tagEquals(buffer, from, tagEnd, "map") && fields == 2) {
+            if (values[0] <= 0 || values[1] <= 0) {
+                throw invalidLine(base + from, "wymiary mapy muszą być dodatnie");
+            }
+            if (chunk.width != 0 && (chunk.width != values[0] || chunk.height != values[1])) {
+                throw new IOException("Scenariusz zawiera sprzeczne wymiary mapy");
+            }
+            chunk.width = values[0];
+            chunk.height = values[1];
+        } else {
+            throw invalidLine(base + from, "oczekiwano map,szerokość,wysokość / city,x,y,populacja / reactor,x,y,poziom");
+        }
+    }
+
+    /**
+     * Parsuje liczbę całkowitą z pola CSV (dopuszczalne spacje wokół liczby i znak minus).
+     *
+     * @param buffer bufor z zawartością pliku
+     * @param from początek pola
+     * @param to koniec pola
+     * @param lineOffset pozycja początku wiersza w pliku (do komunikatów o błędach)
+     * @return wartość pola
+     * @throws IOException jeśli pole nie jest liczbą całkowitą
+     */
+    private static int parseInt(ByteBuffer buffer, int from, int to, long lineOffset) throws IOException {
+        while (from < to && buffer.get(from) == ' ') {
+            from++;
+        }
+        while (to > from && buffer.get(to - 1) == ' ') {
+            to--;
+        }
+        boolean negative = from < to && buffer.get(from) == '-';
+        int position = negative ? from + 1 : from;
+        if (position == to) {
+            throw invalidLine(lineOffset, "puste pole liczbowe");
+        }
+        long value = 0;
+        for (; position < to; position++) {
+            int digit = buffer.get(position) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidLine(lineOffset, "pole nie jest liczbą całkowitą");
+            }
+            value = value * 10 + digit;
+            if (value > Integer.MAX_VALUE) {
+                throw invalidLine(lineOffset, "liczba poza zakresem");
+            }
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Sprawdza, czy znacznik wiersza jest równy podanemu słowu.
+     *
+     * @param buffer bufor z zawartością pliku
+     * @param from początek znacznika
+     * @param to koniec znacznika
+     * @param tag oczekiwane słowo (ASCII)
+     * @return true, jeśli znacznik jest równy słowu
+     */
+    private static boolean tagEquals(ByteBuffer buffer, int from, int to, String tag) {
+        while (to > from && buffer.get(to - 1) == ' ') {
+            to--;
+        }
+        if (to - from != tag.length()) {
+            return false;
+        }
+        for (int i = 0; i < tag.length(); i++) {
+            if (buffer.get(from + i) != tag.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tworzy wyjątek opisujący nieprawidłowy wiersz scenariusza.
+     *
+     * @param offset pozycja wiersza w pliku
+     * @param reason opis błędu
+     * @return wyjątek do zgłoszenia
+     */
+    private static IOException invalidLine(long offset, String reason) {
+        return new IOException("Nieprawidłowy wiersz scenariusza (bajt " + offset + "): " + reason);
+    }
+
+    /**
+     * Tworzy wyjątek opisujący nieprawidłowy rekord scenariusza binarnego.
+     *
+     * @param offset pozycja rekordu w pliku
+     * @param reason opis błędu
+     * @return wyjątek do zgłoszenia
+     */
+    private static IOException invalidRecord(long offset, String reason) {
+        return new IOException("Nieprawidłowy rekord scenariusza binarnego (bajt " + offset + "): " + reason);
+    }
+
+    /**
+     * Wyznacza docelową liczbę fragmentów dla puli (kilka na wątek, dla wyrównania obciążenia).
+     *
+     * @param pool pula fork-join
+     * @return docelowa liczba fragmentów
+     */
+    private static int chunkCount(ForkJoinPool pool) {
+        return pool.getParallelism() * 4;
+    }
+
+    /**
+     * Wykonuje zadania fragmentów równolegle w puli, przekazując dalej błędy odczytu.
+     *
+     * @param pool pula fork-join
+     * @param chunks liczba fragmentów
+     * @param task zadanie wykonywane dla numeru fragmentu
+     * @throws IOException jeśli któreś zadanie zgłosiło błąd odczytu
+     */
+    private static void runChunks(ForkJoinPool pool, int chunks, IntConsumer task)
+            throws IOException {
+        try {
+            pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(task)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Przerwano wczytywanie scenariusza", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new IOException("Błąd wczytywania scenariusza", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.example;
+
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Wspólna, ograniczona pula wątków wykonujących kroki sesji serwera symulacji.
+ * Sesje z oczekującymi krokami trafiają do jednej kolejki; wątek puli wykonuje
+ * co najwyżej {@code quantum} kroków danej sesji i odkłada ją na koniec kolejki,
+ * więc długie zlecenie jednej sesji nie blokuje pozostałych (przydział karuzelowy).
+ */
+class SessionScheduler implements AutoCloseable {
+    /** Kolejka sesji oczekujących na wykonanie kolejnej porcji kroków. */
+    private final LinkedBlockingQueue<SimulationSession> runQueue = new LinkedBlockingQueue<>();
+    /** Wątki puli. */
+    private final Thread[] workers;
+    /** Maksymalna liczba kroków sesji wykonywana w jednej porcji. */
+    private final int quantum;
+
+    /**
+     * Konstruktor klasy SessionScheduler. Uruchamia wątki puli.
+     *
+     * @param workerCount liczba wątków puli
+     * @param quantum maksymalna liczba kroków sesji w jednej porcji
+     * @throws IllegalArgumentException jeśli liczba wątków lub porcja jest mniejsza od 1
+     */
+    SessionScheduler(int workerCount, int quantum) {
+        if (workerCount < 1 || quantum < 1) {
+            throw new IllegalArgumentException("Liczba wątków i porcja kroków muszą być większe od 0");
+        }
+        this.quantum = quantum;
+        this.workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Thread(this::workerLoop, "symulacja-pula-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Dodaje sesję na koniec kolejki wykonania.
+     *
+     * @param session sesja z oczekującymi krokami
+     */
+    void submit(SimulationSession session) {
+        runQueue.add(session);
+    }
+
+    /**
+     * Pętla wątku puli: pobiera sesję, wykonuje porcję kroków i w razie potrzeby odkłada ją z powrotem.
+     * Błąd porcji, którego nie obsłużyła sama sesja (np. {@link Error}), kończy jej zlecenia
+     * niepowodzeniem, ale nie zatrzymuje wątku puli.
+     */
+    private void workerLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                SimulationSession session = runQueue.take();
+                try {
+                    if (session.runQuantum(quantum)) {
+                        runQueue.add(session);
+                    }
+                } catch (Throwable e) {
+                    System.err.println("Błąd wykonania kroków sesji " + session.getId() + ": " + e.getMessage());
+                    session.fail(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Zatrzymuje wątki puli.
+     */
+    @Override
+    public void close() {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+}
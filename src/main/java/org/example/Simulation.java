@@ -1,28 +1,85 @@
 package org.example;
 
-import java.util.List;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Flow;
 
 /**
  * Główna klasa sterująca przebiegiem symulacji reaktorów jądrowych.
  * Odpowiada za inicjalizację, uruchomienie głównej pętli, logowanie danych
  * oraz zarządzanie cyklem życia symulacji.
+ * Symulacja może działać interaktywnie (okno, raport CSV, krok co sekundę) lub bez interfejsu,
+ * krokowana z zewnątrz, np. jako sesja serwera symulacji.
  */
 public class Simulation {
-    /** Singleton konfiguracji symulacji. */
-    private static final ConfigLoader config = ConfigLoader.getInstance();
-
+    /** Konfiguracja symulacji (wspólna z mapą terenu i jej obiektami). */
+    private final ConfigLoader config;
     /** Obiekt mapy terenu, na której odbywa się symulacja. */
     private final TerrainMap terrain;
-    /** Obiekt odpowiedzialny za zapisywanie danych do pliku CSV. */
+    /** Obiekt odpowiedzialny za zapisywanie danych do pliku CSV (null w trybie bez interfejsu). */
     private final DataLogger logger;
     /** Licznik wykonanych kroków symulacji. */
     private int stepCounter;
     /** Czas trwania symulacji (w krokach), wczytywany z konfiguracji. */
     private final int simulationDuration;
+    /** Wydawca zdarzeń kroku dla zewnętrznych odbiorców (dashboardy, analityka). */
+    private final StepEventPublisher eventPublisher;
+    /** Obiekt zapisujący przebieg do pliku odtwarzania (null, jeśli zapis wyłączony). */
+    private RunRecorder recorder;
+    /** Eksport klatek animacji przebiegu (null, jeśli eksport wyłączony). */
+    private FrameExporter frameExporter;
+    /** Detektor stanu ustalonego (null, jeśli wykrywanie wyłączone). */
+    private final SteadyStateDetector steadyStateDetector;
+    /** Czy agregaty ostatniego kroku spełniły warunki stanu ustalonego. */
+    private boolean steadyStateReached;
+    /** Powód zakończenia przebiegu (null, dopóki przebieg trwa). */
+    private StopReason stopReason;
+    /** Harmonogram tempa kroków trybu interaktywnego (null przed uruchomieniem pętli). */
+    private TickPacer pacer;
+
+    /**
+     * Powód zakończenia przebiegu symulacji.
+     */
+    public enum StopReason {
+        /** Wykonano wszystkie kroki z konfiguracji. */
+        DURATION_REACHED("osiągnięto zadany czas symulacji"),
+        /** Przebieg zatrzymano po wykryciu stanu ustalonego. */
+        STEADY_STATE("wykryto stan ustalony, przebieg zatrzymano"),
+        /** Po wykryciu stanu ustalonego przewinięto przebieg do końca czasu symulacji. */
+        STEADY_STATE_FAST_FORWARD("wykryto stan ustalony, przebieg przewinięto do końca");
+
+        /** Opis powodu zakończenia. */
+        private final String description;
+
+        /**
+         * Konstruktor powodu zakończenia.
+         *
+         * @param description opis powodu zakończenia
+         */
+        StopReason(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Zwraca opis powodu zakończenia.
+         * @return opis powodu zakończenia
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
 
     /**
      * Konstruktor klasy Simulation.
      * Inicjalizuje wszystkie komponenty symulacji na podstawie podanych parametrów.
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
      *
      * @param mapWidth szerokość mapy
      * @param mapHeight wysokość mapy
@@ -32,21 +89,317 @@ public class Simulation {
      * @param initialReactors początkowa liczba reaktorów
      */
     public Simulation(int mapWidth, int mapHeight, int maxCities, int maxReactors, int initialCities, int initialReactors) {
-        this.terrain = new TerrainMap(
-                new int[]{mapWidth, mapHeight},
-                maxCities,
-                maxReactors
-        );
-        this.logger = new DataLogger();
-        this.stepCounter = 0;
-        this.simulationDuration = config.getSimulationDuration();
+        this(mapWidth, mapHeight, maxCities, maxReactors, initialCities, initialReactors, ConfigLoader.getInstance());
+    }
+
+    /**
+     * Konstruktor klasy Simulation z własną konfiguracją symulacji.
+     *
+     * @param mapWidth szerokość mapy
+     * @param mapHeight wysokość mapy
+     * @param maxCities maksymalna dozwolona liczba miast
+     * @param maxReactors maksymalna dozwolona liczba reaktorów
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     * @param config konfiguracja symulacji
+     */
+    public Simulation(int mapWidth, int mapHeight, int maxCities, int maxReactors, int initialCities, int initialReactors,
+                      ConfigLoader config) {
+        this(new TerrainMap(new int[]{mapWidth, mapHeight}, maxCities, maxReactors, config), 0, true);
 
         initializeSimulation(initialCities, initialReactors);
+        terrain.visualize();
+        if (config.isRecordingEnabled()) {
+            startRecording();
+        }
+        if (config.isExportFramesEnabled()) {
+            startFrameExport();
+        }
+    }
+
+    /**
+     * Wspólna część konstruktorów: wydawca zdarzeń i (w trybie interaktywnym) raport CSV.
+     *
+     * @param terrain mapa terenu
+     * @param stepCounter liczba wykonanych już kroków
+     * @param interactive true dla symulacji z oknem i raportem CSV
+     */
+    private Simulation(TerrainMap terrain, int stepCounter, boolean interactive) {
+        this.config = terrain.getConfig();
+        this.terrain = terrain;
+        this.logger = interactive ? new DataLogger(config.isLoggerAggregatesEnabled()) : null;
+        this.stepCounter = stepCounter;
+        this.simulationDuration = config.getSimulationDuration();
+        this.eventPublisher = new StepEventPublisher(config.getEventsBufferSize(), parseBackpressurePolicy(config));
+        this.terrain.setEventPublisher(eventPublisher);
+        this.terrain.setObjectInfoEnabled(interactive && config.isObjectInfoConsoleEnabled());
+        this.steadyStateDetector = config.isSteadyStateEnabled()
+                ? new SteadyStateDetector(config.getSteadyStateWindow(),
+                        config.getSteadyStatePopulationTolerance(), config.getSteadyStateEnergyTolerance())
+                : null;
+    }
+
+    /**
+     * Tworzy symulację bez interfejsu graficznego i raportu CSV, krokowaną przez {@link #step()}.
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
+     *
+     * @param mapWidth szerokość mapy
+     * @param mapHeight wysokość mapy
+     * @param maxCities maksymalna dozwolona liczba miast
+     * @param maxReactors maksymalna dozwolona liczba reaktorów
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     * @return nowa symulacja bez interfejsu
+     * @throws IllegalArgumentException jeśli parametry mapy są nieprawidłowe
+     */
+    static Simulation headless(int mapWidth, int mapHeight, int maxCities, int maxReactors,
+                               int initialCities, int initialReactors) {
+        return headless(mapWidth, mapHeight, maxCities, maxReactors, initialCities, initialReactors,
+                ConfigLoader.getInstance());
+    }
+
+    /**
+     * Tworzy symulację bez interfejsu z własną konfiguracją symulacji (ziarno z konfiguracji lub losowe).
+     *
+     * @param mapWidth szerokość mapy
+     * @param mapHeight wysokość mapy
+     * @param maxCities maksymalna dozwolona liczba miast
+     * @param maxReactors maksymalna dozwolona liczba reaktorów
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     * @param config konfiguracja symulacji
+     * @return nowa symulacja bez interfejsu
+     * @throws IllegalArgumentException jeśli parametry mapy są nieprawidłowe
+     */
+    static Simulation headless(int mapWidth, int mapHeight, int maxCities, int maxReactors,
+                               int initialCities, int initialReactors, ConfigLoader config) {
+        return headless(new TerrainMap(new int[]{mapWidth, mapHeight}, maxCities, maxReactors, config),
+                initialCities, initialReactors);
+    }
+
+    /**
+     * Tworzy powtarzalną symulację bez interfejsu: to samo ziarno daje ten sam przebieg.
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
+     *
+     * @param mapWidth szerokość mapy
+     * @param mapHeight wysokość mapy
+     * @param maxCities maksymalna dozwolona liczba miast
+     * @param maxReactors maksymalna dozwolona liczba reaktorów
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     * @param seed ziarno liczb losowych
+     * @return nowa symulacja bez interfejsu
+     * @throws IllegalArgumentException jeśli parametry mapy są nieprawidłowe
+     */
+    static Simulation headless(int mapWidth, int mapHeight, int maxCities, int maxReactors,
+                               int initialCities, int initialReactors, long seed) {
+        return headless(mapWidth, mapHeight, maxCities, maxReactors, initialCities, initialReactors, seed,
+                ConfigLoader.getInstance());
+    }
+
+    /**
+     * Tworzy powtarzalną symulację bez interfejsu z własną konfiguracją symulacji.
+     *
+     * @param mapWidth szerokość mapy
+     * @param mapHeight wysokość mapy
+     * @param maxCities maksymalna dozwolona liczba miast
+     * @param maxReactors maksymalna dozwolona liczba reaktorów
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     * @param seed ziarno liczb losowych
+     * @param config konfiguracja symulacji
+     * @return nowa symulacja bez interfejsu
+     * @throws IllegalArgumentException jeśli parametry mapy są nieprawidłowe
+     */
+    static Simulation headless(int mapWidth, int mapHeight, int maxCities, int maxReactors,
+                               int initialCities, int initialReactors, long seed, ConfigLoader config) {
+        return headless(new TerrainMap(new int[]{mapWidth, mapHeight}, maxCities, maxReactors, seed, config),
+                initialCities, initialReactors);
+    }
+
+    /**
+     * Tworzy symulację na mapie wczytanej ze scenariusza (rzeczywiste rozmieszczenie miast i reaktorów).
+     * W trybie interaktywnym otwiera okno mapy i, jeśli jest włączony, zapis przebiegu.
+     *
+     * @param path ścieżka pliku scenariusza (CSV lub binarnego, zob. {@link ScenarioLoader})
+     * @param interactive true dla symulacji z oknem i raportem CSV
+     * @param config konfiguracja symulacji
+     * @return nowa symulacja
+     * @throws IOException jeśli scenariusz nie mógł zostać wczytany
+     * @throws IllegalArgumentException jeśli wymiary mapy scenariusza są nieprawidłowe
+     */
+    static Simulation fromScenario(Path path, boolean interactive, ConfigLoader config) throws IOException {
+        TerrainMap terrain = ScenarioLoader.read(path).createMap(config);
+        Simulation simulation = new Simulation(terrain, 0, interactive);
+        if (interactive) {
+            terrain.visualize();
+            if (config.isRecordingEnabled()) {
+                simulation.startRecording();
+            }
+            if (config.isExportFramesEnabled()) {
+                simulation.startFrameExport();
+            }
+        }
+        return simulation;
+    }
+
+    /**
+     * Tworzy symulację bez interfejsu na podanej mapie i rozmieszcza początkowe obiekty.
+     *
+     * @param terrain mapa terenu
+     * @param initialCities początkowa liczba miast
+     * @param initialReactors początkowa liczba reaktorów
+     * @return nowa symulacja bez interfejsu
+     */
+    static Simulation headless(TerrainMap terrain, int initialCities, int initialReactors) {
+        Simulation simulation = new Simulation(terrain, 0, false);
+        simulation.initializeSimulation(initialCities, initialReactors);
+        return simulation;
+    }
+
+    /**
+     * Zapisuje pełny stan symulacji (mapę z obiektami i licznik kroków) do punktu kontrolnego.
+     *
+     * @param path ścieżka pliku punktu kontrolnego
+     * @throws IOException jeśli zapis się nie powiedzie
+     */
+    void writeCheckpoint(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(stepCounter);
+            out.writeObject(terrain);
+        }
+    }
+
+    /**
+     * Odtwarza symulację bez interfejsu z punktu kontrolnego zapisanego przez {@link #writeCheckpoint(Path)}.
+     *
+     * @param path ścieżka pliku punktu kontrolnego
+     * @return odtworzona symulacja
+     * @throws IOException jeśli plik nie istnieje lub ma nieprawidłowy format
+     */
+    static Simulation readCheckpoint(Path path) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int step = in.readInt();
+            return new Simulation((TerrainMap) in.readObject(), step, false);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Nieprawidłowy punkt kontrolny symulacji: " + path, e);
+        }
+    }
+
+    /**
+     * Tworzy plik zapisu przebiegu z unikalną nazwą opartą na dacie i czasie
+     * i zapisuje w nim stan początkowy. W przypadku błędu zapis zostaje wyłączony.
+     */
+    private void startRecording() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        String fileName = "docs/przebieg_" + timestamp + ".rnsr";
+        try {
+            recorder = new RunRecorder(fileName, terrain.getWidth(), terrain.getHeight(),
+                    config.getRecordingKeyframeInterval());
+            recorder.record(WorldSnapshot.capture(terrain, stepCounter));
+            System.out.println("Zapis przebiegu: " + fileName);
+        } catch (IOException e) {
+            System.err.println("Błąd podczas tworzenia zapisu przebiegu: " + e.getMessage());
+            recorder = null;
+        }
+    }
+
+    /**
+     * Dopisuje bieżący stan świata do zapisu przebiegu.
+     * W przypadku błędu zapis zostaje przerwany, a symulacja trwa dalej.
+     */
+    private void recordCurrentState() {
+        try {
+            recorder.record(WorldSnapshot.capture(terrain, stepCounter));
+        } catch (IOException e) {
+            System.err.println("Błąd podczas zapisu przebiegu: " + e.getMessage());
+            stopRecording();
+        }
+    }
+
+    /**
+     * Zamyka plik zapisu przebiegu, jeśli jest otwarty.
+     */
+    private void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            System.err.println("Błąd podczas zamykania zapisu przebiegu: " + e.getMessage());
+        }
+        recorder = null;
+    }
+
+    /**
+     * Tworzy eksport klatek animacji (archiwum lub katalog z unikalną nazwą opartą na dacie i czasie)
+     * i eksportuje stan początkowy. W przypadku błędu eksport zostaje wyłączony.
+     */
+    private void startFrameExport() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        String target = "docs/klatki_" + timestamp + (config.isExportFramesArchive() ? ".zip" : "");
+        try {
+            frameExporter = FrameExporter.fromConfig(Path.of(target), config);
+            frameExporter.submit(WorldSnapshot.capture(terrain, stepCounter));
+            System.out.println("Eksport klatek: " + target);
+        } catch (IOException e) {
+            System.err.println("Błąd podczas tworzenia eksportu klatek: " + e.getMessage());
+            frameExporter = null;
+        }
+    }
+
+    /**
+     * Przekazuje bieżący stan świata do eksportu klatek (rysowanie i kodowanie odbywają się w tle).
+     * W przypadku błędu eksport zostaje przerwany, a symulacja trwa dalej.
+     */
+    private void exportCurrentFrame() {
+        try {
+            frameExporter.submit(WorldSnapshot.capture(terrain, stepCounter));
+        } catch (IOException e) {
+            System.err.println("Błąd podczas eksportu klatek: " + e.getMessage());
+            stopFrameExport();
+        }
+    }
+
+    /**
+     * Czeka na zapis wszystkich przyjętych klatek i zamyka eksport, jeśli jest otwarty.
+     */
+    private void stopFrameExport() {
+        if (frameExporter == null) {
+            return;
+        }
+        try {
+            frameExporter.close();
+        } catch (IOException e) {
+            System.err.println("Błąd podczas zamykania eksportu klatek: " + e.getMessage());
+        }
+        frameExporter = null;
+    }
+
+    /**
+     * Odczytuje z konfiguracji politykę przepełnienia bufora zdarzeń.
+     * Przy nieznanej wartości używa polityki DROP_OLDEST.
+     *
+     * @param config konfiguracja symulacji
+     * @return polityka przepełnienia bufora zdarzeń
+     */
+    private static StepEventPublisher.BackpressurePolicy parseBackpressurePolicy(ConfigLoader config) {
+        String policy = config.getEventsBackpressurePolicy();
+        try {
+            return StepEventPublisher.BackpressurePolicy.valueOf(policy.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.printf("Nieznana polityka zdarzeń: %s, używam DROP_OLDEST%n", policy);
+            return StepEventPublisher.BackpressurePolicy.DROP_OLDEST;
+        }
     }
 
     /**
      * Inicjalizuje stan początkowy symulacji.
-     * Generuje zadaną liczbę miast i reaktorów oraz uruchamia wizualizację.
+     * Generuje zadaną liczbę miast i reaktorów.
      *
      * @param initialCities początkowa liczba miast
      * @param initialReactors początkowa liczba reaktorów
@@ -59,38 +412,193 @@ public class Simulation {
         for (int i = 0; i < initialReactors; i++) {
             terrain.generateReactor(null);
         }
-        terrain.visualize();
     }
 
     /**
-     * Uruchamia główną pętlę symulacji, która trwa do osiągnięcia zdefiniowanego czasu.
-     * Po zakończeniu pętli, drukuje podsumowanie.
+     * Uruchamia główną pętlę symulacji, która trwa do osiągnięcia zdefiniowanego czasu
+     * lub do wykrycia stanu ustalonego. Po zakończeniu pętli, drukuje podsumowanie.
      */
     public void run() {
+        pacer = TickPacer.fromConfig(config);
         while (stepCounter < simulationDuration) {
             terrain.updateStepInGUI(stepCounter);
             runStep();
+            if (steadyStateReached && stepCounter < simulationDuration) {
+                finishSteadyState();
+                break;
+            }
+            pacer.awaitNextTick();
+        }
+        if (stopReason == null) {
+            stopReason = StopReason.DURATION_REACHED;
         }
+        terrain.updateStepInGUI(stepCounter);
+        eventPublisher.close();
+        stopRecording();
+        stopFrameExport();
         printFinalStats();
     }
 
+    /**
+     * Kończy przebieg po wykryciu stanu ustalonego zgodnie z ustawieniem {@code steady.state.action}:
+     * zatrzymuje go w bieżącym kroku albo przewija do końca czasu symulacji. Przy przewijaniu
+     * jedyną zmianą zachodzącą w stanie ustalonym jest deterministyczne zużycie aktywnych reaktorów,
+     * które jest naliczane analitycznie, po czym logowany jest stan końcowy.
+     */
+    private void finishSteadyState() {
+        if (!config.getSteadyStateAction().equalsIgnoreCase("FAST_FORWARD")) {
+            stopReason = StopReason.STEADY_STATE;
+            System.out.printf("Wykryto stan ustalony w kroku %d, przebieg zatrzymano%n", stepCounter);
+            return;
+        }
+        int remainingSteps = simulationDuration - stepCounter;
+        terrain.fastForwardReactors(remainingSteps);
+        System.out.printf("Wykryto stan ustalony w kroku %d, przewijam o %d kroków%n", stepCounter, remainingSteps);
+        stepCounter = simulationDuration;
+        eventPublisher.beginStep(stepCounter);
+        logCurrentState();
+        stopReason = StopReason.STEADY_STATE_FAST_FORWARD;
+    }
+
+    /**
+     * Zwraca powód zakończenia przebiegu.
+     *
+     * @return powód zakończenia lub null, jeśli przebieg jeszcze trwa
+     */
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Zwraca strumień zdarzeń kroku symulacji (podsumowania, eksplozje, podłączenia,
+     * nowe miasta i reaktory, zmiany zanieczyszczeń).
+     * Subskrybenci powinni zostać zarejestrowani przed wywołaniem {@link #run()}.
+     *
+     * @return wydawca zdarzeń kroku
+     */
+    public Flow.Publisher<StepEvent> getEventPublisher() {
+        return eventPublisher;
+    }
+
+    /**
+     * Zwraca magistralę zdarzeń symulacji (bufor cykliczny bez blokad, obsługa paczkami w wątkach konsumentów).
+     * Magistrala jest tworzona przy pierwszym wywołaniu, więc symulacje bez konsumentów (rozgałęzienia,
+     * punkty kontrolne, weryfikacja powtarzalności) nie przydzielają jej bufora.
+     * Konsumenci powinni zostać zarejestrowani przed wywołaniem {@link #run()}.
+     *
+     * @return magistrala zdarzeń
+     */
+    synchronized EventRing getEventRing() {
+        EventRing ring = eventPublisher.getRing();
+        if (ring == null) {
+            ring = new EventRing(config.getEventsRingSize());
+            eventPublisher.attachRing(ring);
+        }
+        return ring;
+    }
+
+    /**
+     * Wykonuje pojedynczy krok symulacji bez oczekiwania (tryb krokowany z zewnątrz).
+     */
+    void step() {
+        runStep();
+    }
+
+    /**
+     * Zwraca migawkę bieżącego stanu świata.
+     *
+     * @return migawka stanu świata w bieżącym kroku
+     */
+    WorldSnapshot snapshot() {
+        return WorldSnapshot.capture(terrain, stepCounter);
+    }
+
+    /**
+     * Tworzy rozgałęzienie symulacji w bieżącym kroku: niezależną symulację bez interfejsu,
+     * która startuje z tego samego stanu. Stan nie jest kopiowany z góry - obie symulacje
+     * współdzielą go, dopóki któraś go nie zmieni.
+     *
+     * @return rozgałęziona symulacja bez interfejsu
+     */
+    Simulation fork() {
+        return new Simulation(terrain.fork(), stepCounter, false);
+    }
+
+    /**
+     * Ustala kierunek wiatru w tej symulacji (wariant "co, jeśli").
+     *
+     * @param direction kierunek wiatru lub null, aby przywrócić losowanie
+     */
+    void setFixedWind(WindDirection direction) {
+        terrain.setFixedWind(direction);
+    }
+
+    /**
+     * Wymusza awarię reaktora w tej symulacji (wariant "co, jeśli").
+     *
+     * @param reactorId identyfikator reaktora
+     * @return true, jeśli reaktor istnieje
+     */
+    boolean forceOutage(int reactorId) {
+        return terrain.forceOutage(reactorId);
+    }
+
+    /**
+     * Przygotowuje analizę N-1 (utraty pojedynczego reaktora) dla bieżącego stanu świata.
+     *
+     * @return analiza N-1 oparta na kopii bieżącego stanu
+     */
+    ContingencyAnalysis contingencyAnalysis() {
+        return new ContingencyAnalysis(terrain);
+    }
+
+    /**
+     * Zwraca skrót stanu świata w bieżącym kroku (utrzymywany przyrostowo przy zmianach obiektów).
+     *
+     * @return skrót stanu świata
+     */
+    long getStateDigest() {
+        return terrain.stateDigest();
+    }
+
+    /**
+     * Zwraca mapę terenu symulacji (do porównywania stanu obiektów przy weryfikacji powtarzalności).
+     *
+     * @return mapa terenu
+     */
+    TerrainMap getTerrain() {
+        return terrain;
+    }
+
+    /**
+     * Zwraca konfigurację symulacji.
+     *
+     * @return konfiguracja symulacji
+     */
+    ConfigLoader getConfig() {
+        return config;
+    }
+
+    /**
+     * Zwraca liczbę wykonanych kroków symulacji.
+     *
+     * @return numer bieżącego kroku
+     */
+    int getStepCounter() {
+        return stepCounter;
+    }
+
     /**
      * Wykonuje pojedynczy krok symulacji.
-     * Zwiększa licznik, generuje nowe obiekty, aktualizuje stan mapy, loguje dane
-     * i wstrzymuje wykonanie na 1 sekundę.
+     * Zwiększa licznik, generuje nowe obiekty, aktualizuje stan mapy i loguje dane.
      */
     private void runStep() {
         stepCounter++;
+        eventPublisher.beginStep(stepCounter);
 
         generateNewObjects();
         terrain.update();
         logCurrentState();
-
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
     }
 
     /**
@@ -98,56 +606,58 @@ public class Simulation {
      * i limitami zdefiniowanymi w konfiguracji.
      */
     private void generateNewObjects() {
-        if (stepCounter % config.getCityGenerationFrequency() == 0 && terrain.getCities().size() < terrain.getMaxCities()) {
+        if (stepCounter % config.getCityGenerationFrequency() == 0 && terrain.getCityCount() < terrain.getMaxCities()) {
             terrain.generateCity();
         }
     }
 
     /**
      * Zbiera aktualne dane o stanie symulacji i zapisuje je do pliku CSV
-     * za pomocą obiektu DataLogger.
+     * za pomocą obiektu DataLogger, a przy włączonym zapisie także do pliku odtwarzania i eksportu klatek.
+     * Sumy są odczytywane z agregatów świata utrzymywanych przyrostowo, bez przeglądania obiektów.
      */
-    private void logCurrentState() {
-        List<City> cities = terrain.getCities();
-        List<Reactor> reactors = terrain.getReactors();
+    void logCurrentState() {
+        WorldAggregates aggregates = terrain.getAggregates();
+        int cityCount = terrain.getCityCount();
+        int reactorCount = terrain.getReactorCount();
+        int activeReactors = aggregates.getActiveReactors();
+        int totalPopulation = (int) aggregates.getTotalPopulation();
+        float totalEnergyDemand = (float) aggregates.getTotalEnergyDemand();
+        int activePollutions = aggregates.getActivePollutions();
 
-        int activeReactors = (int) reactors.stream()
-                .filter(Reactor::checkActivity)
-                .count();
-
-        logger.saveData(
-                stepCounter,
-                cities.size(),
-                reactors.size(),
-                terrain.getWindDirection(),
-                calculateTotalPopulation(cities),
-                calculateTotalEnergyDemand(cities),
-                activeReactors
-        );
-    }
-
-    /**
-     * Oblicza łączną populację wszystkich miast na mapie.
-     *
-     * @param cities lista miast
-     * @return całkowita populacja
-     */
-    private int calculateTotalPopulation(List<City> cities) {
-        return cities.stream()
-                .mapToInt(City::getPopulation)
-                .sum();
+        if (logger != null) {
+            logger.saveData(
+                    stepCounter,
+                    cityCount,
+                    reactorCount,
+                    terrain.getWindDirection(),
+                    totalPopulation,
+                    totalEnergyDemand,
+                    activeReactors,
+                    aggregates
+            );
+        }
+        eventPublisher.publishSummary(cityCount, reactorCount, activeReactors,
+                totalPopulation, totalEnergyDemand, terrain.getWindDirection(), terrain.stateDigest());
+        if (recorder != null) {
+            recordCurrentState();
+        }
+        if (frameExporter != null) {
+            exportCurrentFrame();
+        }
+        if (steadyStateDetector != null) {
+            steadyStateReached = steadyStateDetector.observe(cityCount, activeReactors,
+                    totalPopulation, totalEnergyDemand, activePollutions);
+        }
     }
 
     /**
-     * Oblicza łączne zapotrzebowanie na energię wszystkich miast na mapie.
+     * Zwraca agregaty świata w bieżącym kroku (sumy globalne i regionalne, szkice kwantyli).
      *
-     * @param cities lista miast
-     * @return całkowite zapotrzebowanie na energię (w MW)
+     * @return agregaty świata
      */
-    private float calculateTotalEnergyDemand(List<City> cities) {
-        return (float) cities.stream()
-                .mapToDouble(City::getEnergyUsage)
-                .sum();
+    WorldAggregates getAggregates() {
+        return terrain.getAggregates();
     }
 
     /**
@@ -156,8 +666,31 @@ public class Simulation {
     private void printFinalStats() {
         System.out.println("\n=== PODSUMOWANIE ===");
         System.out.println("Liczba kroków: " + stepCounter);
-        System.out.println("Ostateczna liczba miast: " + terrain.getCities().size());
+        System.out.println("Powód zakończenia: " + stopReason.getDescription());
+        System.out.println("Ostateczna liczba miast: " + terrain.getCityCount());
         System.out.println("Ostateczna liczba reaktorów: " + terrain.getReactors().size());
         System.out.println("Ostatni kierunek wiatru: " + terrain.getWindDirection());
+        TransmissionNetwork network = terrain.getTransmissionNetwork();
+        if (network != null) {
+            System.out.printf("Moc dostarczona siecią: %.1f MW (niedostarczona: %.1f MW)%n",
+                    network.getTotalDelivered(), network.getUnservedDemand());
+        }
+        if (pacer != null && pacer.getPeriodNanos() > 0) {
+            System.out.printf("Tempo: %.2f kroków/s, jitter średnio %.2f ms (najwyżej %.2f ms), "
+                            + "kroki po terminie: %d (opóźnienie do %.1f ms), pominięte takty: %d%n",
+                    1e9 / pacer.getPeriodNanos(), pacer.getMeanJitterMillis(), pacer.getMaxJitterMillis(),
+                    pacer.getLateTicks(), pacer.getMaxLagMillis(), pacer.getDroppedTicks());
+        }
+        ActivityScheduler scheduler = terrain.getActivityScheduler();
+        if (scheduler != null) {
+            System.out.printf("Pominięte aktualizacje miast: %d (%.1f%%, interwał do %d kroków)%n",
+                    scheduler.getSkippedUpdates(), scheduler.getSkippedFraction() * 100, scheduler.getMaxInterval());
+            System.out.printf("Szacowany błąd populacji po nadrobieniu: średnio %.2f%%, najwyżej %.2f%%%n",
+                    scheduler.getMeanErrorBound() * 100, scheduler.getMaxErrorBound() * 100);
+        }
+        if (config.isContingencyReportEnabled()) {
+            System.out.println("\n=== ANALIZA N-1 (UTRATA REAKTORA) ===");
+            System.out.print(ContingencyAnalysis.formatTable(contingencyAnalysis().run(), config.getContingencyReportRows()));
+        }
     }
 }
@@ -0,0 +1,69 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * Generator liczb losowych symulacji o jawnym, kopiowalnym stanie (algorytm SplitMix64).
+ * Każda mapa i każdy obiekt mają własny strumień, więc przebieg z tym samym ziarnem jest
+ * powtarzalny niezależnie od kolejności aktualizacji obiektów, a rozgałęzienie lub punkt
+ * kontrolny zachowuje dalszy ciąg losowań.
+ */
+class SimulationRandom extends Random {
+    /** Wersja formatu serializacji (punkty kontrolne sesji). */
+    private static final long serialVersionUID = 1L;
+    /** Przyrost stanu w każdym losowaniu. */
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** Stan generatora (ustawiany przez konstruktor klasy bazowej wywołujący {@link #setSeed(long)}). */
+    private long state;
+
+    /**
+     * Tworzy generator o podanym ziarnie.
+     *
+     * @param seed ziarno
+     */
+    SimulationRandom(long seed) {
+        super(seed);
+    }
+
+    /**
+     * Ustawia stan generatora.
+     *
+     * @param seed ziarno
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Zwraca kolejne bity losowe.
+     *
+     * @param bits liczba bitów (1-32)
+     * @return liczba losowa z podaną liczbą bitów
+     */
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+
+    /**
+     * Zwraca kolejną 64-bitową liczbę losową.
+     *
+     * @return liczba losowa
+     */
+    @Override
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return StateDigest.mix(state);
+    }
+
+    /**
+     * Tworzy generator w tym samym stanie; oba dalej losują te same liczby niezależnie od siebie.
+     *
+     * @return kopia generatora
+     */
+    SimulationRandom copy() {
+        return new SimulationRandom(state);
+    }
+}
@@ -0,0 +1,511 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lokalny serwer HTTP prowadzący wiele niezależnych sesji symulacji (tylko localhost).
+ * Każde żądanie jest obsługiwane we własnym wątku wirtualnym, natomiast kroki symulacji
+ * wykonuje wspólna, ograniczona pula {@link SessionScheduler}. Sesje bezczynne dłużej
+ * niż zadany czas są zapisywane do punktów kontrolnych i usuwane z pamięci.
+ *
+ * <p>Obsługiwane żądania (odpowiedzi w formacie JSON):
+ * <ul>
+ *     <li>{@code POST /sessions?width=&height=&cities=&reactors=} - tworzy sesję,</li>
+ *     <li>{@code GET /sessions} - lista sesji,</li>
+ *     <li>{@code GET /sessions/{id}} - agregaty bieżącego kroku,</li>
+ *     <li>{@code GET /sessions/{id}/contingency?limit=} - ranking skutków utraty pojedynczego reaktora (analiza N-1),</li>
+ *     <li>{@code GET /sessions/{id}/state} - pełny stan miast, reaktorów i zanieczyszczeń,</li>
+ *     <li>{@code POST /sessions/{id}/step?count=} - wykonuje kroki i zwraca agregaty,</li>
+ *     <li>{@code POST /sessions/{id}/fork?wind=&outage=} - rozgałęzia sesję w bieżącym kroku
+ *     (opcjonalnie ze stałym wiatrem i awarią reaktora o podanym identyfikatorze),</li>
+ *     <li>{@code DELETE /sessions/{id}} - zamyka sesję.</li>
+ * </ul>
+ */
+class SimulationServer implements AutoCloseable {
+    /** Domyślny rozmiar mapy nowej sesji. */
+    private static final int DEFAULT_MAP_SIZE = 800;
+    /** Domyślna początkowa liczba miast nowej sesji. */
+    private static final int DEFAULT_CITIES = 10;
+    /** Domyślna początkowa liczba reaktorów nowej sesji. */
+    private static final int DEFAULT_REACTORS = 3;
+
+    /** Serwer HTTP z JDK. */
+    private final HttpServer http;
+    /** Wykonawca żądań: jeden wątek wirtualny na żądanie. */
+    private final ExecutorService requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    /** Wspólna pula wykonująca kroki sesji. */
+    private final SessionScheduler scheduler;
+    /** Wątek okresowo usuwający z pamięci bezczynne sesje. */
+    private final ScheduledExecutorService evictor;
+    /** Otwarte sesje według identyfikatora. */
+    private final Map<Integer, SimulationSession> sessions = new ConcurrentHashMap<>();
+    /** Generator identyfikatorów sesji. */
+    private final AtomicInteger nextSessionId = new AtomicInteger(1);
+    /** Katalog punktów kontrolnych sesji. */
+    private final Path checkpointDirectory;
+    /** Czas bezczynności, po którym sesja jest usuwana z pamięci (w nanosekundach). */
+    private final long idleTimeoutNanos;
+    /** Maksymalna liczba kroków zlecanych jednym żądaniem. */
+    private final int maxStepsPerRequest;
+    /** Konfiguracja symulacji nowych sesji. */
+    private final ConfigLoader config;
+
+    /**
+     * Konstruktor klasy SimulationServer. Serwer nasłuchuje wyłącznie na adresie pętli zwrotnej.
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()}).
+     *
+     * @param port numer portu (0 - dowolny wolny port)
+     * @param workers liczba wątków puli wykonującej kroki
+     * @param quantum maksymalna liczba kroków sesji w jednej porcji
+     * @param idleTimeoutMillis czas bezczynności, po którym sesja jest usuwana z pamięci (w milisekundach)
+     * @param checkpointDirectory katalog punktów kontrolnych
+     * @param maxStepsPerRequest maksymalna liczba kroków zlecanych jednym żądaniem
+     * @throws IOException jeśli nie można otworzyć portu
+     */
+    SimulationServer(int port, int workers, int quantum, long idleTimeoutMillis,
+                     Path checkpointDirectory, int maxStepsPerRequest) throws IOException {
+        this(port, workers, quantum, idleTimeoutMillis, checkpointDirectory, maxStepsPerRequest,
+                ConfigLoader.getInstance());
+    }
+
+    /**
+     * Konstruktor klasy SimulationServer z konfiguracją symulacji nowych sesji.
+     *
+     * @param port numer portu (0 - dowolny wolny port)
+     * @param workers liczba wątków puli wykonującej kroki
+     * @param quantum maksymalna liczba kroków sesji w jednej porcji
+     * @param idleTimeoutMillis czas bezczynności, po którym sesja jest usuwana z pamięci (w milisekundach)
+     * @param checkpointDirectory katalog punktów kontrolnych
+     * @param maxStepsPerRequest maksymalna liczba kroków zlecanych jednym żądaniem
+     * @param config konfiguracja symulacji nowych sesji
+     * @throws IOException jeśli nie można otworzyć portu
+     */
+    SimulationServer(int port, int workers, int quantum, long idleTimeoutMillis,
+                     Path checkpointDirectory, int maxStepsPerRequest, ConfigLoader config) throws IOException {
+        this.config = config;
+        this.http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.scheduler = new SessionScheduler(workers, quantum);
+        this.checkpointDirectory = checkpointDirectory;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxStepsPerRequest = maxStepsPerRequest;
+
+        http.setExecutor(requestExecutor);
+        http.createContext("/sessions", this::handle);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "symulacja-eksmisja");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(10, idleTimeoutMillis / 4);
+        evictor.scheduleAtFixedRate(this::evictIdleSessions, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Tworzy serwer na podstawie parametrów z konfiguracji.
+     *
+     * @param port numer portu
+     * @param config konfiguracja serwera i symulacji nowych sesji
+     * @return serwer symulacji (jeszcze nieuruchomiony)
+     * @throws IOException jeśli nie można otworzyć portu
+     */
+    static SimulationServer fromConfig(int port, ConfigLoader config) throws IOException {
+        int workers = config.getServerWorkers() > 0
+                ? config.getServerWorkers()
+                : Runtime.getRuntime().availableProcessors();
+        return new SimulationServer(port, workers, config.getServerQuantumSteps(),
+                TimeUnit.SECONDS.toMillis(config.getServerIdleTimeoutSeconds()),
+                Path.of(config.getServerCheckpointDirectory()), config.getServerMaxStepsPerRequest(), config);
+    }
+
+    /**
+     * Uruchamia nasłuch serwera.
+     */
+    void start() {
+        http.start();
+    }
+
+    /**
+     * Zwraca port, na którym nasłuchuje serwer.
+     * @return numer portu
+     */
+    int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Zatrzymuje serwer, pulę kroków i zamyka wszystkie sesje.
+     */
+    @Override
+    public void close() {
+        http.stop(0);
+        evictor.shutdownNow();
+        scheduler.close();
+        requestExecutor.shutdownNow();
+        for (SimulationSession session : sessions.values()) {
+            session.close();
+        }
+        sessions.clear();
+    }
+
+    /**
+     * Usuwa z pamięci sesje bezczynne dłużej niż zadany czas (zapisując je do punktów kontrolnych).
+     */
+    private void evictIdleSessions() {
+        for (SimulationSession session : sessions.values()) {
+            session.evictIfIdle(idleTimeoutNanos);
+        }
+    }
+
+    /**
+     * Obsługuje żądanie skierowane do zasobu {@code /sessions}.
+     *
+     * @param exchange żądanie i odpowiedź HTTP
+     * @throws IOException jeśli nie można wysłać odpowiedzi
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().replaceAll("^/sessions/?|/$", "").split("/");
+            String method = exchange.getRequestMethod();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            if (path[0].isEmpty()) {
+                switch (method) {
+                    case "GET" -> respond(exchange, 200, listSessions());
+                    case "POST" -> respond(exchange, 201, createSession(query));
+                    default -> respondError(exchange, 405, "Nieobsługiwana metoda: " + method);
+                }
+                return;
+            }
+
+            SimulationSession session = sessions.get(parseInt(path[0], -1));
+            if (session == null || path.length > 2) {
+                respondError(exchange, 404, "Nie znaleziono: " + exchange.getRequestURI().getPath());
+                return;
+            }
+            String resource = path.length == 2 ? path[1] : "";
+            switch (method + " " + resource) {
+                case "GET " -> respond(exchange, 200, session.read(s -> aggregatesJson(s.snapshot())));
+                case "GET state" -> respond(exchange, 200, session.read(s -> stateJson(s.snapshot())));
+                case "GET contingency" -> respond(exchange, 200, contingency(session, query));
+                case "POST step" -> respond(exchange, 200, step(session, query));
+                case "POST fork" -> respond(exchange, 201, forkSession(session, query));
+                case "DELETE " -> {
+                    sessions.remove(session.getId());
+                    session.close();
+                    respond(exchange, 200, "{\"id\":" + session.getId() + "}");
+                }
+                default -> respondError(exchange, 404, "Nie znaleziono: " + method + " " + exchange.getRequestURI().getPath());
+            }
+        } catch (IllegalArgumentException e) {
+            respondError(exchange, 400, e.getMessage());
+        } catch (IllegalStateException e) {
+            respondError(exchange, 409, e.getMessage());
+        } catch (UncheckedIOException e) {
+            respondError(exchange, 500, "Błąd punktu kontrolnego: " + e.getCause().getMessage());
+        } catch (RuntimeException e) {
+            respondError(exchange, 500, "Błąd symulacji: " + e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Tworzy nową sesję symulacji bez interfejsu.
+     *
+     * @param query parametry żądania (width, height, cities, reactors)
+     * @return opis utworzonej sesji w formacie JSON
+     * @throws IllegalArgumentException jeśli parametry są nieprawidłowe
+     */
+    private String createSession(Map<String, String> query) {
+        int width = parseInt(query.get("width"), DEFAULT_MAP_SIZE);
+        int height = parseInt(query.get("height"), DEFAULT_MAP_SIZE);
+        int cities = parseInt(query.get("cities"), DEFAULT_CITIES);
+        int reactors = parseInt(query.get("reactors"), DEFAULT_REACTORS);
+        if (cities < 0 || cities > config.getMaxCities() || reactors < 0 || reactors > config.getMaxReactors()) {
+            throw new IllegalArgumentException(String.format(
+                    "Liczba miast musi być w przedziale 0-%d, a reaktorów 0-%d",
+                    config.getMaxCities(), config.getMaxReactors()));
+        }
+        return registerSession(Simulation.headless(width, height, config.getMaxCities(), config.getMaxReactors(),
+                cities, reactors, config));
+    }
+
+    /**
+     * Tworzy sesję z rozgałęzienia bieżącego stanu innej sesji.
+     *
+     * @param source sesja źródłowa
+     * @param query parametry żądania (wind - stały kierunek wiatru, outage - identyfikator wyłączanego reaktora)
+     * @return opis utworzonej sesji w formacie JSON
+     * @throws IllegalArgumentException jeśli kierunek wiatru lub reaktor są nieprawidłowe
+     */
+    private String forkSession(SimulationSession source, Map<String, String> query) {
+        WindDirection wind = null;
+        if (query.containsKey("wind")) {
+            try {
+                wind = WindDirection.valueOf(query.get("wind"));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Nieznany kierunek wiatru: " + query.get("wind"));
+            }
+        }
+        int outage = parseInt(query.get("outage"), 0);
+        Simulation simulation = source.read(Simulation::fork);
+        if (wind != null) {
+            simulation.setFixedWind(wind);
+        }
+        if (outage != 0 && !simulation.forceOutage(outage)) {
+            throw new IllegalArgumentException("Nie znaleziono reaktora #" + outage);
+        }
+        return registerSession(simulation);
+    }
+
+    /**
+     * Rejestruje nową sesję dla podanej symulacji.
+     *
+     * @param simulation symulacja bez interfejsu
+     * @return opis utworzonej sesji w formacie JSON
+     */
+    private String registerSession(Simulation simulation) {
+        int id = nextSessionId.getAndIncrement();
+        SimulationSession session = new SimulationSession(id, simulation,
+                checkpointDirectory.resolve("sesja_" + id + ".ckpt"), scheduler);
+        sessions.put(id, session);
+        return "{\"id\":" + id + "," + aggregatesJson(simulation.snapshot()).substring(1);
+    }
+
+    /**
+     * Zleca kroki sesji i czeka (w wątku wirtualnym żądania) na ich wykonanie.
+     *
+     * @param session sesja
+     * @param query parametry żądania (count)
+     * @return agregaty stanu po wykonaniu kroków w formacie JSON
+     * @throws IllegalArgumentException jeśli liczba kroków jest nieprawidłowa
+     */
+    private String step(SimulationSession session, Map<String, String> query) {
+        int count = parseInt(query.get("count"), 1);
+        if (count < 1 || count > maxStepsPerRequest) {
+            throw new IllegalArgumentException("Liczba kroków musi być w przedziale 1-" + maxStepsPerRequest);
+        }
+        try {
+            session.requestSteps(count).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Przerwano oczekiwanie na kroki sesji " + session.getId());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return session.read(s -> aggregatesJson(s.snapshot()));
+    }
+
+    /**
+     * Tworzy listę sesji w formacie JSON.
+     *
+     * @return lista sesji z numerem kroku i informacją, czy sesja jest w pamięci
+     */
+    private String listSessions() {
+        StringBuilder json = new StringBuilder("[");
+        sessions.values().stream()
+                .sorted((a, b) -> Integer.compare(a.getId(), b.getId()))
+                .forEach(session -> {
+                    if (json.length() > 1) json.append(',');
+                    json.append("{\"id\":").append(session.getId())
+                            .append(",\"krok\":").append(session.getLastStep())
+                            .append(",\"w_pamieci\":").append(session.isResident()).append('}');
+                });
+        return json.append(']').toString();
+    }
+
+    /**
+     * Wykonuje analizę N-1 bieżącego stanu sesji i zwraca ranking w formacie JSON.
+     * Stan jest kopiowany pod blokadą sesji, a scenariusze liczone już po jej zwolnieniu.
+     *
+     * @param session sesja symulacji
+     * @param query parametry zapytania ({@code limit} - maksymalna liczba pozycji rankingu)
+     * @return ranking skutków utraty reaktorów w formacie JSON
+     */
+    private String contingency(SimulationSession session, Map<String, String> query) {
+        int limit = parseInt(query.getOrDefault("limit", "20"), -1);
+        if (limit < 1) {
+            throw new IllegalArgumentException("Nieprawidłowy limit: " + query.get("limit"));
+        }
+        ContingencyAnalysis analysis = session.read(Simulation::contingencyAnalysis);
+        return contingencyJson(analysis.run(), limit);
+    }
+
+    /**
+     * Opisuje ranking skutków utraty reaktorów w formacie JSON.
+     *
+     * @param impacts skutki utraty reaktorów (od najpoważniejszych)
+     * @param limit maksymalna liczba pozycji
+     * @return ranking w formacie JSON
+     */
+    static String contingencyJson(List<ContingencyAnalysis.Impact> impacts, int limit) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < Math.min(limit, impacts.size()); i++) {
+            ContingencyAnalysis.Impact impact = impacts.get(i);
+            json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\"reaktor\":%d,\"miasta\":%d,\"przelaczone\":%d,\"populacja_bez_zasilania\":%d,\"brak_mocy\":%.2f}",
+                    impact.reactorId(), impact.orphanedCities(), impact.reconnectedCities(),
+                    impact.unpoweredPopulation(), impact.unservedDemand()));
+        }
+        return json.append(']').toString();
+    }
+
+    /**
+     * Oblicza agregaty stanu świata (jak w raporcie CSV) w formacie JSON.
+     *
+     * @param snapshot migawka stanu świata
+     * @return agregaty w formacie JSON
+     */
+    static String aggregatesJson(WorldSnapshot snapshot) {
+        long totalPopulation = 0;
+        double totalEnergyDemand = 0;
+        for (int i = 0; i < snapshot.cityCount; i++) {
+            totalPopulation += snapshot.cityPopulation[i];
+            totalEnergyDemand += snapshot.cityEnergyUsage[i];
+        }
+        int activeReactors = 0;
+        for (int i = 0; i < snapshot.reactorCount; i++) {
+            if (snapshot.reactorActive[i]) activeReactors++;
+        }
+        int activePollutions = 0;
+        for (int i = 0; i < snapshot.pollutionCount; i++) {
+            if (snapshot.pollutionActive[i]) activePollutions++;
+        }
+        return String.format(Locale.ROOT,
+                "{\"krok\":%d,\"kierunek_wiatru\":\"%s\",\"ilosc_miast\":%d,\"ilosc_reaktorow\":%d,"
+                        + "\"aktywne_reaktory\":%d,\"laczna_populacja\":%d,\"laczne_zapotrzebowanie\":%.2f,"
+                        + "\"aktywne_zanieczyszczenia\":%d,\"skrot_stanu\":\"%016x\"}",
+                snapshot.step, snapshot.windDirection, snapshot.cityCount, snapshot.reactorCount,
+                activeReactors, totalPopulation, totalEnergyDemand, activePollutions, snapshot.stateDigest);
+    }
+
+    /**
+     * Opisuje pełny stan świata (miasta, reaktory, zanieczyszczenia) w formacie JSON.
+     *
+     * @param snapshot migawka stanu świata
+     * @return stan świata w formacie JSON
+     */
+    static String stateJson(WorldSnapshot snapshot) {
+        StringBuilder json = new StringBuilder(128 + 96 * (snapshot.cityCount + snapshot.reactorCount));
+        json.append(String.format(Locale.ROOT, "{\"krok\":%d,\"szerokosc\":%d,\"wysokosc\":%d,\"kierunek_wiatru\":\"%s\",\"miasta\":[",
+                snapshot.step, snapshot.width, snapshot.height, snapshot.windDirection));
+        for (int i = 0; i < snapshot.cityCount; i++) {
+            int reactor = snapshot.cityReactorIndex[i];
+            json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\"id\":%d,\"x\":%d,\"y\":%d,\"populacja\":%d,\"zapotrzebowanie\":%.2f,\"skazenie\":%.2f,\"reaktor\":%d}",
+                    snapshot.cityId[i], snapshot.cityX[i], snapshot.cityY[i], snapshot.cityPopulation[i],
+                    snapshot.cityEnergyUsage[i], snapshot.cityPollution[i],
+                    reactor < 0 ? 0 : snapshot.reactorId[reactor]));
+        }
+        json.append("],\"reaktory\":[");
+        for (int i = 0; i < snapshot.reactorCount; i++) {
+            json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\"id\":%d,\"x\":%d,\"y\":%d,\"poziom\":%d,\"moc_maks\":%.1f,\"moc\":%.1f,\"wytrzymalosc\":%.3f,\"aktywny\":%b}",
+                    snapshot.reactorId[i], snapshot.reactorX[i], snapshot.reactorY[i], snapshot.reactorLevel[i],
+                    snapshot.reactorMaxPower[i], snapshot.reactorCurrentPower[i], snapshot.reactorDurability[i],
+                    snapshot.reactorActive[i]));
+        }
+        json.append("],\"zanieczyszczenia\":[");
+        for (int i = 0; i < snapshot.pollutionCount; i++) {
+            json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\"id\":%d,\"x\":%d,\"y\":%d,\"promien\":%.2f,\"aktywne\":%b}",
+                    snapshot.pollutionId[i], snapshot.pollutionX[i], snapshot.pollutionY[i],
+                    snapshot.pollutionRadius[i], snapshot.pollutionActive[i]));
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Dzieli parametry zapytania URL na pary klucz-wartość.
+     *
+     * @param rawQuery zakodowana część zapytania URL (może być null)
+     * @return mapa parametrów
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    /**
+     * Parsuje liczbę całkowitą z parametru żądania.
+     *
+     * @param value wartość parametru (może być null)
+     * @param defaultValue wartość domyślna dla brakującego parametru
+     * @return liczba całkowita
+     * @throws IllegalArgumentException jeśli wartość nie jest liczbą całkowitą
+     */
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Nieprawidłowa liczba: " + value);
+        }
+    }
+
+    /**
+     * Wysyła odpowiedź JSON.
+     *
+     * @param exchange żądanie i odpowiedź HTTP
+     * @param status kod statusu HTTP
+     * @param json treść odpowiedzi
+     * @throws IOException jeśli nie można wysłać odpowiedzi
+     */
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Wysyła odpowiedź z opisem błędu.
+     *
+     * @param exchange żądanie i odpowiedź HTTP
+     * @param status kod statusu HTTP
+     * @param message opis błędu
+     * @throws IOException jeśli nie można wysłać odpowiedzi
+     */
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        String escaped = String.valueOf(message).replace("\\", "\\\\").replace("\"", "\\\"");
+        respond(exchange, status, "{\"blad\":\"" + escaped + "\"}");
+    }
+}
@@ -0,0 +1,280 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Sesja serwera symulacji: pojedyncza symulacja bez interfejsu wraz z kolejką zleconych kroków.
+ * Kroki są wykonywane porcjami przez wspólną pulę {@link SessionScheduler}, a bezczynna sesja
+ * może zostać zapisana do punktu kontrolnego i usunięta z pamięci; przy następnym użyciu
+ * jest z niego odtwarzana.
+ */
+class SimulationSession {
+    /** Identyfikator sesji. */
+    private final int id;
+    /** Ścieżka punktu kontrolnego sesji. */
+    private final Path checkpointPath;
+    /** Pula wykonująca kroki sesji. */
+    private final SessionScheduler scheduler;
+    /** Blokada chroniąca stan sesji (ReentrantLock nie przypina wątków wirtualnych). */
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Zlecenia kroków oczekujące na wykonanie, w kolejności rosnących celów. */
+    private final ArrayDeque<StepRequest> waiting = new ArrayDeque<>();
+    /** Symulacja sesji (null, jeśli sesja jest zapisana w punkcie kontrolnym). */
+    private Simulation simulation;
+    /** Liczba kroków zleconych od utworzenia sesji. */
+    private long requestedSteps;
+    /** Liczba kroków wykonanych od utworzenia sesji. */
+    private long executedSteps;
+    /** Czy sesja oczekuje w kolejce puli lub jest właśnie wykonywana. */
+    private boolean scheduled;
+    /** Czy sesja została zamknięta. */
+    private boolean closed;
+    /** Numer ostatniego znanego kroku symulacji (dostępny także po usunięciu z pamięci). */
+    private volatile int lastStep;
+    /** Czas ostatniego użycia sesji (System.nanoTime()). */
+    private volatile long lastAccessNanos;
+
+    /**
+     * Zlecenie wykonania kroków, zakończone po osiągnięciu zadanej łącznej liczby kroków sesji.
+     *
+     * @param target łączna liczba wykonanych kroków, po której zlecenie jest zakończone
+     * @param done wynik zlecenia (numer kroku symulacji po jego wykonaniu)
+     */
+    private record StepRequest(long target, CompletableFuture<Integer> done) {}
+
+    /**
+     * Konstruktor klasy SimulationSession.
+     *
+     * @param id identyfikator sesji
+     * @param simulation symulacja bez interfejsu
+     * @param checkpointPath ścieżka punktu kontrolnego sesji
+     * @param scheduler pula wykonująca kroki
+     */
+    SimulationSession(int id, Simulation simulation, Path checkpointPath, SessionScheduler scheduler) {
+        this.id = id;
+        this.simulation = simulation;
+        this.checkpointPath = checkpointPath;
+        this.scheduler = scheduler;
+        this.lastStep = simulation.getStepCounter();
+        this.lastAccessNanos = System.nanoTime();
+    }
+
+    /**
+     * Wykonuje odczyt stanu symulacji pod blokadą sesji (odtwarzając ją z punktu kontrolnego, jeśli trzeba).
+     *
+     * @param reader funkcja odczytująca stan symulacji
+     * @param <T> typ wyniku
+     * @return wynik funkcji
+     * @throws IllegalStateException jeśli sesja została zamknięta
+     * @throws UncheckedIOException jeśli nie udało się odtworzyć sesji z punktu kontrolnego
+     */
+    <T> T read(Function<Simulation, T> reader) {
+        lock.lock();
+        try {
+            ensureResident();
+            lastAccessNanos = System.nanoTime();
+            return reader.apply(simulation);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Zleca wykonanie kroków symulacji. Kroki wykonuje wspólna pula, naprzemiennie z innymi sesjami.
+     *
+     * @param count liczba kroków
+     * @return wynik zakończony numerem kroku symulacji po wykonaniu zleconych kroków
+     * @throws IllegalArgumentException jeśli liczba kroków jest mniejsza od 1
+     * @throws IllegalStateException jeśli sesja została zamknięta
+     */
+    CompletableFuture<Integer> requestSteps(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Liczba kroków musi być większa od 0");
+        }
+        CompletableFuture<Integer> done = new CompletableFuture<>();
+        boolean submit;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Sesja " + id + " została zamknięta");
+            }
+            requestedSteps += count;
+            waiting.add(new StepRequest(requestedSteps, done));
+            lastAccessNanos = System.nanoTime();
+            submit = !scheduled;
+            scheduled = true;
+        } finally {
+            lock.unlock();
+        }
+        if (submit) {
+            scheduler.submit(this);
+        }
+        return done;
+    }
+
+    /**
+     * Wykonuje co najwyżej {@code quantum} zleconych kroków. Wywoływana przez wątek puli.
+     *
+     * @param quantum maksymalna liczba kroków w tej porcji
+     * @return true, jeśli sesja ma jeszcze zlecone kroki i powinna wrócić na koniec kolejki
+     */
+    boolean runQuantum(int quantum) {
+        lock.lock();
+        try {
+            if (closed) {
+                scheduled = false;
+                return false;
+            }
+            ensureResident();
+            long steps = Math.min(quantum, requestedSteps - executedSteps);
+            for (long i = 0; i < steps; i++) {
+                simulation.step();
+                executedSteps++;
+            }
+            lastStep = simulation.getStepCounter();
+            while (!waiting.isEmpty() && waiting.peek().target() <= executedSteps) {
+                waiting.poll().done().complete(lastStep);
+            }
+            if (executedSteps < requestedSteps) {
+                return true;
+            }
+            scheduled = false;
+            return false;
+        } catch (RuntimeException e) {
+            failWaiting(e);
+            scheduled = false;
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Kończy niepowodzeniem wszystkie oczekujące zlecenia kroków i zdejmuje sesję z kolejki puli.
+     * Wywoływana przez wątek puli, gdy porcja kroków zakończyła się błędem nieobsłużonym w {@link #runQuantum(int)}.
+     *
+     * @param cause przyczyna niepowodzenia
+     */
+    void fail(Throwable cause) {
+        lock.lock();
+        try {
+            failWaiting(cause);
+            scheduled = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Zapisuje sesję do punktu kontrolnego i usuwa symulację z pamięci, jeśli sesja jest
+     * bezczynna dłużej niż podany czas. Zajęta sesja jest pomijana bez oczekiwania.
+     *
+     * @param idleTimeoutNanos dopuszczalny czas bezczynności (w nanosekundach)
+     * @return true, jeśli sesja została usunięta z pamięci
+     */
+    boolean evictIfIdle(long idleTimeoutNanos) {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (closed || simulation == null || scheduled
+                    || System.nanoTime() - lastAccessNanos < idleTimeoutNanos) {
+                return false;
+            }
+            simulation.writeCheckpoint(checkpointPath);
+            simulation = null;
+            return true;
+        } catch (IOException e) {
+            System.err.println("Błąd podczas zapisu punktu kontrolnego sesji " + id + ": " + e.getMessage());
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Zamyka sesję: anuluje oczekujące zlecenia i usuwa punkt kontrolny.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            simulation = null;
+            failWaiting(new CancellationException("Sesja " + id + " została zamknięta"));
+            Files.deleteIfExists(checkpointPath);
+        } catch (IOException e) {
+            System.err.println("Błąd podczas usuwania punktu kontrolnego sesji " + id + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Odtwarza symulację z punktu kontrolnego, jeśli została usunięta z pamięci.
+     *
+     * @throws IllegalStateException jeśli sesja została zamknięta
+     * @throws UncheckedIOException jeśli odczyt punktu kontrolnego się nie powiedzie
+     */
+    private void ensureResident() {
+        if (closed) {
+            throw new IllegalStateException("Sesja " + id + " została zamknięta");
+        }
+        if (simulation == null) {
+            try {
+                simulation = Simulation.readCheckpoint(checkpointPath);
+                Files.deleteIfExists(checkpointPath);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Kończy wszystkie oczekujące zlecenia błędem i odrzuca niewykonane kroki.
+     *
+     * @param cause przyczyna niepowodzenia
+     */
+    private void failWaiting(Throwable cause) {
+        while (!waiting.isEmpty()) {
+            waiting.poll().done().completeExceptionally(cause);
+        }
+        requestedSteps = executedSteps;
+    }
+
+    /**
+     * Zwraca identyfikator sesji.
+     * @return identyfikator sesji
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Zwraca numer ostatniego znanego kroku symulacji.
+     * @return numer kroku
+     */
+    int getLastStep() {
+        return lastStep;
+    }
+
+    /**
+     * Sprawdza, czy symulacja sesji znajduje się w pamięci.
+     * @return false, jeśli sesja jest zapisana w punkcie kontrolnym
+     */
+    boolean isResident() {
+        lock.lock();
+        try {
+            return simulation != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Indeks przestrzenny punktów oparty na jednorodnej siatce komórek.
+ * Punkty (identyfikowane indeksem w tablicach współrzędnych) są posortowane według komórek
+ * w zwartej tablicy, dzięki czemu zapytanie o prostokąt odwiedza tylko komórki, które go przecinają.
+ * Dodatkowo udostępnia piramidę gęstości (liczba punktów i środek ciężkości w coraz większych
+ * kafelkach), używaną do rysowania zagregowanych symboli przy małym powiększeniu.
+ */
+class SpatialGrid {
+    /** Rozmiar boku komórki (w jednostkach mapy). */
+    private final int cellSize;
+    /** Liczba kolumn siatki. */
+    private final int columns;
+    /** Liczba wierszy siatki. */
+    private final int rows;
+    /** Współrzędne X punktów. */
+    private int[] xs;
+    /** Współrzędne Y punktów. */
+    private int[] ys;
+    /** Początek listy punktów każdej komórki w tablicy {@link #items} (rozmiar: komórki + 1). */
+    private final int[] cellStart;
+    /** Pozycja zapisu kolejnego punktu każdej komórki (tablica robocza budowania). */
+    private final int[] fill;
+    /** Indeksy punktów posortowane według komórek (tablica może być dłuższa niż liczba punktów). */
+    private int[] items;
+    /** Kolejne poziomy piramidy gęstości (poziom 0 odpowiada komórkom siatki). */
+    private final List<DensityLevel> levels = new ArrayList<>();
+
+    /**
+     * Poziom piramidy gęstości: liczba punktów i suma współrzędnych w każdym kafelku.
+     */
+    static final class DensityLevel {
+        /** Rozmiar boku kafelka (w jednostkach mapy). */
+        final int tileSize;
+        /** Liczba kolumn kafelków. */
+        final int columns;
+        /** Liczba wierszy kafelków. */
+        final int rows;
+        /** Liczba punktów w kafelku. */
+        final int[] count;
+        /** Suma współrzędnych X punktów w kafelku. */
+        final long[] sumX;
+        /** Suma współrzędnych Y punktów w kafelku. */
+        final long[] sumY;
+
+        /**
+         * Tworzy pusty poziom piramidy.
+         *
+         * @param tileSize rozmiar kafelka
+         * @param columns liczba kolumn
+         * @param rows liczba wierszy
+         */
+        DensityLevel(int tileSize, int columns, int rows) {
+            this.tileSize = tileSize;
+            this.columns = columns;
+            this.rows = rows;
+            this.count = new int[columns * rows];
+            this.sumX = new long[columns * rows];
+            this.sumY = new long[columns * rows];
+        }
+    }
+
+    /**
+     * Buduje indeks dla podanych punktów (sortowanie kubełkowe, koszt liniowy).
+     * Punkty leżące poza mapą są przypisywane do skrajnych komórek.
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param cellSize rozmiar komórki
+     * @param xs współrzędne X punktów
+     * @param ys współrzędne Y punktów
+     * @param count liczba punktów
+     * @throws IllegalArgumentException jeśli rozmiar komórki jest mniejszy od 1
+     */
+    SpatialGrid(int width, int height, int cellSize, int[] xs, int[] ys, int count) {
+        this(width, height, cellSize);
+        rebuild(xs, ys, count);
+    }
+
+    /**
+     * Tworzy pusty indeks do wypełniania metodą {@link #rebuild(int[], int[], int)}.
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param cellSize rozmiar komórki
+     * @throws IllegalArgumentException jeśli rozmiar komórki jest mniejszy od 1
+     */
+    SpatialGrid(int width, int height, int cellSize) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("Rozmiar komórki musi być większy od 0");
+        }
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        this.xs = new int[0];
+        this.ys = new int[0];
+        this.cellStart = new int[columns * rows + 1];
+        this.fill = new int[columns * rows];
+        this.items = new int[0];
+        levels.add(new DensityLevel(cellSize, columns, rows));
+    }
+
+    /**
+     * Buduje indeks od nowa dla podanych punktów, w miejscu poprzedniego (sortowanie kubełkowe,
+     * koszt liniowy). Tablice indeksu są wielokrotnego użytku; tablica punktów rośnie tylko wtedy,
+     * gdy punktów przybywa. Tablice współrzędnych nie są kopiowane.
+     *
+     * @param xs współrzędne X punktów
+     * @param ys współrzędne Y punktów
+     * @param count liczba punktów
+     */
+    void rebuild(int[] xs, int[] ys, int count) {
+        this.xs = xs;
+        this.ys = ys;
+        if (items.length < count) {
+            items = new int[count];
+        }
+        while (levels.size() > 1) {
+            levels.remove(levels.size() - 1);
+        }
+        DensityLevel base = levels.get(0);
+        Arrays.fill(base.count, 0);
+        Arrays.fill(base.sumX, 0);
+        Arrays.fill(base.sumY, 0);
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < count; i++) {
+            int cell = cellOf(xs[i], ys[i]);
+            cellStart[cell + 1]++;
+            base.count[cell]++;
+            base.sumX[cell] += xs[i];
+            base.sumY[cell] += ys[i];
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+            fill[c] = cellStart[c];
+        }
+        for (int i = 0; i < count; i++) {
+            items[fill[cellOf(xs[i], ys[i])]++] = i;
+        }
+    }
+
+    /**
+     * Wyznacza indeks komórki zawierającej punkt.
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @return indeks komórki
+     */
+    private int cellOf(int x, int y) {
+        int column = Math.min(columns - 1, Math.max(0, x / cellSize));
+        int row = Math.min(rows - 1, Math.max(0, y / cellSize));
+        return row * columns + column;
+    }
+
+    /**
+     * Wywołuje akcję dla każdego punktu leżącego w prostokącie (włącznie z krawędziami).
+     * Odwiedzane są wyłącznie komórki przecinające prostokąt.
+     *
+     * @param minX lewa krawędź prostokąta
+     * @param minY górna krawędź prostokąta
+     * @param maxX prawa krawędź prostokąta
+     * @param maxY dolna krawędź prostokąta
+     * @param action akcja wywoływana z indeksem punktu
+     */
+    void forEachInRect(int minX, int minY, int maxX, int maxY, IntConsumer action) {
+        if (maxX < minX || maxY < minY) {
+            return;
+        }
+        int firstColumn = Math.max(0, Math.min(columns - 1, Math.floorDiv(minX, cellSize)));
+        int lastColumn = Math.max(0, Math.min(columns - 1, Math.floorDiv(maxX, cellSize)));
+        int firstRow = Math.max(0, Math.min(rows - 1, Math.floorDiv(minY, cellSize)));
+        int lastRow = Math.max(0, Math.min(rows - 1, Math.floorDiv(maxY, cellSize)));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = items[k];
+                    if (xs[i] >= minX && xs[i] <= maxX && ys[i] >= minY && ys[i] <= maxY) {
+                        action.accept(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Wyszukuje punkt najbliższy podanemu położeniu w promieniu {@code maxDistance}.
+     * Odwiedzane są wyłącznie komórki przecinające kwadrat opisany na kole wyszukiwania.
+     *
+     * @param x współrzędna X położenia
+     * @param y współrzędna Y położenia
+     * @param maxDistance największa odległość (w jednostkach mapy)
+     * @return indeks najbliższego punktu lub -1, jeśli żaden nie leży w promieniu
+     */
+    int nearest(int x, int y, int maxDistance) {
+        int firstColumn = Math.max(0, Math.min(columns - 1, Math.floorDiv(x - maxDistance, cellSize)));
+        int lastColumn = Math.max(0, Math.min(columns - 1, Math.floorDiv(x + maxDistance, cellSize)));
+        int firstRow = Math.max(0, Math.min(rows - 1, Math.floorDiv(y - maxDistance, cellSize)));
+        int lastRow = Math.max(0, Math.min(rows - 1, Math.floorDiv(y + maxDistance, cellSize)));
+        int best = -1;
+        long bestDistance = (long) maxDistance * maxDistance;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int cell = row * columns + column;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int i = items[k];
+                    long dx = xs[i] - x;
+                    long dy = ys[i] - y;
+                    long distance = dx * dx + dy * dy;
+                    if (distance < bestDistance || (distance == bestDistance && (best < 0 || i < best))) {
+                        best = i;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Zwraca poziom piramidy gęstości o kafelkach co najmniej podanego rozmiaru.
+     * Poziomy są budowane leniwie, każdy przez zsumowanie czterech kafelków poprzedniego.
+     *
+     * @param minTileSize minimalny rozmiar kafelka (w jednostkach mapy)
+     * @return poziom piramidy gęstości
+     */
+    DensityLevel densityLevel(double minTileSize) {
+        int index = 0;
+        DensityLevel level = levels.get(0);
+        while (level.tileSize < minTileSize && (level.columns > 1 || level.rows > 1)) {
+            index++;
+            if (index == levels.size()) {
+                levels.add(coarsen(level));
+            }
+            level = levels.get(index);
+        }
+        return level;
+    }
+
+    /**
+     * Tworzy poziom piramidy o dwukrotnie większych kafelkach.
+     *
+     * @param fine poziom źródłowy
+     * @return poziom zgrubny
+     */
+    private static DensityLevel coarsen(DensityLevel fine) {
+        DensityLevel coarse = new DensityLevel(fine.tileSize * 2, (fine.columns + 1) / 2, (fine.rows + 1) / 2);
+        for (int row = 0; row < fine.rows; row++) {
+            for (int column = 0; column < fine.columns; column++) {
+                int from = row * fine.columns + column;
+                int to = (row / 2) * coarse.columns + column / 2;
+                coarse.count[to] += fine.count[from];
+                coarse.sumX[to] += fine.sumX[from];
+                coarse.sumY[to] += fine.sumY[from];
+            }
+        }
+        return coarse;
+    }
+
+    /**
+     * Zwraca rozmiar komórki siatki.
+     * @return rozmiar komórki
+     */
+    int getCellSize() {
+        return cellSize;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example;
+
+/**
+ * Skrót stanu świata utrzymywany przyrostowo. Skrót jest sumą skrótów wszystkich obiektów mapy,
+ * więc zmiana pola obiektu aktualizuje go w czasie stałym (odjęcie starego i dodanie nowego skrótu
+ * obiektu), bez ponownego przeliczania całego świata. Suma nie zależy od kolejności obiektów.
+ */
+class StateDigest {
+    /** Suma skrótów obiektów. */
+    private long value;
+
+    /**
+     * Dodaje skrót obiektu.
+     *
+     * @param hash skrót obiektu
+     */
+    void add(long hash) {
+        value += hash;
+    }
+
+    /**
+     * Zastępuje skrót obiektu nowym skrótem po zmianie jego pól.
+     *
+     * @param oldHash poprzedni skrót obiektu
+     * @param newHash nowy skrót obiektu
+     */
+    void replace(long oldHash, long newHash) {
+        value += newHash - oldHash;
+    }
+
+    /**
+     * Zwraca sumę skrótów obiektów.
+     *
+     * @return suma skrótów
+     */
+    long value() {
+        return value;
+    }
+
+    /**
+     * Miesza bity liczby (funkcja końcowa SplitMix64), tak aby podobne wartości dawały niepodobne skróty.
+     *
+     * @param z wartość wejściowa
+     * @return wymieszana wartość
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Dołącza wartość do skrótu.
+     *
+     * @param hash dotychczasowy skrót
+     * @param value dołączana wartość
+     * @return nowy skrót
+     */
+    static long combine(long hash, long value) {
+        return mix(hash * 31 + value);
+    }
+}
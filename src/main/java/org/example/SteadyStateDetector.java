@@ -0,0 +1,121 @@
+package org.example;
+
+/**
+ * Wykrywa stan ustalony symulacji na podstawie agregatów kolejnych kroków.
+ * Przechowuje okno ostatnich {@code window} kroków i uznaje przebieg za ustalony, gdy
+ * w całym oknie nie zmieniła się liczba miast ani aktywnych reaktorów, nie ma aktywnych
+ * zanieczyszczeń, a względne odchylenie standardowe łącznej populacji i zapotrzebowania
+ * na energię nie przekracza zadanych tolerancji.
+ */
+class SteadyStateDetector {
+    /** Liczba kroków w oknie. */
+    private final int window;
+    /** Dopuszczalne względne odchylenie standardowe łącznej populacji. */
+    private final double populationTolerance;
+    /** Dopuszczalne względne odchylenie standardowe łącznego zapotrzebowania na energię. */
+    private final double energyTolerance;
+    /** Łączna populacja w kolejnych krokach okna (bufor cykliczny). */
+    private final double[] population;
+    /** Łączne zapotrzebowanie na energię w kolejnych krokach okna (bufor cykliczny). */
+    private final double[] energy;
+    /** Liczba miast w kolejnych krokach okna (bufor cykliczny). */
+    private final int[] cityCounts;
+    /** Liczba aktywnych reaktorów w kolejnych krokach okna (bufor cykliczny). */
+    private final int[] activeReactors;
+    /** Liczba zapisanych kroków (co najwyżej rozmiar okna). */
+    private int size;
+    /** Indeks, pod którym zostanie zapisany kolejny krok. */
+    private int next;
+    /** Liczba kolejnych kroków (do rozmiaru okna) bez aktywnych zanieczyszczeń. */
+    private int stepsWithoutPlumes;
+
+    /**
+     * Konstruktor klasy SteadyStateDetector.
+     *
+     * @param window liczba kroków w oknie
+     * @param populationTolerance dopuszczalne względne odchylenie standardowe populacji
+     * @param energyTolerance dopuszczalne względne odchylenie standardowe zapotrzebowania na energię
+     * @throws IllegalArgumentException jeśli okno jest mniejsze od 2 lub tolerancje są ujemne
+     */
+    SteadyStateDetector(int window, double populationTolerance, double energyTolerance) {
+        if (window < 2) {
+            throw new IllegalArgumentException("Okno wykrywania stanu ustalonego musi obejmować co najmniej 2 kroki");
+        }
+        if (populationTolerance < 0 || energyTolerance < 0) {
+            throw new IllegalArgumentException("Tolerancje stanu ustalonego nie mogą być ujemne");
+        }
+        this.window = window;
+        this.populationTolerance = populationTolerance;
+        this.energyTolerance = energyTolerance;
+        this.population = new double[window];
+        this.energy = new double[window];
+        this.cityCounts = new int[window];
+        this.activeReactors = new int[window];
+    }
+
+    /**
+     * Dodaje agregaty kolejnego kroku i sprawdza, czy przebieg osiągnął stan ustalony.
+     *
+     * @param cityCount liczba miast
+     * @param activeReactorCount liczba aktywnych reaktorów
+     * @param totalPopulation łączna populacja
+     * @param totalEnergyDemand łączne zapotrzebowanie na energię
+     * @param activePollutions liczba aktywnych zanieczyszczeń
+     * @return true, jeśli całe okno spełnia warunki stanu ustalonego
+     */
+    boolean observe(int cityCount, int activeReactorCount, double totalPopulation,
+                    double totalEnergyDemand, int activePollutions) {
+        population[next] = totalPopulation;
+        energy[next] = totalEnergyDemand;
+        cityCounts[next] = cityCount;
+        activeReactors[next] = activeReactorCount;
+        next = (next + 1) % window;
+        size = Math.min(size + 1, window);
+        stepsWithoutPlumes = activePollutions > 0 ? 0 : Math.min(stepsWithoutPlumes + 1, window);
+
+        return size == window
+                && stepsWithoutPlumes == window
+                && isConstant(cityCounts)
+                && isConstant(activeReactors)
+                && relativeDeviation(population) <= populationTolerance
+                && relativeDeviation(energy) <= energyTolerance;
+    }
+
+    /**
+     * Sprawdza, czy wszystkie wartości w oknie są równe.
+     *
+     * @param values wartości w oknie
+     * @return true, jeśli wartości się nie zmieniały
+     */
+    private static boolean isConstant(int[] values) {
+        for (int value : values) {
+            if (value != values[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Oblicza względne odchylenie standardowe (odchylenie / średnia) wartości w oknie.
+     *
+     * @param values wartości w oknie
+     * @return względne odchylenie standardowe (0 dla stałych wartości, nieskończoność dla zmiennych wokół zera)
+     */
+    private static double relativeDeviation(double[] values) {
+        double mean = 0;
+        for (double value : values) {
+            mean += value;
+        }
+        mean /= values.length;
+        double variance = 0;
+        for (double value : values) {
+            variance += (value - mean) * (value - mean);
+        }
+        variance /= values.length;
+        if (variance == 0) {
+            return 0;
+        }
+        return mean == 0 ? Double.POSITIVE_INFINITY : Math.sqrt(variance) / Math.abs(mean);
+    }
+}
@@ -0,0 +1,174 @@
+package org.example;
+
+/**
+ * Zdarzenie opisujące zmianę stanu symulacji w danym kroku.
+ * Obiekty tej klasy są wielokrotnie używane (pula), dlatego subskrybent może
+ * odczytywać pola zdarzenia wyłącznie w trakcie wywołania {@code onNext}.
+ * Jeśli dane są potrzebne później, należy je skopiować.
+ */
+public final class StepEvent {
+
+    /**
+     * Rodzaj zdarzenia publikowanego przez symulację.
+     */
+    public enum Type {
+        /** Podsumowanie kroku (te same wartości co w raporcie CSV). */
+        STEP_SUMMARY,
+        /** Eksplozja reaktora. */
+        EXPLOSION,
+        /** Ponowne podłączenie miasta do reaktora. */
+        RECONNECTION,
+        /** Nowe miasto na mapie. */
+        NEW_CITY,
+        /** Nowy reaktor na mapie. */
+        NEW_REACTOR,
+        /** Zmiana promienia lub aktywności zanieczyszczenia. */
+        PLUME_CHANGE
+    }
+
+    /** Rodzaj zdarzenia. */
+    private Type type;
+    /** Numer kroku, w którym wystąpiło zdarzenie. */
+    private int step;
+    /** Identyfikator obiektu, którego dotyczy zdarzenie (0 dla podsumowania kroku). */
+    private int objectId;
+    /** Identyfikator powiązanego obiektu (np. reaktora przy podłączeniu miasta). */
+    private int relatedId;
+    /** Współrzędna X obiektu. */
+    private int x;
+    /** Współrzędna Y obiektu. */
+    private int y;
+    /** Wartość liczbowa zdarzenia (np. promień zanieczyszczenia, moc reaktora). */
+    private double value;
+    /** Flaga aktywności obiektu po zdarzeniu. */
+    private boolean active;
+    /** Liczba miast (tylko dla podsumowania kroku). */
+    private int cityCount;
+    /** Liczba reaktorów (tylko dla podsumowania kroku). */
+    private int reactorCount;
+    /** Liczba aktywnych reaktorów (tylko dla podsumowania kroku). */
+    private int activeReactorCount;
+    /** Łączna populacja (tylko dla podsumowania kroku). */
+    private int totalPopulation;
+    /** Łączne zapotrzebowanie na energię (tylko dla podsumowania kroku). */
+    private float totalEnergyDemand;
+    /** Kierunek wiatru (tylko dla podsumowania kroku). */
+    private String windDirection;
+    /** Skrót stanu świata po kroku (tylko dla podsumowania kroku). */
+    private long stateDigest;
+
+    /**
+     * Ustawia pola zdarzenia dotyczącego pojedynczego obiektu.
+     *
+     * @param type rodzaj zdarzenia
+     * @param step numer kroku
+     * @param objectId identyfikator obiektu
+     * @param relatedId identyfikator powiązanego obiektu
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param value wartość liczbowa zdarzenia
+     * @param active aktywność obiektu
+     */
+    void setObject(Type type, int step, int objectId, int relatedId, int x, int y, double value, boolean active) {
+        this.type = type;
+        this.step = step;
+        this.objectId = objectId;
+        this.relatedId = relatedId;
+        this.x = x;
+        this.y = y;
+        this.value = value;
+        this.active = active;
+        this.cityCount = 0;
+        this.reactorCount = 0;
+        this.activeReactorCount = 0;
+        this.totalPopulation = 0;
+        this.totalEnergyDemand = 0;
+        this.windDirection = null;
+        this.stateDigest = 0;
+    }
+
+    /**
+     * Ustawia pola zdarzenia podsumowującego krok symulacji.
+     *
+     * @param step numer kroku
+     * @param cityCount liczba miast
+     * @param reactorCount liczba reaktorów
+     * @param activeReactorCount liczba aktywnych reaktorów
+     * @param totalPopulation łączna populacja
+     * @param totalEnergyDemand łączne zapotrzebowanie na energię
+     * @param windDirection kierunek wiatru
+     * @param stateDigest skrót stanu świata po kroku
+     */
+    void setSummary(int step, int cityCount, int reactorCount, int activeReactorCount,
+                    int totalPopulation, float totalEnergyDemand, String windDirection, long stateDigest) {
+        setObject(Type.STEP_SUMMARY, step, 0, 0, 0, 0, totalEnergyDemand, true);
+        this.cityCount = cityCount;
+        this.reactorCount = reactorCount;
+        this.activeReactorCount = activeReactorCount;
+        this.totalPopulation = totalPopulation;
+        this.totalEnergyDemand = totalEnergyDemand;
+        this.windDirection = windDirection;
+        this.stateDigest = stateDigest;
+    }
+
+    /**
+     * Kopiuje wszystkie pola z innego zdarzenia.
+     *
+     * @param other zdarzenie źródłowe
+     */
+    void copyFrom(StepEvent other) {
+        this.type = other.type;
+        this.step = other.step;
+        this.objectId = other.objectId;
+        this.relatedId = other.relatedId;
+        this.x = other.x;
+        this.y = other.y;
+        this.value = other.value;
+        this.active = other.active;
+        this.cityCount = other.cityCount;
+        this.reactorCount = other.reactorCount;
+        this.activeReactorCount = other.activeReactorCount;
+        this.totalPopulation = other.totalPopulation;
+        this.totalEnergyDemand = other.totalEnergyDemand;
+        this.windDirection = other.windDirection;
+        this.stateDigest = other.stateDigest;
+    }
+
+    /**
+     * Sprawdza, czy zdarzenie dotyczy tego samego obiektu co inne zdarzenie
+     * (ten sam rodzaj i identyfikator). Używane przy scalaniu (konflacji).
+     *
+     * @param type rodzaj zdarzenia
+     * @param objectId identyfikator obiektu
+     * @return true, jeśli klucz zdarzenia jest taki sam
+     */
+    boolean hasKey(Type type, int objectId) {
+        return this.type == type && this.objectId == objectId;
+    }
+
+    public Type getType() { return type; }
+    public int getStep() { return step; }
+    public int getObjectId() { return objectId; }
+    public int getRelatedId() { return relatedId; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public double getValue() { return value; }
+    public boolean isActive() { return active; }
+    public int getCityCount() { return cityCount; }
+    public int getReactorCount() { return reactorCount; }
+    public int getActiveReactorCount() { return activeReactorCount; }
+    public int getTotalPopulation() { return totalPopulation; }
+    public float getTotalEnergyDemand() { return totalEnergyDemand; }
+    public String getWindDirection() { return windDirection; }
+    public long getStateDigest() { return stateDigest; }
+
+    @Override
+    public String toString() {
+        if (type == Type.STEP_SUMMARY) {
+            return String.format("[%d] %s miasta=%d reaktory=%d/%d populacja=%d zapotrzebowanie=%.2f wiatr=%s skrót=%016x",
+                    step, type, cityCount, activeReactorCount, reactorCount, totalPopulation, totalEnergyDemand,
+                    windDirection, stateDigest);
+        }
+        return String.format("[%d] %s #%d (%d, %d) wartość=%.2f", step, type, objectId, x, y, value);
+    }
+}
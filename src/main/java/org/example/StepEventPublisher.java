@@ -0,0 +1,463 @@
+package org.example;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Wydawca zdarzeń kroku symulacji zgodny z {@link Flow.Publisher}.
+ * Każdy subskrybent otrzymuje własny, ograniczony bufor z prealokowanymi zdarzeniami
+ * oraz dedykowany wątek dostarczający. Pętla symulacji jedynie kopiuje pola zdarzenia
+ * do bufora, więc powolny subskrybent nie wstrzymuje kroku symulacji, chyba że
+ * wybrano politykę {@link BackpressurePolicy#BLOCK}.
+ */
+public class StepEventPublisher implements Flow.Publisher<StepEvent> {
+
+    /**
+     * Polityka postępowania przy zapełnionym buforze subskrybenta.
+     */
+    public enum BackpressurePolicy {
+        /** Pętla symulacji czeka, aż subskrybent zwolni miejsce w buforze. */
+        BLOCK,
+        /** Najstarsze zdarzenie w buforze jest odrzucane. */
+        DROP_OLDEST,
+        /**
+         * Zdarzenie zastępuje oczekujące zdarzenie o tym samym rodzaju i identyfikatorze obiektu
+         * (np. starsze podsumowanie kroku). Gdy takiego brak, odrzucane jest najstarsze zdarzenie.
+         */
+        CONFLATE
+    }
+
+    /** Pusta tablica subskrypcji. */
+    private static final BufferedSubscription[] NO_SUBSCRIPTIONS = new BufferedSubscription[0];
+
+    /** Domyślny rozmiar bufora subskrybenta. */
+    private final int defaultBufferSize;
+    /** Domyślna polityka przepełnienia bufora. */
+    private final BackpressurePolicy defaultPolicy;
+    /** Aktywne subskrypcje (tablica podmieniana przy zmianie, iterowana bez alokacji). */
+    private volatile BufferedSubscription[] subscriptions = NO_SUBSCRIPTIONS;
+    /** Numer bieżącego kroku symulacji, nadawany publikowanym zdarzeniom. */
+    private volatile int currentStep;
+    /** Flaga zamknięcia wydawcy. */
+    private volatile boolean closed;
+    /** Łączna liczba zdarzeń odrzuconych lub scalonych we wszystkich buforach. */
+    private final LongAdder droppedEvents = new LongAdder();
+    /** Magistrala zdarzeń z buforem cyklicznym bez blokad (null, jeśli nie podłączono). */
+    private volatile EventRing ring;
+
+    /**
+     * Konstruktor wydawcy zdarzeń.
+     *
+     * @param defaultBufferSize domyślny rozmiar bufora subskrybenta
+     * @param defaultPolicy domyślna polityka przepełnienia bufora
+     * @throws IllegalArgumentException jeśli rozmiar bufora jest mniejszy od 1
+     */
+    public StepEventPublisher(int defaultBufferSize, BackpressurePolicy defaultPolicy) {
+        if (defaultBufferSize < 1) {
+            throw new IllegalArgumentException("Rozmiar bufora musi być większy od 0");
+        }
+        this.defaultBufferSize = defaultBufferSize;
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * Rejestruje subskrybenta z domyślnym rozmiarem bufora i polityką przepełnienia.
+     *
+     * @param subscriber subskrybent zdarzeń
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super StepEvent> subscriber) {
+        subscribe(subscriber, defaultBufferSize, defaultPolicy);
+    }
+
+    /**
+     * Rejestruje subskrybenta z podanym rozmiarem bufora i polityką przepełnienia.
+     *
+     * @param subscriber subskrybent zdarzeń
+     * @param bufferSize rozmiar bufora (liczba oczekujących zdarzeń)
+     * @param policy polityka przepełnienia bufora
+     * @throws IllegalArgumentException jeśli rozmiar bufora jest mniejszy od 1
+     */
+    public void subscribe(Flow.Subscriber<? super StepEvent> subscriber, int bufferSize, BackpressurePolicy policy) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subskrybent nie może być null");
+        }
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Rozmiar bufora musi być większy od 0");
+        }
+        BufferedSubscription subscription = new BufferedSubscription(subscriber, bufferSize, policy);
+        synchronized (this) {
+            BufferedSubscription[] current = subscriptions;
+            BufferedSubscription[] updated = new BufferedSubscription[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = subscription;
+            subscriptions = updated;
+        }
+        subscription.start(closed);
+    }
+
+    /**
+     * Podłącza magistralę zdarzeń, do której trafiają wszystkie publikowane zdarzenia
+     * (niezależnie od subskrybentów {@link Flow}).
+     *
+     * @param ring magistrala zdarzeń
+     */
+    void attachRing(EventRing ring) {
+        this.ring = ring;
+    }
+
+    /**
+     * Zwraca podłączoną magistralę zdarzeń.
+     *
+     * @return magistrala zdarzeń lub null, jeśli nie podłączono
+     */
+    EventRing getRing() {
+        return ring;
+    }
+
+    /**
+     * Ustawia numer bieżącego kroku, nadawany kolejnym zdarzeniom.
+     *
+     * @param step numer kroku symulacji
+     */
+    public void beginStep(int step) {
+        this.currentStep = step;
+    }
+
+    /**
+     * Publikuje zdarzenie dotyczące pojedynczego obiektu na mapie.
+     *
+     * @param type rodzaj zdarzenia
+     * @param object obiekt, którego dotyczy zdarzenie
+     * @param relatedId identyfikator powiązanego obiektu (lub 0)
+     * @param value wartość liczbowa zdarzenia
+     */
+    public void publish(StepEvent.Type type, MapObject object, int relatedId, double value) {
+        EventRing bus = ring;
+        if (bus != null) {
+            bus.publish(type, currentStep, object, relatedId, value);
+        }
+        BufferedSubscription[] current = subscriptions;
+        if (current.length == 0) {
+            return;
+        }
+        int[] position = object.getPosition();
+        for (BufferedSubscription subscription : current) {
+            StepEvent slot = subscription.acquireSlot(type, object.getId());
+            if (slot != null) {
+                slot.setObject(type, currentStep, object.getId(), relatedId,
+                        position[0], position[1], value, object.checkActivity());
+                subscription.commitSlot();
+            }
+        }
+    }
+
+    /**
+     * Publikuje zdarzenie podsumowujące krok symulacji.
+     *
+     * @param cityCount liczba miast
+     * @param reactorCount liczba reaktorów
+     * @param activeReactorCount liczba aktywnych reaktorów
+     * @param totalPopulation łączna populacja
+     * @param totalEnergyDemand łączne zapotrzebowanie na energię
+     * @param windDirection kierunek wiatru
+     */
+    public void publishSummary(int cityCount, int reactorCount, int activeReactorCount,
+                               int totalPopulation, float totalEnergyDemand, String windDirection) {
+        publishSummary(cityCount, reactorCount, activeReactorCount, totalPopulation, totalEnergyDemand, windDirection, 0);
+    }
+
+    /**
+     * Publikuje zdarzenie podsumowujące krok symulacji wraz ze skrótem stanu świata.
+     *
+     * @param cityCount liczba miast
+     * @param reactorCount liczba reaktorów
+     * @param activeReactorCount liczba aktywnych reaktorów
+     * @param totalPopulation łączna populacja
+     * @param totalEnergyDemand łączne zapotrzebowanie na energię
+     * @param windDirection kierunek wiatru
+     * @param stateDigest skrót stanu świata po kroku
+     */
+    public void publishSummary(int cityCount, int reactorCount, int activeReactorCount,
+                               int totalPopulation, float totalEnergyDemand, String windDirection,
+                               long stateDigest) {
+        EventRing bus = ring;
+        if (bus != null) {
+            bus.publishSummary(currentStep, cityCount, reactorCount, activeReactorCount,
+                    totalPopulation, totalEnergyDemand, windDirection, stateDigest);
+        }
+        for (BufferedSubscription subscription : subscriptions) {
+            StepEvent slot = subscription.acquireSlot(StepEvent.Type.STEP_SUMMARY, 0);
+            if (slot != null) {
+                slot.setSummary(currentStep, cityCount, reactorCount, activeReactorCount,
+                        totalPopulation, totalEnergyDemand, windDirection, stateDigest);
+                subscription.commitSlot();
+            }
+        }
+    }
+
+    /**
+     * Zamyka wydawcę. Subskrybenci otrzymają pozostałe zdarzenia z bufora,
+     * a następnie sygnał {@code onComplete}; konsumenci magistrali przetwarzają pozostałe zdarzenia.
+     */
+    public void close() {
+        closed = true;
+        EventRing bus = ring;
+        if (bus != null) {
+            bus.close();
+        }
+        for (BufferedSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Zwraca łączną liczbę zdarzeń odrzuconych lub scalonych przez wszystkich subskrybentów.
+     *
+     * @return liczba utraconych zdarzeń
+     */
+    public long getDroppedCount() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Usuwa subskrypcję z listy aktywnych.
+     *
+     * @param subscription subskrypcja do usunięcia
+     */
+    private synchronized void remove(BufferedSubscription subscription) {
+        BufferedSubscription[] current = subscriptions;
+        int index = -1;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return;
+        }
+        if (current.length == 1) {
+            subscriptions = NO_SUBSCRIPTIONS;
+            return;
+        }
+        BufferedSubscription[] updated = new BufferedSubscription[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        subscriptions = updated;
+    }
+
+    /**
+     * Subskrypcja z cyklicznym buforem prealokowanych zdarzeń i własnym wątkiem dostarczającym.
+     */
+    private final class BufferedSubscription implements Flow.Subscription, Runnable {
+        /** Subskrybent odbierający zdarzenia. */
+        private final Flow.Subscriber<? super StepEvent> subscriber;
+        /** Polityka przepełnienia bufora. */
+        private final BackpressurePolicy policy;
+        /** Prealokowane zdarzenia bufora cyklicznego. */
+        private final StepEvent[] ring;
+        /** Zdarzenie przekazywane subskrybentowi (kopiowane z bufora). */
+        private final StepEvent delivery = new StepEvent();
+        /** Blokada chroniąca stan bufora. */
+        private final ReentrantLock lock = new ReentrantLock();
+        /** Warunek: w buforze pojawiło się zdarzenie lub zapotrzebowanie. */
+        private final Condition readable = lock.newCondition();
+        /** Warunek: w buforze zwolniło się miejsce. */
+        private final Condition writable = lock.newCondition();
+        /** Indeks najstarszego zdarzenia w buforze. */
+        private int head;
+        /** Liczba zdarzeń w buforze. */
+        private int count;
+        /** Zgłoszone przez subskrybenta zapotrzebowanie na zdarzenia. */
+        private long demand;
+        /** Flaga anulowania subskrypcji. */
+        private boolean cancelled;
+        /** Flaga zakończenia strumienia. */
+        private boolean completed;
+        /** Błąd zgłoszony przez nieprawidłowe wywołanie {@code request}. */
+        private Throwable error;
+
+        /**
+         * Tworzy subskrypcję z buforem o podanym rozmiarze.
+         *
+         * @param subscriber subskrybent
+         * @param bufferSize rozmiar bufora
+         * @param policy polityka przepełnienia
+         */
+        BufferedSubscription(Flow.Subscriber<? super StepEvent> subscriber, int bufferSize, BackpressurePolicy policy) {
+            this.subscriber = subscriber;
+            this.policy = policy;
+            this.ring = new StepEvent[bufferSize];
+            for (int i = 0; i < bufferSize; i++) {
+                ring[i] = new StepEvent();
+            }
+        }
+
+        /**
+         * Uruchamia wątek dostarczający zdarzenia.
+         *
+         * @param alreadyClosed czy wydawca był już zamknięty w chwili subskrypcji
+         */
+        void start(boolean alreadyClosed) {
+            if (alreadyClosed) {
+                complete();
+            }
+            Thread thread = new Thread(this, "step-events-" + System.identityHashCode(subscriber));
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Rezerwuje slot bufora na nowe zdarzenie zgodnie z polityką przepełnienia.
+         * Po wypełnieniu slotu należy wywołać {@link #commitSlot()}.
+         *
+         * @param type rodzaj zdarzenia (używany przy scalaniu)
+         * @param objectId identyfikator obiektu (używany przy scalaniu)
+         * @return slot do wypełnienia lub null, jeśli subskrypcja jest nieaktywna
+         */
+        StepEvent acquireSlot(StepEvent.Type type, int objectId) {
+            lock.lock();
+            if (cancelled || completed) {
+                lock.unlock();
+                return null;
+            }
+            if (count == ring.length) {
+                switch (policy) {
+                    case BLOCK:
+                        while (count == ring.length && !cancelled) {
+                            writable.awaitUninterruptibly();
+                        }
+                        if (cancelled) {
+                            lock.unlock();
+                            return null;
+                        }
+                        break;
+                    case CONFLATE:
+                        for (int i = count - 1; i >= 0; i--) {
+                            int index = (head + i) % ring.length;
+                            if (ring[index].hasKey(type, objectId)) {
+                                droppedEvents.increment();
+                                return ring[index];
+                            }
+                        }
+                        dropOldest();
+                        break;
+                    default:
+                        dropOldest();
+                        break;
+                }
+            }
+            int slot = (head + count) % ring.length;
+            count++;
+            return ring[slot];
+        }
+
+        /**
+         * Zatwierdza wypełniony slot i budzi wątek dostarczający.
+         * Zwalnia blokadę zajętą w {@link #acquireSlot}.
+         */
+        void commitSlot() {
+            readable.signal();
+            lock.unlock();
+        }
+
+        /**
+         * Odrzuca najstarsze zdarzenie z bufora.
+         */
+        private void dropOldest() {
+            head = (head + 1) % ring.length;
+            count--;
+            droppedEvents.increment();
+        }
+
+        /**
+         * Oznacza strumień jako zakończony.
+         */
+        void complete() {
+            lock.lock();
+            try {
+                completed = true;
+                readable.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            lock.lock();
+            try {
+                if (n <= 0) {
+                    error = new IllegalArgumentException("Zapotrzebowanie musi być dodatnie (reguła 3.9)");
+                    cancelled = true;
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                readable.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                readable.signal();
+                writable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            remove(this);
+        }
+
+        /**
+         * Pętla wątku dostarczającego: pobiera zdarzenia z bufora zgodnie z zapotrzebowaniem
+         * i przekazuje je subskrybentowi poza blokadą.
+         */
+        @Override
+        public void run() {
+            subscriber.onSubscribe(this);
+            while (true) {
+                lock.lock();
+                try {
+                    while (!cancelled && (count == 0 || demand == 0) && !(completed && count == 0)) {
+                        readable.awaitUninterruptibly();
+                    }
+                    if (cancelled) {
+                        break;
+                    }
+                    if (count == 0) {
+                        break;
+                    }
+                    delivery.copyFrom(ring[head]);
+                    head = (head + 1) % ring.length;
+                    count--;
+                    if (demand != Long.MAX_VALUE) {
+                        demand--;
+                    }
+                    writable.signal();
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    subscriber.onNext(delivery);
+                } catch (Throwable t) {
+                    cancel();
+                    subscriber.onError(t);
+                    return;
+                }
+            }
+            remove(this);
+            if (error != null) {
+                subscriber.onError(error);
+            } else if (!cancelled) {
+                subscriber.onComplete();
+            }
+        }
+    }
+}
@@ -1,26 +1,47 @@
 package org.example;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
 
 /**
  * Klasa reprezentująca mapę terenu w symulacji[1].
  * Zarządza wszystkimi obiektami (miastami, reaktorami, zanieczyszczeniami),
  * ich interakcjami, generowaniem oraz warunkami środowiskowymi, takimi jak wiatr[1].
  * Stanowi centralny komponent logiki symulacji[1].
+ * Stan mapy może być serializowany (punkty kontrolne sesji serwera); siatka zajętych
+ * pozycji oraz powiązania z GUI i wydawcą zdarzeń nie są zapisywane[1].
+ * Mapę można tanio rozgałęzić ({@link #fork()}): rozgałęzienia współdzielą tabele obiektów
+ * do pierwszej zmiany, a siatkę zajętości - fragmentami, kopiowanymi przy zapisie[1].
  */
-class TerrainMap {
-    /** Singleton konfiguracji symulacji[1]. */
-    private static final ConfigLoader config = ConfigLoader.getInstance();
+class TerrainMap implements Serializable {
+    /** Wersja formatu serializacji (punkty kontrolne sesji)[1]. */
+    private static final long serialVersionUID = 1L;
+    /** Konfiguracja symulacji, do której należy mapa (przekazywana obiektom na mapie)[1]. */
+    private ConfigLoader config;
 
     /** Lista miast na mapie[1]. */
     private List<City> cities;
     /** Lista reaktorów na mapie[1]. */
     private List<Reactor> reactors;
-    /** Aktualny kierunek wiatru[1]. */
-    private String windDirection;
+    /** Aktualny kierunek wiatru globalnego[1]. */
+    private WindDirection wind;
+    /** Przestrzennie zmienne pole wiatru (null, jeśli wiatr jest jednakowy na całej mapie)[1]. */
+    private WindField windField;
+    /** Sieć przesyłowa z podstacjami (null, jeśli miasta są zasilane bezpośrednio z reaktora)[1]. */
+    private TransmissionNetwork transmissionNetwork;
+    /** Harmonogram wieloczęstotliwościowy aktualizacji miast (null, jeśli miasta są aktualizowane co krok). */
+    private ActivityScheduler activityScheduler;
     /** Lista zanieczyszczeń na mapie[1]. */
     private List<Pollution> pollutions;
     /** Wymiary mapy: [szerokość, wysokość][1]. */
@@ -29,16 +50,69 @@ class TerrainMap {
     private final int maxCities;
     /** Maksymalna liczba reaktorów dozwolona na mapie[1]. */
     private final int maxReactors;
-    /** Trójwymiarowa siatka do śledzenia zajętych pozycji na mapie[1]. */
-    private List<List<List<MapObject>>> occupiedPositions;
+    /** Siatka zajętych pozycji na mapie [x, y, z][1]. */
+    private transient OccupancyGrid occupancy;
+    /** Licznik map współdzielących tabele obiektów po rozgałęzieniu (null, jeśli tabele należą tylko do tej mapy)[1]. */
+    private transient AtomicInteger sharedTables;
+    /** Czy tabele obiektów zostały przejęte od mapy źródłowej rozgałęzienia (obiekty odwołują się do tamtej mapy)[1]. */
+    private transient boolean borrowedTables;
+    /** Indeksy miast czekających na (ponowne) podłączenie: nowych oraz zasilanych z reaktora, który przestał działać[1]. */
+    private BitSet pendingConnections = new BitSet();
+    /** Strumień liczb losowych mapy (wiatr, położenie i parametry nowych obiektów, ziarna obiektów)[1]. */
+    private final SimulationRandom random;
+    /** Przyrostowy skrót stanu obiektów mapy (współdzielony razem z tabelami obiektów)[1]. */
+    private transient StateDigest digest;
+    /** Agregaty świata utrzymywane przyrostowo (współdzielone razem z tabelami obiektów)[1]. */
+    private transient WorldAggregates aggregates;
+    /** Kierunek wiatru ustalony dla wariantu symulacji (null, jeśli wiatr jest losowany co krok)[1]. */
+    private WindDirection fixedWind;
     /** Liczba poziomów wysokości na mapie (np. ziemia, powietrze)[1]. */
     private final int HEIGHT_LEVELS = 2;
     /** Komponent wizualizujący mapę w GUI[1]. */
-    private MapVisualizer visualizer;
+    private transient MapVisualizer visualizer;
+    /** Wydawca zdarzeń kroku (może być null)[1]. */
+    private transient StepEventPublisher eventPublisher;
+    /** Czy wypisywać na konsoli stan każdego miasta i reaktora po aktualizacji[1]. */
+    private boolean objectInfoEnabled = true;
+    /** Współrzędne X aktywnych zanieczyszczeń (tablica wielokrotnego użytku)[1]. */
+    private transient int[] plumeXs;
+    /** Współrzędne Y aktywnych zanieczyszczeń (tablica wielokrotnego użytku)[1]. */
+    private transient int[] plumeYs;
+    /** Promienie aktywnych zanieczyszczeń (tablica wielokrotnego użytku)[1]. */
+    private transient float[] plumeRadii;
+    /** Natężenia aktywnych zanieczyszczeń (tablica wielokrotnego użytku)[1]. */
+    private transient float[] plumeIntensities;
+    /** Indeksy aktywnych zanieczyszczeń w skupiskach (tablica wielokrotnego użytku)[1]. */
+    private transient int[] plumeMembers;
+    /** Skupiska aktywnych zanieczyszczeń, grupowane od nowa w każdym kroku (obiekt wielokrotnego użytku)[1]. */
+    private transient PlumeClusters plumeClusters;
+    /** Numer skupiska, którego oddziaływanie jest właśnie liczone[1]. */
+    private transient int plumeCluster;
+    /** Akcja oddziaływania bieżącego skupiska na miasto o podanym indeksie (tworzona raz)[1]. */
+    private transient IntConsumer cityPlumeVisitor;
+    /** Akcja oddziaływania bieżącego skupiska na reaktor o podanym indeksie (tworzona raz)[1]. */
+    private transient IntConsumer reactorPlumeVisitor;
+    /** Indeks przestrzenny położeń miast (przebudowywany w miejscu, gdy miast przybędzie)[1]. */
+    private transient SpatialGrid cityGrid;
+    /** Indeks przestrzenny położeń reaktorów (przebudowywany w miejscu, gdy reaktorów przybędzie)[1]. */
+    private transient SpatialGrid reactorGrid;
+    /** Współrzędne X miast w indeksie przestrzennym (tablica wielokrotnego użytku)[1]. */
+    private transient int[] cityXs;
+    /** Współrzędne Y miast w indeksie przestrzennym (tablica wielokrotnego użytku)[1]. */
+    private transient int[] cityYs;
+    /** Liczba miast ujętych w indeksie przestrzennym[1]. */
+    private transient int cityGridCount;
+    /** Współrzędne X reaktorów w indeksie przestrzennym (tablica wielokrotnego użytku)[1]. */
+    private transient int[] reactorXs;
+    /** Współrzędne Y reaktorów w indeksie przestrzennym (tablica wielokrotnego użytku)[1]. */
+    private transient int[] reactorYs;
+    /** Liczba reaktorów ujętych w indeksie przestrzennym[1]. */
+    private transient int reactorGridCount;
 
     /**
      * Konstruktor klasy TerrainMap[1].
      * Inicjalizuje mapę o podanych wymiarach i limitach obiektów[1].
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()})[1].
      *
      * @param mapSize tablica z wymiarami mapy [szerokość, wysokość][1].
      * @param maxCities maksymalna liczba miast[1].
@@ -46,7 +120,55 @@ class TerrainMap {
      * @throws IllegalArgumentException jeśli podane parametry są nieprawidłowe[1].
      */
     public TerrainMap(int[] mapSize, int maxCities, int maxReactors) {
+        this(mapSize, maxCities, maxReactors, ConfigLoader.getInstance());
+    }
+
+    /**
+     * Konstruktor klasy TerrainMap z własną konfiguracją symulacji[1].
+     * Ziarno liczb losowych pochodzi z konfiguracji, a gdy jest równe 0 - jest losowane[1].
+     *
+     * @param mapSize tablica z wymiarami mapy [szerokość, wysokość][1].
+     * @param maxCities maksymalna liczba miast[1].
+     * @param maxReactors maksymalna liczba reaktorów[1].
+     * @param config konfiguracja symulacji[1].
+     * @throws IllegalArgumentException jeśli podane parametry są nieprawidłowe[1].
+     */
+    TerrainMap(int[] mapSize, int maxCities, int maxReactors, ConfigLoader config) {
+        this(mapSize, maxCities, maxReactors, config.getSimulationSeed() != 0
+                ? config.getSimulationSeed() : ThreadLocalRandom.current().nextLong(), config);
+    }
+
+    /**
+     * Konstruktor klasy TerrainMap z ziarnem liczb losowych; to samo ziarno daje ten sam przebieg[1].
+     * Używa konfiguracji domyślnej ({@link ConfigLoader#getInstance()})[1].
+     *
+     * @param mapSize tablica z wymiarami mapy [szerokość, wysokość][1].
+     * @param maxCities maksymalna liczba miast[1].
+     * @param maxReactors maksymalna liczba reaktorów[1].
+     * @param seed ziarno liczb losowych[1].
+     * @throws IllegalArgumentException jeśli podane parametry są nieprawidłowe[1].
+     */
+    TerrainMap(int[] mapSize, int maxCities, int maxReactors, long seed) {
+        this(mapSize, maxCities, maxReactors, seed, ConfigLoader.getInstance());
+    }
+
+    /**
+     * Konstruktor klasy TerrainMap z ziarnem liczb losowych i własną konfiguracją symulacji[1].
+     *
+     * @param mapSize tablica z wymiarami mapy [szerokość, wysokość][1].
+     * @param maxCities maksymalna liczba miast[1].
+     * @param maxReactors maksymalna liczba reaktorów[1].
+     * @param seed ziarno liczb losowych[1].
+     * @param config konfiguracja symulacji[1].
+     * @throws IllegalArgumentException jeśli podane parametry są nieprawidłowe[1].
+     */
+    TerrainMap(int[] mapSize, int maxCities, int maxReactors, long seed, ConfigLoader config) {
         validateParameters(mapSize, maxCities, maxReactors);
+        this.config = config;
+        this.random = new SimulationRandom(seed);
+        this.digest = new StateDigest();
+        this.aggregates = new WorldAggregates(mapSize[0], mapSize[1],
+                config.getAggregatesRegionSize(), config.getAggregatesSketchAccuracy());
 
         this.dimensions = mapSize.clone();
         this.maxCities = maxCities;
@@ -54,7 +176,19 @@ class TerrainMap {
         this.cities = new ArrayList<>();
         this.reactors = new ArrayList<>();
         this.pollutions = new ArrayList<>();
-        this.windDirection = updateWind();
+        this.wind = updateWind();
+        if (config.isWindFieldEnabled()) {
+            this.windField = new WindField(mapSize[0], mapSize[1], config.getWindFieldCellSize(),
+                    config.getWindFieldRelaxation(), config.getWindFieldTurbulence(), wind);
+        }
+        if (config.isGridEnabled()) {
+            this.transmissionNetwork = new TransmissionNetwork(mapSize[0], mapSize[1],
+                    config.getGridSubstationSpacing(), config.getGridLineCapacity());
+        }
+        if (config.isMultirateEnabled()) {
+            this.activityScheduler = new ActivityScheduler(mapSize[0], mapSize[1], config.getMultirateRegionSize(),
+                    config.getMultirateTolerance(), config.getMultirateMaxInterval());
+        }
 
         initializeOccupiedPositions();
     }
@@ -76,22 +210,122 @@ class TerrainMap {
         }
     }
 
+    /**
+     * Konstruktor rozgałęzienia: nowa mapa współdzieli z mapą źródłową tabele obiektów,
+     * pole wiatru i sieć przesyłową, dopóki któraś z nich ich nie zmieni[1].
+     *
+     * @param source mapa źródłowa[1].
+     * @param occupancy rozgałęziona siatka zajętości[1].
+     */
+    private TerrainMap(TerrainMap source, OccupancyGrid occupancy) {
+        this.config = source.config;
+        this.dimensions = source.dimensions;
+        this.maxCities = source.maxCities;
+        this.maxReactors = source.maxReactors;
+        this.cities = source.cities;
+        this.reactors = source.reactors;
+        this.pollutions = source.pollutions;
+        this.wind = source.wind;
+        this.fixedWind = source.fixedWind;
+        this.windField = source.windField;
+        this.transmissionNetwork = source.transmissionNetwork;
+        this.activityScheduler = source.activityScheduler == null ? null : source.activityScheduler.copy();
+        this.objectInfoEnabled = source.objectInfoEnabled;
+        this.random = source.random.copy();
+        this.digest = source.digest;
+        this.aggregates = source.aggregates;
+        this.pendingConnections = (BitSet) source.pendingConnections.clone();
+        this.occupancy = occupancy;
+        this.sharedTables = source.sharedTables;
+        this.borrowedTables = true;
+    }
+
     /**
      * Inicjalizuje strukturę danych do śledzenia zajętych pozycji na mapie[1].
      */
     private void initializeOccupiedPositions() {
-        this.occupiedPositions = new ArrayList<>(dimensions[0]);
-        for (int x = 0; x < dimensions[0]; x++) {
-            List<List<MapObject>> yList = new ArrayList<>(dimensions[1]);
-            for (int y = 0; y < dimensions[1]; y++) {
-                List<MapObject> zList = new ArrayList<>(HEIGHT_LEVELS);
-                for (int z = 0; z < HEIGHT_LEVELS; z++) {
-                    zList.add(null);
-                }
-                yList.add(zList);
-            }
-            occupiedPositions.add(yList);
+        this.occupancy = new OccupancyGrid(dimensions[0], dimensions[1], HEIGHT_LEVELS);
+    }
+
+    /**
+     * Tworzy rozgałęzienie mapy w bieżącym stanie. Nie kopiuje żadnego obiektu: obie mapy
+     * współdzielą tabele obiektów, a ta, która pierwsza je zmieni, tworzy własną kopię[1].
+     * Rozgałęzienie nie ma wizualizacji ani wydawcy zdarzeń[1].
+     *
+     * @return nowa mapa o tym samym stanie[1].
+     */
+    TerrainMap fork() {
+        if (sharedTables == null) {
+            sharedTables = new AtomicInteger(2);
+        } else {
+            sharedTables.incrementAndGet();
+        }
+        return new TerrainMap(this, occupancy.fork());
+    }
+
+    /**
+     * Zapewnia, że tabele obiektów należą wyłącznie do tej mapy; wywoływana przed każdą zmianą stanu obiektów.
+     * Ostatnia mapa korzystająca ze współdzielonych tabel przejmuje je bez kopiowania tylko wtedy,
+     * gdy obiekty zostały utworzone dla niej (reaktory i zanieczyszczenia odwołują się do swojej mapy);
+     * rozgałęzienie zawsze tworzy własne kopie[1].
+     */
+    private void ensureOwnTables() {
+        AtomicInteger shared = sharedTables;
+        if (shared == null) {
+            return;
         }
+        sharedTables = null;
+        if (!borrowedTables && shared.compareAndSet(1, 0)) {
+            return;
+        }
+        copyTables();
+        borrowedTables = false;
+        shared.decrementAndGet();
+    }
+
+    /**
+     * Kopiuje miasta, reaktory, zanieczyszczenia, pole wiatru i sieć przesyłową,
+     * przepinając powiązania miast i reaktorów na kopie[1].
+     */
+    private void copyTables() {
+        Map<MapObject, MapObject> copies = new IdentityHashMap<>(2 * (cities.size() + reactors.size()));
+        StateDigest copyDigest = new StateDigest();
+        WorldAggregates copyAggregates = aggregates.emptyCopy();
+        List<City> cityCopies = new ArrayList<>(cities.size());
+        for (City city : cities) {
+            City copy = new City(city);
+            copies.put(city, copy);
+            cityCopies.add(copy);
+        }
+        List<Reactor> reactorCopies = new ArrayList<>(reactors.size());
+        for (Reactor reactor : reactors) {
+            Reactor copy = new Reactor(reactor, this, copies);
+            copies.put(reactor, copy);
+            reactorCopies.add(copy);
+        }
+        for (City city : cityCopies) {
+            city.connectWithReactor((Reactor) copies.get(city.getReactor()));
+            city.attachDigest(copyDigest);
+            city.attachAggregates(copyAggregates);
+        }
+        for (Reactor reactor : reactorCopies) {
+            reactor.attachDigest(copyDigest);
+            reactor.attachAggregates(copyAggregates);
+        }
+        List<Pollution> pollutionCopies = new ArrayList<>(pollutions.size());
+        for (Pollution pollution : pollutions) {
+            Pollution copy = new Pollution(pollution, this);
+            copy.attachDigest(copyDigest);
+            copy.attachAggregates(copyAggregates);
+            pollutionCopies.add(copy);
+        }
+        this.digest = copyDigest;
+        this.aggregates = copyAggregates;
+        this.cities = cityCopies;
+        this.reactors = reactorCopies;
+        this.pollutions = pollutionCopies;
+        this.windField = windField == null ? null : windField.copy();
+        this.transmissionNetwork = transmissionNetwork == null ? null : transmissionNetwork.copy(copies);
     }
 
     /**
@@ -99,57 +333,252 @@ class TerrainMap {
      * Wywoływana w każdym kroku symulacji[1].
      */
     public void update() {
+        ensureOwnTables();
         updateWindDirection();
         updateConnections();
         updateCities();
+        updateTransmission();
         updateReactors();
         updatePollutions();
     }
 
     /**
-     * Aktualizuje kierunek wiatru na mapie[1].
+     * Aktualizuje kierunek wiatru na mapie, a przy włączonym polu wiatru także wiatr lokalny[1].
      */
     private void updateWindDirection() {
-        this.windDirection = updateWind();
+        this.wind = fixedWind != null ? fixedWind : updateWind();
+        if (windField != null) {
+            windField.update(wind, random);
+        }
     }
 
     /**
      * Aktualizuje stan wszystkich miast na mapie, wywołując ich metody update()[1].
+     * Przy włączonym harmonogramie wieloczęstotliwościowym spokojne miasta są pomijane,
+     * a pominięte kroki nadrabiane przy ich następnej aktualizacji[1].
      */
     private void updateCities() {
-        for (City city : cities) {
+        ActivityScheduler scheduler = activityScheduler;
+        if (scheduler != null) {
+            scheduler.markHotRegions(pollutions);
+        }
+        for (int i = 0; i < cities.size(); i++) {
+            City city = cities.get(i);
+            if (scheduler != null && !scheduler.scheduleUpdate(city)) {
+                continue;
+            }
             city.update();
-            city.info();
+            if (objectInfoEnabled) {
+                city.info();
+            }
         }
     }
 
+    /**
+     * Przekazuje do sieci przesyłowej nowe zapotrzebowanie miast i naprawia przepływ[1].
+     */
+    private void updateTransmission() {
+        if (transmissionNetwork == null) {
+            return;
+        }
+        for (int i = 0; i < cities.size(); i++) {
+            transmissionNetwork.updateDemand(cities.get(i));
+        }
+        transmissionNetwork.repair();
+    }
+
     /**
      * Aktualizuje stan wszystkich reaktorów na mapie, wywołując ich metody update()[1].
      */
     private void updateReactors() {
-        for (Reactor reactor : reactors) {
+        for (int i = 0; i < reactors.size(); i++) {
+            Reactor reactor = reactors.get(i);
             reactor.update();
-            reactor.info();
+            if (objectInfoEnabled) {
+                reactor.info();
+            }
         }
     }
 
     /**
-     * Aktualizuje stan wszystkich zanieczyszczeń na mapie, wywołując ich metody update()[1].
+     * Aktualizuje stan wszystkich zanieczyszczeń na mapie[1].
+     * Każde aktywne zanieczyszczenie jest postarzane osobno, a miasta i reaktory, na które może
+     * oddziaływać, są wyszukiwane raz dla każdego skupiska nakładających się zanieczyszczeń;
+     * samo oddziaływanie jest liczone względem środka i promienia każdego zanieczyszczenia[1].
+     * Tablice z położeniami zanieczyszczeń, skupiska i indeksy przestrzenne miast i reaktorów
+     * należą do mapy i są wypełniane w miejscu, więc w stanie ustalonym krok nie przydziela
+     * pamięci; tablice rosną tylko wtedy, gdy obiektów przybywa[1].
      */
-    private void updatePollutions() {
-        for (Pollution pollution : pollutions) {
-            pollution.update();
+    void updatePollutions() {
+        if (plumeXs == null || plumeXs.length < pollutions.size()) {
+            int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, pollutions.size())) << 1);
+            plumeXs = new int[capacity];
+            plumeYs = new int[capacity];
+            plumeRadii = new float[capacity];
+            plumeIntensities = new float[capacity];
+            plumeMembers = new int[capacity];
+        }
+        int[] xs = plumeXs;
+        int[] ys = plumeYs;
+        float[] radii = plumeRadii;
+        float[] intensities = plumeIntensities;
+        int[] members = plumeMembers;
+        int memberCount = 0;
+        for (int i = 0; i < pollutions.size(); i++) {
+            Pollution pollution = pollutions.get(i);
+            if (!pollution.checkActivity()) {
+                continue;
+            }
+            float previousRadius = pollution.getRadius();
+            pollution.advance();
+            if (pollution.getRadius() != previousRadius || !pollution.checkActivity()) {
+                publishEvent(StepEvent.Type.PLUME_CHANGE, pollution, 0, pollution.getRadius());
+            }
+            int[] position = pollution.getPosition();
+            xs[memberCount] = position[0];
+            ys[memberCount] = position[1];
+            radii[memberCount] = pollution.getRadius();
+            intensities[memberCount] = pollution.getIntensity();
+            members[memberCount] = memberCount;
+            memberCount++;
+        }
+        if (memberCount > 0) {
+            if (plumeClusters == null) {
+                plumeClusters = new PlumeClusters();
+            }
+            plumeClusters.group(xs, ys, radii, intensities, members, memberCount, config.getPlumeClusterDistance());
+            affectByPlumes(plumeClusters);
+        }
+    }
+
+    /**
+     * Oddziałuje skupiskami zanieczyszczeń na aktywne miasta i reaktory[1].
+     * Skupisko wyznacza jedynie zbiór kandydatów (obiekty w jego zasięgu, wyszukiwane w indeksach
+     * przestrzennych mapy); każdy kandydat jest sprawdzany względem środka i promienia
+     * każdego członka skupiska, tak jak przy oddziaływaniu pojedynczych zanieczyszczeń[1].
+     * Miasto w zasięgu członka otrzymuje jego natężenie skażenia, a reaktor w zasięgu członka
+     * jest dezaktywowany[1].
+     *
+     * @param clusters skupiska aktywnych zanieczyszczeń[1].
+     */
+    private void affectByPlumes(PlumeClusters clusters) {
+        refreshPositionGrids();
+        if (cityPlumeVisitor == null) {
+            cityPlumeVisitor = this::affectCityByPlumeCluster;
+            reactorPlumeVisitor = this::affectReactorByPlumeCluster;
+        }
+        for (int c = 0; c < clusters.size(); c++) {
+            plumeCluster = c;
+            float reach = clusters.getReach(c);
+            int minX = (int) Math.floor(clusters.getX(c) - reach);
+            int minY = (int) Math.floor(clusters.getY(c) - reach);
+            int maxX = (int) Math.ceil(clusters.getX(c) + reach);
+            int maxY = (int) Math.ceil(clusters.getY(c) + reach);
+            cityGrid.forEachInRect(minX, minY, maxX, maxY, cityPlumeVisitor);
+            reactorGrid.forEachInRect(minX, minY, maxX, maxY, reactorPlumeVisitor);
+        }
+    }
+
+    /**
+     * Oddziałuje bieżącym skupiskiem zanieczyszczeń na miasto: każdy członek, w którego zasięgu
+     * leży miasto, zwiększa jego skażenie o swoje natężenie[1].
+     *
+     * @param index indeks miasta na liście miast[1].
+     */
+    private void affectCityByPlumeCluster(int index) {
+        City city = cities.get(index);
+        if (!city.checkActivity()) {
+            return;
+        }
+        int[] position = city.getPosition();
+        for (int j = 0; j < plumeClusters.getMemberCount(plumeCluster); j++) {
+            int m = plumeClusters.getMember(plumeCluster, j);
+            if (plumeCovers(m, position)) {
+                city.setPollutionLevel(Math.min(100.0f, city.getPollutionLevel() + plumeIntensities[m]));
+            }
+        }
+    }
+
+    /**
+     * Oddziałuje bieżącym skupiskiem zanieczyszczeń na reaktor: reaktor w zasięgu któregoś
+     * z członków jest dezaktywowany[1].
+     *
+     * @param index indeks reaktora na liście reaktorów[1].
+     */
+    private void affectReactorByPlumeCluster(int index) {
+        Reactor reactor = reactors.get(index);
+        int[] position = reactor.getPosition();
+        for (int j = 0; j < plumeClusters.getMemberCount(plumeCluster) && reactor.checkActivity(); j++) {
+            if (plumeCovers(plumeClusters.getMember(plumeCluster, j), position)) {
+                reactor.deactivateObject();
+            }
+        }
+    }
+
+    /**
+     * Sprawdza, czy pozycja leży w zasięgu aktywnego zanieczyszczenia z bieżącego kroku[1].
+     *
+     * @param plume indeks zanieczyszczenia w tablicach wielokrotnego użytku[1].
+     * @param position pozycja obiektu [x, y, z][1].
+     * @return true, jeśli odległość od środka zanieczyszczenia nie przekracza jego promienia[1].
+     */
+    private boolean plumeCovers(int plume, int[] position) {
+        long dx = position[0] - plumeXs[plume];
+        long dy = position[1] - plumeYs[plume];
+        double radius = plumeRadii[plume];
+        return dx * dx + dy * dy <= radius * radius;
+    }
+
+    /**
+     * Uzupełnia indeksy przestrzenne miast i reaktorów o obiekty dodane od ostatniego użycia[1].
+     * Listy obiektów są tylko powiększane, a położenia obiektów się nie zmieniają, więc do tablic
+     * współrzędnych dopisywane są tylko nowe obiekty, a indeks jest przebudowywany w miejscu
+     * wyłącznie wtedy, gdy obiektów przybyło[1].
+     */
+    private void refreshPositionGrids() {
+        if (cityGrid == null) {
+            cityGrid = new SpatialGrid(dimensions[0], dimensions[1], WorldSnapshot.INDEX_CELL_SIZE);
+            reactorGrid = new SpatialGrid(dimensions[0], dimensions[1], WorldSnapshot.INDEX_CELL_SIZE);
+            cityXs = new int[0];
+            cityYs = new int[0];
+            reactorXs = new int[0];
+            reactorYs = new int[0];
+        }
+        if (cityGridCount != cities.size()) {
+            if (cityXs.length < cities.size()) {
+                cityXs = Arrays.copyOf(cityXs, Math.max(16, cities.size() * 2));
+                cityYs = Arrays.copyOf(cityYs, cityXs.length);
+            }
+            for (int i = cityGridCount; i < cities.size(); i++) {
+                int[] position = cities.get(i).getPosition();
+                cityXs[i] = position[0];
+                cityYs[i] = position[1];
+            }
+            cityGridCount = cities.size();
+            cityGrid.rebuild(cityXs, cityYs, cityGridCount);
+        }
+        if (reactorGridCount != reactors.size()) {
+            if (reactorXs.length < reactors.size()) {
+                reactorXs = Arrays.copyOf(reactorXs, Math.max(16, reactors.size() * 2));
+                reactorYs = Arrays.copyOf(reactorYs, reactorXs.length);
+            }
+            for (int i = reactorGridCount; i < reactors.size(); i++) {
+                int[] position = reactors.get(i).getPosition();
+                reactorXs[i] = position[0];
+                reactorYs[i] = position[1];
+            }
+            reactorGridCount = reactors.size();
+            reactorGrid.rebuild(reactorXs, reactorYs, reactorGridCount);
         }
     }
 
     /**
      * Losuje nowy kierunek wiatru[1].
      *
-     * @return nowy kierunek wiatru jako String[1].
+     * @return nowy kierunek wiatru[1].
      */
-    public String updateWind() {
-        String[] directions = {"N", "NE", "E", "SE", "S", "SW", "W", "NW", "C"};
-        return directions[new Random().nextInt(directions.length)];
+    public WindDirection updateWind() {
+        return WindDirection.random(random);
     }
 
     /**
@@ -160,8 +589,17 @@ class TerrainMap {
     public void addCity(City city) {
         int[] position = city.getPosition();
         if (isPositionValid(position) && isPositionEmpty(position)) {
+            ensureOwnTables();
+            city.setMapIndex(cities.size());
             cities.add(city);
-            occupiedPositions.get(position[0]).get(position[1]).set(position[2], city);
+            occupancy.occupy(position[0], position[1], position[2]);
+            city.attachDigest(digest);
+            city.attachAggregates(aggregates);
+            pendingConnections.set(city.getMapIndex());
+            if (transmissionNetwork != null) {
+                transmissionNetwork.addCity(city);
+            }
+            publishEvent(StepEvent.Type.NEW_CITY, city, 0, city.getPopulation());
         }
     }
 
@@ -173,11 +611,81 @@ class TerrainMap {
     public void addReactor(Reactor reactor) {
         int[] position = reactor.getPosition();
         if (isPositionValid(position) && isPositionEmpty(position)) {
+            ensureOwnTables();
             reactors.add(reactor);
-            occupiedPositions.get(position[0]).get(position[1]).set(position[2], reactor);
+            occupancy.occupy(position[0], position[1], position[2]);
+            reactor.attachDigest(digest);
+            reactor.attachAggregates(aggregates);
+            if (transmissionNetwork != null) {
+                transmissionNetwork.addReactor(reactor);
+            }
+            publishEvent(StepEvent.Type.NEW_REACTOR, reactor, 0, reactor.getMaxPower());
         }
     }
 
+    /**
+     * Dodaje naraz wiele miast i reaktorów (np. wczytanych ze scenariusza) na poziomie gruntu[1].
+     * Obiekty są tworzone i dopisywane kolejno (miasta, potem reaktory) z identyfikatorami
+     * nadawanymi tak jak przy pojedynczym dodawaniu, ale tabele obiektów są powiększane jednorazowo,
+     * miasta trafiają do kolejki podłączeń jednym zakresem, a zdarzenia nowych obiektów nie są publikowane[1].
+     * Wpisy z pozycją poza mapą lub zajętą są pomijane[1].
+     *
+     * @param cityX współrzędne X miast[1].
+     * @param cityY współrzędne Y miast[1].
+     * @param cityPopulation populacje miast[1].
+     * @param cityCount liczba miast[1].
+     * @param reactorX współrzędne X reaktorów[1].
+     * @param reactorY współrzędne Y reaktorów[1].
+     * @param reactorLevel poziomy reaktorów (1-4)[1].
+     * @param reactorCount liczba reaktorów[1].
+     * @return liczba pominiętych wpisów[1].
+     */
+    int addBulk(int[] cityX, int[] cityY, int[] cityPopulation, int cityCount,
+                int[] reactorX, int[] reactorY, int[] reactorLevel, int reactorCount) {
+        ensureOwnTables();
+        if (cities instanceof ArrayList<City> list) {
+            list.ensureCapacity(cities.size() + cityCount);
+        }
+        if (reactors instanceof ArrayList<Reactor> list) {
+            list.ensureCapacity(reactors.size() + reactorCount);
+        }
+        int skipped = 0;
+        int firstCity = cities.size();
+        for (int i = 0; i < cityCount; i++) {
+            int[] position = {cityX[i], cityY[i], 0};
+            if (!isPositionValid(position) || !isPositionEmpty(position)) {
+                skipped++;
+                continue;
+            }
+            City city = new City(cities.size() + 1, position, cityPopulation[i], random.nextLong());
+            city.setMapIndex(cities.size());
+            cities.add(city);
+            occupancy.occupy(position[0], position[1], 0);
+            city.attachDigest(digest);
+            city.attachAggregates(aggregates);
+            if (transmissionNetwork != null) {
+                transmissionNetwork.addCity(city);
+            }
+        }
+        pendingConnections.set(firstCity, cities.size());
+        for (int i = 0; i < reactorCount; i++) {
+            int[] position = {reactorX[i], reactorY[i], 0};
+            if (!isPositionValid(position) || !isPositionEmpty(position)) {
+                skipped++;
+                continue;
+            }
+            Reactor reactor = new Reactor(reactors.size() + 1, position, reactorLevel[i], this);
+            reactors.add(reactor);
+            occupancy.occupy(position[0], position[1], 0);
+            reactor.attachDigest(digest);
+            reactor.attachAggregates(aggregates);
+            if (transmissionNetwork != null) {
+                transmissionNetwork.addReactor(reactor);
+            }
+        }
+        return skipped;
+    }
+
     /**
      * Dodaje zanieczyszczenie do mapy, jeśli pozycja jest poprawna i wolna[1].
      *
@@ -186,8 +694,11 @@ class TerrainMap {
     public void addPollution(Pollution pollution) {
         int[] position = pollution.getPosition();
         if (isPositionValid(position) && isPositionEmpty(position)) {
+            ensureOwnTables();
             pollutions.add(pollution);
-            occupiedPositions.get(position[0]).get(position[1]).set(position[2], pollution);
+            occupancy.occupy(position[0], position[1], position[2]);
+            pollution.attachDigest(digest);
+            pollution.attachAggregates(aggregates);
         }
     }
 
@@ -215,7 +726,7 @@ class TerrainMap {
      * @return true, jeśli pozycja jest wolna, w przeciwnym razie false[1].
      */
     private boolean isPositionEmpty(int[] position) {
-        return occupiedPositions.get(position[0]).get(position[1]).get(position[2]) == null;
+        return !occupancy.isOccupied(position[0], position[1], position[2]);
     }
 
     /**
@@ -226,12 +737,11 @@ class TerrainMap {
             return;
         }
 
-        Random random = new Random();
         int population = 15000 + random.nextInt(60000);
         int[] coords = findEmptyPosition("city");
 
         if (coords != null) {
-            City city = new City(cities.size() + 1, coords, population);
+            City city = new City(cities.size() + 1, coords, population, random.nextLong());
             addCity(city);
         }
     }
@@ -246,7 +756,6 @@ class TerrainMap {
             return;
         }
 
-        Random random = new Random();
         int reactorLevel = 1 + random.nextInt(4);
         int[] coords = null;
 
@@ -287,7 +796,6 @@ class TerrainMap {
      * @return tablica współrzędnych lub null, jeśli nie znaleziono wolnej pozycji[1].
      */
     private int[] findEmptyPosition(String objectType) {
-        Random random = new Random();
         int attempts = 0;
         final int MAX_ATTEMPTS = 50;
 
@@ -317,18 +825,19 @@ class TerrainMap {
      * @return true, jeśli pozycja jest wystarczająco oddalona[1].
      */
     private boolean isFarEnoughFromOthers(int[] position, int minDistance) {
+        long minSquared = (long) minDistance * minDistance;
         for (City city : cities) {
-            if (calculateDistance(city.getPosition(), position) < minDistance) {
+            if (distanceSquared(city.getPosition(), position) < minSquared) {
                 return false;
             }
         }
         for (Reactor reactor : reactors) {
-            if (calculateDistance(reactor.getPosition(), position) < minDistance) {
+            if (distanceSquared(reactor.getPosition(), position) < minSquared) {
                 return false;
             }
         }
         for (Pollution pollution : pollutions) {
-            if (calculateDistance(pollution.getPosition(), position) < minDistance) {
+            if (distanceSquared(pollution.getPosition(), position) < minSquared) {
                 return false;
             }
         }
@@ -337,9 +846,14 @@ class TerrainMap {
 
     /**
      * Aktualizuje połączenia energetyczne między miastami a reaktorami[1].
+     * Przegląda tylko miasta oczekujące na podłączenie (w kolejności listy miast), więc koszt
+     * zależy od liczby zmian, a nie od liczby miast. Miasto, dla którego nie znaleziono
+     * reaktora, czeka dalej i jest sprawdzane ponownie w następnym kroku[1].
      */
     public void updateConnections() {
-        for (City city : cities) {
+        ensureOwnTables();
+        for (int i = pendingConnections.nextSetBit(0); i >= 0; i = pendingConnections.nextSetBit(i + 1)) {
+            City city = cities.get(i);
             Reactor currentReactor = city.getReactor();
 
             if (currentReactor == null || !currentReactor.checkActivity()) {
@@ -348,6 +862,9 @@ class TerrainMap {
                 }
                 connectCityToBestReactor(city);
             }
+            if (city.getReactor() != null && city.getReactor().checkActivity()) {
+                pendingConnections.clear(i);
+            }
         }
     }
 
@@ -358,17 +875,20 @@ class TerrainMap {
      */
     private void connectCityToBestReactor(City city) {
         Reactor bestReactor = null;
-        double minDistance = Double.MAX_VALUE;
+        long minSquared = Long.MAX_VALUE;
+        double maxDistance = Math.min(dimensions[0], dimensions[1]) * 0.3;
+        double maxSquared = maxDistance * maxDistance;
+        int[] cityPosition = city.getPosition();
 
-        for (Reactor reactor : reactors) {
+        for (int i = 0; i < reactors.size(); i++) {
+            Reactor reactor = reactors.get(i);
             if (reactor.checkActivity()) {
-                double distance = calculateDistance(city.getPosition(), reactor.getPosition());
+                long squared = distanceSquared(cityPosition, reactor.getPosition());
                 float availablePower = reactor.getMaxPower() - reactor.getCurrentPower();
-                double maxDistance = Math.min(dimensions[0], dimensions[1]) * 0.3;
 
-                if(distance <= maxDistance && availablePower >= city.getEnergyUsage() * config.getEnergyConnectionPowerBuffer()) {
-                    if(distance < minDistance) {
-                        minDistance = distance;
+                if(squared <= maxSquared && availablePower >= city.getEnergyUsage() * config.getEnergyConnectionPowerBuffer()) {
+                    if(squared < minSquared) {
+                        minSquared = squared;
                         bestReactor = reactor;
                     }
                 }
@@ -378,11 +898,240 @@ class TerrainMap {
         if (bestReactor != null) {
             city.connectWithReactor(bestReactor);
             bestReactor.addCity(city);
+            publishEvent(StepEvent.Type.RECONNECTION, city, bestReactor.getId(), Math.sqrt(minSquared));
         } else {
             generateReactor(city.getPosition());
         }
     }
 
+    /**
+     * Ustawia wydawcę zdarzeń kroku, do którego mapa przekazuje zmiany obiektów[1].
+     *
+     * @param eventPublisher wydawca zdarzeń (może być null)[1].
+     */
+    public void setEventPublisher(StepEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Obsługuje wyłączenie reaktora (zużycie, eksplozja, zanieczyszczenie): dodaje jego miasta
+     * do oczekujących na ponowne podłączenie, odłącza go od sieci przesyłowej i od razu
+     * przyrostowo naprawia przepływ[1].
+     *
+     * @param reactor reaktor, który przestał działać[1].
+     */
+    void onReactorDeactivated(Reactor reactor) {
+        for (City city : reactor.getConnectedCities()) {
+            if (city.getMapIndex() >= 0) {
+                pendingConnections.set(city.getMapIndex());
+            }
+        }
+        if (transmissionNetwork != null) {
+            transmissionNetwork.reactorFailed(reactor);
+        }
+    }
+
+    /**
+     * Ustala kierunek wiatru dla wariantu symulacji; wiatr przestaje być losowany co krok[1].
+     *
+     * @param direction kierunek wiatru lub null, aby przywrócić losowanie[1].
+     */
+    void setFixedWind(WindDirection direction) {
+        this.fixedWind = direction;
+        if (direction != null) {
+            this.wind = direction;
+        }
+    }
+
+    /**
+     * Wymusza awarię reaktora o podanym identyfikatorze (wariant symulacji z wyłączeniem)[1].
+     *
+     * @param reactorId identyfikator reaktora[1].
+     * @return true, jeśli reaktor istnieje[1].
+     */
+    boolean forceOutage(int reactorId) {
+        ensureOwnTables();
+        for (Reactor reactor : reactors) {
+            if (reactor.getId() == reactorId) {
+                reactor.deactivateObject();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Nalicza zużycie aktywnych reaktorów za podaną liczbę kroków (przewijanie stanu ustalonego)[1].
+     *
+     * @param steps liczba przewijanych kroków[1].
+     */
+    void fastForwardReactors(int steps) {
+        ensureOwnTables();
+        for (Reactor reactor : reactors) {
+            if (reactor.checkActivity()) {
+                reactor.fastForward(steps);
+            }
+        }
+    }
+
+    /**
+     * Losuje ziarno strumienia liczb losowych nowego obiektu[1].
+     *
+     * @return ziarno[1].
+     */
+    long nextEntitySeed() {
+        return random.nextLong();
+    }
+
+    /**
+     * Zwraca agregaty świata utrzymywane przyrostowo (sumy globalne i regionalne, szkice kwantyli)[1].
+     *
+     * @return agregaty świata[1].
+     */
+    WorldAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Zwraca harmonogram wieloczęstotliwościowy aktualizacji miast[1].
+     *
+     * @return harmonogram lub null, jeśli miasta są aktualizowane w każdym kroku[1].
+     */
+    ActivityScheduler getActivityScheduler() {
+        return activityScheduler;
+    }
+
+    /**
+     * Zwraca konfigurację symulacji, do której należy mapa[1].
+     *
+     * @return konfiguracja symulacji[1].
+     */
+    ConfigLoader getConfig() {
+        return config;
+    }
+
+    /**
+     * Włącza harmonogram wieloczęstotliwościowy aktualizacji miast lub go wyłącza[1].
+     *
+     * @param scheduler harmonogram lub null, aby aktualizować miasta w każdym kroku[1].
+     */
+    void setActivityScheduler(ActivityScheduler scheduler) {
+        this.activityScheduler = scheduler;
+    }
+
+    /**
+     * Zwraca liczbę miast na mapie bez kopiowania listy[1].
+     *
+     * @return liczba miast[1].
+     */
+    int getCityCount() {
+        return cities.size();
+    }
+
+    /**
+     * Zwraca liczbę reaktorów na mapie bez kopiowania listy[1].
+     *
+     * @return liczba reaktorów[1].
+     */
+    int getReactorCount() {
+        return reactors.size();
+    }
+
+    /**
+     * Zwraca liczbę zanieczyszczeń na mapie bez kopiowania listy[1].
+     *
+     * @return liczba zanieczyszczeń[1].
+     */
+    int getPollutionCount() {
+        return pollutions.size();
+    }
+
+    /**
+     * Zwraca miasto o podanym indeksie bez kopiowania listy[1].
+     *
+     * @param index indeks miasta[1].
+     * @return miasto[1].
+     */
+    City getCity(int index) {
+        return cities.get(index);
+    }
+
+    /**
+     * Zwraca reaktor o podanym indeksie bez kopiowania listy[1].
+     *
+     * @param index indeks reaktora[1].
+     * @return reaktor[1].
+     */
+    Reactor getReactor(int index) {
+        return reactors.get(index);
+    }
+
+    /**
+     * Zwraca skrót stanu świata: przyrostowy skrót obiektów połączony z wiatrem globalnym[1].
+     *
+     * @return skrót stanu świata[1].
+     */
+    long stateDigest() {
+        return StateDigest.combine(digest.value(), wind.ordinal());
+    }
+
+    /**
+     * Zwraca sieć przesyłową[1].
+     * @return sieć przesyłowa lub null, jeśli jest wyłączona[1].
+     */
+    TransmissionNetwork getTransmissionNetwork() {
+        return transmissionNetwork;
+    }
+
+    /**
+     * Włącza lub wyłącza wypisywanie stanu obiektów na konsoli (np. w trybie serwera)[1].
+     *
+     * @param enabled true, aby wypisywać stan miast i reaktorów w każdym kroku[1].
+     */
+    public void setObjectInfoEnabled(boolean enabled) {
+        this.objectInfoEnabled = enabled;
+    }
+
+    /**
+     * Odtwarza mapę z punktu kontrolnego i odbudowuje siatkę zajętych pozycji[1].
+     *
+     * @param in strumień wejściowy serializacji[1].
+     * @throws IOException jeśli odczyt się nie powiedzie[1].
+     * @throws ClassNotFoundException jeśli brakuje klasy zapisanego obiektu[1].
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (config == null) {
+            config = ConfigLoader.getInstance();
+        }
+        initializeOccupiedPositions();
+        digest = new StateDigest();
+        aggregates = new WorldAggregates(dimensions[0], dimensions[1],
+                config.getAggregatesRegionSize(), config.getAggregatesSketchAccuracy());
+        for (List<? extends MapObject> objects : List.of(cities, reactors, pollutions)) {
+            for (MapObject object : objects) {
+                int[] position = object.getPosition();
+                occupancy.occupy(position[0], position[1], position[2]);
+                object.attachDigest(digest);
+                object.attachAggregates(aggregates);
+            }
+        }
+    }
+
+    /**
+     * Publikuje zdarzenie dotyczące obiektu na mapie, jeśli ustawiono wydawcę zdarzeń[1].
+     *
+     * @param type rodzaj zdarzenia[1].
+     * @param object obiekt, którego dotyczy zdarzenie[1].
+     * @param relatedId identyfikator powiązanego obiektu (lub 0)[1].
+     * @param value wartość liczbowa zdarzenia[1].
+     */
+    void publishEvent(StepEvent.Type type, MapObject object, int relatedId, double value) {
+        if (eventPublisher != null) {
+            eventPublisher.publish(type, object, relatedId, value);
+        }
+    }
+
     /**
      * Oblicza odległość euklidesową między dwoma punktami w 2D (ignoruje oś Z)[1].
      *
@@ -391,7 +1140,21 @@ class TerrainMap {
      * @return odległość jako double[1].
      */
     public double calculateDistance(int[] a, int[] b) {
-        return Math.sqrt(Math.pow(a[0] - b[0], 2) + Math.pow(a[1] - b[1], 2));
+        return Math.sqrt(distanceSquared(a, b));
+    }
+
+    /**
+     * Oblicza kwadrat odległości euklidesowej między dwoma punktami w 2D (ignoruje oś Z),
+     * do porównań z progiem bez pierwiastkowania[1].
+     *
+     * @param a pierwsza pozycja [x, y, z][1].
+     * @param b druga pozycja [x, y, z][1].
+     * @return kwadrat odległości[1].
+     */
+    static long distanceSquared(int[] a, int[] b) {
+        long dx = a[0] - b[0];
+        long dy = a[1] - b[1];
+        return dx * dx + dy * dy;
     }
 
     /**
@@ -410,13 +1173,15 @@ class TerrainMap {
     }
 
     /**
-     * Aktualizuje numer kroku symulacji wyświetlany w GUI[1].
+     * Aktualizuje numer kroku symulacji i stan mapy wyświetlany w GUI[1].
+     * Migawka stanu jest tworzona w wątku symulacji, więc GUI nie odczytuje żywych obiektów[1].
      *
      * @param step aktualny numer kroku[1].
      */
     public void updateStepInGUI(int step) {
         if (visualizer != null) {
-            SwingUtilities.invokeLater(() -> visualizer.updateStep(step));
+            WorldSnapshot snapshot = WorldSnapshot.capture(this, step);
+            SwingUtilities.invokeLater(() -> visualizer.updateStep(step, snapshot));
         }
     }
 
@@ -462,10 +1227,30 @@ class TerrainMap {
 
     /**
      * Zwraca aktualny kierunek wiatru[1].
-     * @return kierunek wiatru[1].
+     * @return nazwa kierunku wiatru[1].
      */
     public String getWindDirection() {
-        return windDirection;
+        return wind.name();
+    }
+
+    /**
+     * Zwraca aktualny kierunek wiatru globalnego[1].
+     * @return kierunek wiatru[1].
+     */
+    public WindDirection getWind() {
+        return wind;
+    }
+
+    /**
+     * Zwraca kierunek wiatru w punkcie mapy: z pola wiatru, jeśli jest włączone,
+     * w przeciwnym razie wiatr globalny[1].
+     *
+     * @param x współrzędna X[1].
+     * @param y współrzędna Y[1].
+     * @return lokalny kierunek wiatru[1].
+     */
+    public WindDirection windAt(int x, int y) {
+        return windField != null ? windField.directionAt(x, y) : wind;
     }
 
     /**
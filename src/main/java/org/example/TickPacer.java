@@ -0,0 +1,198 @@
+package org.example;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Harmonogram tempa kroków symulacji ze stałą częstotliwością. Terminy kolejnych taktów są liczone
+ * od początku przebiegu (początek + n·okres), a nie od końca poprzedniego kroku, więc czas kroku
+ * nie przesuwa rytmu. Krok dłuższy od okresu jest nadrabiany kolejnymi krokami bez oczekiwania,
+ * a opóźnienie większe niż dopuszczalna liczba taktów jest pomijane (rytm liczony od nowa).
+ * Harmonogram mierzy rozrzut chwil wybudzenia względem terminów (jitter) i opóźnienie kroków,
+ * które nie zmieściły się w okresie (lag).
+ */
+class TickPacer {
+    /** Czas przed terminem, w którym oczekiwanie przechodzi z uśpienia w aktywne czekanie (w nanosekundach). */
+    private static final long SPIN_THRESHOLD_NANOS = 200_000;
+
+    /** Okres taktu (w nanosekundach), 0 - maksymalna prędkość. */
+    private final long periodNanos;
+    /** Największe opóźnienie (w taktach) nadrabiane bez oczekiwania. */
+    private final int maxCatchUp;
+    /** Źródło czasu (w nanosekundach). */
+    private final LongSupplier clock;
+    /** Termin następnego taktu (w nanosekundach). */
+    private long deadline;
+    /** Liczba wykonanych taktów. */
+    private long ticks;
+    /** Liczba taktów pominiętych po zbyt dużym opóźnieniu. */
+    private long droppedTicks;
+    /** Liczba taktów, na które harmonogram czekał (podstawa średniego jittera). */
+    private long waitedTicks;
+    /** Suma rozrzutu chwil wybudzenia względem terminów (w nanosekundach). */
+    private long jitterSum;
+    /** Największy rozrzut chwili wybudzenia względem terminu (w nanosekundach). */
+    private long maxJitter;
+    /** Liczba taktów rozpoczętych po terminie (przekroczenie okresu przez krok). */
+    private long lateTicks;
+    /** Największe opóźnienie taktu względem terminu (w nanosekundach). */
+    private long maxLag;
+
+    /**
+     * Tworzy harmonogram korzystający z zegara systemowego.
+     *
+     * @param ticksPerSecond docelowa liczba taktów na sekundę
+     * @param maxSpeed czy takty mają następować bez oczekiwania
+     * @param maxCatchUp największe opóźnienie (w taktach) nadrabiane bez oczekiwania
+     * @throws IllegalArgumentException jeśli częstotliwość nie jest dodatnia lub limit nadrabiania jest ujemny
+     */
+    TickPacer(double ticksPerSecond, boolean maxSpeed, int maxCatchUp) {
+        this(ticksPerSecond, maxSpeed, maxCatchUp, System::nanoTime);
+    }
+
+    /**
+     * Tworzy harmonogram z podanym źródłem czasu.
+     *
+     * @param ticksPerSecond docelowa liczba taktów na sekundę
+     * @param maxSpeed czy takty mają następować bez oczekiwania
+     * @param maxCatchUp największe opóźnienie (w taktach) nadrabiane bez oczekiwania
+     * @param clock źródło czasu (w nanosekundach)
+     * @throws IllegalArgumentException jeśli częstotliwość nie jest dodatnia lub limit nadrabiania jest ujemny
+     */
+    TickPacer(double ticksPerSecond, boolean maxSpeed, int maxCatchUp, LongSupplier clock) {
+        if (!(ticksPerSecond > 0) || maxCatchUp < 0) {
+            throw new IllegalArgumentException("Nieprawidłowe parametry tempa symulacji");
+        }
+        this.periodNanos = maxSpeed ? 0 : Math.max(1, Math.round(1_000_000_000L / ticksPerSecond));
+        this.maxCatchUp = maxCatchUp;
+        this.clock = clock;
+        this.deadline = clock.getAsLong() + periodNanos;
+    }
+
+    /**
+     * Tworzy harmonogram na podstawie konfiguracji.
+     *
+     * @param config konfiguracja symulacji
+     * @return harmonogram tempa kroków
+     */
+    static TickPacer fromConfig(ConfigLoader config) {
+        return new TickPacer(config.getPacingTicksPerSecond(), config.isPacingMaxSpeed(), config.getPacingMaxCatchUp());
+    }
+
+    /**
+     * Czeka do terminu następnego taktu. Przy maksymalnej prędkości wraca od razu.
+     * Przerwanie wątku kończy oczekiwanie (flaga przerwania pozostaje ustawiona).
+     */
+    void awaitNextTick() {
+        long now = clock.getAsLong();
+        long target = schedule(now);
+        if (target <= now) {
+            return;
+        }
+        long remaining;
+        while ((remaining = target - clock.getAsLong()) > 0 && !Thread.currentThread().isInterrupted()) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        markWoken(target, clock.getAsLong());
+    }
+
+    /**
+     * Wyznacza termin bieżącego taktu i przesuwa termin następnego o jeden okres. Takt po terminie
+     * rozpoczyna się od razu (nadrabianie) i jest liczony jako opóźniony; jeśli opóźnienie przekracza
+     * limit nadrabiania, pominięte takty są zliczane, a rytm liczony od chwili bieżącej.
+     *
+     * @param now bieżący czas (w nanosekundach)
+     * @return termin bieżącego taktu (w nanosekundach)
+     */
+    long schedule(long now) {
+        ticks++;
+        if (periodNanos == 0) {
+            return now;
+        }
+        long target = deadline;
+        long lag = now - target;
+        if (lag > 0) {
+            lateTicks++;
+            maxLag = Math.max(maxLag, lag);
+        }
+        if (lag > (long) maxCatchUp * periodNanos) {
+            droppedTicks += lag / periodNanos;
+            target = now;
+        }
+        deadline = target + periodNanos;
+        return target;
+    }
+
+    /**
+     * Rejestruje wybudzenie po oczekiwaniu na termin taktu (rozrzut chwili wybudzenia).
+     *
+     * @param target termin taktu (w nanosekundach)
+     * @param now chwila wybudzenia (w nanosekundach)
+     */
+    void markWoken(long target, long now) {
+        long offset = Math.abs(now - target);
+        waitedTicks++;
+        jitterSum += offset;
+        maxJitter = Math.max(maxJitter, offset);
+    }
+
+    /**
+     * Zwraca okres taktu.
+     * @return okres w nanosekundach (0 - maksymalna prędkość)
+     */
+    long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    /**
+     * Zwraca liczbę wykonanych taktów.
+     * @return liczba taktów
+     */
+    long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Zwraca liczbę taktów pominiętych po zbyt dużym opóźnieniu.
+     * @return liczba pominiętych taktów
+     */
+    long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    /**
+     * Zwraca liczbę taktów rozpoczętych po terminie.
+     * @return liczba opóźnionych taktów
+     */
+    long getLateTicks() {
+        return lateTicks;
+    }
+
+    /**
+     * Zwraca średni rozrzut chwil wybudzenia względem terminów.
+     * @return średni jitter w milisekundach
+     */
+    double getMeanJitterMillis() {
+        return waitedTicks == 0 ? 0 : jitterSum / (waitedTicks * 1e6);
+    }
+
+    /**
+     * Zwraca największy rozrzut chwili wybudzenia względem terminu.
+     * @return największy jitter w milisekundach
+     */
+    double getMaxJitterMillis() {
+        return maxJitter / 1e6;
+    }
+
+    /**
+     * Zwraca największe opóźnienie taktu względem jego terminu.
+     * @return największe opóźnienie w milisekundach
+     */
+    double getMaxLagMillis() {
+        return maxLag / 1e6;
+    }
+}
@@ -0,0 +1,554 @@
+package org.example;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Sieć przesyłowa energii: reaktory zasilają podstacje rozmieszczone na regularnej siatce,
+ * podstacje są połączone liniami o ograniczonej przepustowości z sąsiednimi podstacjami,
+ * a miasta pobierają energię z podstacji swojej komórki.
+ * Dostarczana moc jest maksymalnym przepływem od źródła (reaktory, pojemność = moc maksymalna)
+ * do ujścia (miasta, pojemność = zapotrzebowanie).
+ *
+ * <p>Przepływ jest utrzymywany przyrostowo. Zmniejszenie pojemności (awaria reaktora, spadek
+ * zapotrzebowania) cofa wyłącznie nadmiarowy przepływ wzdłuż ścieżek, które go niosły, a miasta,
+ * które straciły zasilanie, są naprawiane przeszukiwaniem wstecz od miasta po grafie residualnym,
+ * kończonym na pierwszym reaktorze z wolną mocą. Na koniec jedno przeszukiwanie od źródła
+ * potwierdza, że przepływ jest maksymalny; pełne rozwiązywanie od zera nie jest potrzebne.
+ */
+class TransmissionNetwork implements Serializable {
+    /** Wersja formatu serializacji (punkty kontrolne sesji). */
+    private static final long serialVersionUID = 1L;
+    /** Tolerancja porównań przepływu. */
+    private static final double EPS = 1e-9;
+    /** Przepustowość połączenia podstacji z miastem (praktycznie nieograniczona). */
+    private static final double LOCAL_CAPACITY = 1e12;
+    /** Węzeł źródła. */
+    private static final int SOURCE = 0;
+    /** Węzeł ujścia. */
+    private static final int SINK = 1;
+
+    /** Odległość między podstacjami (w jednostkach mapy). */
+    private final int spacing;
+    /** Liczba kolumn siatki podstacji. */
+    private final int columns;
+    /** Liczba wierszy siatki podstacji. */
+    private final int rows;
+
+    /** Liczba węzłów. */
+    private int nodeCount;
+    /** Pierwszy łuk listy sąsiedztwa węzła (-1, jeśli brak). */
+    private int[] firstArc;
+    /** Liczba łuków (łuki tworzą pary: łuk i jego odwrotność, indeksy e i e^1). */
+    private int arcCount;
+    /** Węzeł docelowy łuku. */
+    private int[] arcTo;
+    /** Następny łuk na liście sąsiedztwa. */
+    private int[] arcNext;
+    /** Pojemność łuku. */
+    private double[] capacity;
+    /** Przepływ łuku (przepływ łuku odwrotnego ma przeciwny znak). */
+    private double[] flow;
+
+    /** Łuk źródło-reaktor dla każdego reaktora. */
+    private final Map<Reactor, Integer> reactorArcs = new IdentityHashMap<>();
+    /** Łuk miasto-ujście dla każdego miasta. */
+    private final Map<City, Integer> cityArcs = new IdentityHashMap<>();
+
+    /** Łuki miasto-ujście wymagające naprawy przepływu (bufor roboczy). */
+    private int[] dirtyArcs = new int[16];
+    /** Liczba łuków oczekujących na naprawę. */
+    private int dirtyCount;
+    /** Znacznik odwiedzin węzła w bieżącym przeszukiwaniu. */
+    private transient int[] visitStamp;
+    /** Numer bieżącego przeszukiwania. */
+    private transient int stamp;
+    /** Łuk, którym dotarto do węzła w bieżącym przeszukiwaniu. */
+    private transient int[] parentArc;
+    /** Kolejka lub stos przeszukiwania. */
+    private transient int[] queue;
+
+    /**
+     * Konstruktor klasy TransmissionNetwork. Tworzy siatkę podstacji z liniami między sąsiadami.
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param spacing odległość między podstacjami
+     * @param lineCapacity przepustowość linii między sąsiednimi podstacjami (w MW)
+     * @throws IllegalArgumentException jeśli odległość jest mniejsza od 1 lub przepustowość jest ujemna
+     */
+    TransmissionNetwork(int width, int height, int spacing, double lineCapacity) {
+        if (spacing < 1 || lineCapacity < 0) {
+            throw new IllegalArgumentException("Nieprawidłowe parametry sieci przesyłowej");
+        }
+        this.spacing = spacing;
+        this.columns = Math.max(1, (width + spacing - 1) / spacing);
+        this.rows = Math.max(1, (height + spacing - 1) / spacing);
+        this.nodeCount = 2 + columns * rows;
+        this.firstArc = new int[Math.max(16, nodeCount * 2)];
+        Arrays.fill(firstArc, -1);
+        int arcs = Math.max(16, columns * rows * 8);
+        this.arcTo = new int[arcs];
+        this.arcNext = new int[arcs];
+        this.capacity = new double[arcs];
+        this.flow = new double[arcs];
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int node = substation(column, row);
+                if (column + 1 < columns) {
+                    addLine(node, substation(column + 1, row), lineCapacity);
+                }
+                if (row + 1 < rows) {
+                    addLine(node, substation(column, row + 1), lineCapacity);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tworzy kopię sieci z przepływem, w której reaktory i miasta są zastąpione ich kopiami.
+     *
+     * @param source kopiowana sieć
+     * @param copies odwzorowanie obiektów oryginalnych na ich kopie
+     */
+    private TransmissionNetwork(TransmissionNetwork source, Map<MapObject, MapObject> copies) {
+        this.spacing = source.spacing;
+        this.columns = source.columns;
+        this.rows = source.rows;
+        this.nodeCount = source.nodeCount;
+        this.firstArc = source.firstArc.clone();
+        this.arcCount = source.arcCount;
+        this.arcTo = source.arcTo.clone();
+        this.arcNext = source.arcNext.clone();
+        this.capacity = source.capacity.clone();
+        this.flow = source.flow.clone();
+        this.dirtyArcs = source.dirtyArcs.clone();
+        this.dirtyCount = source.dirtyCount;
+        source.reactorArcs.forEach((reactor, arc) -> reactorArcs.put((Reactor) copies.get(reactor), arc));
+        source.cityArcs.forEach((city, arc) -> cityArcs.put((City) copies.get(city), arc));
+    }
+
+    /**
+     * Zwraca kopię sieci dla rozgałęzionej mapy.
+     *
+     * @param copies odwzorowanie reaktorów i miast na ich kopie
+     * @return niezależna kopia sieci z bieżącym przepływem
+     */
+    TransmissionNetwork copy(Map<MapObject, MapObject> copies) {
+        return new TransmissionNetwork(this, copies);
+    }
+
+    /**
+     * Dodaje reaktor podłączony do podstacji swojej komórki.
+     *
+     * @param reactor reaktor
+     */
+    void addReactor(Reactor reactor) {
+        int node = addNode();
+        int[] position = reactor.getPosition();
+        reactorArcs.put(reactor, addArc(SOURCE, node, reactor.checkActivity() ? reactor.getMaxPower() : 0));
+        addArc(node, substationAt(position[0], position[1]), reactor.getMaxPower());
+    }
+
+    /**
+     * Dodaje miasto zasilane z podstacji swojej komórki.
+     *
+     * @param city miasto
+     */
+    void addCity(City city) {
+        int node = addNode();
+        int[] position = city.getPosition();
+        addArc(substationAt(position[0], position[1]), node, LOCAL_CAPACITY);
+        int arc = addArc(node, SINK, city.getEnergyUsage());
+        cityArcs.put(city, arc);
+        markDirty(arc);
+    }
+
+    /**
+     * Uwzględnia zmianę zapotrzebowania miasta (spadek cofa nadmiarowy przepływ od razu,
+     * wzrost jest obsługiwany przy najbliższym wywołaniu {@link #repair()}).
+     *
+     * @param city miasto
+     */
+    void updateDemand(City city) {
+        Integer arc = cityArcs.get(city);
+        if (arc != null) {
+            setCapacity(arc, city.getEnergyUsage());
+        }
+    }
+
+    /**
+     * Odłącza reaktor, który przestał działać, i naprawia przepływ w dotkniętym obszarze.
+     *
+     * @param reactor reaktor, który uległ awarii
+     */
+    void reactorFailed(Reactor reactor) {
+        Integer arc = reactorArcs.get(reactor);
+        if (arc != null && capacity[arc] > 0) {
+            setCapacity(arc, 0);
+            repair();
+        }
+    }
+
+    /**
+     * Naprawia przepływ: najpierw lokalnie dla miast, które straciły zasilanie lub zwiększyły
+     * zapotrzebowanie, a następnie sprawdza (jednym przeszukiwaniem od źródła), czy przepływ jest maksymalny.
+     */
+    void repair() {
+        ensureWorkspace();
+        while (dirtyCount > 0) {
+            int arc = dirtyArcs[--dirtyCount];
+            while (residual(arc) > EPS && augmentBackwardsFrom(arc)) {
+                // kolejne ścieżki do tego samego miasta
+            }
+        }
+        while (augmentFromSource()) {
+            // ścieżki powiększające, które nie kończą się w naprawianych miastach
+        }
+    }
+
+    /**
+     * Zwraca moc dostarczaną przez reaktor do sieci.
+     *
+     * @param reactor reaktor
+     * @return moc oddawana przez reaktor (w MW)
+     */
+    double getReactorOutput(Reactor reactor) {
+        Integer arc = reactorArcs.get(reactor);
+        return arc == null ? 0 : flow[arc];
+    }
+
+    /**
+     * Zwraca moc dostarczaną do miasta.
+     *
+     * @param city miasto
+     * @return moc dostarczana do miasta (w MW)
+     */
+    double getCitySupply(City city) {
+        Integer arc = cityArcs.get(city);
+        return arc == null ? 0 : flow[arc];
+    }
+
+    /**
+     * Zwraca łączną moc dostarczaną do wszystkich miast.
+     *
+     * @return wartość przepływu (w MW)
+     */
+    double getTotalDelivered() {
+        double total = 0;
+        for (int arc = firstArc[SINK]; arc != -1; arc = arcNext[arc]) {
+            total -= flow[arc];
+        }
+        return total;
+    }
+
+    /**
+     * Zwraca łączne niezaspokojone zapotrzebowanie miast.
+     *
+     * @return różnica między zapotrzebowaniem a dostarczoną mocą (w MW)
+     */
+    double getUnservedDemand() {
+        double unserved = 0;
+        for (int arc : cityArcs.values()) {
+            unserved += residual(arc);
+        }
+        return unserved;
+    }
+
+    /**
+     * Ustawia pojemność łuku. Jeśli przepływ przekracza nową pojemność, nadmiar jest cofany
+     * wzdłuż ścieżek, które go niosły: wstecz do źródła i naprzód do ujścia.
+     *
+     * @param arc indeks łuku
+     * @param newCapacity nowa pojemność
+     */
+    private void setCapacity(int arc, double newCapacity) {
+        ensureWorkspace();
+        double oldCapacity = capacity[arc];
+        capacity[arc] = newCapacity;
+        double excess = flow[arc] - newCapacity;
+        if (excess > EPS) {
+            push(arc, -excess);
+            int tail = arcTo[arc ^ 1];
+            int head = arcTo[arc];
+            if (tail != SOURCE) {
+                cancelFlow(tail, excess, false);
+            }
+            if (head != SINK) {
+                cancelFlow(head, excess, true);
+            }
+        }
+        if (arcTo[arc] == SINK && newCapacity > oldCapacity + EPS) {
+            markDirty(arc);
+        }
+    }
+
+    /**
+     * Cofa podaną ilość przepływu na ścieżkach łączących węzeł z ujściem (naprzód)
+     * lub ze źródłem (wstecz). Miasta, którym odebrano zasilanie, trafiają do naprawy.
+     *
+     * @param start węzeł, w którym powstała nierównowaga przepływu
+     * @param amount ilość przepływu do cofnięcia
+     * @param forward true - ścieżki do ujścia, false - ścieżki od źródła
+     */
+    private void cancelFlow(int start, double amount, boolean forward) {
+        int target = forward ? SINK : SOURCE;
+        while (amount > EPS) {
+            if (!findFlowPath(start, target, forward)) {
+                return; // przepływ zawiera wyłącznie cykle - nie ma czego cofać
+            }
+            double bottleneck = amount;
+            for (int node = target; node != start; ) {
+                int arc = parentArc[node];
+                bottleneck = Math.min(bottleneck, forward ? flow[arc] : -flow[arc]);
+                node = arcTo[arc ^ 1];
+            }
+            for (int node = target; node != start; ) {
+                int arc = parentArc[node];
+                push(arc, forward ? -bottleneck : bottleneck);
+                if (forward && node == SINK) {
+                    markDirty(arc);
+                }
+                node = arcTo[arc ^ 1];
+            }
+            amount -= bottleneck;
+        }
+    }
+
+    /**
+     * Wyszukuje (w głąb) ścieżkę z dodatnim przepływem od węzła do celu.
+     * Przy przeszukiwaniu wstecz przechodzi łukami o ujemnym przepływie, czyli pod prąd.
+     *
+     * @param start węzeł początkowy
+     * @param target węzeł docelowy
+     * @param forward kierunek przeszukiwania
+     * @return true, jeśli ścieżka istnieje (łuki w {@link #parentArc})
+     */
+    private boolean findFlowPath(int start, int target, boolean forward) {
+        stamp++;
+        int top = 0;
+        queue[top++] = start;
+        visitStamp[start] = stamp;
+        while (top > 0) {
+            int node = queue[--top];
+            for (int arc = firstArc[node]; arc != -1; arc = arcNext[arc]) {
+                int next = arcTo[arc];
+                boolean carries = forward ? flow[arc] > EPS : flow[arc] < -EPS;
+                if (carries && visitStamp[next] != stamp) {
+                    visitStamp[next] = stamp;
+                    parentArc[next] = arc;
+                    if (next == target) {
+                        return true;
+                    }
+                    queue[top++] = next;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Szuka ścieżki powiększającej kończącej się łukiem miasto-ujście, przeszukując graf residualny
+     * wstecz od miasta (wszerz), aż do źródła; przeszukiwanie obejmuje tylko najbliższe otoczenie
+     * miasta, dopóki nie znajdzie reaktora z wolną mocą.
+     *
+     * @param sinkArc łuk miasto-ujście
+     * @return true, jeśli przepływ został powiększony
+     */
+    private boolean augmentBackwardsFrom(int sinkArc) {
+        int city = arcTo[sinkArc ^ 1];
+        stamp++;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = city;
+        visitStamp[city] = stamp;
+        visitStamp[SINK] = stamp;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int arc = firstArc[node]; arc != -1; arc = arcNext[arc]) {
+                int previous = arcTo[arc];
+                int forwardArc = arc ^ 1;
+                if (visitStamp[previous] != stamp && residual(forwardArc) > EPS) {
+                    visitStamp[previous] = stamp;
+                    parentArc[previous] = forwardArc;
+                    if (previous == SOURCE) {
+                        double bottleneck = residual(sinkArc);
+                        for (int n = SOURCE; n != city; n = arcTo[parentArc[n]]) {
+                            bottleneck = Math.min(bottleneck, residual(parentArc[n]));
+                        }
+                        for (int n = SOURCE; n != city; n = arcTo[parentArc[n]]) {
+                            push(parentArc[n], bottleneck);
+                        }
+                        push(sinkArc, bottleneck);
+                        return true;
+                    }
+                    queue[tail++] = previous;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Szuka (wszerz, od źródła) dowolnej ścieżki powiększającej i powiększa wzdłuż niej przepływ.
+     *
+     * @return true, jeśli przepływ został powiększony
+     */
+    private boolean augmentFromSource() {
+        stamp++;
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = SOURCE;
+        visitStamp[SOURCE] = stamp;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int arc = firstArc[node]; arc != -1; arc = arcNext[arc]) {
+                int next = arcTo[arc];
+                if (visitStamp[next] != stamp && residual(arc) > EPS) {
+                    visitStamp[next] = stamp;
+                    parentArc[next] = arc;
+                    if (next == SINK) {
+                        double bottleneck = Double.MAX_VALUE;
+                        for (int n = SINK; n != SOURCE; n = arcTo[parentArc[n] ^ 1]) {
+                            bottleneck = Math.min(bottleneck, residual(parentArc[n]));
+                        }
+                        for (int n = SINK; n != SOURCE; n = arcTo[parentArc[n] ^ 1]) {
+                            push(parentArc[n], bottleneck);
+                        }
+                        return true;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Zwraca wolną pojemność łuku w grafie residualnym.
+     *
+     * @param arc indeks łuku
+     * @return pojemność pomniejszona o przepływ
+     */
+    private double residual(int arc) {
+        return capacity[arc] - flow[arc];
+    }
+
+    /**
+     * Zmienia przepływ łuku (i przeciwnie łuku odwrotnego).
+     *
+     * @param arc indeks łuku
+     * @param amount zmiana przepływu
+     */
+    private void push(int arc, double amount) {
+        flow[arc] += amount;
+        flow[arc ^ 1] -= amount;
+    }
+
+    /**
+     * Dodaje łuk miasto-ujście do naprawy.
+     *
+     * @param arc łuk miasto-ujście
+     */
+    private void markDirty(int arc) {
+        if (dirtyCount == dirtyArcs.length) {
+            dirtyArcs = Arrays.copyOf(dirtyArcs, dirtyCount * 2);
+        }
+        dirtyArcs[dirtyCount++] = arc;
+    }
+
+    /**
+     * Dodaje dwukierunkową linię między podstacjami (dwa łuki o tej samej pojemności).
+     *
+     * @param a pierwsza podstacja
+     * @param b druga podstacja
+     * @param lineCapacity przepustowość linii
+     */
+    private void addLine(int a, int b, double lineCapacity) {
+        addArc(a, b, lineCapacity);
+        addArc(b, a, lineCapacity);
+    }
+
+    /**
+     * Dodaje łuk wraz z łukiem odwrotnym o zerowej pojemności.
+     *
+     * @param from węzeł początkowy
+     * @param to węzeł końcowy
+     * @param arcCapacity pojemność łuku
+     * @return indeks dodanego łuku
+     */
+    private int addArc(int from, int to, double arcCapacity) {
+        if (arcCount + 2 > arcTo.length) {
+            int size = arcTo.length * 2;
+            arcTo = Arrays.copyOf(arcTo, size);
+            arcNext = Arrays.copyOf(arcNext, size);
+            capacity = Arrays.copyOf(capacity, size);
+            flow = Arrays.copyOf(flow, size);
+        }
+        int arc = arcCount;
+        arcTo[arc] = to;
+        capacity[arc] = arcCapacity;
+        arcNext[arc] = firstArc[from];
+        firstArc[from] = arc;
+        arcTo[arc + 1] = from;
+        capacity[arc + 1] = 0;
+        arcNext[arc + 1] = firstArc[to];
+        firstArc[to] = arc + 1;
+        arcCount += 2;
+        return arc;
+    }
+
+    /**
+     * Dodaje nowy węzeł.
+     *
+     * @return indeks węzła
+     */
+    private int addNode() {
+        if (nodeCount == firstArc.length) {
+            int size = nodeCount * 2;
+            firstArc = Arrays.copyOf(firstArc, size);
+            Arrays.fill(firstArc, nodeCount, size, -1);
+        }
+        return nodeCount++;
+    }
+
+    /**
+     * Przygotowuje bufory przeszukiwania o rozmiarze odpowiadającym liczbie węzłów.
+     */
+    private void ensureWorkspace() {
+        if (visitStamp == null || visitStamp.length < nodeCount) {
+            int size = firstArc.length;
+            visitStamp = new int[size];
+            parentArc = new int[size];
+            queue = new int[size];
+            stamp = 0;
+        }
+    }
+
+    /**
+     * Zwraca węzeł podstacji o podanym położeniu na siatce.
+     *
+     * @param column kolumna siatki
+     * @param row wiersz siatki
+     * @return indeks węzła
+     */
+    private int substation(int column, int row) {
+        return 2 + row * columns + column;
+    }
+
+    /**
+     * Zwraca węzeł podstacji obsługującej punkt mapy.
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @return indeks węzła
+     */
+    private int substationAt(int x, int y) {
+        int column = Math.min(columns - 1, Math.max(0, x / spacing));
+        int row = Math.min(rows - 1, Math.max(0, y / spacing));
+        return substation(column, row);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example;
+
+/**
+ * Widok mapy: powiększenie i przesunięcie.
+ * Przelicza współrzędne ekranu na współrzędne mapy i odwrotnie oraz wyznacza
+ * widoczny prostokąt mapy, używany do przycinania rysowanych obiektów.
+ */
+class Viewport {
+    /** Minimalne dozwolone powiększenie. */
+    static final double MIN_ZOOM = 0.005;
+    /** Maksymalne dozwolone powiększenie. */
+    static final double MAX_ZOOM = 16.0;
+
+    /** Współrzędna X mapy widoczna w lewym górnym rogu ekranu. */
+    private double offsetX;
+    /** Współrzędna Y mapy widoczna w lewym górnym rogu ekranu. */
+    private double offsetY;
+    /** Powiększenie (liczba pikseli ekranu na jednostkę mapy). */
+    private double zoom = 1.0;
+
+    /**
+     * Dopasowuje widok tak, aby cała mapa mieściła się na ekranie (bez powiększania ponad 1:1).
+     *
+     * @param mapWidth szerokość mapy
+     * @param mapHeight wysokość mapy
+     * @param screenWidth szerokość obszaru rysowania
+     * @param screenHeight wysokość obszaru rysowania
+     */
+    void fit(int mapWidth, int mapHeight, int screenWidth, int screenHeight) {
+        if (screenWidth <= 0 || screenHeight <= 0) {
+            return;
+        }
+        zoom = clampZoom(Math.min(1.0, Math.min((double) screenWidth / mapWidth, (double) screenHeight / mapHeight)));
+        offsetX = (mapWidth - screenWidth / zoom) / 2.0;
+        offsetY = (mapHeight - screenHeight / zoom) / 2.0;
+        if (zoom == 1.0) {
+            offsetX = Math.min(0, offsetX);
+            offsetY = Math.min(0, offsetY);
+        }
+    }
+
+    /**
+     * Zmienia powiększenie, zachowując pod kursorem ten sam punkt mapy.
+     *
+     * @param screenX współrzędna X kursora na ekranie
+     * @param screenY współrzędna Y kursora na ekranie
+     * @param factor mnożnik powiększenia
+     */
+    void zoomAt(int screenX, int screenY, double factor) {
+        double worldX = toWorldX(screenX);
+        double worldY = toWorldY(screenY);
+        zoom = clampZoom(zoom * factor);
+        offsetX = worldX - screenX / zoom;
+        offsetY = worldY - screenY / zoom;
+    }
+
+    /**
+     * Przesuwa widok o podaną liczbę pikseli ekranu.
+     *
+     * @param dxScreen przesunięcie w poziomie
+     * @param dyScreen przesunięcie w pionie
+     */
+    void pan(int dxScreen, int dyScreen) {
+        offsetX -= dxScreen / zoom;
+        offsetY -= dyScreen / zoom;
+    }
+
+    /**
+     * Przelicza współrzędną X ekranu na współrzędną X mapy.
+     *
+     * @param screenX współrzędna X ekranu
+     * @return współrzędna X mapy
+     */
+    double toWorldX(int screenX) {
+        return offsetX + screenX / zoom;
+    }
+
+    /**
+     * Przelicza współrzędną Y ekranu na współrzędną Y mapy.
+     *
+     * @param screenY współrzędna Y ekranu
+     * @return współrzędna Y mapy
+     */
+    double toWorldY(int screenY) {
+        return offsetY + screenY / zoom;
+    }
+
+    /**
+     * Ogranicza powiększenie do dozwolonego zakresu.
+     *
+     * @param value żądane powiększenie
+     * @return powiększenie w zakresie [MIN_ZOOM, MAX_ZOOM]
+     */
+    private static double clampZoom(double value) {
+        return Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, value));
+    }
+
+    double getOffsetX() { return offsetX; }
+    double getOffsetY() { return offsetY; }
+    double getZoom() { return zoom; }
+}
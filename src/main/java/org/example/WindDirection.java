@@ -0,0 +1,140 @@
+package org.example;
+
+import java.util.Random;
+
+/**
+ * Kierunek wiatru wraz z przeliczonym z góry wektorem przemieszczenia zanieczyszczeń.
+ * Wektory są stałymi enumeracji, więc wyznaczenie przemieszczenia to odczyt pola,
+ * bez tworzenia map ani tablic w każdym kroku.
+ */
+public enum WindDirection {
+    /** Wiatr północny. */
+    N(0, 1),
+    /** Wiatr północno-wschodni. */
+    NE(1, 1),
+    /** Wiatr wschodni. */
+    E(1, 0),
+    /** Wiatr południowo-wschodni. */
+    SE(1, -1),
+    /** Wiatr południowy. */
+    S(0, -1),
+    /** Wiatr południowo-zachodni. */
+    SW(-1, -1),
+    /** Wiatr zachodni. */
+    W(-1, 0),
+    /** Wiatr północno-zachodni. */
+    NW(-1, 1),
+    /** Cisza (brak wiatru). */
+    C(0, 0);
+
+    /** Przemieszczenie zanieczyszczenia wzdłuż jednej osi przy wietrze z tej osi (w jednostkach mapy na krok). */
+    static final int DRIFT_PER_STEP = 30;
+    /** Mnożnik siły wiatru zastosowany do przemieszczenia. */
+    static final double DRIFT_STRENGTH = 2.0;
+    /** Wszystkie kierunki (kopia tablicy tworzona raz, a nie przy każdym losowaniu). */
+    private static final WindDirection[] VALUES = values();
+
+    /** Przemieszczenie w osi X na krok. */
+    private final int driftX;
+    /** Przemieszczenie w osi Y na krok. */
+    private final int driftY;
+    /** Składowa X wektora jednostkowego kierunku. */
+    private final float unitX;
+    /** Składowa Y wektora jednostkowego kierunku. */
+    private final float unitY;
+
+    /**
+     * Konstruktor kierunku wiatru.
+     *
+     * @param dx składowa X kierunku (-1, 0 lub 1)
+     * @param dy składowa Y kierunku (-1, 0 lub 1)
+     */
+    WindDirection(int dx, int dy) {
+        this.driftX = (int) (dx * DRIFT_PER_STEP * DRIFT_STRENGTH);
+        this.driftY = (int) (dy * DRIFT_PER_STEP * DRIFT_STRENGTH);
+        double length = Math.sqrt(dx * dx + dy * dy);
+        this.unitX = length == 0 ? 0 : (float) (dx / length);
+        this.unitY = length == 0 ? 0 : (float) (dy / length);
+    }
+
+    /**
+     * Losuje kierunek wiatru (wszystkie kierunki, łącznie z ciszą, są jednakowo prawdopodobne).
+     *
+     * @param random generator liczb losowych
+     * @return wylosowany kierunek
+     */
+    static WindDirection random(Random random) {
+        return VALUES[random.nextInt(VALUES.length)];
+    }
+
+    /**
+     * Zamienia nazwę kierunku na kierunek wiatru. Nieznana nazwa oznacza ciszę.
+     *
+     * @param name nazwa kierunku (np. "NE")
+     * @return kierunek wiatru
+     */
+    static WindDirection parse(String name) {
+        for (WindDirection direction : VALUES) {
+            if (direction.name().equals(name)) {
+                return direction;
+            }
+        }
+        return C;
+    }
+
+    /**
+     * Wyznacza kierunek najbliższy podanemu wektorowi wiatru.
+     *
+     * @param vx składowa X wektora wiatru
+     * @param vy składowa Y wektora wiatru
+     * @param calmThreshold długość wektora, poniżej której wiatr jest uznawany za ciszę
+     * @return kierunek wiatru
+     */
+    static WindDirection fromVector(float vx, float vy, float calmThreshold) {
+        if (vx * vx + vy * vy < calmThreshold * calmThreshold) {
+            return C;
+        }
+        WindDirection best = C;
+        float bestDot = Float.NEGATIVE_INFINITY;
+        for (WindDirection direction : VALUES) {
+            float dot = direction.unitX * vx + direction.unitY * vy;
+            if (direction != C && dot > bestDot) {
+                bestDot = dot;
+                best = direction;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Zwraca przemieszczenie zanieczyszczenia w osi X na krok.
+     * @return przemieszczenie w osi X
+     */
+    int getDriftX() {
+        return driftX;
+    }
+
+    /**
+     * Zwraca przemieszczenie zanieczyszczenia w osi Y na krok.
+     * @return przemieszczenie w osi Y
+     */
+    int getDriftY() {
+        return driftY;
+    }
+
+    /**
+     * Zwraca składową X wektora jednostkowego kierunku.
+     * @return składowa X (0 dla ciszy)
+     */
+    float getUnitX() {
+        return unitX;
+    }
+
+    /**
+     * Zwraca składową Y wektora jednostkowego kierunku.
+     * @return składowa Y (0 dla ciszy)
+     */
+    float getUnitY() {
+        return unitY;
+    }
+}
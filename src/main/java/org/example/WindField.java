@@ -0,0 +1,122 @@
+package org.example;
+
+import java.io.Serializable;
+import java.util.Random;
+
+/**
+ * Przestrzennie zmienne pole wiatru: siatka komórek, z których każda ma własny wektor wiatru.
+ * W każdym kroku wektory komórek są przyciągane do wiatru globalnego i lekko zaburzane losowo,
+ * więc pole zmienia się stopniowo, a sąsiednie regiony mapy mogą mieć różny kierunek wiatru.
+ * Kierunek każdej komórki jest wyznaczany raz na krok, więc odczyt wiatru lokalnego to odczyt z tablicy.
+ */
+class WindField implements Serializable {
+    /** Wersja formatu serializacji (punkty kontrolne sesji). */
+    private static final long serialVersionUID = 1L;
+    /** Długość wektora wiatru, poniżej której komórka ma ciszę. */
+    private static final float CALM_THRESHOLD = 0.35f;
+
+    /** Rozmiar boku komórki (w jednostkach mapy). */
+    private final int cellSize;
+    /** Liczba kolumn siatki. */
+    private final int columns;
+    /** Liczba wierszy siatki. */
+    private final int rows;
+    /** Współczynnik przyciągania wektora komórki do wiatru globalnego w jednym kroku (0-1). */
+    private final float relaxation;
+    /** Amplituda losowego zaburzenia wektora komórki w jednym kroku. */
+    private final float turbulence;
+    /** Składowe X wektorów wiatru komórek. */
+    private final float[] vx;
+    /** Składowe Y wektorów wiatru komórek. */
+    private final float[] vy;
+    /** Kierunki wiatru komórek, wyznaczone z wektorów po ostatniej aktualizacji. */
+    private final WindDirection[] directions;
+
+    /**
+     * Konstruktor klasy WindField. Wszystkie komórki zaczynają od wiatru początkowego.
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param cellSize rozmiar komórki
+     * @param relaxation współczynnik przyciągania do wiatru globalnego (0-1)
+     * @param turbulence amplituda losowego zaburzenia
+     * @param initial początkowy kierunek wiatru
+     * @throws IllegalArgumentException jeśli rozmiar komórki jest mniejszy od 1 lub współczynnik spoza 0-1
+     */
+    WindField(int width, int height, int cellSize, float relaxation, float turbulence, WindDirection initial) {
+        if (cellSize < 1) {
+            throw new IllegalArgumentException("Rozmiar komórki pola wiatru musi być większy od 0");
+        }
+        if (relaxation < 0 || relaxation > 1 || turbulence < 0) {
+            throw new IllegalArgumentException("Nieprawidłowe parametry pola wiatru");
+        }
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        this.relaxation = relaxation;
+        this.turbulence = turbulence;
+        this.vx = new float[columns * rows];
+        this.vy = new float[columns * rows];
+        this.directions = new WindDirection[columns * rows];
+        for (int cell = 0; cell < directions.length; cell++) {
+            vx[cell] = initial.getUnitX();
+            vy[cell] = initial.getUnitY();
+            directions[cell] = initial;
+        }
+    }
+
+    /**
+     * Tworzy niezależną kopię pola (przy rozgałęzianiu symulacji).
+     *
+     * @param source kopiowane pole
+     */
+    private WindField(WindField source) {
+        this.cellSize = source.cellSize;
+        this.columns = source.columns;
+        this.rows = source.rows;
+        this.relaxation = source.relaxation;
+        this.turbulence = source.turbulence;
+        this.vx = source.vx.clone();
+        this.vy = source.vy.clone();
+        this.directions = source.directions.clone();
+    }
+
+    /**
+     * Zwraca niezależną kopię pola wiatru.
+     *
+     * @return kopia pola
+     */
+    WindField copy() {
+        return new WindField(this);
+    }
+
+    /**
+     * Wykonuje krok ewolucji pola: przyciąga wektory komórek do wiatru globalnego,
+     * dodaje zaburzenie losowe i wyznacza nowe kierunki komórek.
+     *
+     * @param global aktualny wiatr globalny
+     * @param random generator liczb losowych
+     */
+    void update(WindDirection global, Random random) {
+        float targetX = global.getUnitX();
+        float targetY = global.getUnitY();
+        for (int cell = 0; cell < directions.length; cell++) {
+            vx[cell] += relaxation * (targetX - vx[cell]) + turbulence * (random.nextFloat() * 2 - 1);
+            vy[cell] += relaxation * (targetY - vy[cell]) + turbulence * (random.nextFloat() * 2 - 1);
+            directions[cell] = WindDirection.fromVector(vx[cell], vy[cell], CALM_THRESHOLD);
+        }
+    }
+
+    /**
+     * Zwraca kierunek wiatru w punkcie mapy. Punkty poza mapą należą do skrajnych komórek.
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @return lokalny kierunek wiatru
+     */
+    WindDirection directionAt(int x, int y) {
+        int column = Math.min(columns - 1, Math.max(0, x / cellSize));
+        int row = Math.min(rows - 1, Math.max(0, y / cellSize));
+        return directions[row * columns + column];
+    }
+}
@@ -0,0 +1,311 @@
+package org.example;
+
+/**
+ * Agregaty świata utrzymywane przyrostowo: obiekty mapy zgłaszają zmianę swojego wkładu
+ * (populacji, zapotrzebowania, skażenia, obciążenia, aktywności) przy każdej zmianie stanu,
+ * więc sumy globalne są dostępne w czasie stałym, a sumy regionalne w czasie proporcjonalnym
+ * do liczby regionów. Regiony to kwadratowe komórki siatki o boku z konfiguracji.
+ * Rozkłady skażenia miast i obciążenia aktywnych reaktorów są opisane szkicami kwantyli
+ * ({@link QuantileSketch}) - globalnymi oraz dla każdego regionu (szkice regionów można scalać).
+ */
+class WorldAggregates {
+    /** Rozmiar boku regionu (w jednostkach mapy). */
+    private final int regionSize;
+    /** Liczba kolumn regionów. */
+    private final int columns;
+    /** Liczba wierszy regionów. */
+    private final int rows;
+    /** Względna dokładność szkiców kwantyli. */
+    private final double accuracy;
+
+    /** Łączna populacja miast. */
+    private long totalPopulation;
+    /** Łączne zapotrzebowanie miast na energię (w MW). */
+    private double totalEnergyDemand;
+    /** Liczba aktywnych reaktorów. */
+    private int activeReactors;
+    /** Liczba aktywnych zanieczyszczeń. */
+    private int activePollutions;
+    /** Rozkład skażenia wszystkich miast. */
+    private final QuantileSketch cityPollution;
+    /** Rozkład obciążenia aktywnych reaktorów (w procentach mocy maksymalnej). */
+    private final QuantileSketch reactorLoad;
+
+    /** Populacja miast w regionie. */
+    private final long[] regionPopulation;
+    /** Zapotrzebowanie miast regionu na energię. */
+    private final double[] regionEnergyDemand;
+    /** Liczba aktywnych reaktorów w regionie. */
+    private final int[] regionActiveReactors;
+    /** Rozkład skażenia miast w regionie. */
+    private final QuantileSketch[] regionCityPollution;
+    /** Rozkład obciążenia aktywnych reaktorów w regionie. */
+    private final QuantileSketch[] regionReactorLoad;
+
+    /**
+     * Tworzy puste agregaty dla mapy o podanych wymiarach.
+     *
+     * @param width szerokość mapy
+     * @param height wysokość mapy
+     * @param regionSize rozmiar boku regionu
+     * @param accuracy względna dokładność szkiców kwantyli
+     * @throws IllegalArgumentException jeśli rozmiar regionu jest mniejszy od 1 lub dokładność spoza przedziału (0, 1)
+     */
+    WorldAggregates(int width, int height, int regionSize, double accuracy) {
+        if (regionSize < 1) {
+            throw new IllegalArgumentException("Rozmiar regionu musi być większy od 0");
+        }
+        this.regionSize = regionSize;
+        this.columns = (width + regionSize - 1) / regionSize;
+        this.rows = (height + regionSize - 1) / regionSize;
+        this.accuracy = accuracy;
+        this.cityPollution = new QuantileSketch(accuracy);
+        this.reactorLoad = new QuantileSketch(accuracy);
+        int regions = columns * rows;
+        this.regionPopulation = new long[regions];
+        this.regionEnergyDemand = new double[regions];
+        this.regionActiveReactors = new int[regions];
+        this.regionCityPollution = new QuantileSketch[regions];
+        this.regionReactorLoad = new QuantileSketch[regions];
+        for (int r = 0; r < regions; r++) {
+            regionCityPollution[r] = new QuantileSketch(accuracy);
+            regionReactorLoad[r] = new QuantileSketch(accuracy);
+        }
+    }
+
+    /**
+     * Tworzy puste agregaty o tym samym podziale na regiony i dokładności.
+     *
+     * @return puste agregaty
+     */
+    WorldAggregates emptyCopy() {
+        return new WorldAggregates(columns * regionSize, rows * regionSize, regionSize, accuracy);
+    }
+
+    /**
+     * Wyznacza region zawierający punkt (punkty spoza mapy trafiają do skrajnych regionów).
+     *
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @return numer regionu
+     */
+    int regionOf(int x, int y) {
+        int column = Math.min(columns - 1, Math.max(0, x / regionSize));
+        int row = Math.min(rows - 1, Math.max(0, y / regionSize));
+        return row * columns + column;
+    }
+
+    /**
+     * Uwzględnia zmianę wkładu miasta.
+     *
+     * @param region region miasta
+     * @param populationDelta zmiana populacji
+     * @param energyDelta zmiana zapotrzebowania na energię
+     * @param previousPollution poprzedni poziom skażenia (NaN, jeśli miasto nie było jeszcze zgłoszone)
+     * @param pollution bieżący poziom skażenia
+     */
+    void updateCity(int region, long populationDelta, double energyDelta, float previousPollution, float pollution) {
+        totalPopulation += populationDelta;
+        regionPopulation[region] += populationDelta;
+        totalEnergyDemand += energyDelta;
+        regionEnergyDemand[region] += energyDelta;
+        if (Float.isNaN(previousPollution)) {
+            cityPollution.add(pollution);
+            regionCityPollution[region].add(pollution);
+        } else if (previousPollution != pollution) {
+            cityPollution.replace(previousPollution, pollution);
+            regionCityPollution[region].replace(previousPollution, pollution);
+        }
+    }
+
+    /**
+     * Uwzględnia zmianę wkładu reaktora (aktywność i obciążenie są zgłaszane tylko dla aktywnego reaktora).
+     *
+     * @param region region reaktora
+     * @param wasActive czy reaktor był zgłoszony jako aktywny
+     * @param previousLoad poprzednie obciążenie (w procentach)
+     * @param active czy reaktor jest aktywny
+     * @param load bieżące obciążenie (w procentach)
+     */
+    void updateReactor(int region, boolean wasActive, float previousLoad, boolean active, float load) {
+        if (wasActive && active) {
+            if (previousLoad != load) {
+                reactorLoad.replace(previousLoad, load);
+                regionReactorLoad[region].replace(previousLoad, load);
+            }
+            return;
+        }
+        if (wasActive) {
+            activeReactors--;
+            regionActiveReactors[region]--;
+            reactorLoad.remove(previousLoad);
+            regionReactorLoad[region].remove(previousLoad);
+        }
+        if (active) {
+            activeReactors++;
+            regionActiveReactors[region]++;
+            reactorLoad.add(load);
+            regionReactorLoad[region].add(load);
+        }
+    }
+
+    /**
+     * Uwzględnia zmianę aktywności zanieczyszczenia.
+     *
+     * @param wasActive czy zanieczyszczenie było zgłoszone jako aktywne
+     * @param active czy zanieczyszczenie jest aktywne
+     */
+    void updatePollution(boolean wasActive, boolean active) {
+        activePollutions += (active ? 1 : 0) - (wasActive ? 1 : 0);
+    }
+
+    /**
+     * Zwraca łączną populację miast.
+     * @return łączna populacja
+     */
+    long getTotalPopulation() {
+        return totalPopulation;
+    }
+
+    /**
+     * Zwraca łączne zapotrzebowanie miast na energię.
+     * @return łączne zapotrzebowanie (w MW)
+     */
+    double getTotalEnergyDemand() {
+        return totalEnergyDemand;
+    }
+
+    /**
+     * Zwraca liczbę aktywnych reaktorów.
+     * @return liczba aktywnych reaktorów
+     */
+    int getActiveReactors() {
+        return activeReactors;
+    }
+
+    /**
+     * Zwraca liczbę aktywnych zanieczyszczeń.
+     * @return liczba aktywnych zanieczyszczeń
+     */
+    int getActivePollutions() {
+        return activePollutions;
+    }
+
+    /**
+     * Zwraca szkic rozkładu skażenia wszystkich miast.
+     * @return szkic kwantyli skażenia
+     */
+    QuantileSketch getCityPollution() {
+        return cityPollution;
+    }
+
+    /**
+     * Zwraca szkic rozkładu obciążenia aktywnych reaktorów (w procentach mocy maksymalnej).
+     * @return szkic kwantyli obciążenia
+     */
+    QuantileSketch getReactorLoad() {
+        return reactorLoad;
+    }
+
+    /**
+     * Zwraca liczbę regionów.
+     * @return liczba regionów
+     */
+    int getRegionCount() {
+        return columns * rows;
+    }
+
+    /**
+     * Zwraca liczbę kolumn regionów.
+     * @return liczba kolumn
+     */
+    int getRegionColumns() {
+        return columns;
+    }
+
+    /**
+     * Zwraca populację miast regionu.
+     *
+     * @param region numer regionu
+     * @return populacja regionu
+     */
+    long getRegionPopulation(int region) {
+        return regionPopulation[region];
+    }
+
+    /**
+     * Zwraca zapotrzebowanie miast regionu na energię.
+     *
+     * @param region numer regionu
+     * @return zapotrzebowanie regionu (w MW)
+     */
+    double getRegionEnergyDemand(int region) {
+        return regionEnergyDemand[region];
+    }
+
+    /**
+     * Zwraca liczbę aktywnych reaktorów regionu.
+     *
+     * @param region numer regionu
+     * @return liczba aktywnych reaktorów
+     */
+    int getRegionActiveReactors(int region) {
+        return regionActiveReactors[region];
+    }
+
+    /**
+     * Zwraca szkic rozkładu skażenia miast regionu.
+     *
+     * @param region numer regionu
+     * @return szkic kwantyli skażenia
+     */
+    QuantileSketch getRegionCityPollution(int region) {
+        return regionCityPollution[region];
+    }
+
+    /**
+     * Zwraca szkic rozkładu obciążenia aktywnych reaktorów regionu.
+     *
+     * @param region numer regionu
+     * @return szkic kwantyli obciążenia
+     */
+    QuantileSketch getRegionReactorLoad(int region) {
+        return regionReactorLoad[region];
+    }
+
+    /**
+     * Scala szkice skażenia miast regionów przecinających prostokąt mapy.
+     *
+     * @param minX lewa krawędź prostokąta
+     * @param minY górna krawędź prostokąta
+     * @param maxX prawa krawędź prostokąta
+     * @param maxY dolna krawędź prostokąta
+     * @return nowy szkic obejmujący miasta tych regionów
+     */
+    QuantileSketch cityPollutionIn(int minX, int minY, int maxX, int maxY) {
+        QuantileSketch merged = new QuantileSketch(accuracy);
+        int first = regionOf(minX, minY);
+        int last = regionOf(maxX, maxY);
+        for (int row = first / columns; row <= last / columns; row++) {
+            for (int column = first % columns; column <= last % columns; column++) {
+                merged.merge(regionCityPollution[row * columns + column]);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Zwraca region o największym zapotrzebowaniu na energię.
+     *
+     * @return numer regionu (0, jeśli wszystkie regiony są puste)
+     */
+    int peakDemandRegion() {
+        int peak = 0;
+        for (int r = 1; r < regionEnergyDemand.length; r++) {
+            if (regionEnergyDemand[r] > regionEnergyDemand[peak]) {
+                peak = r;
+            }
+        }
+        return peak;
+    }
+}
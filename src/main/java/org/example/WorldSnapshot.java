@@ -0,0 +1,464 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migawka stanu świata symulacji w danym kroku.
+ * Przechowuje pola wszystkich miast, reaktorów i zanieczyszczeń w tablicach typów prostych,
+ * dzięki czemu może być bezpiecznie przekazywana między wątkami (symulacja, GUI, zapis przebiegu)
+ * bez odwoływania się do żywych obiektów mapy.
+ * Obiekty są indeksowane w kolejności dodania do mapy (listy na mapie są tylko powiększane).
+ */
+class WorldSnapshot {
+    /** Numer kroku symulacji. */
+    int step;
+    /** Szerokość mapy. */
+    int width;
+    /** Wysokość mapy. */
+    int height;
+    /** Kierunek wiatru. */
+    String windDirection;
+    /** Skrót stanu świata (0, jeśli migawka nie pochodzi z działającej symulacji). */
+    long stateDigest;
+
+    /** Liczba miast. */
+    int cityCount;
+    /** Identyfikatory miast. */
+    int[] cityId;
+    /** Współrzędne X miast. */
+    int[] cityX;
+    /** Współrzędne Y miast. */
+    int[] cityY;
+    /** Populacje miast. */
+    int[] cityPopulation;
+    /** Początkowe populacje miast. */
+    int[] cityOriginalPopulation;
+    /** Zapotrzebowanie miast na energię (MW). */
+    float[] cityEnergyUsage;
+    /** Poziomy skażenia miast (%). */
+    float[] cityPollution;
+    /** Indeks reaktora zasilającego miasto w tablicach reaktorów (-1, jeśli brak). */
+    int[] cityReactorIndex;
+
+    /** Liczba reaktorów. */
+    int reactorCount;
+    /** Identyfikatory reaktorów. */
+    int[] reactorId;
+    /** Współrzędne X reaktorów. */
+    int[] reactorX;
+    /** Współrzędne Y reaktorów. */
+    int[] reactorY;
+    /** Poziomy technologiczne reaktorów. */
+    int[] reactorLevel;
+    /** Maksymalne moce reaktorów (MW). */
+    float[] reactorMaxPower;
+    /** Aktualne obciążenia reaktorów (MW). */
+    float[] reactorCurrentPower;
+    /** Wytrzymałości reaktorów (0.0 - 1.0). */
+    float[] reactorDurability;
+    /** Aktywność reaktorów. */
+    boolean[] reactorActive;
+
+    /** Liczba zanieczyszczeń. */
+    int pollutionCount;
+    /** Identyfikatory zanieczyszczeń. */
+    int[] pollutionId;
+    /** Współrzędne X zanieczyszczeń. */
+    int[] pollutionX;
+    /** Współrzędne Y zanieczyszczeń. */
+    int[] pollutionY;
+    /** Promienie zanieczyszczeń. */
+    float[] pollutionRadius;
+    /** Aktywność zanieczyszczeń. */
+    boolean[] pollutionActive;
+
+    /** Rozmiar komórki indeksów przestrzennych (w jednostkach mapy). */
+    static final int INDEX_CELL_SIZE = 32;
+    /** Indeks przestrzenny miast (budowany przy pierwszym użyciu). */
+    private SpatialGrid cityGrid;
+    /** Indeks przestrzenny reaktorów (budowany przy pierwszym użyciu). */
+    private SpatialGrid reactorGrid;
+    /** Indeks przestrzenny zanieczyszczeń (budowany przy pierwszym użyciu). */
+    private SpatialGrid pollutionGrid;
+    /** Największy promień aktywnego zanieczyszczenia (wyznaczany razem z indeksem). */
+    private float maxPollutionRadius;
+
+    /**
+     * Tworzy pustą migawkę o podanych pojemnościach tablic.
+     *
+     * @param cityCapacity pojemność tablic miast
+     * @param reactorCapacity pojemność tablic reaktorów
+     * @param pollutionCapacity pojemność tablic zanieczyszczeń
+     */
+    WorldSnapshot(int cityCapacity, int reactorCapacity, int pollutionCapacity) {
+        allocateCities(cityCapacity);
+        allocateReactors(reactorCapacity);
+        allocatePollutions(pollutionCapacity);
+    }
+
+    /**
+     * Tworzy migawkę bieżącego stanu mapy.
+     * Musi być wywoływana z wątku symulacji, pomiędzy krokami.
+     *
+     * @param map mapa terenu
+     * @param step numer kroku
+     * @return migawka stanu świata
+     */
+    static WorldSnapshot capture(TerrainMap map, int step) {
+        List<City> cities = map.getCities();
+        List<Reactor> reactors = map.getReactors();
+        List<Pollution> pollutions = map.getPollutions();
+
+        WorldSnapshot snapshot = new WorldSnapshot(cities.size(), reactors.size(), pollutions.size());
+        snapshot.step = step;
+        snapshot.width = map.getWidth();
+        snapshot.height = map.getHeight();
+        snapshot.windDirection = map.getWindDirection();
+        snapshot.stateDigest = map.stateDigest();
+
+        Map<Reactor, Integer> reactorIndices = new IdentityHashMap<>(reactors.size() * 2);
+        for (int i = 0; i < reactors.size(); i++) {
+            Reactor reactor = reactors.get(i);
+            reactorIndices.put(reactor, i);
+            int[] pos = reactor.getPosition();
+            snapshot.setReactor(i, reactor.getId(), pos[0], pos[1], reactor.getReactorLevel(),
+                    reactor.getMaxPower(), reactor.getCurrentPower(), reactor.getDurability(), reactor.checkActivity());
+        }
+        snapshot.reactorCount = reactors.size();
+
+        for (int i = 0; i < cities.size(); i++) {
+            City city = cities.get(i);
+            int[] pos = city.getPosition();
+            Integer reactorIndex = city.getReactor() == null ? null : reactorIndices.get(city.getReactor());
+            snapshot.setCity(i, city.getId(), pos[0], pos[1], city.getPopulation(), city.getOriginalPopulation(),
+                    city.getEnergyUsage(), city.getPollutionLevel(), reactorIndex == null ? -1 : reactorIndex);
+        }
+        snapshot.cityCount = cities.size();
+
+        for (int i = 0; i < pollutions.size(); i++) {
+            Pollution pollution = pollutions.get(i);
+            int[] pos = pollution.getPosition();
+            snapshot.setPollution(i, pollution.getId(), pos[0], pos[1], pollution.getRadius(), pollution.checkActivity());
+        }
+        snapshot.pollutionCount = pollutions.size();
+        return snapshot;
+    }
+
+    /**
+     * Zapisuje stan miasta pod podanym indeksem.
+     *
+     * @param i indeks miasta
+     * @param id identyfikator miasta
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param population populacja
+     * @param originalPopulation początkowa populacja
+     * @param energyUsage zapotrzebowanie na energię
+     * @param pollution poziom skażenia
+     * @param reactorIndex indeks reaktora zasilającego (-1, jeśli brak)
+     */
+    void setCity(int i, int id, int x, int y, int population, int originalPopulation,
+                 float energyUsage, float pollution, int reactorIndex) {
+        cityId[i] = id;
+        cityX[i] = x;
+        cityY[i] = y;
+        cityPopulation[i] = population;
+        cityOriginalPopulation[i] = originalPopulation;
+        cityEnergyUsage[i] = energyUsage;
+        cityPollution[i] = pollution;
+        cityReactorIndex[i] = reactorIndex;
+    }
+
+    /**
+     * Zapisuje stan reaktora pod podanym indeksem.
+     *
+     * @param i indeks reaktora
+     * @param id identyfikator reaktora
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param level poziom technologiczny
+     * @param maxPower maksymalna moc
+     * @param currentPower aktualne obciążenie
+     * @param durability wytrzymałość
+     * @param active aktywność reaktora
+     */
+    void setReactor(int i, int id, int x, int y, int level, float maxPower, float currentPower,
+                    float durability, boolean active) {
+        reactorId[i] = id;
+        reactorX[i] = x;
+        reactorY[i] = y;
+        reactorLevel[i] = level;
+        reactorMaxPower[i] = maxPower;
+        reactorCurrentPower[i] = currentPower;
+        reactorDurability[i] = durability;
+        reactorActive[i] = active;
+    }
+
+    /**
+     * Zapisuje stan zanieczyszczenia pod podanym indeksem.
+     *
+     * @param i indeks zanieczyszczenia
+     * @param id identyfikator zanieczyszczenia
+     * @param x współrzędna X
+     * @param y współrzędna Y
+     * @param radius promień rażenia
+     * @param active aktywność zanieczyszczenia
+     */
+    void setPollution(int i, int id, int x, int y, float radius, boolean active) {
+        pollutionId[i] = id;
+        pollutionX[i] = x;
+        pollutionY[i] = y;
+        pollutionRadius[i] = radius;
+        pollutionActive[i] = active;
+    }
+
+    /**
+     * Sprawdza, czy miasto o danym indeksie ma taki sam stan jak w innej migawce.
+     *
+     * @param other migawka porównywana
+     * @param i indeks miasta
+     * @return true, jeśli stan miasta się nie zmienił
+     */
+    boolean sameCity(WorldSnapshot other, int i) {
+        return i < other.cityCount
+                && cityId[i] == other.cityId[i]
+                && cityX[i] == other.cityX[i]
+                && cityY[i] == other.cityY[i]
+                && cityPopulation[i] == other.cityPopulation[i]
+                && cityOriginalPopulation[i] == other.cityOriginalPopulation[i]
+                && cityEnergyUsage[i] == other.cityEnergyUsage[i]
+                && cityPollution[i] == other.cityPollution[i]
+                && cityReactorIndex[i] == other.cityReactorIndex[i];
+    }
+
+    /**
+     * Sprawdza, czy reaktor o danym indeksie ma taki sam stan jak w innej migawce.
+     *
+     * @param other migawka porównywana
+     * @param i indeks reaktora
+     * @return true, jeśli stan reaktora się nie zmienił
+     */
+    boolean sameReactor(WorldSnapshot other, int i) {
+        return i < other.reactorCount
+                && reactorId[i] == other.reactorId[i]
+                && reactorX[i] == other.reactorX[i]
+                && reactorY[i] == other.reactorY[i]
+                && reactorLevel[i] == other.reactorLevel[i]
+                && reactorMaxPower[i] == other.reactorMaxPower[i]
+                && reactorCurrentPower[i] == other.reactorCurrentPower[i]
+                && reactorDurability[i] == other.reactorDurability[i]
+                && reactorActive[i] == other.reactorActive[i];
+    }
+
+    /**
+     * Sprawdza, czy zanieczyszczenie o danym indeksie ma taki sam stan jak w innej migawce.
+     *
+     * @param other migawka porównywana
+     * @param i indeks zanieczyszczenia
+     * @return true, jeśli stan zanieczyszczenia się nie zmienił
+     */
+    boolean samePollution(WorldSnapshot other, int i) {
+        return i < other.pollutionCount
+                && pollutionId[i] == other.pollutionId[i]
+                && pollutionX[i] == other.pollutionX[i]
+                && pollutionY[i] == other.pollutionY[i]
+                && pollutionRadius[i] == other.pollutionRadius[i]
+                && pollutionActive[i] == other.pollutionActive[i];
+    }
+
+    /**
+     * Zwraca indeks przestrzenny miast, budując go przy pierwszym wywołaniu.
+     * Migawka nie zmienia się po utworzeniu, więc indeks jest ważny przez cały jej czas życia.
+     *
+     * @return indeks przestrzenny miast
+     */
+    SpatialGrid cityGrid() {
+        if (cityGrid == null) {
+            cityGrid = new SpatialGrid(width, height, INDEX_CELL_SIZE, cityX, cityY, cityCount);
+        }
+        return cityGrid;
+    }
+
+    /**
+     * Zwraca indeks przestrzenny reaktorów, budując go przy pierwszym wywołaniu.
+     *
+     * @return indeks przestrzenny reaktorów
+     */
+    SpatialGrid reactorGrid() {
+        if (reactorGrid == null) {
+            reactorGrid = new SpatialGrid(width, height, INDEX_CELL_SIZE, reactorX, reactorY, reactorCount);
+        }
+        return reactorGrid;
+    }
+
+    /**
+     * Zwraca indeks przestrzenny zanieczyszczeń, budując go przy pierwszym wywołaniu.
+     *
+     * @return indeks przestrzenny zanieczyszczeń
+     */
+    SpatialGrid pollutionGrid() {
+        if (pollutionGrid == null) {
+            pollutionGrid = new SpatialGrid(width, height, INDEX_CELL_SIZE, pollutionX, pollutionY, pollutionCount);
+            for (int i = 0; i < pollutionCount; i++) {
+                if (pollutionActive[i]) {
+                    maxPollutionRadius = Math.max(maxPollutionRadius, pollutionRadius[i]);
+                }
+            }
+        }
+        return pollutionGrid;
+    }
+
+    /**
+     * Zwraca największy promień aktywnego zanieczyszczenia.
+     *
+     * @return największy promień (0, jeśli brak aktywnych zanieczyszczeń)
+     */
+    float getMaxPollutionRadius() {
+        pollutionGrid();
+        return maxPollutionRadius;
+    }
+
+    /**
+     * Zapewnia pojemność tablic miast co najmniej równą podanej.
+     *
+     * @param capacity wymagana pojemność
+     */
+    void ensureCityCapacity(int capacity) {
+        if (capacity <= cityId.length) {
+            return;
+        }
+        int size = Math.max(capacity, cityId.length * 2);
+        cityId = Arrays.copyOf(cityId, size);
+        cityX = Arrays.copyOf(cityX, size);
+        cityY = Arrays.copyOf(cityY, size);
+        cityPopulation = Arrays.copyOf(cityPopulation, size);
+        cityOriginalPopulation = Arrays.copyOf(cityOriginalPopulation, size);
+        cityEnergyUsage = Arrays.copyOf(cityEnergyUsage, size);
+        cityPollution = Arrays.copyOf(cityPollution, size);
+        cityReactorIndex = Arrays.copyOf(cityReactorIndex, size);
+    }
+
+    /**
+     * Zapewnia pojemność tablic reaktorów co najmniej równą podanej.
+     *
+     * @param capacity wymagana pojemność
+     */
+    void ensureReactorCapacity(int capacity) {
+        if (capacity <= reactorId.length) {
+            return;
+        }
+        int size = Math.max(capacity, reactorId.length * 2);
+        reactorId = Arrays.copyOf(reactorId, size);
+        reactorX = Arrays.copyOf(reactorX, size);
+        reactorY = Arrays.copyOf(reactorY, size);
+        reactorLevel = Arrays.copyOf(reactorLevel, size);
+        reactorMaxPower = Arrays.copyOf(reactorMaxPower, size);
+        reactorCurrentPower = Arrays.copyOf(reactorCurrentPower, size);
+        reactorDurability = Arrays.copyOf(reactorDurability, size);
+        reactorActive = Arrays.copyOf(reactorActive, size);
+    }
+
+    /**
+     * Zapewnia pojemność tablic zanieczyszczeń co najmniej równą podanej.
+     *
+     * @param capacity wymagana pojemność
+     */
+    void ensurePollutionCapacity(int capacity) {
+        if (capacity <= pollutionId.length) {
+            return;
+        }
+        int size = Math.max(capacity, pollutionId.length * 2);
+        pollutionId = Arrays.copyOf(pollutionId, size);
+        pollutionX = Arrays.copyOf(pollutionX, size);
+        pollutionY = Arrays.copyOf(pollutionY, size);
+        pollutionRadius = Arrays.copyOf(pollutionRadius, size);
+        pollutionActive = Arrays.copyOf(pollutionActive, size);
+    }
+
+    /**
+     * Tworzy niezależną kopię migawki (tablice przycięte do liczby obiektów).
+     *
+     * @return kopia migawki
+     */
+    WorldSnapshot copy() {
+        WorldSnapshot copy = new WorldSnapshot(0, 0, 0);
+        copy.step = step;
+        copy.width = width;
+        copy.height = height;
+        copy.windDirection = windDirection;
+        copy.stateDigest = stateDigest;
+        copy.cityCount = cityCount;
+        copy.cityId = Arrays.copyOf(cityId, cityCount);
+        copy.cityX = Arrays.copyOf(cityX, cityCount);
+        copy.cityY = Arrays.copyOf(cityY, cityCount);
+        copy.cityPopulation = Arrays.copyOf(cityPopulation, cityCount);
+        copy.cityOriginalPopulation = Arrays.copyOf(cityOriginalPopulation, cityCount);
+        copy.cityEnergyUsage = Arrays.copyOf(cityEnergyUsage, cityCount);
+        copy.cityPollution = Arrays.copyOf(cityPollution, cityCount);
+        copy.cityReactorIndex = Arrays.copyOf(cityReactorIndex, cityCount);
+        copy.reactorCount = reactorCount;
+        copy.reactorId = Arrays.copyOf(reactorId, reactorCount);
+        copy.reactorX = Arrays.copyOf(reactorX, reactorCount);
+        copy.reactorY = Arrays.copyOf(reactorY, reactorCount);
+        copy.reactorLevel = Arrays.copyOf(reactorLevel, reactorCount);
+        copy.reactorMaxPower = Arrays.copyOf(reactorMaxPower, reactorCount);
+        copy.reactorCurrentPower = Arrays.copyOf(reactorCurrentPower, reactorCount);
+        copy.reactorDurability = Arrays.copyOf(reactorDurability, reactorCount);
+        copy.reactorActive = Arrays.copyOf(reactorActive, reactorCount);
+        copy.pollutionCount = pollutionCount;
+        copy.pollutionId = Arrays.copyOf(pollutionId, pollutionCount);
+        copy.pollutionX = Arrays.copyOf(pollutionX, pollutionCount);
+        copy.pollutionY = Arrays.copyOf(pollutionY, pollutionCount);
+        copy.pollutionRadius = Arrays.copyOf(pollutionRadius, pollutionCount);
+        copy.pollutionActive = Arrays.copyOf(pollutionActive, pollutionCount);
+        return copy;
+    }
+
+    /**
+     * Tworzy tablice miast o podanej pojemności.
+     *
+     * @param capacity pojemność tablic
+     */
+    private void allocateCities(int capacity) {
+        cityId = new int[capacity];
+        cityX = new int[capacity];
+        cityY = new int[capacity];
+        cityPopulation = new int[capacity];
+        cityOriginalPopulation = new int[capacity];
+        cityEnergyUsage = new float[capacity];
+        cityPollution = new float[capacity];
+        cityReactorIndex = new int[capacity];
+    }
+
+    /**
+     * Tworzy tablice reaktorów o podanej pojemności.
+     *
+     * @param capacity pojemność tablic
+     */
+    private void allocateReactors(int capacity) {
+        reactorId = new int[capacity];
+        reactorX = new int[capacity];
+        reactorY = new int[capacity];
+        reactorLevel = new int[capacity];
+        reactorMaxPower = new float[capacity];
+        reactorCurrentPower = new float[capacity];
+        reactorDurability = new float[capacity];
+        reactorActive = new boolean[capacity];
+    }
+
+    /**
+     * Tworzy tablice zanieczyszczeń o podanej pojemności.
+     *
+     * @param capacity pojemność tablic
+     */
+    private void allocatePollutions(int capacity) {
+        pollutionId = new int[capacity];
+        pollutionX = new int[capacity];
+        pollutionY = new int[capacity];
+        pollutionRadius = new float[capacity];
+        pollutionActive = new boolean[capacity];
+    }
+}
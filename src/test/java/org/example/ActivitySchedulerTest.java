@@ -0,0 +1,71 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActivitySchedulerTest {
+
+    private static City connectedCity(int x, int y, Reactor reactor) {
+        City city = new City(1, new int[]{x, y, 0}, 10000);
+        city.connectWithReactor(reactor);
+        return city;
+    }
+
+    @Test
+    void maxIntervalFor_followsToleranceAndCap() {
+        assertEquals(16, ActivityScheduler.maxIntervalFor(0.05, 16));
+        assertEquals(3, ActivityScheduler.maxIntervalFor(0.02, 16));
+        assertEquals(1, ActivityScheduler.maxIntervalFor(0.0, 16));
+    }
+
+    @Test
+    void quietCity_isSkippedWithGrowingIntervalAndCaughtUp() {
+        ActivityScheduler scheduler = new ActivityScheduler(500, 500, 50, 0.05, 8);
+        City city = connectedCity(300, 300, new Reactor(2, new int[]{310, 300, 0}, 2, null));
+        scheduler.markHotRegions(List.of());
+
+        for (int step = 0; step < 200; step++) {
+            if (scheduler.scheduleUpdate(city)) {
+                city.update();
+            }
+        }
+
+        assertEquals(8, city.getUpdateInterval());
+        assertTrue(scheduler.getSkippedFraction() > 0.8);
+        assertTrue(city.getPopulation() > 10000);
+        assertEquals(City.GROWTH_DEVIATION * Math.sqrt(7), scheduler.getMaxErrorBound(), 1e-12);
+        assertTrue(scheduler.getMeanErrorBound() <= scheduler.getMaxErrorBound());
+    }
+
+    @Test
+    void cityNearActivePollution_isUpdatedEveryStep() {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 5, 5);
+        Reactor reactor = new Reactor(2, new int[]{100, 100, 0}, 2, null);
+        ActivityScheduler scheduler = new ActivityScheduler(500, 500, 50, 0.05, 8);
+        City city = connectedCity(120, 100, reactor);
+        scheduler.markHotRegions(List.of(new Pollution(3, new int[]{100, 100, 1}, reactor, "N", map)));
+
+        for (int step = 0; step < 20; step++) {
+            assertTrue(scheduler.scheduleUpdate(city));
+            city.update();
+        }
+
+        assertEquals(1, city.getUpdateInterval());
+        assertEquals(0, scheduler.getSkippedUpdates());
+    }
+
+    @Test
+    void catchUpSkippedSteps_appliesExpectedGrowth() {
+        City city = new City(1, new int[]{10, 10, 0}, 10000);
+        for (int i = 0; i < 10; i++) {
+            city.skipStep();
+        }
+
+        assertEquals(10, city.catchUpSkippedSteps());
+        assertEquals(Math.round(10000 * Math.pow(1 + City.EXPECTED_GROWTH, 10)), city.getPopulation());
+        assertEquals(0, city.catchUpSkippedSteps());
+    }
+}
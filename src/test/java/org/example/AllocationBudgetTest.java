@@ -0,0 +1,143 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Budżety alokacji kroku symulacji w stanie ustalonym. Świat z ustalonym ziarnem jest rozgrzewany
+ * (JIT), a następnie mierzona jest średnia liczba bajtów przydzielonych przez wątek testu na krok
+ * w każdej fazie. Przekroczenie budżetu oznacza, że do pętli kroku wróciły alokacje.
+ * W stanie ustalonym fazy nie przydzielają nic (zmierzone 0 B/krok; sporadycznie kilkaset bajtów
+ * na cały pomiar), a budżety zostawiają jedynie margines na takie pojedyncze alokacje.
+ */
+class AllocationBudgetTest {
+    /** Budżet fazy {@link TerrainMap#update()} (bajty na krok). */
+    private static final long MAP_UPDATE_BUDGET = 16;
+    /** Budżet fazy logowania stanu {@link Simulation#logCurrentState()} (bajty na krok). */
+    private static final long LOGGING_BUDGET = 16;
+    /** Budżet pełnego kroku {@link Simulation#step()} (bajty na krok). */
+    private static final long FULL_STEP_BUDGET = 16;
+
+    private static final int WARMUP_STEPS = 2000;
+    private static final int MEASURED_STEPS = 500;
+    private static final long SEED = 20240601L;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void requireAllocationCounters() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private static long bytesPerStep(Runnable phase) {
+        return bytesPerStep(phase, WARMUP_STEPS, MEASURED_STEPS);
+    }
+
+    private static long bytesPerStep(Runnable phase, int warmupSteps, int measuredSteps) {
+        for (int i = 0; i < warmupSteps; i++) {
+            phase.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < measuredSteps; i++) {
+            phase.run();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / measuredSteps;
+    }
+
+    private static Simulation seededSimulation() {
+        return Simulation.headless(800, 800, 60, 30, 40, 20, SEED);
+    }
+
+    @Test
+    void mapUpdate_staysWithinBudget() {
+        TerrainMap map = seededSimulation().getTerrain();
+
+        long perStep = bytesPerStep(map::update);
+
+        assertTrue(perStep <= MAP_UPDATE_BUDGET,
+                "TerrainMap.update() przydziela " + perStep + " B/krok (budżet " + MAP_UPDATE_BUDGET + " B)");
+    }
+
+    @Test
+    void entityUpdates_allocateNothing() {
+        TerrainMap map = seededSimulation().getTerrain();
+        map.setObjectInfoEnabled(false);
+        for (int i = 0; i < WARMUP_STEPS / 10; i++) {
+            map.update();
+        }
+
+        long perStep = bytesPerStep(() -> {
+            for (int i = 0; i < map.getCityCount(); i++) {
+                map.getCity(i).update();
+            }
+            // Wyłączony reaktor z niepodłączonymi jeszcze miastami może wybuchać wielokrotnie
+            // (nowe zanieczyszczenie to tworzenie obiektu, nie aktualizacja), dlatego jest pomijany.
+            for (int i = 0; i < map.getReactorCount(); i++) {
+                Reactor reactor = map.getReactor(i);
+                if (reactor.checkActivity()) {
+                    reactor.update();
+                }
+            }
+        });
+
+        assertEquals(0, perStep, "aktualizacja miast i reaktorów przydziela " + perStep + " B/krok");
+    }
+
+    @Test
+    void activePlumes_pollutionPhaseAllocatesNothing() {
+        TerrainMap map = new TerrainMap(new int[]{400, 400}, 100, 10, SEED);
+        map.setObjectInfoEnabled(false);
+        for (int x = 20; x < 400; x += 40) {
+            for (int y = 20; y < 400; y += 40) {
+                map.addCity(new City(map.getCityCount() + 1, new int[]{x, y, 0}, 5000));
+            }
+        }
+        // Reaktor w zasięgu wyszukiwania skupiska, ale poza promieniem każdego z jego członków.
+        Reactor bystander = new Reactor(1, new int[]{100, 121, 0}, 1, map);
+        map.addReactor(bystander);
+        Reactor source = new Reactor(2, new int[]{0, 0, 0}, 4, map);
+        int[][] plumes = {{100, 100}, {104, 100}, {101, 97}, {220, 220}, {300, 120}};
+        for (int i = 0; i < plumes.length; i++) {
+            map.addPollution(new Pollution(i + 1, new int[]{plumes[i][0], plumes[i][1], 0}, source,
+                    WindDirection.N, map));
+        }
+
+        // Zanieczyszczenia żyją ok. 50 kroków, więc cały pomiar mieści się w ich czasie życia.
+        long perStep = bytesPerStep(map::updatePollutions, 15, 25);
+
+        assertEquals(plumes.length, map.getPollutions().stream().filter(Pollution::checkActivity).count());
+        assertTrue(map.getCity(2 * 10 + 2).getPollutionLevel() > 0);
+        assertTrue(bystander.checkActivity());
+        assertEquals(0, perStep, "faza zanieczyszczeń TerrainMap.update() przydziela " + perStep + " B/krok");
+    }
+
+    @Test
+    void stateLogging_staysWithinBudget() {
+        Simulation simulation = seededSimulation();
+        simulation.step();
+
+        long perStep = bytesPerStep(simulation::logCurrentState);
+
+        assertTrue(perStep <= LOGGING_BUDGET,
+                "Simulation.logCurrentState() przydziela " + perStep + " B/krok (budżet " + LOGGING_BUDGET + " B)");
+    }
+
+    @Test
+    void fullStep_staysWithinBudget() {
+        Simulation simulation = seededSimulation();
+
+        long perStep = bytesPerStep(simulation::step);
+
+        assertTrue(perStep <= FULL_STEP_BUDGET,
+                "Simulation.step() przydziela " + perStep + " B/krok (budżet " + FULL_STEP_BUDGET + " B)");
+    }
+}
@@ -1,6 +1,11 @@
 package org.example;
 
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ConfigLoaderTest {
@@ -18,4 +23,69 @@ class ConfigLoaderTest {
         assertTrue(config.getSimulationDuration() > 0);
         assertTrue(config.getCityGenerationFrequency() > 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void with_returnsIndependentConfig() {
+        ConfigLoader base = ConfigLoader.getInstance();
+        ConfigLoader changed = base.with("limits.cities.max", "3");
+        assertEquals(3, changed.getMaxCities());
+        assertNotEquals(3, base.getMaxCities());
+        assertEquals(base.getSimulationDuration(), changed.getSimulationDuration());
+    }
+
+    @Test
+    void fromProperties_fillsMissingAndInvalidKeysWithDefaults() {
+        Properties properties = new Properties();
+        properties.setProperty("limits.cities.max", "abc");
+        properties.setProperty("visualizer.pick.radius", "20");
+
+        ConfigLoader config = ConfigLoader.fromProperties(properties);
+
+        assertEquals(10, config.getMaxCities());
+        assertEquals(100, config.getSimulationDuration());
+        assertEquals("DROP_OLDEST", config.getEventsBackpressurePolicy());
+        assertEquals(20, config.getInspectorPickRadius());
+    }
+
+    @Test
+    void fromArguments_appliesSetOptionsAndKeepsOtherArguments() throws Exception {
+        List<String> remaining = new ArrayList<>();
+        ConfigLoader config = ConfigLoader.fromArguments(
+                new String[]{"--set", "simulation.duration=7", "--verify", "--set", "limits.reactors.max=2", "50"},
+                remaining);
+        assertEquals(7, config.getSimulationDuration());
+        assertEquals(2, config.getMaxReactors());
+        assertEquals(List.of("--verify", "50"), remaining);
+        assertEquals(7, ConfigLoader.fromArguments(config.toArguments().toArray(new String[0]), new ArrayList<>())
+                .getSimulationDuration());
+        assertThrows(IllegalArgumentException.class,
+                () -> ConfigLoader.fromArguments(new String[]{"--set", "bez-wartosci"}, new ArrayList<>()));
+    }
+
+    @Test
+    void simulationsWithDifferentConfigs_runConcurrently() throws Exception {
+        ConfigLoader plain = ConfigLoader.getInstance().with("multirate.enabled", "false");
+        ConfigLoader multirate = ConfigLoader.getInstance().with("multirate.enabled", "true");
+        Simulation a = Simulation.headless(500, 500, 5, 3, 5, 3, 11, plain);
+        Simulation b = Simulation.headless(500, 500, 5, 3, 5, 3, 11, multirate);
+        a.getTerrain().setObjectInfoEnabled(false);
+        b.getTerrain().setObjectInfoEnabled(false);
+
+        Thread other = new Thread(() -> {
+            for (int i = 0; i < 50; i++) {
+                b.step();
+            }
+        });
+        other.start();
+        for (int i = 0; i < 50; i++) {
+            a.step();
+        }
+        other.join();
+
+        assertSame(plain, a.getTerrain().getConfig());
+        assertSame(multirate, b.getTerrain().getConfig());
+        assertNull(a.getTerrain().getActivityScheduler());
+        assertNotNull(b.getTerrain().getActivityScheduler());
+        assertTrue(b.getTerrain().getActivityScheduler().getPerformedUpdates() > 0);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContingencyAnalysisTest {
+
+    private static Reactor reactor(TerrainMap map, int x, int y, int level) {
+        Reactor reactor = new Reactor(map.getReactors().size() + 1, new int[]{x, y, 0}, level, map);
+        map.addReactor(reactor);
+        return reactor;
+    }
+
+    private static City city(TerrainMap map, int x, int y, int population, Reactor supplier) {
+        City city = new City(map.getCities().size() + 1, new int[]{x, y, 0}, population);
+        map.addCity(city);
+        city.connectWithReactor(supplier);
+        supplier.addCity(city);
+        return city;
+    }
+
+    @Test
+    void ranking_putsReactorWithoutReplacementFirst() {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 10, 10);
+        Reactor a = reactor(map, 100, 100, 4);
+        reactor(map, 200, 100, 4);
+        Reactor c = reactor(map, 400, 400, 4);
+        reactor(map, 450, 450, 1);
+        City c1 = city(map, 110, 100, 60000, a);
+        city(map, 90, 110, 60000, a);
+        city(map, 410, 410, 500000, c);
+        city(map, 390, 420, 500000, c);
+
+        List<ContingencyAnalysis.Impact> impacts = new ContingencyAnalysis(map).run();
+
+        assertEquals(4, impacts.size());
+        ContingencyAnalysis.Impact worst = impacts.get(0);
+        assertEquals(c.getId(), worst.reactorId());
+        assertEquals(2, worst.orphanedCities());
+        assertEquals(0, worst.reconnectedCities());
+        assertEquals(1000000, worst.unpoweredPopulation());
+        assertEquals(500.0, worst.unservedDemand(), 1e-3);
+        ContingencyAnalysis.Impact lossOfA = impacts.stream().filter(i -> i.reactorId() == a.getId()).findFirst().orElseThrow();
+        assertEquals(2, lossOfA.reconnectedCities());
+        assertEquals(0, lossOfA.unpoweredPopulation());
+        assertSame(a, c1.getReactor());
+    }
+
+    @Test
+    void scenario_accumulatesLoadOnReplacementReactor() {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 10, 10);
+        Reactor failing = reactor(map, 300, 320, 4);
+        reactor(map, 330, 280, 4);
+        for (int i = 0; i < 8; i++) {
+            city(map, 300 + i * 5, 300, 400000, failing);
+        }
+
+        ContingencyAnalysis analysis = new ContingencyAnalysis(map);
+        ContingencyAnalysis.Impact impact = analysis.evaluate(0);
+
+        assertEquals(8, impact.orphanedCities());
+        assertTrue(impact.reconnectedCities() >= 5 && impact.reconnectedCities() <= 7);
+        assertEquals((8L - impact.reconnectedCities()) * 400000, impact.unpoweredPopulation());
+        assertEquals(impact, analysis.evaluate(0));
+    }
+}
@@ -0,0 +1,54 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeterminismVerifierTest {
+
+    private static long digestFromScratch(TerrainMap map) {
+        long sum = 0;
+        for (MapObject object : map.getCities()) sum += object.getStateHash();
+        for (MapObject object : map.getReactors()) sum += object.getStateHash();
+        for (MapObject object : map.getPollutions()) sum += object.getStateHash();
+        return StateDigest.combine(sum, map.getWind().ordinal());
+    }
+
+    @Test
+    void incrementalDigest_matchesDigestComputedFromScratch() {
+        Simulation simulation = Simulation.headless(600, 600, 30, 30, 8, 4, 42);
+        for (int i = 0; i < 25; i++) {
+            simulation.step();
+            assertEquals(digestFromScratch(simulation.getTerrain()), simulation.getStateDigest());
+        }
+    }
+
+    @Test
+    void sameSeed_givesIdenticalRunsAcrossEngines() throws IOException {
+        DeterminismVerifier verifier = new DeterminismVerifier(600, 600, 8, 4, 7);
+        for (DeterminismVerifier.StandardEngine engine : DeterminismVerifier.StandardEngine.values()) {
+            assertNull(verifier.verify(DeterminismVerifier.StandardEngine.DIRECT, engine, 20), engine.name());
+        }
+    }
+
+    @Test
+    void divergence_reportsFirstStepAndEntity() throws IOException {
+        DeterminismVerifier verifier = new DeterminismVerifier(600, 600, 8, 4, 7);
+        DeterminismVerifier.Engine withOutage = simulation -> {
+            simulation.step();
+            if (simulation.getStepCounter() == 3) {
+                simulation.forceOutage(1);
+            }
+            return simulation;
+        };
+
+        DeterminismVerifier.Divergence divergence =
+                verifier.verify(DeterminismVerifier.StandardEngine.DIRECT, withOutage, 10);
+
+        assertNotNull(divergence);
+        assertEquals(3, divergence.step());
+        assertEquals("reaktor #1", divergence.entity());
+    }
+}
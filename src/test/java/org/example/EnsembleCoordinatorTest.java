@@ -0,0 +1,68 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnsembleCoordinatorTest {
+
+    @Test
+    void run_mergesWorkerResultsIdenticallyToInProcessRuns() {
+        List<EnsembleCoordinator.WorkUnit> units = EnsembleCoordinator.units(4, 500L, 6, 400, 20, 10, 8, 3);
+
+        EnsembleCoordinator.Result result = new EnsembleCoordinator(2, 2, List.of()).run(units);
+
+        double populationSum = 0;
+        for (EnsembleCoordinator.WorkUnit unit : units) {
+            Simulation simulation = unit.createSimulation();
+            for (int i = 0; i < unit.steps(); i++) {
+                simulation.step();
+            }
+            assertEquals(Long.valueOf(simulation.getStateDigest()), result.digests().get(unit.id()));
+            populationSum += (long) simulation.getAggregates().getTotalPopulation();
+        }
+        assertEquals(List.of(), result.failedUnits());
+        assertEquals(4, result.statistics().getRuns(6));
+        assertEquals(populationSum / 4, result.statistics().getMeanPopulation(6), 1e-6);
+    }
+
+    @Test
+    void run_retriesFailingUnitAndReportsItAfterLastAttempt() {
+        List<EnsembleCoordinator.WorkUnit> units = List.of(
+                new EnsembleCoordinator.WorkUnit(0, 1L, 3, 400, 20, 10, 5, 2),
+                new EnsembleCoordinator.WorkUnit(1, 2L, 3, 100, 20, 10, 5, 2));
+
+        EnsembleCoordinator.Result result = new EnsembleCoordinator(1, 3, List.of()).run(units);
+
+        assertEquals(List.of(1), result.failedUnits());
+        assertEquals(2, result.retries());
+        assertEquals(1, result.statistics().getRuns(3));
+    }
+
+    @Test
+    void statistics_mergeTracesAndWriteOneRowPerStep() throws IOException {
+        EnsembleStatistics statistics = new EnsembleStatistics(2);
+        EnsembleStatistics.Trace first = new EnsembleStatistics.Trace(2);
+        first.add(3, 1, WindDirection.N.ordinal(), 1000, 5.0f, 1);
+        first.add(4, 1, WindDirection.N.ordinal(), 1200, 6.0f, 1);
+        EnsembleStatistics.Trace second = new EnsembleStatistics.Trace(2);
+        second.add(5, 2, WindDirection.S.ordinal(), 3000, 7.0f, 2);
+        second.add(6, 2, WindDirection.N.ordinal(), 2800, 8.0f, 0);
+
+        statistics.merge(first);
+        statistics.merge(second);
+        Path output = Files.createTempDirectory("zespol").resolve("statystyki.csv");
+        statistics.writeCsv(output);
+
+        assertEquals(2000.0, statistics.getMeanPopulation(1), 1e-9);
+        assertEquals(1000.0, statistics.getPopulationDeviation(1), 1e-9);
+        List<String> lines = Files.readAllLines(output);
+        assertEquals(3, lines.size());
+        assertEquals("2;2;5.00;1.50;N;2000.0;800.0;7.00;6.00;8.00;0.50", lines.get(2));
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityInspectorTest {
+
+    private static WorldSnapshot snapshot() {
+        WorldSnapshot snapshot = new WorldSnapshot(2, 1, 0);
+        snapshot.width = 500;
+        snapshot.height = 500;
+        snapshot.cityCount = 2;
+        snapshot.reactorCount = 1;
+        snapshot.setReactor(0, 7, 100, 100, 2, 800f, 120f, 0.9f, true);
+        snapshot.setCity(0, 3, 130, 100, 5000, 4000, 60f, 1.5f, 0);
+        snapshot.setCity(1, 4, 400, 400, 2000, 2000, 24f, 0f, -1);
+        return snapshot;
+    }
+
+    @Test
+    void pick_returnsEntityNearestToPoint() {
+        WorldSnapshot snapshot = snapshot();
+
+        assertEquals(new EntityInspector.Selection(EntityInspector.Kind.REACTOR, 0),
+                EntityInspector.pick(snapshot, 107, 107, 10));
+        assertEquals(new EntityInspector.Selection(EntityInspector.Kind.CITY, 0),
+                EntityInspector.pick(snapshot, 140, 110, 10));
+        assertNull(EntityInspector.pick(snapshot, 250, 250, 10));
+    }
+
+    @Test
+    void describe_formatsOnlySelectedEntity() {
+        WorldSnapshot snapshot = snapshot();
+
+        List<String> reactor = EntityInspector.describe(snapshot,
+                new EntityInspector.Selection(EntityInspector.Kind.REACTOR, 0));
+        List<String> city = EntityInspector.describe(snapshot,
+                new EntityInspector.Selection(EntityInspector.Kind.CITY, 1));
+
+        assertEquals("Reaktor 7 (Poziom 2)", reactor.get(0));
+        assertTrue(reactor.contains("Połączonych miast: 1"));
+        assertEquals("Miasto 4", city.get(0));
+        assertTrue(city.contains("Reaktor: BRAK"));
+        assertTrue(EntityInspector.describe(snapshot,
+                new EntityInspector.Selection(EntityInspector.Kind.CITY, 5)).isEmpty());
+    }
+}
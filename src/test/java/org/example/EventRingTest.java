@@ -0,0 +1,129 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingTest {
+
+    @Test
+    void constructor_rejectsCapacityThatIsNotPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new EventRing(100));
+    }
+
+    @Test
+    void handlers_receiveEveryEventInOrderEvenWhenRingWraps() {
+        EventRing ring = new EventRing(16);
+        City city = new City(7, new int[]{10, 20, 0}, 1000);
+        AtomicLong fastSum = new AtomicLong();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        AtomicInteger slowCount = new AtomicInteger();
+        AtomicInteger batches = new AtomicInteger();
+        long[] expected = {0};
+        ring.addHandler("szybki", (event, sequence, endOfBatch) -> {
+            if (sequence != expected[0]++ || event.getStep() != sequence) {
+                outOfOrder.incrementAndGet();
+            }
+            fastSum.addAndGet(event.getRelatedId());
+            if (endOfBatch) {
+                batches.incrementAndGet();
+            }
+        });
+        ring.addHandler("wolny", (event, sequence, endOfBatch) -> {
+            if (sequence % 1000 == 0) {
+                Thread.yield();
+            }
+            slowCount.incrementAndGet();
+        });
+
+        int events = 50_000;
+        for (int i = 0; i < events; i++) {
+            ring.publish(StepEvent.Type.RECONNECTION, i, city, i % 10, 1.0);
+        }
+        ring.close();
+
+        assertEquals(0, outOfOrder.get());
+        assertEquals(events, slowCount.get());
+        assertEquals(45L * events / 10, fastSum.get());
+        assertTrue(batches.get() >= 1 && batches.get() <= events);
+    }
+
+    @Test
+    void failingHandler_isDetachedAndDoesNotStallProducer() {
+        EventRing ring = new EventRing(8);
+        ring.addHandler("wadliwy", (event, sequence, endOfBatch) -> {
+            throw new IllegalStateException("test");
+        });
+        Reactor reactor = new Reactor(1, new int[]{5, 5, 0}, 2, null);
+
+        for (int i = 0; i < 1000; i++) {
+            ring.publish(StepEvent.Type.EXPLOSION, i, reactor, 0, 0.0);
+        }
+        ring.close();
+
+        assertEquals(999, ring.getCursor());
+    }
+
+    @Test
+    void handlerThrowingError_isDetachedAndDoesNotStallProducer() {
+        EventRing ring = new EventRing(8);
+        ring.addHandler("przepelniony", (event, sequence, endOfBatch) -> {
+            throw new StackOverflowError("test");
+        });
+        Reactor reactor = new Reactor(1, new int[]{5, 5, 0}, 2, null);
+
+        for (int i = 0; i < 1000; i++) {
+            ring.publish(StepEvent.Type.EXPLOSION, i, reactor, 0, 0.0);
+        }
+        ring.close();
+
+        assertEquals(999, ring.getCursor());
+    }
+
+    @Test
+    void publisher_forwardsSimulationEventsToAttachedRing() {
+        StepEventPublisher publisher = new StepEventPublisher(4, StepEventPublisher.BackpressurePolicy.DROP_OLDEST);
+        EventRing ring = new EventRing(64);
+        publisher.attachRing(ring);
+        AtomicInteger summaries = new AtomicInteger();
+        ring.addHandler("podsumowania", (event, sequence, endOfBatch) -> {
+            if (event.getType() == StepEvent.Type.STEP_SUMMARY) {
+                summaries.incrementAndGet();
+            }
+        });
+
+        publisher.beginStep(3);
+        publisher.publish(StepEvent.Type.NEW_CITY, new City(1, new int[]{1, 1, 0}, 100), 0, 100);
+        publisher.publishSummary(1, 0, 0, 100, 5.0f, "N");
+        publisher.close();
+
+        assertEquals(1, ring.getCursor());
+        assertEquals(1, summaries.get());
+    }
+
+    @Test
+    void simulation_createsRingOnlyWhenRequested() {
+        Simulation simulation = Simulation.headless(400, 400, 5, 5, 3, 2, 5L);
+        StepEventPublisher publisher = (StepEventPublisher) simulation.getEventPublisher();
+        Simulation fork = simulation.fork();
+
+        assertNull(publisher.getRing());
+        EventRing ring = simulation.getEventRing();
+        AtomicInteger summaries = new AtomicInteger();
+        ring.addHandler("podsumowania", (event, sequence, endOfBatch) -> {
+            if (event.getType() == StepEvent.Type.STEP_SUMMARY) {
+                summaries.incrementAndGet();
+            }
+        });
+        simulation.step();
+        ring.close();
+
+        assertSame(ring, simulation.getEventRing());
+        assertSame(ring, publisher.getRing());
+        assertNull(((StepEventPublisher) fork.getEventPublisher()).getRing());
+        assertEquals(1, summaries.get());
+    }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameExporterTest {
+
+    private static List<WorldSnapshot> run(int steps) {
+        Simulation simulation = Simulation.headless(500, 500, 10, 5, 6, 3, 42L);
+        List<WorldSnapshot> snapshots = new ArrayList<>();
+        snapshots.add(simulation.snapshot());
+        for (int i = 0; i < steps; i++) {
+            simulation.step();
+            snapshots.add(simulation.snapshot());
+        }
+        return snapshots;
+    }
+
+    @Test
+    void archive_containsOneDecodablePngPerSnapshotInStepOrder() throws IOException {
+        Path archive = Files.createTempDirectory("klatki").resolve("przebieg.zip");
+        List<WorldSnapshot> snapshots = run(6);
+
+        try (FrameExporter exporter = new FrameExporter(archive, 120, 90, 3, 2)) {
+            for (WorldSnapshot snapshot : snapshots) {
+                exporter.submit(snapshot);
+            }
+        }
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(archive))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                names.add(entry.getName());
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(in.readAllBytes()));
+                assertEquals(120, image.getWidth());
+                assertEquals(90, image.getHeight());
+            }
+        }
+        assertEquals(snapshots.size(), names.size());
+        assertEquals("klatka_000000.png", names.get(0));
+        assertEquals("klatka_000006.png", names.get(6));
+    }
+
+    @Test
+    void directory_receivesNumberedPngFiles() throws IOException {
+        Path directory = Files.createTempDirectory("klatki");
+        FrameExporter exporter = new FrameExporter(directory, 100, 100, 2, 4);
+        for (WorldSnapshot snapshot : run(3)) {
+            exporter.submit(snapshot);
+        }
+        exporter.close();
+
+        assertEquals(4, exporter.getWrittenFrames());
+        assertTrue(Files.exists(directory.resolve("klatka_000003.png")));
+        assertThrows(IllegalStateException.class, () -> exporter.submit(run(0).get(0)));
+    }
+
+    @Test
+    void render_drawsMapLayersOverBackground() throws IOException {
+        FrameExporter exporter = new FrameExporter(Files.createTempDirectory("klatki"), 200, 200, 1, 1);
+        BufferedImage image = exporter.render(run(2).get(2));
+
+        int background = image.getRGB(199, 199);
+        boolean drawn = false;
+        for (int y = 30; y < 200 && !drawn; y++) {
+            for (int x = 0; x < 200 && !drawn; x++) {
+                drawn = image.getRGB(x, y) != background;
+            }
+        }
+        assertTrue(drawn);
+    }
+}
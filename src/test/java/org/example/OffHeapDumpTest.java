@@ -0,0 +1,134 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapDumpTest {
+
+    @Test
+    void addCities_copiesColumnsAndDisconnectsCities() {
+        try (OffHeapDump dump = OffHeapDump.allocate(4, 1, 1)) {
+            dump.addCity(5, 6, 700);
+            int first = dump.addCities(new int[]{10, 20}, new int[]{30, 40}, new int[]{1000, 2000}, 2);
+
+            assertEquals(1, first);
+            assertEquals(3, dump.size(OffHeapDump.Kind.CITY));
+            assertEquals(20, dump.getInt(OffHeapDump.Kind.CITY, OffHeapDump.X, 2));
+            assertEquals(2000, dump.getInt(OffHeapDump.Kind.CITY, OffHeapDump.CITY_ORIGINAL_POPULATION, 2));
+            assertEquals(-1, dump.getInt(OffHeapDump.Kind.CITY, OffHeapDump.CITY_REACTOR, 1));
+            assertTrue(dump.isActive(OffHeapDump.Kind.CITY, 2));
+            assertThrows(IllegalStateException.class,
+                    () -> dump.addCities(new int[]{1, 2}, new int[]{1, 2}, new int[]{1, 2}, 2));
+            assertThrows(IndexOutOfBoundsException.class,
+                    () -> dump.getInt(OffHeapDump.Kind.CITY, OffHeapDump.X, 3));
+        }
+    }
+
+    @Test
+    void capture_dumpsMapObjectsWithReactorIndices() {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 5, 5);
+        Reactor reactor = new Reactor(1, new int[]{120, 100, 0}, 4, map);
+        map.addReactor(reactor);
+        map.addCity(new City(1, new int[]{100, 100, 0}, 10000));
+        map.updateConnections();
+
+        try (OffHeapDump dump = OffHeapDump.allocate(5, 5, 10)) {
+            dump.capture(map);
+
+            assertEquals(1, dump.size(OffHeapDump.Kind.REACTOR));
+            assertEquals(4, dump.getInt(OffHeapDump.Kind.REACTOR, OffHeapDump.REACTOR_LEVEL, 0));
+            assertEquals(reactor.getMaxPower(), dump.getFloat(OffHeapDump.Kind.REACTOR, OffHeapDump.REACTOR_MAX_POWER, 0));
+            assertEquals(0, dump.getInt(OffHeapDump.Kind.CITY, OffHeapDump.CITY_REACTOR, 0));
+            assertEquals(10000, dump.getInt(OffHeapDump.Kind.CITY, OffHeapDump.CITY_POPULATION, 0));
+        }
+    }
+
+    @Test
+    void export_writesMapStateThatDoesNotTrackLaterChanges() throws IOException {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 5, 5);
+        Reactor reactor = new Reactor(1, new int[]{120, 100, 0}, 2, map);
+        map.addReactor(reactor);
+        map.addCity(new City(1, new int[]{100, 100, 0}, 5000));
+        Path path = Files.createTempFile("zrzut", ".bin");
+        path.toFile().deleteOnExit();
+
+        OffHeapDump.export(map, path);
+        reactor.deactivateObject();
+
+        try (OffHeapDump dump = OffHeapDump.open(path)) {
+            assertEquals(1, dump.capacity(OffHeapDump.Kind.CITY));
+            assertEquals(0, dump.capacity(OffHeapDump.Kind.PLUME));
+            assertEquals(120, dump.getInt(OffHeapDump.Kind.REACTOR, OffHeapDump.X, 0));
+            assertTrue(dump.isActive(OffHeapDump.Kind.REACTOR, 0));
+        }
+    }
+
+    @Test
+    void create_persistsSegmentsInMappedFile() throws IOException {
+        Path path = Files.createTempFile("zrzut", ".bin");
+        path.toFile().deleteOnExit();
+        try (OffHeapDump dump = OffHeapDump.create(path, 2, 1, 3)) {
+            dump.addCity(1, 2, 3000);
+            dump.addPlume(7, 8, 4.5f, 9.0f, 12);
+            dump.setFloat(OffHeapDump.Kind.CITY, OffHeapDump.CITY_POLLUTION, 0, 0.25f);
+            dump.force();
+        }
+
+        try (OffHeapDump dump = OffHeapDump.open(path)) {
+            assertEquals(1, dump.size(OffHeapDump.Kind.CITY));
+            assertEquals(3, dump.capacity(OffHeapDump.Kind.PLUME));
+            assertEquals(0.25f, dump.getFloat(OffHeapDump.Kind.CITY, OffHeapDump.CITY_POLLUTION, 0));
+            assertEquals(4.5f, dump.getFloat(OffHeapDump.Kind.PLUME, OffHeapDump.PLUME_RADIUS, 0));
+            assertEquals(12, dump.getInt(OffHeapDump.Kind.PLUME, OffHeapDump.PLUME_MAX_AGE, 0));
+        }
+    }
+
+    @Test
+    void scenarioLoader_readsExportedMapAsScenarioOfActiveObjects() throws IOException {
+        TerrainMap map = new TerrainMap(new int[]{600, 400}, 5, 5);
+        map.addReactor(new Reactor(1, new int[]{120, 100, 0}, 3, map));
+        Reactor stopped = new Reactor(2, new int[]{300, 300, 0}, 2, map);
+        map.addReactor(stopped);
+        stopped.deactivateObject();
+        map.addCity(new City(1, new int[]{100, 100, 0}, 5000));
+        Path path = Files.createTempFile("zrzut", ".bin");
+        path.toFile().deleteOnExit();
+
+        OffHeapDump.export(map, path);
+        ScenarioLoader.Scenario scenario = ScenarioLoader.read(path);
+        TerrainMap restored = scenario.createMap();
+
+        assertEquals(600, scenario.width());
+        assertEquals(400, scenario.height());
+        assertArrayEquals(new int[]{100}, scenario.cityX());
+        assertArrayEquals(new int[]{5000}, scenario.cityPopulation());
+        assertArrayEquals(new int[]{120}, scenario.reactorX());
+        assertArrayEquals(new int[]{3}, scenario.reactorLevel());
+        assertEquals(1, restored.getCityCount());
+        assertEquals(1, restored.getReactorCount());
+    }
+
+    @Test
+    void toScenario_rejectsReactorLevelOutOfRange() {
+        try (OffHeapDump dump = OffHeapDump.allocate(0, 1, 0)) {
+            dump.capture(new TerrainMap(new int[]{500, 500}, 5, 5));
+            dump.addReactor(10, 10, 7, 100.0f);
+
+            assertThrows(IOException.class, dump::toScenario);
+        }
+    }
+
+    @Test
+    void open_rejectsFileThatIsNotAStore() throws IOException {
+        Path path = Files.createTempFile("zrzut", ".bin");
+        path.toFile().deleteOnExit();
+        Files.write(path, new byte[128]);
+
+        assertThrows(IOException.class, () -> OffHeapDump.open(path));
+    }
+}
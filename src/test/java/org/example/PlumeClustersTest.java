@@ -0,0 +1,68 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlumeClustersTest {
+
+    @Test
+    void nearbyPlumesMergeAndDistantOnesStaySeparate() {
+        int[] xs = {100, 102, 300, 101};
+        int[] ys = {100, 101, 300, 99};
+        float[] radii = {10, 5, 8, 12};
+        float[] weights = {1, 2, 4, 8};
+
+        PlumeClusters clusters = new PlumeClusters(xs, ys, radii, weights, new int[]{0, 1, 2, 3}, 4, 4);
+
+        assertEquals(2, clusters.size());
+        assertEquals(100, clusters.getX(0));
+        assertEquals(3, clusters.getMemberCount(0));
+        assertEquals(12, clusters.getRadius(0), 1e-6);
+        assertEquals(11, clusters.getTotalWeight(0), 1e-6);
+        assertEquals(12 + Math.sqrt(2), clusters.getReach(0), 1e-4);
+        assertEquals(3, clusters.getMember(0, 0));
+        assertEquals(1, clusters.getMemberCount(1));
+        assertEquals(4, clusters.getTotalWeight(1), 1e-6);
+    }
+
+    @Test
+    void weightWithin_countsOnlyMembersReachingTheDistance() {
+        PlumeClusters clusters = new PlumeClusters(new int[]{50, 50, 51}, new int[]{50, 50, 50},
+                new float[]{10, 5, 7}, new float[]{1, 2, 4}, new int[]{0, 1, 2}, 3, 2);
+
+        assertEquals(7, clusters.weightWithin(0, 3), 1e-6);
+        assertEquals(5, clusters.weightWithin(0, 7), 1e-6);
+        assertEquals(1, clusters.weightWithin(0, 9.5), 1e-6);
+        assertEquals(0, clusters.weightWithin(0, 11), 1e-6);
+    }
+
+    @Test
+    void plumesThatDriftApartSplitIntoSeparateClusters() {
+        int[] members = {0, 1};
+        PlumeClusters together = new PlumeClusters(new int[]{200, 203}, new int[]{200, 200},
+                new float[]{6, 6}, null, members, 2, 4);
+        PlumeClusters apart = new PlumeClusters(new int[]{200, 220}, new int[]{200, 200},
+                new float[]{6, 6}, null, members, 2, 4);
+
+        assertEquals(1, together.size());
+        assertEquals(2, together.getTotalWeight(0), 1e-6);
+        assertEquals(2, apart.size());
+    }
+
+    @Test
+    void group_replacesPreviousClusters() {
+        PlumeClusters clusters = new PlumeClusters();
+        clusters.group(new int[]{10, 300, 600}, new int[]{10, 300, 600}, new float[]{3, 4, 5}, null,
+                new int[]{0, 1, 2}, 3, 4);
+
+        clusters.group(new int[]{200, 202}, new int[]{200, 200}, new float[]{6, 9}, new float[]{1, 2},
+                new int[]{0, 1}, 2, 4);
+
+        assertEquals(1, clusters.size());
+        assertEquals(200, clusters.getX(0));
+        assertEquals(9, clusters.getRadius(0), 1e-6);
+        assertEquals(1, clusters.getMember(0, 0));
+        assertEquals(3, clusters.getTotalWeight(0), 1e-6);
+    }
+}
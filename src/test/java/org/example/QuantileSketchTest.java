@@ -0,0 +1,52 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    @Test
+    void quantile_staysWithinRelativeAccuracy() {
+        QuantileSketch sketch = new QuantileSketch(0.02);
+        for (int i = 1; i <= 1000; i++) {
+            sketch.add(i);
+        }
+
+        assertEquals(1000, sketch.getCount());
+        assertEquals(500, sketch.quantile(0.5), 500 * 0.02);
+        assertEquals(900, sketch.quantile(0.9), 900 * 0.02);
+        assertEquals(1000, sketch.quantile(1.0), 1000 * 0.02);
+    }
+
+    @Test
+    void removeAndReplace_undoEarlierValues() {
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        sketch.add(0);
+        sketch.add(10);
+        sketch.add(50);
+        sketch.replace(50, 80);
+        sketch.remove(0);
+
+        assertEquals(2, sketch.getCount());
+        assertEquals(10, sketch.quantile(0), 0.1);
+        assertEquals(80, sketch.quantile(1), 0.8);
+    }
+
+    @Test
+    void merge_combinesCountsOfBothSketches() {
+        QuantileSketch low = new QuantileSketch(0.02);
+        QuantileSketch high = new QuantileSketch(0.02);
+        for (int i = 0; i < 100; i++) {
+            low.add(1 + i * 0.01);
+            high.add(100 + i);
+        }
+
+        low.merge(high);
+
+        assertEquals(200, low.getCount());
+        assertTrue(low.quantile(0.25) < 2.1);
+        assertTrue(low.quantile(0.75) > 98);
+        assertThrows(IllegalArgumentException.class, () -> low.merge(new QuantileSketch(0.05)));
+    }
+}
@@ -0,0 +1,34 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunReplayTest {
+
+    @Test
+    void seek_restoresRecordedStateFromKeyframesAndDeltas() throws Exception {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 5, 5);
+        City city = new City(1, new int[]{100, 100, 0}, 10000);
+        map.addCity(city);
+        Path file = File.createTempFile("przebieg", ".rnsr").toPath();
+        file.toFile().deleteOnExit();
+
+        try (RunRecorder recorder = new RunRecorder(file.toString(), 500, 500, 4)) {
+            for (int step = 0; step < 10; step++) {
+                city.setPollutionLevel(step * 2.0f);
+                recorder.record(WorldSnapshot.capture(map, step));
+            }
+        }
+
+        RunReplay replay = RunReplay.load(file);
+        assertEquals(10, replay.getFrameCount());
+        assertEquals(14.0f, replay.seekStep(7).cityPollution[0]);
+        assertEquals(4.0f, replay.seekStep(2).cityPollution[0]);
+        assertEquals(6.0f, replay.seekStep(3).cityPollution[0]);
+        assertEquals(1, replay.seekStep(9).cityCount);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalingBenchmarkTest {
+
+    @Test
+    void generateWorld_keepsDensityAndShares() {
+        TerrainMap map = new ScalingBenchmark("test", 1, 7L).generateWorld(2000);
+
+        assertEquals(400, map.getWidth());
+        assertTrue(map.getCityCount() > 1500 && map.getCityCount() <= 1600);
+        assertTrue(map.getReactorCount() > 150 && map.getReactorCount() <= 200);
+        assertTrue(map.getPollutions().size() > 150 && map.getPollutions().size() <= 200);
+    }
+
+    @Test
+    void measure_resultsRoundTripThroughCsvFile() throws IOException {
+        Path output = Files.createTempDirectory("wydajnosc").resolve("skalowanie.csv");
+        ScalingBenchmark.Result result = new ScalingBenchmark("abc123", 3, 7L).measure(500);
+
+        ScalingBenchmark.append(output, List.of(result));
+        ScalingBenchmark.append(output, List.of(result));
+        List<ScalingBenchmark.Result> loaded = ScalingBenchmark.load(output);
+
+        assertEquals(3, result.steps());
+        assertTrue(result.stepsPerSecond() > 0);
+        assertTrue(result.p99Millis() >= result.p50Millis());
+        assertEquals(3, Files.readAllLines(output).size());
+        assertEquals(2, loaded.size());
+        assertEquals("abc123", loaded.get(1).label());
+        assertEquals(result.cities(), loaded.get(0).cities());
+    }
+
+    @Test
+    void scalingExponent_isOneForLinearSlowdown() {
+        ScalingBenchmark.Result small = new ScalingBenchmark.Result("a", 1000, 0, 0, 0, 400, 1, 100.0, 0, 0, 0, 0, 0);
+        ScalingBenchmark.Result large = new ScalingBenchmark.Result("a", 10000, 0, 0, 0, 400, 1, 10.0, 0, 0, 0, 0, 0);
+
+        assertEquals(1.0, ScalingBenchmark.scalingExponent(small, large), 1e-9);
+    }
+}
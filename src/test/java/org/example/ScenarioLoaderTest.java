@@ -0,0 +1,94 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScenarioLoaderTest {
+
+    private static Path csv(String content) throws IOException {
+        Path path = Files.createTempFile("scenariusz", ".csv");
+        path.toFile().deleteOnExit();
+        Files.writeString(path, content, StandardCharsets.US_ASCII);
+        return path;
+    }
+
+    @Test
+    void readCsv_parsesObjectsInFileOrder() throws IOException {
+        Path path = csv("# rozmieszczenie testowe\r\nmap,500,400\r\ncity,10,20,30000\r\n\r\n"
+                + "reactor, 100 ,200,3\r\ncity,40,50,12000");
+
+        ScenarioLoader.Scenario scenario = ScenarioLoader.read(path);
+
+        assertEquals(500, scenario.width());
+        assertEquals(400, scenario.height());
+        assertArrayEquals(new int[]{10, 40}, scenario.cityX());
+        assertArrayEquals(new int[]{30000, 12000}, scenario.cityPopulation());
+        assertArrayEquals(new int[]{100}, scenario.reactorX());
+        assertArrayEquals(new int[]{3}, scenario.reactorLevel());
+    }
+
+    @Test
+    void readCsv_splitsLargeFileIntoChunksWithoutLosingLines() throws IOException {
+        StringBuilder content = new StringBuilder("map,1000,1000\n");
+        int count = 150000;
+        for (int i = 0; i < count; i++) {
+            content.append("city,").append(i % 1000).append(',').append(i / 1000).append(',').append(i).append('\n');
+        }
+        Path path = csv(content.toString());
+
+        ScenarioLoader.Scenario scenario = ScenarioLoader.read(path, new ForkJoinPool(4));
+
+        assertEquals(count, scenario.cityCount());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, scenario.cityPopulation()[i]);
+        }
+    }
+
+    @Test
+    void binaryRoundTrip_andBulkInsertIntoMap() throws IOException {
+        ScenarioLoader.Scenario source = ScenarioLoader.read(csv(
+                "map,500,500\ncity,10,10,20000\ncity,10,10,25000\ncity,50,60,40000\nreactor,200,200,2\n"));
+        Path binary = Files.createTempFile("scenariusz", ".bin");
+        binary.toFile().deleteOnExit();
+
+        ScenarioLoader.writeBinary(binary, source);
+        ScenarioLoader.Scenario loaded = ScenarioLoader.read(binary);
+        TerrainMap map = loaded.createMap();
+
+        assertEquals(3, loaded.cityCount());
+        assertArrayEquals(source.cityPopulation(), loaded.cityPopulation());
+        assertEquals(2, map.getCities().size());
+        assertEquals(1, map.getReactors().size());
+        assertEquals(2, map.getCities().get(1).getId());
+        assertEquals(40000, map.getCities().get(1).getPopulation());
+    }
+
+    @Test
+    void binaryReactorLevelOutOfRange_isRejectedWithRecordOffset() throws IOException {
+        ScenarioLoader.Scenario source = new ScenarioLoader.Scenario(500, 500,
+                new int[]{10}, new int[]{10}, new int[]{1000},
+                new int[]{100, 200}, new int[]{100, 200}, new int[]{2, 5});
+        Path binary = Files.createTempFile("scenariusz", ".bin");
+        binary.toFile().deleteOnExit();
+        ScenarioLoader.writeBinary(binary, source);
+
+        IOException ex = assertThrows(IOException.class, () -> ScenarioLoader.read(binary));
+        assertTrue(ex.getMessage().contains("1-4"));
+        assertTrue(ex.getMessage().contains("bajt 48"));
+    }
+
+    @Test
+    void invalidLine_reportsByteOffset() throws IOException {
+        Path path = csv("map,500,500\ncity,10,x,100\n");
+
+        IOException ex = assertThrows(IOException.class, () -> ScenarioLoader.read(path));
+        assertTrue(ex.getMessage().contains("bajt 12"));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionSchedulerTest {
+
+    @Test
+    void sessionFailingWithError_failsItsRequestsAndKeepsWorkerAlive() throws Exception {
+        TerrainMap broken = new TerrainMap(new int[]{400, 400}, 5, 5, 3L) {
+            @Override
+            public void update() {
+                throw new StackOverflowError("test");
+            }
+        };
+        Path checkpoints = Path.of(System.getProperty("java.io.tmpdir"));
+        try (SessionScheduler scheduler = new SessionScheduler(1, 4)) {
+            SimulationSession failing = new SimulationSession(1, Simulation.headless(broken, 2, 1),
+                    checkpoints.resolve("sesja-test-1.ckpt"), scheduler);
+            SimulationSession healthy = new SimulationSession(2, Simulation.headless(400, 400, 5, 5, 2, 1, 3L),
+                    checkpoints.resolve("sesja-test-2.ckpt"), scheduler);
+
+            CompletableFuture<Integer> failed = failing.requestSteps(3);
+            ExecutionException error = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+            assertTrue(error.getCause() instanceof StackOverflowError);
+
+            int step = healthy.requestSteps(3).get(10, TimeUnit.SECONDS);
+            assertEquals(3, step);
+        }
+    }
+}
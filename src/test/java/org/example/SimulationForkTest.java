@@ -0,0 +1,91 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationForkTest {
+
+    @Test
+    void fork_startsFromSameStateAndLeavesParentUntouched() {
+        Simulation parent = Simulation.headless(500, 500, 20, 20, 6, 4);
+        for (int i = 0; i < 3; i++) {
+            parent.step();
+        }
+        String parentState = SimulationServer.stateJson(parent.snapshot());
+
+        Simulation child = parent.fork();
+        assertEquals(parentState, SimulationServer.stateJson(child.snapshot()));
+
+        assertTrue(child.forceOutage(1));
+        for (int i = 0; i < 5; i++) {
+            child.step();
+        }
+        assertEquals(8, child.getStepCounter());
+        assertEquals(parentState, SimulationServer.stateJson(parent.snapshot()));
+        assertTrue(parent.snapshot().reactorActive[0]);
+        assertFalse(child.snapshot().reactorActive[0]);
+    }
+
+    @Test
+    void fixedWind_persistsAcrossStepsOfTheBranch() {
+        Simulation parent = Simulation.headless(500, 500, 20, 20, 4, 3);
+        Simulation first = parent.fork();
+        Simulation second = parent.fork();
+        first.setFixedWind(WindDirection.NE);
+        second.setFixedWind(WindDirection.SW);
+
+        for (int i = 0; i < 3; i++) {
+            first.step();
+            second.step();
+            parent.step();
+        }
+
+        assertEquals("NE", first.snapshot().windDirection);
+        assertEquals("SW", second.snapshot().windDirection);
+        assertEquals(3, parent.getStepCounter());
+    }
+
+    @Test
+    void occupancyGrid_copiesChunkOnlyOnWrite() {
+        OccupancyGrid grid = new OccupancyGrid(500, 500, 2);
+        grid.occupy(10, 20, 0);
+        OccupancyGrid branch = grid.fork();
+
+        branch.occupy(11, 20, 0);
+        grid.occupy(400, 400, 1);
+
+        assertTrue(branch.isOccupied(10, 20, 0));
+        assertTrue(branch.isOccupied(11, 20, 0));
+        assertFalse(grid.isOccupied(11, 20, 0));
+        assertFalse(branch.isOccupied(400, 400, 1));
+        assertFalse(grid.isOccupied(10, 20, 1));
+    }
+
+    @Test
+    void forkSteppedAfterParent_addsExplosionPlumesOnlyToItself() {
+        ConfigLoader config = ConfigLoader.getInstance().with(Map.of(
+                "reactor.malfunction.base.chance", "10",
+                "reactor.durability.decay.malfunction", "0.8",
+                "reactor.explosion.durability.threshold", "0.5",
+                "reactor.explosion.power.threshold", "0"));
+        Simulation parent = Simulation.headless(500, 500, 20, 20, 8, 4, 11L, config);
+        Simulation child = parent.fork();
+
+        // Pierwszy krok rodzica kopiuje tabele (wytrzymałość reaktorów jest jeszcze za duża na wybuch),
+        // a rozgałęzienie zostaje ostatnim posiadaczem oryginalnych obiektów.
+        parent.step();
+        int parentPlumes = parent.getTerrain().getPollutionCount();
+        for (int i = 0; i < 30 && child.getTerrain().getPollutionCount() == 0; i++) {
+            child.step();
+        }
+
+        assertTrue(child.getTerrain().getPollutionCount() > 0);
+        assertEquals(parentPlumes, parent.getTerrain().getPollutionCount());
+        for (Pollution pollution : child.getTerrain().getPollutions()) {
+            assertFalse(parent.getTerrain().getPollutions().contains(pollution));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationServerTest {
+
+    private SimulationServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = new SimulationServer(0, 2, 5, 200, Files.createTempDirectory("sesje"), 1000);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    private HttpResponse<String> send(String method, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void session_stepsAndSurvivesEvictionToCheckpoint() throws Exception {
+        HttpResponse<String> created = send("POST", "/sessions?width=500&height=500&cities=3&reactors=2");
+        assertEquals(201, created.statusCode());
+        assertTrue(created.body().startsWith("{\"id\":1,"));
+
+        HttpResponse<String> stepped = send("POST", "/sessions/1/step?count=12");
+        assertEquals(200, stepped.statusCode());
+        assertTrue(stepped.body().contains("\"krok\":12"));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!send("GET", "/sessions").body().contains("\"w_pamieci\":false")) {
+            assertTrue(System.currentTimeMillis() < deadline, "Sesja nie została usunięta z pamięci");
+            Thread.sleep(20);
+        }
+
+        HttpResponse<String> restored = send("GET", "/sessions/1/state");
+        assertEquals(200, restored.statusCode());
+        assertTrue(restored.body().contains("\"krok\":12"));
+        assertTrue(send("POST", "/sessions/1/step?count=3").body().contains("\"krok\":15"));
+    }
+
+    @Test
+    void invalidRequests_returnErrors() throws Exception {
+        assertEquals(404, send("GET", "/sessions/7").statusCode());
+        assertEquals(400, send("POST", "/sessions?width=100").statusCode());
+        send("POST", "/sessions?width=500&height=500");
+        assertEquals(400, send("POST", "/sessions/1/step?count=0").statusCode());
+        assertEquals(200, send("DELETE", "/sessions/1").statusCode());
+        assertEquals(404, send("GET", "/sessions/1").statusCode());
+    }
+}
@@ -0,0 +1,61 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialGridTest {
+
+    @Test
+    void forEachInRect_returnsOnlyPointsInsideRectangle() {
+        int[] xs = {10, 100, 150, 900};
+        int[] ys = {10, 100, 160, 900};
+        SpatialGrid grid = new SpatialGrid(1000, 1000, 32, xs, ys, xs.length);
+
+        List<Integer> found = new ArrayList<>();
+        grid.forEachInRect(90, 90, 200, 200, found::add);
+
+        assertEquals(List.of(1, 2), found.stream().sorted().toList());
+    }
+
+    @Test
+    void densityLevel_aggregatesCountsIntoLargerTiles() {
+        int[] xs = {1, 40, 70, 500};
+        int[] ys = {1, 40, 70, 500};
+        SpatialGrid grid = new SpatialGrid(1000, 1000, 32, xs, ys, xs.length);
+
+        SpatialGrid.DensityLevel level = grid.densityLevel(128);
+
+        assertEquals(128, level.tileSize);
+        assertEquals(3, level.count[0]);
+        assertEquals(111, level.sumX[0]);
+    }
+
+    @Test
+    void nearest_returnsClosestPointWithinDistance() {
+        int[] xs = {10, 100, 120, 900};
+        int[] ys = {10, 100, 100, 900};
+        SpatialGrid grid = new SpatialGrid(1000, 1000, 32, xs, ys, xs.length);
+
+        assertEquals(2, grid.nearest(115, 104, 50));
+        assertEquals(1, grid.nearest(90, 90, 50));
+        assertEquals(-1, grid.nearest(500, 500, 50));
+    }
+
+    @Test
+    void rebuild_replacesPointsAndDensityInPlace() {
+        SpatialGrid grid = new SpatialGrid(1000, 1000, 32, new int[]{10, 500}, new int[]{10, 500}, 2);
+        grid.densityLevel(128);
+
+        grid.rebuild(new int[]{600, 40, 70}, new int[]{600, 40, 70}, 3);
+
+        List<Integer> found = new ArrayList<>();
+        grid.forEachInRect(0, 0, 100, 100, found::add);
+        assertEquals(List.of(1, 2), found.stream().sorted().toList());
+        assertEquals(-1, grid.nearest(500, 500, 50));
+        assertEquals(2, grid.densityLevel(128).count[0]);
+    }
+}
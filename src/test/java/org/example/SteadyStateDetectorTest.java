@@ -0,0 +1,35 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SteadyStateDetectorTest {
+
+    @Test
+    void observe_detectsSteadyStateAfterFullWindowOfConstantAggregates() {
+        SteadyStateDetector detector = new SteadyStateDetector(5, 0.001, 0.001);
+        for (int step = 0; step < 4; step++) {
+            assertFalse(detector.observe(10, 0, 450000, 225.0, 0));
+        }
+        assertTrue(detector.observe(10, 0, 450000, 225.0, 0));
+    }
+
+    @Test
+    void observe_rejectsActivePlumesAndChangingAggregates() {
+        SteadyStateDetector detector = new SteadyStateDetector(3, 0.001, 0.001);
+        detector.observe(10, 2, 450000, 225.0, 1);
+        detector.observe(10, 2, 450000, 225.0, 0);
+        assertFalse(detector.observe(10, 2, 450000, 225.0, 0));
+        assertTrue(detector.observe(10, 2, 450000, 225.0, 0));
+
+        assertFalse(detector.observe(10, 1, 450000, 225.0, 0));
+        detector.observe(10, 1, 460000, 230.0, 0);
+        assertFalse(detector.observe(10, 1, 470000, 235.0, 0));
+    }
+
+    @Test
+    void constructor_throwsForTooSmallWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new SteadyStateDetector(1, 0.1, 0.1));
+    }
+}
@@ -0,0 +1,80 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StepEventPublisherTest {
+
+    /** Subskrybent zapamiętujący populacje z podsumowań, żądający zdarzeń dopiero na sygnał. */
+    private static class RecordingSubscriber implements Flow.Subscriber<StepEvent> {
+        final List<Integer> populations = new CopyOnWriteArrayList<>();
+        final CountDownLatch subscribed = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscribed.countDown();
+        }
+
+        @Override
+        public void onNext(StepEvent event) {
+            populations.add(event.getTotalPopulation());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    @Test
+    void dropOldest_keepsNewestEventsWithoutBlockingPublisher() throws InterruptedException {
+        StepEventPublisher publisher = new StepEventPublisher(2, StepEventPublisher.BackpressurePolicy.DROP_OLDEST);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.subscribed.await(5, TimeUnit.SECONDS));
+
+        for (int i = 1; i <= 5; i++) {
+            publisher.beginStep(i);
+            publisher.publishSummary(1, 1, 1, i * 1000, 1.0f, "N");
+        }
+        publisher.close();
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(4000, 5000), subscriber.populations);
+        assertEquals(3, publisher.getDroppedCount());
+    }
+
+    @Test
+    void conflate_replacesPendingSummaryOfSameKind() throws InterruptedException {
+        StepEventPublisher publisher = new StepEventPublisher(2, StepEventPublisher.BackpressurePolicy.CONFLATE);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.subscribed.await(5, TimeUnit.SECONDS));
+
+        City city = new City(7, new int[]{100, 100, 0}, 20000);
+        publisher.publish(StepEvent.Type.NEW_CITY, city, 0, city.getPopulation());
+        publisher.publishSummary(1, 1, 1, 1000, 1.0f, "N");
+        publisher.publishSummary(1, 1, 1, 2000, 1.0f, "N");
+        publisher.close();
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 2000), subscriber.populations);
+    }
+}
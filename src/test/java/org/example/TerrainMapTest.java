@@ -27,4 +27,83 @@ class TerrainMapTest {
         double dist = map.calculateDistance(new int[]{0, 0, 0}, new int[]{3, 4, 0});
         assertEquals(5.0, dist, 0.001);
     }
+
+    @Test
+    void updateConnections_connectsNewCityToNearestReactor() {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 5, 5);
+        Reactor near = new Reactor(1, new int[]{120, 100, 0}, 4, map);
+        map.addReactor(near);
+        map.addReactor(new Reactor(2, new int[]{200, 100, 0}, 4, map));
+        City city = new City(1, new int[]{100, 100, 0}, 10000);
+        map.addCity(city);
+
+        map.updateConnections();
+
+        assertSame(near, city.getReactor());
+    }
+
+    @Test
+    void deactivatedReactor_queuesItsCitiesForReconnection() {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 5, 5);
+        Reactor first = new Reactor(1, new int[]{120, 100, 0}, 4, map);
+        Reactor second = new Reactor(2, new int[]{160, 100, 0}, 4, map);
+        map.addReactor(first);
+        map.addReactor(second);
+        City city = new City(1, new int[]{100, 100, 0}, 10000);
+        map.addCity(city);
+        map.updateConnections();
+
+        first.deactivateObject();
+        map.updateConnections();
+
+        assertSame(second, city.getReactor());
+        assertTrue(first.getConnectedCities().isEmpty());
+        assertEquals(1, second.getConnectedCities().size());
+    }
+
+    @Test
+    void colocatedPlumes_applyTheirCombinedIntensityOnce() {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 5, 5);
+        map.setObjectInfoEnabled(false);
+        City city = new City(1, new int[]{100, 100, 0}, 10000);
+        map.addCity(city);
+        Reactor source = new Reactor(1, new int[]{400, 400, 0}, 1, null);
+        Pollution first = new Pollution(1, new int[]{102, 100, 1}, source, "N", map);
+        Pollution second = new Pollution(2, new int[]{103, 101, 1}, source, "N", map);
+        map.addPollution(first);
+        map.addPollution(second);
+
+        map.update();
+
+        float expected = Math.min(100.0f, first.getIntensity() + second.getIntensity());
+        assertEquals(expected, city.getPollutionLevel(), 1e-4);
+        assertTrue(city.getPollutionLevel() > first.getIntensity());
+    }
+
+    @Test
+    void clusteredPlumes_affectObjectsFromEachMemberCenter() {
+        TerrainMap map = new TerrainMap(new int[]{500, 500}, 5, 5);
+        Pollution anchor = new Pollution(1, new int[]{100, 100, 1},
+                new Reactor(1, new int[]{400, 400, 0}, 1, null), "N", map);
+        Pollution member = new Pollution(2, new int[]{103, 100, 1},
+                new Reactor(2, new int[]{400, 450, 0}, 4, null), "N", map);
+        member.advance();
+        member.advance();
+        int reach = (int) (member.getRadius() + 4.1f);
+        assertTrue(anchor.getRadius() + 4.1f < reach - 3);
+        Reactor insideMember = new Reactor(3, new int[]{103 + reach, 100, 0}, 1, map);
+        Reactor outsideMembers = new Reactor(4, new int[]{100 - reach, 100, 0}, 1, map);
+        City city = new City(1, new int[]{103, 100 + reach, 0}, 10000);
+        map.addPollution(anchor);
+        map.addPollution(member);
+        map.addReactor(insideMember);
+        map.addReactor(outsideMembers);
+        map.addCity(city);
+
+        map.updatePollutions();
+
+        assertFalse(insideMember.checkActivity());
+        assertTrue(outsideMembers.checkActivity());
+        assertEquals(member.getIntensity(), city.getPollutionLevel(), 1e-4);
+    }
 }
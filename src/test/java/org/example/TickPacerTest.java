@@ -0,0 +1,73 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TickPacerTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void schedule_keepsFixedRateRegardlessOfStepTime() {
+        long[] now = {0};
+        TickPacer pacer = new TickPacer(10, false, 5, () -> now[0]);
+
+        now[0] = 30 * MS;
+        assertEquals(100 * MS, pacer.schedule(now[0]));
+        now[0] = 170 * MS;
+        assertEquals(200 * MS, pacer.schedule(now[0]));
+
+        assertEquals(0, pacer.getLateTicks());
+    }
+
+    @Test
+    void schedule_catchesUpSmallOverrunsAndDropsLargeOnes() {
+        long[] now = {0};
+        TickPacer pacer = new TickPacer(10, false, 2, () -> now[0]);
+
+        assertEquals(100 * MS, pacer.schedule(150 * MS));
+        assertEquals(200 * MS, pacer.schedule(160 * MS));
+        assertEquals(300 * MS, pacer.schedule(290 * MS));
+        assertEquals(900 * MS, pacer.schedule(900 * MS));
+        assertEquals(1000 * MS, pacer.schedule(910 * MS));
+
+        assertEquals(2, pacer.getLateTicks());
+        assertEquals(5, pacer.getDroppedTicks());
+        assertEquals(500.0, pacer.getMaxLagMillis(), 1e-9);
+    }
+
+    @Test
+    void maxSpeed_neverWaits() {
+        TickPacer pacer = new TickPacer(1, true, 0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            pacer.awaitNextTick();
+        }
+
+        assertEquals(0, pacer.getPeriodNanos());
+        assertEquals(1000, pacer.getTicks());
+        assertTrue(System.nanoTime() - start < 1_000 * MS);
+    }
+
+    @Test
+    void awaitNextTick_holdsCadenceWithoutDrift() throws InterruptedException {
+        TickPacer pacer = new TickPacer(50, false, 5);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(10);
+            pacer.awaitNextTick();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(elapsed >= 200 * MS, "czas " + elapsed / MS + " ms");
+        assertTrue(elapsed < 270 * MS, "czas " + elapsed / MS + " ms");
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new TickPacer(0, false, 1));
+    }
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransmissionNetworkTest {
+
+    private static TransmissionNetwork solveFromScratch(List<Reactor> reactors, List<City> cities, double lineCapacity) {
+        TransmissionNetwork network = new TransmissionNetwork(1000, 1000, 100, lineCapacity);
+        reactors.forEach(network::addReactor);
+        cities.forEach(network::addCity);
+        network.repair();
+        return network;
+    }
+
+    @Test
+    void lineCapacity_limitsPowerDeliveredToDistantCity() {
+        Reactor reactor = new Reactor(1, new int[]{50, 50, 0}, 4, null);
+        City city = new City(1, new int[]{950, 950, 0}, 100000);
+        TransmissionNetwork network = solveFromScratch(List.of(reactor), List.of(city), 20);
+
+        assertEquals(40.0, network.getCitySupply(city), 1e-6);
+        assertEquals(10.0, network.getUnservedDemand(), 1e-4);
+        assertEquals(40.0, network.getReactorOutput(reactor), 1e-6);
+    }
+
+    @Test
+    void reactorFailure_isRepairedIncrementallyToSameMaximumFlow() {
+        Random random = new Random(7);
+        List<Reactor> reactors = new ArrayList<>();
+        List<City> cities = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            reactors.add(new Reactor(i + 1, new int[]{random.nextInt(1000), random.nextInt(1000), 0}, 1 + random.nextInt(4), null));
+        }
+        for (int i = 0; i < 40; i++) {
+            cities.add(new City(i + 1, new int[]{random.nextInt(1000), random.nextInt(1000), 0}, 15000 + random.nextInt(60000)));
+        }
+        TransmissionNetwork network = solveFromScratch(reactors, cities, 60);
+
+        for (Reactor reactor : reactors.subList(0, 6)) {
+            reactor.deactivateObject();
+            network.reactorFailed(reactor);
+            for (City city : cities) {
+                city.update();
+                network.updateDemand(city);
+            }
+            network.repair();
+
+            TransmissionNetwork expected = solveFromScratch(reactors, cities, 60);
+            assertEquals(expected.getTotalDelivered(), network.getTotalDelivered(), 1e-6);
+            assertEquals(0.0, network.getReactorOutput(reactor), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindDirectionTest {
+
+    @Test
+    void drift_matchesPreviousDriftTable() {
+        assertEquals(0, WindDirection.N.getDriftX());
+        assertEquals(60, WindDirection.N.getDriftY());
+        assertEquals(60, WindDirection.SE.getDriftX());
+        assertEquals(-60, WindDirection.SE.getDriftY());
+        assertEquals(0, WindDirection.C.getDriftX());
+        assertEquals(WindDirection.C, WindDirection.parse("XYZ"));
+    }
+
+    @Test
+    void fromVector_returnsNearestDirectionOrCalm() {
+        assertEquals(WindDirection.NE, WindDirection.fromVector(0.7f, 0.6f, 0.35f));
+        assertEquals(WindDirection.W, WindDirection.fromVector(-1.0f, 0.1f, 0.35f));
+        assertEquals(WindDirection.C, WindDirection.fromVector(0.1f, 0.1f, 0.35f));
+    }
+
+    @Test
+    void windField_relaxesTowardsGlobalWind() {
+        WindField field = new WindField(500, 500, 100, 0.5f, 0.0f, WindDirection.W);
+        assertEquals(WindDirection.W, field.directionAt(250, 250));
+        for (int i = 0; i < 10; i++) {
+            field.update(WindDirection.E, new Random(1));
+        }
+        assertEquals(WindDirection.E, field.directionAt(250, 250));
+        assertEquals(WindDirection.E, field.directionAt(-10, 900));
+    }
+}
@@ -0,0 +1,61 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldAggregatesTest {
+
+    private static void assertMatchesObjects(TerrainMap map) {
+        WorldAggregates aggregates = map.getAggregates();
+        long population = 0;
+        double demand = 0;
+        long[] regionPopulation = new long[aggregates.getRegionCount()];
+        for (City city : map.getCities()) {
+            population += city.getPopulation();
+            demand += city.getEnergyUsage();
+            int[] position = city.getPosition();
+            regionPopulation[aggregates.regionOf(position[0], position[1])] += city.getPopulation();
+        }
+        assertEquals(population, aggregates.getTotalPopulation());
+        assertEquals(demand, aggregates.getTotalEnergyDemand(), 1e-3);
+        assertEquals(map.getReactors().stream().filter(Reactor::checkActivity).count(), aggregates.getActiveReactors());
+        assertEquals(map.getPollutions().stream().filter(Pollution::checkActivity).count(), aggregates.getActivePollutions());
+        assertEquals(map.getCities().size(), aggregates.getCityPollution().getCount());
+        for (int r = 0; r < regionPopulation.length; r++) {
+            assertEquals(regionPopulation[r], aggregates.getRegionPopulation(r));
+        }
+    }
+
+    @Test
+    void incrementalTotals_matchRecountAfterStepsAndFork() {
+        Simulation simulation = Simulation.headless(600, 600, 40, 30, 20, 8, 42L);
+        for (int i = 0; i < 30; i++) {
+            simulation.step();
+        }
+        assertMatchesObjects(simulation.getTerrain());
+
+        Simulation branch = simulation.fork();
+        branch.forceOutage(1);
+        for (int i = 0; i < 10; i++) {
+            branch.step();
+        }
+        assertMatchesObjects(branch.getTerrain());
+        assertMatchesObjects(simulation.getTerrain());
+    }
+
+    @Test
+    void regionalSketches_mergeOverRectangle() {
+        WorldAggregates aggregates = new WorldAggregates(400, 400, 100, 0.02);
+        aggregates.updateCity(aggregates.regionOf(50, 50), 1000, 1.0, Float.NaN, 10);
+        aggregates.updateCity(aggregates.regionOf(150, 50), 2000, 2.0, Float.NaN, 30);
+        aggregates.updateCity(aggregates.regionOf(350, 350), 4000, 4.0, Float.NaN, 90);
+
+        QuantileSketch topLeft = aggregates.cityPollutionIn(0, 0, 199, 199);
+
+        assertEquals(2, topLeft.getCount());
+        assertEquals(30, topLeft.quantile(1), 0.6);
+        assertEquals(7000, aggregates.getTotalPopulation());
+        assertEquals(aggregates.regionOf(350, 350), aggregates.peakDemandRegion());
+    }
+}